@@ -1,5 +1,7 @@
 package dev.webfx.extras.canvas.bar;
 
+import dev.webfx.extras.canvas.layer.ChildDrawer;
+import dev.webfx.extras.canvas.layer.GraphicsContextState;
 import dev.webfx.extras.geometry.Bounds;
 import dev.webfx.extras.geometry.FXBoundsWrapper;
 import dev.webfx.kit.launcher.WebFxKitLauncher;
@@ -15,6 +17,8 @@ import javafx.scene.text.Font;
 import javafx.scene.text.TextAlignment;
 import javafx.stage.Screen;
 
+import java.util.function.BiConsumer;
+
 /**
  * @author Bruno Salmon
  */
@@ -197,6 +201,8 @@ public class BarDrawer {
 
     public BarDrawer drawIcon(Bounds b, GraphicsContext gc) {
         if (isIconSet()) {
+            GraphicsContextState state = GraphicsContextState.of(gc);
+            state.clearClip(gc);
             gc.save();
             clipRect(b.getMinX() + hPadding, b.getMinY(), b.getWidth() - 2 * hPadding, b.getHeight(), gc);
             gc.translate(computeIconX(b), computeIconY(b));
@@ -210,6 +216,7 @@ public class BarDrawer {
             } else
                 gc.drawImage(iconImage, 0, 0);
             gc.restore();
+            state.forgetState(); // because gc.restore() reverted the fill
         }
         return this;
     }
@@ -283,7 +290,8 @@ public class BarDrawer {
             width -= 2 * hPadding;
         }
         double hTextPadding = 5; // hardcoded value for now
-        gc.save();
+        GraphicsContextState state = GraphicsContextState.of(gc);
+        state.save(gc);
         // clip makes canvas operations slower, so we do it only when necessary
         javafx.geometry.Bounds textBounds = WebFxKitLauncher.measureText(text, gc.getFont());
         double canvasWidth = gc.getCanvas().getWidth();
@@ -292,14 +300,14 @@ public class BarDrawer {
         // Clipping the text when it is wider than the visible bar. Note: adding a clip path makes all canvas operation
         // much slower, so it's good to skip that step when not necessary (ie when the text is not wider than the bar).
         if (clipText && textWider)
-            clipRect(x, y, width, height, gc);
-        gc.setFill(textFill);
-        gc.setTextBaseline(VPos.CENTER);
+            state.clipRect(x, y, width, height, gc);
+        state.setFill(textFill, gc);
+        state.setTextBaseline(VPos.CENTER, gc);
         if (isIconSet() && text == middleText) { // Temporary code to put the middle text just after the icon if set
             x = computeIconX(b) + getIconWidth() + 5;
             ta = TextAlignment.LEFT;
-            if (clipText/* && textWider*/)
-                clipRect(b.getMinX(), b.getMinY(), b.getWidth(), b.getHeight(), gc);
+            if (clipText && !textWider) // Note: when the text is wider, it's already clipped within the bar
+                state.clipRect(b.getMinX(), b.getMinY(), b.getWidth(), b.getHeight(), gc);
         } else if (ta == null) { // auto
             // TODO: comment these different cases
             if (x < 0 && x + width > 0) {
@@ -325,9 +333,9 @@ public class BarDrawer {
             x = (Math.max(x, 0) + Math.min(canvasWidth, x + width)) / 2;
         //if (VPos.CENTER == VPos.CENTER)
         y += height / 2;
-        gc.setTextAlign(ta);
+        state.setTextAlign(ta, gc);
         gc.fillText(text, x, y);
-        gc.restore(); // this includes removing the clip path if set
+        state.restore(gc); // this includes removing the clip path if set
     }
 
     public double getTextAreaWidth(Bounds b) {
@@ -335,7 +343,18 @@ public class BarDrawer {
     }
 
     private void setFirstNonNullFont(Font font1, Font font2, GraphicsContext gc) {
-        gc.setFont(font1 != null ? font1 : font2);
+        GraphicsContextState.of(gc).setFont(font1 != null ? font1 : font2, gc);
+    }
+
+    /**
+     * @return a child drawer that sets up this bar drawer for each child (with barSetter) and then draws its bar. As all
+     * the state changes of the bar drawing go through GraphicsContextState, that child drawer doesn't require isolation.
+     */
+    public <C> ChildDrawer<C> toChildDrawer(BiConsumer<C, BarDrawer> barSetter) {
+        return ChildDrawer.withoutIsolation((child, b, gc) -> {
+            barSetter.accept(child, this);
+            drawBar(b, gc);
+        });
     }
 
     // JavaFX bounds compatible API
@@ -358,7 +377,7 @@ public class BarDrawer {
     public static void fillRect(double x, double y, double width, double height, double hPadding, Paint fill, double radius, GraphicsContext gc) {
         if (fill == null || fill == Color.TRANSPARENT)
             return;
-        gc.setFill(fill);
+        GraphicsContextState.of(gc).setFill(fill, gc);
         if (hPadding > 0) {
             x += hPadding;
             width -= 2 * hPadding;
@@ -372,8 +391,9 @@ public class BarDrawer {
     public static void strokeRect(double x, double y, double width, double height, double hPadding, Paint stroke, double radius, GraphicsContext gc) {
         if (stroke == null || stroke == Color.TRANSPARENT)
             return;
-        gc.setStroke(stroke);
-        gc.setLineWidth(1 / Screen.getPrimary().getOutputScaleX());
+        GraphicsContextState state = GraphicsContextState.of(gc);
+        state.setStroke(stroke, gc);
+        state.setLineWidth(1 / Screen.getPrimary().getOutputScaleX(), gc);
         if (hPadding > 0) {
             x += hPadding;
             width -= 2 * hPadding;
@@ -4,6 +4,7 @@ module webfx.extras.canvas.bar {
 
     // Direct dependencies modules
     requires javafx.graphics;
+    requires webfx.extras.canvas.layer;
     requires webfx.extras.geometry;
     requires webfx.kit.launcher;
 
@@ -0,0 +1,41 @@
+package dev.webfx.extras.canvas.bar;
+
+import dev.webfx.extras.canvas.layer.ChildDrawer;
+import javafx.scene.canvas.Canvas;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Benchmark of 20k bars drawn with and without isolation (not run by default, as not named *Test - run it explicitly
+ * with -Dtest=BarDrawerBenchmark). It reports the time and the number of state operations emitted to the canvas for each mode.
+ *
+ * @author Bruno Salmon
+ */
+class BarDrawerBenchmark {
+
+    private static final int BAR_COUNT = 20_000, ROUNDS = 10;
+
+    @Test
+    void drawBars() {
+        ChildDrawer<Integer> barDrawer = BarDrawerTest.newBarChildDrawer();
+        ChildDrawer<Integer> isolatedBarDrawer = barDrawer::drawChild;
+        for (int warmup = 0; warmup < 3; warmup++) {
+            run("isolated", isolatedBarDrawer, false);
+            run("tracking", barDrawer, false);
+        }
+        run("isolated", isolatedBarDrawer, true);
+        run("tracking", barDrawer, true);
+    }
+
+    private static void run(String name, ChildDrawer<Integer> childDrawer, boolean report) {
+        long totalNanos = 0;
+        int operationCount = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            Canvas canvas = new Canvas(1000, 1000);
+            long t0 = System.nanoTime();
+            operationCount = BarDrawerTest.drawBars(childDrawer, BAR_COUNT, canvas.getGraphicsContext2D());
+            totalNanos += System.nanoTime() - t0;
+        }
+        if (report)
+            System.out.println(name + ": " + BAR_COUNT + " bars in " + totalNanos / ROUNDS / 1000 + " us, " + operationCount + " state operations");
+    }
+}
@@ -0,0 +1,130 @@
+package dev.webfx.extras.canvas.bar;
+
+import dev.webfx.extras.canvas.layer.ChildDrawer;
+import dev.webfx.extras.canvas.layer.GraphicsContextSink;
+import dev.webfx.extras.canvas.layer.GraphicsContextState;
+import dev.webfx.extras.geometry.MutableBounds;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class BarDrawerTest {
+
+    // Sink counting all the state operations emitted to the graphics context
+    static final class CountingSink implements GraphicsContextSink {
+        int operationCount;
+
+        @Override
+        public void setFill(Paint fill, GraphicsContext gc) {
+            operationCount++;
+            GraphicsContextSink.super.setFill(fill, gc);
+        }
+
+        @Override
+        public void setStroke(Paint stroke, GraphicsContext gc) {
+            operationCount++;
+            GraphicsContextSink.super.setStroke(stroke, gc);
+        }
+
+        @Override
+        public void setLineWidth(double lineWidth, GraphicsContext gc) {
+            operationCount++;
+            GraphicsContextSink.super.setLineWidth(lineWidth, gc);
+        }
+
+        @Override
+        public void setFont(Font font, GraphicsContext gc) {
+            operationCount++;
+            GraphicsContextSink.super.setFont(font, gc);
+        }
+
+        @Override
+        public void setTextAlign(TextAlignment textAlign, GraphicsContext gc) {
+            operationCount++;
+            GraphicsContextSink.super.setTextAlign(textAlign, gc);
+        }
+
+        @Override
+        public void setTextBaseline(VPos textBaseline, GraphicsContext gc) {
+            operationCount++;
+            GraphicsContextSink.super.setTextBaseline(textBaseline, gc);
+        }
+
+        @Override
+        public void save(GraphicsContext gc) {
+            operationCount++;
+            GraphicsContextSink.super.save(gc);
+        }
+
+        @Override
+        public void restore(GraphicsContext gc) {
+            operationCount++;
+            GraphicsContextSink.super.restore(gc);
+        }
+
+        @Override
+        public void clipRect(double x, double y, double width, double height, GraphicsContext gc) {
+            operationCount++;
+            GraphicsContextSink.super.clipRect(x, y, width, height, gc);
+        }
+    }
+
+    static ChildDrawer<Integer> newBarChildDrawer() {
+        return new BarDrawer()
+                .setRadius(3)
+                .toChildDrawer((i, bar) -> bar.setBackgroundFill(i % 10 == 0 ? Color.ORANGE : Color.LIGHTBLUE));
+    }
+
+    // Draws the bars the way TimeCanvasDrawer.drawVisibleChildren() does (isolated or within a tracking batch), and
+    // returns the number of state operations emitted to the graphics context
+    static int drawBars(ChildDrawer<Integer> childDrawer, int barCount, GraphicsContext gc) {
+        MutableBounds b = new MutableBounds();
+        CountingSink sink = new CountingSink();
+        boolean isolated = childDrawer.isIsolationRequired();
+        gc.save();
+        GraphicsContextState state = isolated ? GraphicsContextState.startPassThrough(gc, sink) : GraphicsContextState.startTracking(gc, sink);
+        for (int i = 0; i < barCount; i++) {
+            b.setX(i % 100 * 10);
+            b.setY(i / 100 * 5);
+            b.setWidth(9);
+            b.setHeight(4);
+            if (isolated)
+                sink.save(gc);
+            childDrawer.drawChild(i, b, gc);
+            if (isolated)
+                sink.restore(gc);
+        }
+        state.stop();
+        gc.restore();
+        return sink.operationCount;
+    }
+
+    @Test
+    void barChildDrawerDoesNotRequireIsolation() {
+        assertFalse(newBarChildDrawer().isIsolationRequired());
+    }
+
+    @Test
+    void barsWithoutIsolationEmitLessCanvasOperations() {
+        ChildDrawer<Integer> barDrawer = newBarChildDrawer();
+        ChildDrawer<Integer> isolatedBarDrawer = barDrawer::drawChild; // same drawing, but isolation required (default)
+        Canvas isolatedCanvas = new Canvas(1000, 1000), trackingCanvas = new Canvas(1000, 1000);
+        int isolatedCount = drawBars(isolatedBarDrawer, 1000, isolatedCanvas.getGraphicsContext2D());
+        int trackingCount = drawBars(barDrawer, 1000, trackingCanvas.getGraphicsContext2D());
+        // Isolated: save, fill & restore for each bar - Tracking: fill only when the colour changes (every 10 bars twice)
+        assertEquals(3000, isolatedCount);
+        assertEquals(200, trackingCount);
+        // Same graphics context state after the drawing pass
+        assertEquals(isolatedCanvas.getGraphicsContext2D().getFill(), trackingCanvas.getGraphicsContext2D().getFill());
+    }
+}
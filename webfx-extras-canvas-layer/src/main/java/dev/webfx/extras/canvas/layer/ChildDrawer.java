@@ -7,4 +7,27 @@ public interface ChildDrawer<T> {
 
     void drawChild(T child, Bounds b, GraphicsContext gc);
 
+    /**
+     * Tells if each child drawing needs to be isolated with gc.save() &amp; gc.restore() (default). Drawers that make all
+     * their state changes through GraphicsContextState (such as BarDrawer) don't need it, and are then called within a
+     * state-tracking batch that skips the redundant state changes.
+     */
+    default boolean isIsolationRequired() {
+        return true;
+    }
+
+    static <T> ChildDrawer<T> withoutIsolation(ChildDrawer<T> childDrawer) {
+        return new ChildDrawer<T>() {
+            @Override
+            public void drawChild(T child, Bounds b, GraphicsContext gc) {
+                childDrawer.drawChild(child, b, gc);
+            }
+
+            @Override
+            public boolean isIsolationRequired() {
+                return false;
+            }
+        };
+    }
+
 }
@@ -0,0 +1,62 @@
+package dev.webfx.extras.canvas.layer;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Paint;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Receiver of the state operations emitted by GraphicsContextState. The default implementation emits them to the
+ * graphics context, but another sink can be passed to GraphicsContextState (ex: to count the emitted operations in a
+ * test, as GraphicsContext is a final class that can't be replaced by a fake).
+ *
+ * @author Bruno Salmon
+ */
+public interface GraphicsContextSink {
+
+    GraphicsContextSink DIRECT = new GraphicsContextSink() { };
+
+    default void setFill(Paint fill, GraphicsContext gc) {
+        gc.setFill(fill);
+    }
+
+    default void setStroke(Paint stroke, GraphicsContext gc) {
+        gc.setStroke(stroke);
+    }
+
+    default void setLineWidth(double lineWidth, GraphicsContext gc) {
+        gc.setLineWidth(lineWidth);
+    }
+
+    default void setFont(Font font, GraphicsContext gc) {
+        gc.setFont(font);
+    }
+
+    default void setTextAlign(TextAlignment textAlign, GraphicsContext gc) {
+        gc.setTextAlign(textAlign);
+    }
+
+    default void setTextBaseline(VPos textBaseline, GraphicsContext gc) {
+        gc.setTextBaseline(textBaseline);
+    }
+
+    default void save(GraphicsContext gc) {
+        gc.save();
+    }
+
+    default void restore(GraphicsContext gc) {
+        gc.restore();
+    }
+
+    default void clipRect(double x, double y, double width, double height, GraphicsContext gc) {
+        gc.beginPath();
+        gc.moveTo(x, y);
+        gc.lineTo(x + width, y);
+        gc.lineTo(x + width, y + height);
+        gc.lineTo(x, y + height);
+        gc.lineTo(x, y);
+        gc.closePath();
+        gc.clip();
+    }
+}
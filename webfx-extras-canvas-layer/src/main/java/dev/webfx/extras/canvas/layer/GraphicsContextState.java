@@ -0,0 +1,220 @@
+package dev.webfx.extras.canvas.layer;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Paint;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.util.Objects;
+
+/**
+ * State-tracking access to a GraphicsContext for drawers. When tracking is on (during a batch of drawings that don't
+ * need isolation - see ChildDrawer.isIsolationRequired()), the fill, stroke, line width, font, text alignment & baseline
+ * and clip changes are emitted to the GraphicsContext only if they differ from the current state, and save() & restore()
+ * don't touch the GraphicsContext stack (the clip is the only state that needs it, and it's managed separately). This
+ * saves many costly canvas operations (especially on the HTML canvas) when drawing many similar objects. When tracking
+ * is off, all calls are passed to the GraphicsContext as is.
+ *
+ * The state of a drawing pass is stored in the properties of its canvas from start to stop, and of(gc) returns it to
+ * the drawers during that pass, or a shared pass-through state otherwise (which keeps no state).
+ *
+ * Note: during a tracking batch, all the state changes must go through this class, otherwise the tracked state is wrong.
+ *
+ * @author Bruno Salmon
+ */
+public final class GraphicsContextState {
+
+    private static final String STATE_PROPERTY_KEY = "graphicsContextState";
+    private static final GraphicsContextState PASS_THROUGH = new GraphicsContextState(null, false, GraphicsContextSink.DIRECT);
+
+    private final GraphicsContext gc; // null for the shared pass-through state
+    private final boolean tracking;
+    private final GraphicsContextSink sink;
+    private GraphicsContextState previousState; // state of an enclosing pass on the same canvas (restored on stop)
+    private Paint fill, stroke;
+    private double lineWidth = Double.NaN;
+    private Font font;
+    private TextAlignment textAlign;
+    private VPos textBaseline;
+    // Clip currently set (in tracking mode, it's set within a save, so it can be removed with a restore)
+    private boolean clipped;
+    private double clipX, clipY, clipWidth, clipHeight;
+    // Tracked state before the clip save (restored with the clip removal)
+    private Paint clipSavedFill, clipSavedStroke;
+    private double clipSavedLineWidth;
+    private Font clipSavedFont;
+    private TextAlignment clipSavedTextAlign;
+    private VPos clipSavedTextBaseline;
+
+    private GraphicsContextState(GraphicsContext gc, boolean tracking, GraphicsContextSink sink) {
+        this.gc = gc;
+        this.tracking = tracking;
+        this.sink = sink;
+    }
+
+    /**
+     * @return the state of the drawing pass running on that graphics context, or the shared pass-through state if none
+     */
+    public static GraphicsContextState of(GraphicsContext gc) {
+        Object state = gc.getCanvas().getProperties().get(STATE_PROPERTY_KEY);
+        return state != null ? (GraphicsContextState) state : PASS_THROUGH;
+    }
+
+    /**
+     * Starts a tracking batch on that graphics context (to be ended with stop()). The initial state is considered
+     * unknown.
+     */
+    public static GraphicsContextState startTracking(GraphicsContext gc) {
+        return startTracking(gc, GraphicsContextSink.DIRECT);
+    }
+
+    public static GraphicsContextState startTracking(GraphicsContext gc, GraphicsContextSink sink) {
+        return start(new GraphicsContextState(gc, true, sink));
+    }
+
+    /**
+     * Starts a drawing pass that passes all calls through to that sink (to be ended with stop()).
+     */
+    public static GraphicsContextState startPassThrough(GraphicsContext gc, GraphicsContextSink sink) {
+        return start(new GraphicsContextState(gc, false, sink));
+    }
+
+    private static GraphicsContextState start(GraphicsContextState state) {
+        state.previousState = (GraphicsContextState) state.getCanvas().getProperties().put(STATE_PROPERTY_KEY, state);
+        return state;
+    }
+
+    public void stop() {
+        clearClip(gc);
+        forgetState();
+        if (previousState != null)
+            getCanvas().getProperties().put(STATE_PROPERTY_KEY, previousState);
+        else
+            getCanvas().getProperties().remove(STATE_PROPERTY_KEY);
+    }
+
+    private Canvas getCanvas() {
+        return gc.getCanvas();
+    }
+
+    public boolean isTracking() {
+        return tracking;
+    }
+
+    /**
+     * To be called when the graphics context state has been changed directly (ex: after a gc.restore()), so the next
+     * state changes are emitted for sure.
+     */
+    public void forgetState() {
+        fill = stroke = null;
+        lineWidth = Double.NaN;
+        font = null;
+        textAlign = null;
+        textBaseline = null;
+    }
+
+    public void setFill(Paint fill, GraphicsContext gc) {
+        if (tracking) {
+            if (Objects.equals(fill, this.fill))
+                return;
+            this.fill = fill;
+        }
+        sink.setFill(fill, gc);
+    }
+
+    public void setStroke(Paint stroke, GraphicsContext gc) {
+        if (tracking) {
+            if (Objects.equals(stroke, this.stroke))
+                return;
+            this.stroke = stroke;
+        }
+        sink.setStroke(stroke, gc);
+    }
+
+    public void setLineWidth(double lineWidth, GraphicsContext gc) {
+        if (tracking) {
+            if (lineWidth == this.lineWidth)
+                return;
+            this.lineWidth = lineWidth;
+        }
+        sink.setLineWidth(lineWidth, gc);
+    }
+
+    public void setFont(Font font, GraphicsContext gc) {
+        if (tracking) {
+            if (Objects.equals(font, this.font))
+                return;
+            this.font = font;
+        }
+        sink.setFont(font, gc);
+    }
+
+    public void setTextAlign(TextAlignment textAlign, GraphicsContext gc) {
+        if (tracking) {
+            if (textAlign == this.textAlign)
+                return;
+            this.textAlign = textAlign;
+        }
+        sink.setTextAlign(textAlign, gc);
+    }
+
+    public void setTextBaseline(VPos textBaseline, GraphicsContext gc) {
+        if (tracking) {
+            if (textBaseline == this.textBaseline)
+                return;
+            this.textBaseline = textBaseline;
+        }
+        sink.setTextBaseline(textBaseline, gc);
+    }
+
+    // Isolation of the state changes (not needed in tracking mode, except for the clip)
+
+    public void save(GraphicsContext gc) {
+        if (!tracking)
+            sink.save(gc);
+    }
+
+    public void restore(GraphicsContext gc) {
+        if (tracking)
+            clearClip(gc);
+        else
+            sink.restore(gc);
+    }
+
+    public void clipRect(double x, double y, double width, double height, GraphicsContext gc) {
+        if (tracking) {
+            if (clipped && x == clipX && y == clipY && width == clipWidth && height == clipHeight)
+                return;
+            clearClip(gc);
+            clipSavedFill = fill;
+            clipSavedStroke = stroke;
+            clipSavedLineWidth = lineWidth;
+            clipSavedFont = font;
+            clipSavedTextAlign = textAlign;
+            clipSavedTextBaseline = textBaseline;
+            sink.save(gc);
+            clipped = true;
+            clipX = x;
+            clipY = y;
+            clipWidth = width;
+            clipHeight = height;
+        }
+        sink.clipRect(x, y, width, height, gc);
+    }
+
+    public void clearClip(GraphicsContext gc) {
+        if (tracking && clipped) {
+            sink.restore(gc);
+            // The restore also reverted the state changes made since the clip
+            fill = clipSavedFill;
+            stroke = clipSavedStroke;
+            lineWidth = clipSavedLineWidth;
+            font = clipSavedFont;
+            textAlign = clipSavedTextAlign;
+            textBaseline = clipSavedTextBaseline;
+            clipped = false;
+        }
+    }
+}
@@ -15,10 +15,16 @@ public interface CanvasInteractionHandler {
 
     default boolean handleMouseDragged(MouseEvent e, Canvas canvas) { return true; }
 
+    default boolean handleMouseReleased(MouseEvent e, Canvas canvas) { return true; }
+
     default boolean handleMouseClicked(MouseEvent e, Canvas canvas) { return true; }
 
     default boolean handleMouseMoved(MouseEvent e, Canvas canvas) { return true; }
 
     default boolean handleScroll(ScrollEvent e, Canvas canvas) { return true; }
 
+    // Returning true means that the mouse moved events can be coalesced for this handler (i.e. dispatched to it at most
+    // once per animation frame)
+    default boolean isMouseMoveCoalesced() { return false; }
+
 }
@@ -1,17 +1,60 @@
 package dev.webfx.extras.canvas.layer.interact;
 
+import dev.webfx.platform.scheduler.Scheduled;
+import dev.webfx.platform.uischeduler.UiScheduler;
+import javafx.event.EventHandler;
 import javafx.scene.canvas.Canvas;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
+ * Dispatches the mouse events of a canvas to its interaction handlers (in order, until a handler stops the propagation).
+ *
+ * Handlers can declare interactive regions (in canvas coordinates). They then receive the mouse moved, pressed and
+ * scroll events only when these events happen in one of their regions. The regions are indexed in a uniform grid over
+ * their bounding box (each region being referenced by the cells it overlaps), so finding the hit regions only checks
+ * the regions of the cell under the mouse, and not all of them. Handlers with no declared regions receive all events. The mouse dragged, released
+ * and clicked events are always dispatched to all handlers, as they usually continue an interaction started elsewhere.
+ *
+ * When a handler asks for mouse moves coalescing, the mouse moved events are dispatched to that handler at most once
+ * per animation frame (with the last event), which is enough for hover effects such as the cursor update. The other
+ * handlers still receive all mouse moves. A pending coalesced mouse move is dispatched before any mouse pressed, dragged
+ * or released event, so the handlers always see the mouse moves before them.
+ *
  * @author Bruno Salmon
  */
 public class CanvasInteractionManager {
 
     private final Canvas canvas;
     private final List<CanvasInteractionHandler> handlers = new ArrayList<>();
+    // Interactive regions declared by the handlers
+    private final List<HandlerRegion> regions = new ArrayList<>();
+    private boolean[] regionalHandlers = new boolean[0]; // tells which handlers have declared regions
+    private boolean[] hitHandlers = new boolean[0]; // tells which handlers have a region hit by the current event
+    // Region index (rebuilt when the regions change): a grid of gridColumns x gridRows cells over the bounding box of the
+    // regions, the regions overlapping the cell i being gridCellRegions[gridCellStarts[i]] to gridCellRegions[gridCellStarts[i + 1] - 1]
+    private static final int MAX_GRID_SIZE = 64; // max number of columns and rows
+    private HandlerRegion[] indexedRegions;
+    private double gridMinX, gridMinY, gridMaxX, gridMaxY, gridCellWidth, gridCellHeight;
+    private int gridColumns, gridRows;
+    private int[] gridCellStarts, gridCellRegions;
+    // Mouse moves coalescing (per handler)
+    private boolean[] coalescingHandlers = new boolean[0]; // tells which handlers coalesce the mouse moves
+    private MouseEvent[] pendingMouseMovedEvents = new MouseEvent[0]; // last mouse move not yet dispatched to each handler
+    private Scheduled pendingMouseMovedDispatch;
+    private final Runnable pendingMouseMovedDispatcher = this::dispatchPendingMouseMoved;
+    // Optional frame scheduler replacing UiScheduler (ex: to drive the animation frames from a test)
+    private Consumer<Runnable> frameScheduler;
+    private Object pendingMouseMovedToken; // identifies the dispatch scheduled with frameScheduler (null = none)
+    // Added as an event handler (and not set with setOnMouseReleased()), so it doesn't replace the application one
+    private final EventHandler<MouseEvent> mouseReleasedHandler = this::dispatchMouseReleased;
+    private boolean interactive;
 
     public CanvasInteractionManager(Canvas canvas) {
         this.canvas = canvas;
@@ -26,10 +69,125 @@ public class CanvasInteractionManager {
             handlers.add(0, handler);
         else
             handlers.add(handler);
+        onHandlersChanged();
     }
 
     public void removeHandler(CanvasInteractionHandler handler) {
         handlers.remove(handler);
+        clearHandlerRegions(handler);
+        onHandlersChanged();
+    }
+
+    private void onHandlersChanged() {
+        discardPendingMouseMoved(); // as the handler indexes changed
+        coalescingHandlers = new boolean[handlers.size()];
+        for (int i = 0; i < handlers.size(); i++)
+            coalescingHandlers[i] = handlers.get(i).isMouseMoveCoalesced();
+        pendingMouseMovedEvents = new MouseEvent[handlers.size()];
+        regionalHandlers = new boolean[handlers.size()];
+        hitHandlers = new boolean[handlers.size()];
+        indexedRegions = null;
+    }
+
+    /**
+     * Declares an interactive region (in canvas coordinates) for that handler.
+     */
+    public void addHandlerRegion(CanvasInteractionHandler handler, double x, double y, double width, double height) {
+        regions.add(new HandlerRegion(handler, x, y, x + width, y + height));
+        indexedRegions = null;
+    }
+
+    /**
+     * Declares that the handler has no interactive region for now (ex: nothing interactive is currently displayed), so it
+     * won't receive the mouse moved, pressed and scroll events at all (until it declares new regions).
+     */
+    public void declareNoHandlerRegion(CanvasInteractionHandler handler) {
+        clearHandlerRegions(handler);
+        regions.add(new HandlerRegion(handler, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY)); // empty region
+        indexedRegions = null;
+    }
+
+    /**
+     * Removes all the regions declared by that handler, which will therefore receive all events again (until it declares
+     * new regions).
+     */
+    public void clearHandlerRegions(CanvasInteractionHandler handler) {
+        if (regions.removeIf(r -> r.handler == handler))
+            indexedRegions = null;
+    }
+
+    private void checkRegionIndex() {
+        if (indexedRegions != null)
+            return;
+        indexedRegions = regions.toArray(new HandlerRegion[0]);
+        Arrays.fill(regionalHandlers, false);
+        gridMinX = gridMinY = Double.POSITIVE_INFINITY;
+        gridMaxX = gridMaxY = Double.NEGATIVE_INFINITY;
+        for (HandlerRegion region : indexedRegions) {
+            region.handlerIndex = handlers.indexOf(region.handler);
+            if (region.handlerIndex >= 0)
+                regionalHandlers[region.handlerIndex] = true;
+            if (region.isEmpty())
+                continue;
+            gridMinX = Math.min(gridMinX, region.minX);
+            gridMinY = Math.min(gridMinY, region.minY);
+            gridMaxX = Math.max(gridMaxX, region.maxX);
+            gridMaxY = Math.max(gridMaxY, region.maxY);
+        }
+        // About 1 region per cell on average (if the regions don't overlap many cells)
+        int gridSize = Math.max(1, Math.min(MAX_GRID_SIZE, (int) Math.ceil(Math.sqrt(indexedRegions.length))));
+        gridColumns = gridMaxX > gridMinX ? gridSize : 1;
+        gridRows = gridMaxY > gridMinY ? gridSize : 1;
+        gridCellWidth = (gridMaxX - gridMinX) / gridColumns;
+        gridCellHeight = (gridMaxY - gridMinY) / gridRows;
+        // First pass to count the regions per cell, and second pass to fill the cells
+        gridCellStarts = new int[gridColumns * gridRows + 1];
+        for (HandlerRegion region : indexedRegions)
+            forEachRegionCell(region, cell -> gridCellStarts[cell + 1]++);
+        for (int i = 1; i < gridCellStarts.length; i++)
+            gridCellStarts[i] += gridCellStarts[i - 1];
+        gridCellRegions = new int[gridCellStarts[gridCellStarts.length - 1]];
+        int[] cellSizes = new int[gridColumns * gridRows];
+        for (int i = 0; i < indexedRegions.length; i++) {
+            int regionIndex = i;
+            forEachRegionCell(indexedRegions[i], cell -> gridCellRegions[gridCellStarts[cell] + cellSizes[cell]++] = regionIndex);
+        }
+    }
+
+    private void forEachRegionCell(HandlerRegion region, IntConsumer cellConsumer) {
+        if (region.isEmpty())
+            return;
+        int minColumn = gridColumn(region.minX), maxColumn = gridColumn(region.maxX);
+        int minRow = gridRow(region.minY), maxRow = gridRow(region.maxY);
+        for (int row = minRow; row <= maxRow; row++)
+            for (int column = minColumn; column <= maxColumn; column++)
+                cellConsumer.accept(row * gridColumns + column);
+    }
+
+    private int gridColumn(double x) {
+        return gridCellWidth == 0 ? 0 : Math.max(0, Math.min(gridColumns - 1, (int) ((x - gridMinX) / gridCellWidth)));
+    }
+
+    private int gridRow(double y) {
+        return gridCellHeight == 0 ? 0 : Math.max(0, Math.min(gridRows - 1, (int) ((y - gridMinY) / gridCellHeight)));
+    }
+
+    // Computes the handlers hit by an event at (x, y) in hitHandlers (no allocation)
+    private void computeHitHandlers(double x, double y) {
+        checkRegionIndex();
+        Arrays.fill(hitHandlers, false);
+        if (x < gridMinX || x > gridMaxX || y < gridMinY || y > gridMaxY) // also when no regions
+            return;
+        int cell = gridRow(y) * gridColumns + gridColumn(x);
+        for (int i = gridCellStarts[cell], end = gridCellStarts[cell + 1]; i < end; i++) {
+            HandlerRegion region = indexedRegions[gridCellRegions[i]];
+            if (region.handlerIndex >= 0 && x >= region.minX && x <= region.maxX && y >= region.minY && y <= region.maxY)
+                hitHandlers[region.handlerIndex] = true;
+        }
+    }
+
+    private boolean isHandlerConcerned(int handlerIndex) {
+        return !regionalHandlers[handlerIndex] || hitHandlers[handlerIndex];
     }
 
     public void makeCanvasInteractive() {
@@ -38,21 +196,143 @@ public class CanvasInteractionManager {
 
     public void setInteractive(boolean interactive) {
         boolean off = !interactive;
-        canvas.setOnMousePressed(off ? null : e -> {
-            handlers.stream().filter(h -> !h.handleMousePressed(e, canvas)).findFirst();
-        });
-        canvas.setOnMouseDragged(off ? null : e -> {
-            handlers.stream().filter(h -> !h.handleMouseDragged(e, canvas)).findFirst();
-        });
-        canvas.setOnMouseClicked(off ? null : e -> {
-            handlers.stream().filter(h -> !h.handleMouseClicked(e, canvas)).findFirst();
-        });
-        canvas.setOnMouseMoved(off ? null : e -> {
-            handlers.stream().filter(h -> !h.handleMouseMoved(e, canvas)).findFirst();
-        });
-        canvas.setOnScroll(off ? null : e -> {
-            handlers.stream().filter(h -> !h.handleScroll(e, canvas)).findFirst();
-        });
+        canvas.setOnMousePressed(off ? null : this::dispatchMousePressed);
+        canvas.setOnMouseDragged(off ? null : this::dispatchMouseDragged);
+        if (interactive != this.interactive) {
+            this.interactive = interactive;
+            if (interactive)
+                canvas.addEventHandler(MouseEvent.MOUSE_RELEASED, mouseReleasedHandler);
+            else
+                canvas.removeEventHandler(MouseEvent.MOUSE_RELEASED, mouseReleasedHandler);
+        }
+        canvas.setOnMouseClicked(off ? null : this::dispatchMouseClicked);
+        canvas.setOnMouseMoved(off ? null : this::onMouseMoved);
+        canvas.setOnScroll(off ? null : this::dispatchScroll);
+    }
+
+    private void dispatchMousePressed(MouseEvent e) {
+        dispatchPendingMouseMoved();
+        computeHitHandlers(e.getX(), e.getY());
+        for (int i = 0; i < handlers.size(); i++) {
+            if (isHandlerConcerned(i) && !handlers.get(i).handleMousePressed(e, canvas))
+                break;
+        }
+    }
+
+    private void dispatchMouseDragged(MouseEvent e) {
+        dispatchPendingMouseMoved();
+        for (int i = 0; i < handlers.size(); i++) {
+            if (!handlers.get(i).handleMouseDragged(e, canvas))
+                break;
+        }
+    }
+
+    private void dispatchMouseReleased(MouseEvent e) {
+        dispatchPendingMouseMoved();
+        for (int i = 0; i < handlers.size(); i++) {
+            if (!handlers.get(i).handleMouseReleased(e, canvas))
+                break;
+        }
+    }
+
+    private void dispatchMouseClicked(MouseEvent e) {
+        for (int i = 0; i < handlers.size(); i++) {
+            if (!handlers.get(i).handleMouseClicked(e, canvas))
+                break;
+        }
+    }
+
+    private void onMouseMoved(MouseEvent e) {
+        computeHitHandlers(e.getX(), e.getY());
+        for (int i = 0; i < handlers.size(); i++) {
+            if (!isHandlerConcerned(i))
+                continue;
+            if (coalescingHandlers[i]) { // the event is kept for the next animation frame (and the propagation continues)
+                pendingMouseMovedEvents[i] = e;
+                if (!isMouseMovedDispatchPending())
+                    scheduleMouseMovedDispatch();
+            } else if (!handlers.get(i).handleMouseMoved(e, canvas))
+                break;
+        }
+    }
+
+    /**
+     * Replaces UiScheduler for scheduling the coalesced mouse moves dispatch in the next animation frame. This is mainly
+     * for tests, which can then run the frames themselves (without UI toolkit).
+     */
+    public void setFrameScheduler(Consumer<Runnable> frameScheduler) {
+        discardPendingMouseMoved();
+        this.frameScheduler = frameScheduler;
+    }
+
+    private boolean isMouseMovedDispatchPending() {
+        return pendingMouseMovedDispatch != null || pendingMouseMovedToken != null;
+    }
+
+    private void scheduleMouseMovedDispatch() {
+        if (frameScheduler == null)
+            pendingMouseMovedDispatch = UiScheduler.scheduleInAnimationFrame(pendingMouseMovedDispatcher);
+        else {
+            Object token = pendingMouseMovedToken = new Object();
+            frameScheduler.accept(() -> {
+                if (pendingMouseMovedToken == token) // otherwise dispatched early or discarded in the meantime
+                    dispatchPendingMouseMoved();
+            });
+        }
+    }
+
+    private void cancelMouseMovedDispatch() {
+        pendingMouseMovedToken = null;
+        if (pendingMouseMovedDispatch != null) {
+            pendingMouseMovedDispatch.cancel();
+            pendingMouseMovedDispatch = null;
+        }
+    }
+
+    private void dispatchPendingMouseMoved() {
+        if (!isMouseMovedDispatchPending())
+            return;
+        cancelMouseMovedDispatch(); // in case it's an early dispatch (before a mouse pressed, dragged or released event)
+        MouseEvent stoppedEvent = null;
+        for (int i = 0; i < handlers.size(); i++) {
+            MouseEvent e = pendingMouseMovedEvents[i];
+            if (e != null) {
+                pendingMouseMovedEvents[i] = null;
+                if (e != stoppedEvent && !handlers.get(i).handleMouseMoved(e, canvas))
+                    stoppedEvent = e; // the propagation of that event stops here
+            }
+        }
+    }
+
+    private void discardPendingMouseMoved() {
+        cancelMouseMovedDispatch();
+        Arrays.fill(pendingMouseMovedEvents, null);
+    }
+
+    private void dispatchScroll(ScrollEvent e) {
+        computeHitHandlers(e.getX(), e.getY());
+        for (int i = 0; i < handlers.size(); i++) {
+            if (isHandlerConcerned(i) && !handlers.get(i).handleScroll(e, canvas))
+                break;
+        }
+    }
+
+    private static final class HandlerRegion {
+        private final CanvasInteractionHandler handler;
+        private final double minX, minY, maxX, maxY;
+        private int handlerIndex;
+
+        HandlerRegion(CanvasInteractionHandler handler, double minX, double minY, double maxX, double maxY) {
+            this.handler = handler;
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+
+        boolean isEmpty() {
+            return maxX < minX || maxY < minY;
+        }
     }
 
 }
@@ -5,6 +5,8 @@ module webfx.extras.canvas.layer {
     // Direct dependencies modules
     requires javafx.graphics;
     requires webfx.extras.geometry;
+    requires webfx.platform.scheduler;
+    requires webfx.platform.uischeduler;
 
     // Exported packages
     exports dev.webfx.extras.canvas.layer;
@@ -0,0 +1,92 @@
+package dev.webfx.extras.canvas.layer;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Paint;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Sink counting the state operations emitted to the graphics context (and still emitting them, so the graphics context
+ * state can be checked as well).
+ *
+ * @author Bruno Salmon
+ */
+final class CountingGraphicsContextSink implements GraphicsContextSink {
+
+    private int stateChangeCount, saveCount, restoreCount, clipCount;
+
+    int getStateChangeCount() {
+        return stateChangeCount;
+    }
+
+    int getSaveCount() {
+        return saveCount;
+    }
+
+    int getRestoreCount() {
+        return restoreCount;
+    }
+
+    int getClipCount() {
+        return clipCount;
+    }
+
+    int getOperationCount() {
+        return stateChangeCount + saveCount + restoreCount + clipCount;
+    }
+
+    @Override
+    public void setFill(Paint fill, GraphicsContext gc) {
+        stateChangeCount++;
+        GraphicsContextSink.super.setFill(fill, gc);
+    }
+
+    @Override
+    public void setStroke(Paint stroke, GraphicsContext gc) {
+        stateChangeCount++;
+        GraphicsContextSink.super.setStroke(stroke, gc);
+    }
+
+    @Override
+    public void setLineWidth(double lineWidth, GraphicsContext gc) {
+        stateChangeCount++;
+        GraphicsContextSink.super.setLineWidth(lineWidth, gc);
+    }
+
+    @Override
+    public void setFont(Font font, GraphicsContext gc) {
+        stateChangeCount++;
+        GraphicsContextSink.super.setFont(font, gc);
+    }
+
+    @Override
+    public void setTextAlign(TextAlignment textAlign, GraphicsContext gc) {
+        stateChangeCount++;
+        GraphicsContextSink.super.setTextAlign(textAlign, gc);
+    }
+
+    @Override
+    public void setTextBaseline(VPos textBaseline, GraphicsContext gc) {
+        stateChangeCount++;
+        GraphicsContextSink.super.setTextBaseline(textBaseline, gc);
+    }
+
+    @Override
+    public void save(GraphicsContext gc) {
+        saveCount++;
+        GraphicsContextSink.super.save(gc);
+    }
+
+    @Override
+    public void restore(GraphicsContext gc) {
+        restoreCount++;
+        GraphicsContextSink.super.restore(gc);
+    }
+
+    @Override
+    public void clipRect(double x, double y, double width, double height, GraphicsContext gc) {
+        clipCount++;
+        GraphicsContextSink.super.clipRect(x, y, width, height, gc);
+    }
+}
@@ -0,0 +1,88 @@
+package dev.webfx.extras.canvas.layer;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class GraphicsContextStateTest {
+
+    private static CountingGraphicsContextSink drawSameStyledRects(GraphicsContext gc, boolean tracking) {
+        CountingGraphicsContextSink sink = new CountingGraphicsContextSink();
+        GraphicsContextState state = tracking ? GraphicsContextState.startTracking(gc, sink) : GraphicsContextState.startPassThrough(gc, sink);
+        for (int i = 0; i < 100; i++) {
+            state.save(gc);
+            state.setFill(Color.RED, gc);
+            state.setStroke(Color.BLUE, gc);
+            state.setLineWidth(1, gc);
+            gc.fillRect(i, 0, 1, 1);
+            state.restore(gc);
+        }
+        state.stop();
+        return sink;
+    }
+
+    @Test
+    void trackingSkipsTheRedundantStateChanges() {
+        GraphicsContext gc = new Canvas(100, 100).getGraphicsContext2D();
+        CountingGraphicsContextSink passThroughSink = drawSameStyledRects(gc, false);
+        assertEquals(300, passThroughSink.getStateChangeCount());
+        assertEquals(100, passThroughSink.getSaveCount());
+        assertEquals(100, passThroughSink.getRestoreCount());
+        // In tracking mode, only the first state changes are emitted, and no save() & restore()
+        CountingGraphicsContextSink trackingSink = drawSameStyledRects(gc, true);
+        assertEquals(3, trackingSink.getOperationCount());
+    }
+
+    @Test
+    void stateIsPerDrawingPassAndGraphicsContext() {
+        GraphicsContext gc1 = new Canvas(10, 10).getGraphicsContext2D(), gc2 = new Canvas(10, 10).getGraphicsContext2D();
+        GraphicsContextState passThrough = GraphicsContextState.of(gc1);
+        assertFalse(passThrough.isTracking());
+        assertSame(passThrough, GraphicsContextState.of(gc2)); // shared when nothing is tracking
+        GraphicsContextState state1 = GraphicsContextState.startTracking(gc1);
+        assertSame(state1, GraphicsContextState.of(gc1));
+        // Accessing another graphics context during the pass doesn't affect the tracking of the first one
+        assertSame(passThrough, GraphicsContextState.of(gc2));
+        GraphicsContextState state2 = GraphicsContextState.startTracking(gc2);
+        assertSame(state1, GraphicsContextState.of(gc1));
+        assertSame(state2, GraphicsContextState.of(gc2));
+        // A nested pass on the same graphics context is replaced by the enclosing pass when stopped
+        GraphicsContextState nestedState = GraphicsContextState.startTracking(gc1);
+        assertSame(nestedState, GraphicsContextState.of(gc1));
+        nestedState.stop();
+        assertSame(state1, GraphicsContextState.of(gc1));
+        state2.stop();
+        assertSame(state1, GraphicsContextState.of(gc1));
+        assertSame(passThrough, GraphicsContextState.of(gc2));
+        state1.stop();
+        assertSame(passThrough, GraphicsContextState.of(gc1));
+    }
+
+    @Test
+    void clipRemovalRestoresTheTrackedState() {
+        GraphicsContext gc = new Canvas(10, 10).getGraphicsContext2D();
+        CountingGraphicsContextSink sink = new CountingGraphicsContextSink();
+        GraphicsContextState state = GraphicsContextState.startTracking(gc, sink);
+        state.setFill(Color.RED, gc);
+        state.clipRect(0, 0, 5, 5, gc);
+        state.clipRect(0, 0, 5, 5, gc); // same clip => not emitted
+        assertEquals(1, sink.getClipCount());
+        state.setFill(Color.BLUE, gc);
+        assertEquals(Color.BLUE, gc.getFill());
+        state.restore(gc); // removes the clip with gc.restore(), which reverts the fill
+        assertEquals(1, sink.getRestoreCount());
+        assertEquals(Color.RED, gc.getFill());
+        int stateChangeCount = sink.getStateChangeCount();
+        state.setFill(Color.RED, gc); // already the fill => not emitted
+        assertEquals(stateChangeCount, sink.getStateChangeCount());
+        state.setFill(Color.BLUE, gc);
+        assertEquals(Color.BLUE, gc.getFill());
+        state.stop();
+    }
+}
@@ -0,0 +1,221 @@
+package dev.webfx.extras.canvas.layer.interact;
+
+import javafx.event.EventType;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class CanvasInteractionManagerTest {
+
+    private final List<String> log = new ArrayList<>();
+    private final List<Runnable> frameRunnables = new ArrayList<>();
+    private Canvas canvas;
+    private CanvasInteractionManager manager;
+
+    private final class LoggingHandler implements CanvasInteractionHandler {
+        private final String name;
+        private final boolean mouseMoveCoalesced;
+
+        LoggingHandler(String name, boolean mouseMoveCoalesced) {
+            this.name = name;
+            this.mouseMoveCoalesced = mouseMoveCoalesced;
+        }
+
+        private boolean log(String event, MouseEvent e) {
+            log.add(name + " " + event + " " + (int) e.getX());
+            return true;
+        }
+
+        @Override
+        public boolean handleMousePressed(MouseEvent e, Canvas canvas) {
+            return log("pressed", e);
+        }
+
+        @Override
+        public boolean handleMouseDragged(MouseEvent e, Canvas canvas) {
+            return log("dragged", e);
+        }
+
+        @Override
+        public boolean handleMouseReleased(MouseEvent e, Canvas canvas) {
+            return log("released", e);
+        }
+
+        @Override
+        public boolean handleMouseMoved(MouseEvent e, Canvas canvas) {
+            return log("moved", e);
+        }
+
+        @Override
+        public boolean isMouseMoveCoalesced() {
+            return mouseMoveCoalesced;
+        }
+    }
+
+    @BeforeEach
+    void createManager() {
+        canvas = new Canvas(500, 500);
+        manager = new CanvasInteractionManager(canvas);
+        manager.setFrameScheduler(frameRunnables::add);
+        manager.makeCanvasInteractive();
+    }
+
+    private static MouseEvent mouseEvent(EventType<MouseEvent> type, double x, double y) {
+        return new MouseEvent(type, x, y, x, y, MouseButton.PRIMARY, 1, false, false, false, false, true, false, false, false, false, false, null);
+    }
+
+    private void move(double x, double y) {
+        canvas.getOnMouseMoved().handle(mouseEvent(MouseEvent.MOUSE_MOVED, x, y));
+    }
+
+    private void release(double x, double y) {
+        canvas.fireEvent(mouseEvent(MouseEvent.MOUSE_RELEASED, x, y));
+    }
+
+    private void runFrame() {
+        List<Runnable> runnables = new ArrayList<>(frameRunnables);
+        frameRunnables.clear();
+        runnables.forEach(Runnable::run);
+    }
+
+    @Test
+    void mouseMovesAreCoalescedOnlyForTheHandlersAskingIt() {
+        manager.addHandler(new LoggingHandler("coalescing", true));
+        manager.addHandler(new LoggingHandler("direct", false));
+        move(1, 0);
+        move(2, 0);
+        move(3, 0);
+        assertEquals(List.of("direct moved 1", "direct moved 2", "direct moved 3"), log);
+        log.clear();
+        runFrame();
+        assertEquals(List.of("coalescing moved 3"), log); // only the last one
+        log.clear();
+        runFrame();
+        assertEquals(List.of(), log);
+    }
+
+    @Test
+    void pendingMouseMoveIsDispatchedBeforePressDragAndRelease() {
+        manager.addHandler(new LoggingHandler("coalescing", true));
+        move(5, 0);
+        canvas.getOnMousePressed().handle(mouseEvent(MouseEvent.MOUSE_PRESSED, 6, 0));
+        move(7, 0);
+        canvas.getOnMouseDragged().handle(mouseEvent(MouseEvent.MOUSE_DRAGGED, 8, 0));
+        move(9, 0);
+        release(10, 0);
+        assertEquals(List.of("coalescing moved 5", "coalescing pressed 6", "coalescing moved 7", "coalescing dragged 8", "coalescing moved 9", "coalescing released 10"), log);
+        log.clear();
+        runFrame(); // nothing left pending
+        assertEquals(List.of(), log);
+    }
+
+    @Test
+    void pendingMouseMoveIsDiscardedWhenTheHandlersChange() {
+        manager.addHandler(new LoggingHandler("coalescing", true));
+        move(5, 0);
+        manager.addHandler(new LoggingHandler("other", false), true);
+        runFrame();
+        assertEquals(List.of(), log);
+    }
+
+    @Test
+    void regionalHandlersReceiveOnlyTheEventsInTheirRegions() {
+        LoggingHandler regional = new LoggingHandler("regional", false);
+        manager.addHandler(regional);
+        manager.addHandler(new LoggingHandler("global", false));
+        manager.addHandlerRegion(regional, 100, 100, 50, 50);
+        manager.addHandlerRegion(regional, 300, 0, 10, 500);
+        move(120, 120);
+        move(200, 120);
+        move(305, 400);
+        canvas.getOnMousePressed().handle(mouseEvent(MouseEvent.MOUSE_PRESSED, 10, 10));
+        assertEquals(List.of("regional moved 120", "global moved 120", "global moved 200", "regional moved 305", "global moved 305", "global pressed 10"), log);
+        log.clear();
+        manager.clearHandlerRegions(regional); // => receives all events again
+        move(200, 120);
+        assertEquals(List.of("regional moved 200", "global moved 200"), log);
+    }
+
+    @Test
+    void mouseReleasedHandlerOfTheApplicationIsKept() {
+        manager.addHandler(new LoggingHandler("handler", false));
+        canvas.setOnMouseReleased(e -> log.add("application released " + (int) e.getX()));
+        release(1, 0);
+        assertEquals(List.of("handler released 1", "application released 1"), log);
+        log.clear();
+        manager.setInteractive(false);
+        release(2, 0);
+        assertEquals(List.of("application released 2"), log);
+        log.clear();
+        manager.setInteractive(true);
+        manager.makeCanvasInteractive(); // no effect if already interactive (the handler is not added twice)
+        release(3, 0);
+        assertEquals(List.of("handler released 3", "application released 3"), log);
+    }
+
+    @Test
+    void handlerWithNoRegionReceivesNoMoves() {
+        LoggingHandler regionless = new LoggingHandler("regionless", false);
+        manager.addHandler(regionless);
+        manager.addHandler(new LoggingHandler("global", false));
+        manager.declareNoHandlerRegion(regionless);
+        move(120, 120);
+        canvas.getOnMousePressed().handle(mouseEvent(MouseEvent.MOUSE_PRESSED, 10, 10));
+        assertEquals(List.of("global moved 120", "global pressed 10"), log);
+        log.clear();
+        manager.addHandlerRegion(regionless, 100, 100, 50, 50);
+        move(120, 120);
+        move(200, 200);
+        assertEquals(List.of("regionless moved 120", "global moved 120", "global moved 200"), log);
+    }
+
+    @Test
+    void hitRegionsMatchAScanOfAllTheRegions() {
+        // Mix of small regions, of full width rows (ex: headers) and of full height columns (ex: sliders)
+        Random random = new Random(1);
+        List<LoggingHandler> handlers = new ArrayList<>();
+        List<double[]> regions = new ArrayList<>(); // handler index, minX, minY, maxX, maxY
+        for (int h = 0; h < 8; h++) {
+            LoggingHandler handler = new LoggingHandler("h" + h, false);
+            handlers.add(handler);
+            manager.addHandler(handler);
+        }
+        for (int i = 0; i < 500; i++) {
+            int h = random.nextInt(handlers.size());
+            double x = random.nextInt(500), y = random.nextInt(500), width = random.nextInt(40), height = random.nextInt(40);
+            if (i % 50 == 0) {
+                x = 0;
+                width = 500;
+            } else if (i % 50 == 1) {
+                y = 0;
+                height = 500;
+            }
+            manager.addHandlerRegion(handlers.get(h), x, y, width, height);
+            regions.add(new double[] {h, x, y, x + width, y + height});
+        }
+        for (int n = 0; n < 2000; n++) {
+            double x = random.nextDouble() * 520 - 10, y = random.nextDouble() * 520 - 10;
+            List<String> expected = new ArrayList<>();
+            for (int h = 0; h < handlers.size(); h++)
+                for (double[] r : regions)
+                    if (r[0] == h && x >= r[1] && x <= r[3] && y >= r[2] && y <= r[4]) {
+                        expected.add("h" + h + " moved " + (int) x);
+                        break;
+                    }
+            log.clear();
+            move(x, y);
+            assertEquals(expected, log, "at " + x + ", " + y);
+        }
+    }
+}
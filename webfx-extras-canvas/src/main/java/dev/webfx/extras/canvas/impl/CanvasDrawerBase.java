@@ -5,16 +5,22 @@ import dev.webfx.extras.util.DirtyMarker;
 import dev.webfx.kit.util.properties.FXProperties;
 import javafx.beans.property.*;
 import javafx.beans.value.ObservableIntegerValue;
+import javafx.geometry.BoundingBox;
 import javafx.geometry.Bounds;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
 import javafx.scene.paint.Paint;
 
+import java.util.function.Consumer;
+
 /**
  * @author Bruno Salmon
  */
 public abstract class CanvasDrawerBase implements CanvasDrawer {
 
+    private static final Paint REDRAW_REGION_STROKE = Color.rgb(255, 0, 0, 0.6);
+
     protected final Canvas canvas;
     protected final GraphicsContext gc;
     private final DoubleProperty layoutOriginXProperty = FXProperties.newDoubleProperty(this::markDrawAreaAsDirty);
@@ -22,7 +28,13 @@ public abstract class CanvasDrawerBase implements CanvasDrawer {
     private final ObjectProperty<Bounds> drawAreaBoundsProperty = FXProperties.newObjectProperty(this::markDrawAreaAsDirty);
     private final ObjectProperty<Paint> drawAreaBackgroundFillProperty = FXProperties.newObjectProperty(this::markDrawAreaAsDirty);
     private final IntegerProperty drawCountProperty = new SimpleIntegerProperty();
-    private final DirtyMarker drawAreaDirtyMarker = new DirtyMarker(this::drawArea);
+    private final DirtyMarker drawAreaDirtyMarker = new DirtyMarker(this::drawDirtyArea);
+    // Damage tracking: union of the dirty regions (in canvas coordinates) marked since the last draw pass
+    private boolean drawAreaDirty;
+    private double damageMinX = Double.POSITIVE_INFINITY, damageMinY = Double.POSITIVE_INFINITY, damageMaxX = Double.NEGATIVE_INFINITY, damageMaxY = Double.NEGATIVE_INFINITY;
+    private Bounds redrawAreaBounds; // area being redrawn by the current draw pass
+    private boolean redrawRegionsShown;
+    private Bounds shownRedrawRegion; // region currently outlined by the debug overlay (erased by the next draw pass)
 
     public CanvasDrawerBase() {
         this(new Canvas());
@@ -63,18 +75,145 @@ public abstract class CanvasDrawerBase implements CanvasDrawer {
         return drawCountProperty;
     }
 
+    /**
+     * Replaces UiScheduler for scheduling the draw passes in the next animation frame. This is mainly for tests and
+     * benchmarks, which can then run the frames themselves (without UI toolkit).
+     */
+    public void setFrameScheduler(Consumer<Runnable> frameScheduler) {
+        drawAreaDirtyMarker.setFrameScheduler(frameScheduler);
+    }
+
     @Override
     public void markDrawAreaAsDirty() {
+        drawAreaDirty = true;
         drawAreaDirtyMarker.markAsDirty();
     }
 
+    /**
+     * Marks only a region of the canvas (in canvas coordinates) as dirty. If nothing else is marked as dirty until the
+     * next animation frame, only the union of the dirty regions will be cleared and redrawn (with a clip), which is much
+     * cheaper than redrawing the whole area when a single object changed (ex: a bar colour or a drag preview).
+     */
+    public void markDrawAreaAsDirty(double x, double y, double width, double height) {
+        if (width <= 0 || height <= 0)
+            return;
+        damageMinX = Math.min(damageMinX, x);
+        damageMinY = Math.min(damageMinY, y);
+        damageMaxX = Math.max(damageMaxX, x + width);
+        damageMaxY = Math.max(damageMaxY, y + height);
+        drawAreaDirtyMarker.markAsDirty();
+    }
+
+    // Same but with the region expressed in the layout coordinates (ex: the bounds of a child in a layout)
+    public void markLayoutAreaAsDirty(double layoutX, double layoutY, double width, double height) {
+        markDrawAreaAsDirty(layoutX - getLayoutOriginX(), layoutY - getLayoutOriginY(), width, height);
+    }
+
+    private void drawDirtyArea() {
+        if (drawAreaDirty || damageMinX > damageMaxX)
+            drawArea();
+        else {
+            eraseShownRedrawRegion();
+            drawDamagedArea();
+        }
+    }
+
     @Override
     public void drawArea() {
+        resetDamage();
+        drawAreaDirty = false;
+        shownRedrawRegion = null; // erased by the full redraw
+        redrawAreaBounds = getDrawAreaOrCanvasBounds();
         int newDrawCount = getDrawCount() + 1;
         clearArea();
         drawCountProperty.set(-newDrawCount); // may trigger onBeforeDraw runnable(s)
         drawObjectsInArea();
         drawCountProperty.set(newDrawCount); // may trigger onAfterDraw runnable(s)
+        showRedrawRegion();
+    }
+
+    private void drawDamagedArea() {
+        double minX = damageMinX, minY = damageMinY, maxX = damageMaxX, maxY = damageMaxY;
+        resetDamage();
+        drawRegion(minX, minY, maxX, maxY);
+        showRedrawRegion();
+    }
+
+    private void eraseShownRedrawRegion() {
+        Bounds b = shownRedrawRegion;
+        if (b != null) {
+            shownRedrawRegion = null;
+            // Redrawing just the 1px edges covered by the outline (without outlining them)
+            drawRegion(b.getMinX(), b.getMinY(), b.getMaxX(), b.getMinY() + 1);
+            drawRegion(b.getMinX(), b.getMaxY() - 1, b.getMaxX(), b.getMaxY());
+            drawRegion(b.getMinX(), b.getMinY() + 1, b.getMinX() + 1, b.getMaxY() - 1);
+            drawRegion(b.getMaxX() - 1, b.getMinY() + 1, b.getMaxX(), b.getMaxY() - 1);
+            redrawAreaBounds = null;
+        }
+    }
+
+    private void drawRegion(double minX, double minY, double maxX, double maxY) {
+        Bounds area = getDrawAreaOrCanvasBounds();
+        // Snapping to whole pixels to not leave antialiasing artifacts on the edges
+        minX = Math.floor(Math.max(minX, area.getMinX()));
+        minY = Math.floor(Math.max(minY, area.getMinY()));
+        maxX = Math.ceil(Math.min(maxX, area.getMaxX()));
+        maxY = Math.ceil(Math.min(maxY, area.getMaxY()));
+        if (maxX <= minX || maxY <= minY) // the region is outside the draw area
+            return;
+        double width = maxX - minX, height = maxY - minY;
+        redrawAreaBounds = new BoundingBox(minX, minY, width, height);
+        int newDrawCount = getDrawCount() + 1;
+        gc.save();
+        gc.beginPath();
+        gc.moveTo(minX, minY);
+        gc.lineTo(maxX, minY);
+        gc.lineTo(maxX, maxY);
+        gc.lineTo(minX, maxY);
+        gc.closePath();
+        gc.clip();
+        clearArea(minX, minY, width, height);
+        drawCountProperty.set(-newDrawCount); // may trigger onBeforeDraw runnable(s)
+        drawObjectsInArea();
+        drawCountProperty.set(newDrawCount); // may trigger onAfterDraw runnable(s)
+        gc.restore();
+    }
+
+    private void resetDamage() {
+        damageMinX = damageMinY = Double.POSITIVE_INFINITY;
+        damageMaxX = damageMaxY = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * @return the area redrawn by the current draw pass (the draw area, or just the damaged part of it). Subclasses
+     * should draw only the objects intersecting this area in drawObjectsInArea().
+     */
+    protected Bounds getRedrawAreaBounds() {
+        return redrawAreaBounds != null ? redrawAreaBounds : getDrawAreaOrCanvasBounds();
+    }
+
+    public boolean isRedrawRegionsShown() {
+        return redrawRegionsShown;
+    }
+
+    // Debug overlay that outlines the region redrawn by each draw pass
+    public void setRedrawRegionsShown(boolean redrawRegionsShown) {
+        this.redrawRegionsShown = redrawRegionsShown;
+        markDrawAreaAsDirty();
+    }
+
+    // Called after the clip of the draw pass is removed, so the outline is not cut. The next draw pass erases it.
+    private void showRedrawRegion() {
+        Bounds b = redrawAreaBounds;
+        redrawAreaBounds = null;
+        if (redrawRegionsShown && b != null) {
+            shownRedrawRegion = b;
+            gc.save();
+            gc.setStroke(REDRAW_REGION_STROKE);
+            gc.setLineWidth(1);
+            gc.strokeRect(b.getMinX() + 0.5, b.getMinY() + 0.5, b.getWidth() - 1, b.getHeight() - 1);
+            gc.restore();
+        }
     }
 
     protected abstract void drawObjectsInArea();
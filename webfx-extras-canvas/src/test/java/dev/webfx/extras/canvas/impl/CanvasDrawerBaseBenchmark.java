@@ -0,0 +1,78 @@
+package dev.webfx.extras.canvas.impl;
+
+import javafx.geometry.Bounds;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Headless frame-cost benchmark of a single bar changing its colour on each frame among 10k bars, with a full redraw
+ * versus a dirty-region redraw (not run by default, as not named *Test - run it explicitly with
+ * -Dtest=CanvasDrawerBaseBenchmark). It reports the average cost of a frame and the number of bars drawn per frame.
+ *
+ * @author Bruno Salmon
+ */
+class CanvasDrawerBaseBenchmark {
+
+    private static final int COLUMNS = 100, ROWS = 100, BAR_WIDTH = 20, BAR_HEIGHT = 10, FRAMES = 500;
+
+    private static final class BarsCanvasDrawer extends CanvasDrawerBase {
+        final Color[] barColors = new Color[COLUMNS * ROWS];
+        long drawnBarCount;
+
+        BarsCanvasDrawer() {
+            super(new Canvas(COLUMNS * BAR_WIDTH, ROWS * BAR_HEIGHT));
+            for (int i = 0; i < barColors.length; i++)
+                barColors[i] = Color.BLUE;
+        }
+
+        @Override
+        protected void drawObjectsInArea() {
+            Bounds area = getRedrawAreaBounds();
+            for (int i = 0; i < barColors.length; i++) {
+                double x = i % COLUMNS * BAR_WIDTH, y = i / COLUMNS * BAR_HEIGHT;
+                if (area.intersects(x, y, BAR_WIDTH, BAR_HEIGHT)) {
+                    gc.setFill(barColors[i]);
+                    gc.fillRect(x + 1, y + 1, BAR_WIDTH - 2, BAR_HEIGHT - 2);
+                    drawnBarCount++;
+                }
+            }
+        }
+    }
+
+    @Test
+    void redrawOneBarPerFrame() {
+        for (int warmup = 0; warmup < 3; warmup++) {
+            run("full redraw ", false, false);
+            run("dirty region", true, false);
+        }
+        run("full redraw ", false, true);
+        run("dirty region", true, true);
+    }
+
+    private static void run(String name, boolean dirtyRegion, boolean report) {
+        List<Runnable> frameRunnables = new ArrayList<>();
+        BarsCanvasDrawer drawer = new BarsCanvasDrawer();
+        drawer.setFrameScheduler(frameRunnables::add);
+        drawer.drawArea();
+        drawer.drawnBarCount = 0;
+        long totalNanos = 0;
+        for (int frame = 0; frame < FRAMES; frame++) {
+            int i = frame * 7919 % drawer.barColors.length;
+            drawer.barColors[i] = drawer.barColors[i] == Color.BLUE ? Color.RED : Color.BLUE;
+            if (dirtyRegion)
+                drawer.markDrawAreaAsDirty(i % COLUMNS * BAR_WIDTH, i / COLUMNS * BAR_HEIGHT, BAR_WIDTH, BAR_HEIGHT);
+            else
+                drawer.markDrawAreaAsDirty();
+            long t0 = System.nanoTime();
+            frameRunnables.forEach(Runnable::run);
+            totalNanos += System.nanoTime() - t0;
+            frameRunnables.clear();
+        }
+        if (report)
+            System.out.println(name + ": " + totalNanos / FRAMES / 1000 + " us per frame, " + drawer.drawnBarCount / FRAMES + " bars drawn per frame");
+    }
+}
@@ -0,0 +1,102 @@
+package dev.webfx.extras.canvas.impl;
+
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.scene.canvas.Canvas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class CanvasDrawerBaseTest {
+
+    private static final class RecordingCanvasDrawer extends CanvasDrawerBase {
+        final List<Bounds> redrawAreas = new ArrayList<>();
+
+        RecordingCanvasDrawer() {
+            super(new Canvas(200, 100));
+        }
+
+        @Override
+        protected void drawObjectsInArea() {
+            redrawAreas.add(getRedrawAreaBounds());
+        }
+    }
+
+    private final List<Runnable> frameRunnables = new ArrayList<>();
+    private RecordingCanvasDrawer drawer;
+
+    @BeforeEach
+    void createDrawer() {
+        drawer = new RecordingCanvasDrawer();
+        drawer.setFrameScheduler(frameRunnables::add);
+        drawer.drawArea();
+        drawer.redrawAreas.clear();
+    }
+
+    private List<Bounds> runFrame() {
+        List<Runnable> runnables = new ArrayList<>(frameRunnables);
+        frameRunnables.clear();
+        runnables.forEach(Runnable::run);
+        List<Bounds> redrawAreas = new ArrayList<>(drawer.redrawAreas);
+        drawer.redrawAreas.clear();
+        return redrawAreas;
+    }
+
+    @Test
+    void dirtyRegionsOfAFrameAreRedrawnInOnePass() {
+        drawer.markDrawAreaAsDirty(10.5, 10, 20, 20);
+        drawer.markDrawAreaAsDirty(50, 40, 10, 10.2);
+        assertEquals(List.of(new BoundingBox(10, 10, 50, 41)), runFrame()); // union snapped to whole pixels
+        assertEquals(1, drawer.getDrawCount() - 1);
+    }
+
+    @Test
+    void wholeDirtyAreaWinsOverTheDirtyRegions() {
+        drawer.markDrawAreaAsDirty(10, 10, 20, 20);
+        drawer.markDrawAreaAsDirty();
+        assertEquals(List.of(new BoundingBox(0, 0, 200, 100)), runFrame());
+    }
+
+    @Test
+    void dirtyRegionsAreClippedToTheDrawArea() {
+        drawer.markDrawAreaAsDirty(190, 90, 50, 50);
+        assertEquals(List.of(new BoundingBox(190, 90, 10, 10)), runFrame());
+        drawer.markDrawAreaAsDirty(300, 10, 50, 50); // outside
+        assertEquals(List.of(), runFrame());
+    }
+
+    @Test
+    void layoutRegionsAreTranslatedByTheLayoutOrigin() {
+        drawer.setLayoutOriginX(100);
+        drawer.setLayoutOriginY(20);
+        runFrame();
+        drawer.markLayoutAreaAsDirty(120, 30, 10, 10);
+        assertEquals(List.of(new BoundingBox(20, 10, 10, 10)), runFrame());
+    }
+
+    @Test
+    void shownRedrawRegionIsErasedByTheNextPass() {
+        drawer.setRedrawRegionsShown(true);
+        runFrame();
+        drawer.markDrawAreaAsDirty(10, 10, 20, 20);
+        // The outline of the whole area shown by the previous pass is erased first (by redrawing its 4 edges)
+        assertEquals(List.of(
+                new BoundingBox(0, 0, 200, 1), new BoundingBox(0, 99, 200, 1), new BoundingBox(0, 1, 1, 98), new BoundingBox(199, 1, 1, 98),
+                new BoundingBox(10, 10, 20, 20)), runFrame());
+        drawer.markDrawAreaAsDirty(100, 50, 20, 20);
+        assertEquals(List.of(
+                new BoundingBox(10, 10, 20, 1), new BoundingBox(10, 29, 20, 1), new BoundingBox(10, 11, 1, 18), new BoundingBox(29, 11, 1, 18),
+                new BoundingBox(100, 50, 20, 20)), runFrame());
+        drawer.setRedrawRegionsShown(false); // full redraw => erases the last outline
+        runFrame();
+        drawer.markDrawAreaAsDirty(10, 10, 20, 20);
+        assertEquals(List.of(new BoundingBox(10, 10, 20, 20)), runFrame()); // nothing left to erase
+    }
+}
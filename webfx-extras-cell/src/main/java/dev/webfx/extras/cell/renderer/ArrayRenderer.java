@@ -1,15 +1,18 @@
 package dev.webfx.extras.cell.renderer;
 
 import dev.webfx.extras.cell.collator.NodeCollator;
+import dev.webfx.extras.cell.collator.NodeCollatorRegistry;
 import dev.webfx.platform.util.Arrays;
 import javafx.scene.Node;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
 import javafx.scene.layout.Priority;
+import java.util.List;
 
 /**
  * @author Bruno Salmon
  */
-public final class ArrayRenderer implements ValueRenderer {
+public final class ArrayRenderer implements RecyclableValueRenderer {
 
     private final ValueRenderer[] valueRenderers;
     private NodeCollator collator;
@@ -28,6 +31,24 @@ public final class ArrayRenderer implements ValueRenderer {
         return renderValue(value, valueRenderers, collator, context);
     }
 
+    @Override
+    public boolean rebindValue(Node node, Object value, ValueRenderingContext context) {
+        // Only the nodes collated in a pane by the standard collators can be rebound (child by child)
+        if (!(node instanceof Pane) || collator != NodeCollatorRegistry.hBoxCollator() && collator != NodeCollatorRegistry.vBoxCollator() && collator != NodeCollatorRegistry.flowPaneCollator())
+            return false;
+        List<Node> children = ((Pane) node).getChildren();
+        Object[] array = value instanceof Object[] ? (Object[]) value : null;
+        int n = array == null ? 0 : Math.min(Arrays.length(array), Arrays.length(valueRenderers));
+        if (children.size() != n)
+            return false;
+        for (int i = 0; i < n; i++) {
+            ValueRenderer valueRenderer = valueRenderers[i];
+            if (!(valueRenderer instanceof RecyclableValueRenderer) || !((RecyclableValueRenderer) valueRenderer).rebindValue(children.get(i), array[i], context))
+                return false;
+        }
+        return true;
+    }
+
     public static Node renderValue(Object value, ValueRenderer[] valueRenderers, NodeCollator collator) {
         return renderValue(value, valueRenderers, collator, ValueRenderingContext.DEFAULT_READONLY_CONTEXT);
     }
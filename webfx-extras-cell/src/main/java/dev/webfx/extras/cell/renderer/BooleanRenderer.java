@@ -10,7 +10,7 @@ import dev.webfx.platform.util.Booleans;
 /**
  * @author Bruno Salmon
  */
-public final class BooleanRenderer implements ValueRenderer {
+public final class BooleanRenderer implements RecyclableValueRenderer {
 
     public final static BooleanRenderer SINGLETON = new BooleanRenderer();
 
@@ -33,4 +33,17 @@ public final class BooleanRenderer implements ValueRenderer {
         context.bindEditedValuePropertyTo(checkBox.selectedProperty(), booleanValue);
         return checkBox;
     }
+
+    @Override
+    public boolean rebindValue(Node node, Object value, ValueRenderingContext context) {
+        // Only the icon image views are recycled (the check boxes are bound to the rendering context)
+        Object labelKey = context.getLabelKey();
+        if (!(node instanceof ImageView) || !(labelKey instanceof Label) || !context.isReadOnly())
+            return false;
+        String iconPath = ((Label) labelKey).getIconPath();
+        if (iconPath == null || !ImageRenderer.isShowingImage((ImageView) node, iconPath))
+            return false;
+        node.setVisible(Booleans.isTrue(value));
+        return true;
+    }
 }
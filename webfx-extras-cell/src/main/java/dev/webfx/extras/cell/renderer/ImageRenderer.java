@@ -1,13 +1,16 @@
 package dev.webfx.extras.cell.renderer;
 
+import javafx.scene.Node;
+import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import dev.webfx.extras.imagestore.ImageStore;
+import dev.webfx.platform.util.Objects;
 import dev.webfx.platform.util.Strings;
 
 /**
  * @author Bruno Salmon
  */
-public final class ImageRenderer implements ValueRenderer {
+public final class ImageRenderer implements RecyclableValueRenderer {
 
     public final static ImageRenderer SINGLETON = new ImageRenderer();
 
@@ -17,4 +20,15 @@ public final class ImageRenderer implements ValueRenderer {
     public ImageView renderValue(Object value, ValueRenderingContext context) {
         return ImageStore.createImageView(Strings.toString(value));
     }
+
+    @Override
+    public boolean rebindValue(Node node, Object value, ValueRenderingContext context) {
+        // Only an image view already showing the same image can be reused (ex: status icons)
+        return node instanceof ImageView && isShowingImage((ImageView) node, Strings.toString(value));
+    }
+
+    static boolean isShowingImage(ImageView imageView, String url) {
+        Image image = imageView.getImage();
+        return Objects.areEquals(url, image == null ? null : image.getUrl());
+    }
 }
@@ -4,12 +4,15 @@ import dev.webfx.extras.cell.collator.NodeCollatorRegistry;
 import dev.webfx.platform.util.Arrays;
 import javafx.scene.Node;
 import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
 import javafx.scene.text.Text;
 
+import java.util.List;
+
 /**
  * @author Bruno Salmon
  */
-public final class ImageTextRenderer implements ValueRenderer {
+public final class ImageTextRenderer implements RecyclableValueRenderer {
 
     public final static ImageTextRenderer SINGLETON = new ImageTextRenderer();
 
@@ -19,12 +22,31 @@ public final class ImageTextRenderer implements ValueRenderer {
     public Node renderValue(Object value, ValueRenderingContext context) {
         Object[] array = getAndCheckArray(value);
         if (array != null)
-            return NodeCollatorRegistry.hBoxCollator().collateNodes(getImage(array), getTextNode(array));
+            return NodeCollatorRegistry.hBoxCollator().collateNodes(getImage(array), getTextNode(array, context));
         // When the value is null, we don't return null (otherwise this may skip a row in a DataGrid and the selected
         // row index will not match what the user sees). So we return an empty HBox instead.
         return NodeCollatorRegistry.hBoxCollator().collateNodes();
     }
 
+    @Override
+    public boolean rebindValue(Node node, Object value, ValueRenderingContext context) {
+        if (!(node instanceof HBox))
+            return false;
+        List<Node> children = ((HBox) node).getChildren();
+        Object[] array = getAndCheckArray(value);
+        if (array == null)
+            return children.isEmpty();
+        if (children.size() != 2 || !(children.get(1) instanceof Text) || !ImageRenderer.SINGLETON.rebindValue(children.get(0), getImageUrl(array), context))
+            return false;
+        TextRenderer.rebindText((Text) children.get(1), getText(array), safeContext(context));
+        return true;
+    }
+
+    // The text is always rendered read-only, but with the text align of the context (if any)
+    private static ValueRenderingContext safeContext(ValueRenderingContext context) {
+        return context != null ? context : ValueRenderingContext.DEFAULT_READONLY_CONTEXT;
+    }
+
     public Object[] getAndCheckArray(Object value) {
         Object[] array = null;
         if (value instanceof Object[]) {
@@ -48,8 +70,7 @@ public final class ImageTextRenderer implements ValueRenderer {
         return Arrays.getString(array, 1);
     }
 
-    private Text getTextNode(Object[] array) {
-        String text = getText(array);
-        return (Text) TextRenderer.SINGLETON.renderValue(text);
+    private Text getTextNode(Object[] array, ValueRenderingContext context) {
+        return TextRenderer.renderText(getText(array), safeContext(context));
     }
 }
@@ -0,0 +1,19 @@
+package dev.webfx.extras.cell.renderer;
+
+import javafx.scene.Node;
+
+/**
+ * Optional contract for the value renderers that can bind a node they previously rendered to a new value, instead of
+ * creating a new node. This is used by ValueRendererNodePool to recycle the cell nodes when a grid is refreshed.
+ *
+ * @author Bruno Salmon
+ */
+public interface RecyclableValueRenderer extends ValueRenderer {
+
+    /**
+     * @param node a node previously returned by renderValue() on this renderer (and no longer displayed)
+     * @return true if the node now displays the new value, false if it can't be reused (it will then be discarded)
+     */
+    boolean rebindValue(Node node, Object value, ValueRenderingContext context);
+
+}
@@ -12,7 +12,7 @@ import java.util.function.BiFunction;
 /**
  * @author Bruno Salmon
  */
-public final class TextRenderer implements ValueRenderer {
+public final class TextRenderer implements RecyclableValueRenderer {
 
     public final static TextRenderer SINGLETON = new TextRenderer();
 
@@ -28,12 +28,32 @@ public final class TextRenderer implements ValueRenderer {
     public Node renderValue(Object value, ValueRenderingContext context) {
         String stringValue = Strings.toSafeString(value);
         if (context.isReadOnly())
-            return applyRenderingContextToText(new Text(stringValue), context);
+            return renderText(stringValue, context);
         TextField textField = applyRenderingContextToTextField(textFieldFactory.apply(context.getLabelKey(), context.getPlaceholderKey()), context);
         context.bindEditedValuePropertyTo(textField.textProperty(), stringValue);
         return textField;
     }
 
+    @Override
+    public boolean rebindValue(Node node, Object value, ValueRenderingContext context) {
+        if (!(node instanceof Text) || !context.isReadOnly())
+            return false; // the text fields are bound to the rendering context, so they are not recycled
+        rebindText((Text) node, value, context);
+        return true;
+    }
+
+    // Read-only text rendering (whatever the context read-only flag), also used for the text of ImageTextRenderer
+    static Text renderText(Object value, ValueRenderingContext context) {
+        return applyRenderingContextToText(new Text(Strings.toSafeString(value)), context);
+    }
+
+    // Makes a recycled text identical to a text rendered by renderText() with the same value and context
+    static void rebindText(Text text, Object value, ValueRenderingContext context) {
+        text.setText(Strings.toSafeString(value));
+        text.setTextAlignment(TextAlignment.LEFT); // default value, in case the context has no text align
+        applyRenderingContextToText(text, context);
+    }
+
     private static Text applyRenderingContextToText(Text text, ValueRenderingContext context) {
         if (context.getTextAlign() != null) {
             TextAlignment textAlignment = null;
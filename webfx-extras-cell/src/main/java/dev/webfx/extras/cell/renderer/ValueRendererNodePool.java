@@ -0,0 +1,73 @@
+package dev.webfx.extras.cell.renderer;
+
+import javafx.scene.Node;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pool of the nodes rendered by the value renderers, kept per renderer. When a node is no longer displayed, it can be
+ * given back to the pool, and the next rendering with the same renderer will rebind it to the new value (if the
+ * renderer is a RecyclableValueRenderer) instead of creating a new node.
+ *
+ * @author Bruno Salmon
+ */
+public final class ValueRendererNodePool {
+
+    private static final int MAX_REBIND_ATTEMPTS = 8; // keeps the rendering cost bounded when the nodes are often rejected
+
+    private final Map<ValueRenderer, List<Node>> freeNodes = new HashMap<>();
+    private final int maxFreeNodesPerRenderer;
+    private int createdNodeCount, reusedNodeCount;
+
+    public ValueRendererNodePool() {
+        this(1000);
+    }
+
+    public ValueRendererNodePool(int maxFreeNodesPerRenderer) {
+        this.maxFreeNodesPerRenderer = maxFreeNodesPerRenderer;
+    }
+
+    public Node renderValue(ValueRenderer renderer, Object value, ValueRenderingContext context) {
+        if (renderer instanceof RecyclableValueRenderer) {
+            List<Node> nodes = freeNodes.get(renderer);
+            // Trying the most recently freed nodes first. A node can be rejected (ex: ImageRenderer only accepts an image
+            // view already showing the same image), in which case it stays in the pool for another value.
+            for (int i = nodes == null ? -1 : nodes.size() - 1, attempts = 0; i >= 0 && attempts < MAX_REBIND_ATTEMPTS; i--, attempts++) {
+                Node node = nodes.get(i);
+                if (((RecyclableValueRenderer) renderer).rebindValue(node, value, context)) {
+                    // Removing the node from the pool (by moving the last node to its place, as the order doesn't matter)
+                    Node lastNode = nodes.remove(nodes.size() - 1);
+                    if (lastNode != node)
+                        nodes.set(i, lastNode);
+                    reusedNodeCount++;
+                    return node;
+                }
+            }
+        }
+        createdNodeCount++;
+        return renderer.renderValue(value, context);
+    }
+
+    public void recycle(ValueRenderer renderer, Node node) {
+        if (node != null && renderer instanceof RecyclableValueRenderer) {
+            List<Node> nodes = freeNodes.computeIfAbsent(renderer, r -> new ArrayList<>());
+            if (nodes.size() < maxFreeNodesPerRenderer)
+                nodes.add(node);
+        }
+    }
+
+    public void clear() {
+        freeNodes.clear();
+    }
+
+    public int getCreatedNodeCount() {
+        return createdNodeCount;
+    }
+
+    public int getReusedNodeCount() {
+        return reusedNodeCount;
+    }
+}
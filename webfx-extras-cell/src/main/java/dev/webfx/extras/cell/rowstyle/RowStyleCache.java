@@ -0,0 +1,163 @@
+package dev.webfx.extras.cell.rowstyle;
+
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Paint;
+import javafx.scene.paint.Stop;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interning cache that resolves the values of the "style" and "background" role columns of a visual result into
+ * immutable objects (style classes array, style string, paint and background). Rows having the same value share the
+ * same instances, instead of parsing and allocating them again for each row on each refresh. The cache is bounded (the
+ * least recently used entries are evicted) and counts its hits and misses. Each visual result control skin or peer has
+ * its own cache by default (see their setRowStyleCache() to share one between several grids or change its size).
+ *
+ * @author Bruno Salmon
+ */
+public final class RowStyleCache {
+
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    private final Map<String, Paint> backgroundPaints;
+    private final Map<Paint, Background> backgrounds;
+    private final Map<List<Object>, StyleEntry> styles;
+    private int hitCount, missCount;
+
+    public RowStyleCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public RowStyleCache(int maxSize) {
+        backgroundPaints = new LruMap<>(maxSize);
+        backgrounds = new LruMap<>(maxSize);
+        styles = new LruMap<>(maxSize);
+    }
+
+    /**
+     * @return the paint for a "background" column value (a color string is turned into a vertical gradient), or null
+     */
+    public Paint getBackgroundPaint(Object value) {
+        if (!(value instanceof String))
+            return null;
+        String key = (String) value;
+        Paint paint = backgroundPaints.get(key);
+        if (paint != null)
+            hitCount++;
+        else {
+            missCount++;
+            paint = Paint.valueOf(key);
+            if (paint instanceof Color) {
+                Color color = (Color) paint;
+                paint = new LinearGradient(0, 0, 0, 1, true, CycleMethod.NO_CYCLE, new Stop(0, color.deriveColor(0, 1.0, 1.2, 1.0)), new Stop(1, color.deriveColor(0, 1.0, 0.8, 1.0)));
+            }
+            backgroundPaints.put(key, paint);
+        }
+        return paint;
+    }
+
+    public Background getBackground(Paint fill) {
+        if (fill == null)
+            return null;
+        Background background = backgrounds.get(fill);
+        if (background != null)
+            hitCount++;
+        else {
+            missCount++;
+            backgrounds.put(fill, background = new Background(new BackgroundFill(fill, null, null)));
+        }
+        return background;
+    }
+
+    /**
+     * @return the non-null style classes for a "style" column value (an array), or null. The returned array must not be
+     * modified.
+     */
+    public Object[] getStyleClasses(Object value) {
+        StyleEntry entry = getStyleEntry(value);
+        return entry == null ? null : entry.styleClasses;
+    }
+
+    /**
+     * @return the style classes for a "style" column value joined with spaces (as for the html class attribute), or null
+     */
+    public String getStyle(Object value) {
+        StyleEntry entry = getStyleEntry(value);
+        return entry == null ? null : entry.style;
+    }
+
+    private StyleEntry getStyleEntry(Object value) {
+        if (!(value instanceof Object[]))
+            return null;
+        Object[] array = (Object[]) value;
+        StyleEntry entry = styles.get(Arrays.asList(array));
+        if (entry != null)
+            hitCount++;
+        else {
+            missCount++;
+            entry = new StyleEntry(array);
+            styles.put(Arrays.asList(array.clone()), entry); // copy, in case the caller modifies its array
+        }
+        return entry;
+    }
+
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    public int getMissCount() {
+        return missCount;
+    }
+
+    public void clear() {
+        backgroundPaints.clear();
+        backgrounds.clear();
+        styles.clear();
+        hitCount = missCount = 0;
+    }
+
+    private static final class StyleEntry {
+        private final String[] styleClasses;
+        private final String style;
+
+        StyleEntry(Object[] values) {
+            int count = 0;
+            for (Object value : values)
+                if (value != null)
+                    count++;
+            styleClasses = new String[count];
+            StringBuilder sb = new StringBuilder();
+            count = 0;
+            for (Object value : values) {
+                if (value != null) {
+                    String styleClass = styleClasses[count++] = value.toString();
+                    if (sb.length() > 0)
+                        sb.append(' ');
+                    sb.append(styleClass);
+                }
+            }
+            style = sb.toString().trim();
+        }
+    }
+
+    private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+        private final int maxSize;
+
+        LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
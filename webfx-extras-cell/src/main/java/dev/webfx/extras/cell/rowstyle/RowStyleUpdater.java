@@ -29,6 +29,8 @@ public final class RowStyleUpdater {
     }
 
     private void updateRowStyle(Object[] newStyles) {
+        if (newStyles == styles) // happens when the styles are interned (see RowStyleCache)
+            return;
         if (newStyles != null)
             for (int i = 0; i < newStyles.length; i++) {
                 String newStyleClass = Strings.toString(newStyles[i]);
@@ -0,0 +1,65 @@
+package dev.webfx.extras.cell.renderer;
+
+import javafx.scene.Node;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class ImageTextRendererTest {
+
+    private static final ValueRenderingContext RIGHT_CONTEXT = new ValueRenderingContext(true, null, null, "right");
+    private static final ValueRenderingContext EDITABLE_CENTER_CONTEXT = new ValueRenderingContext(false, null, null, "center");
+
+    // No image url, so the image store doesn't load anything
+    private static Object[] value(String text) {
+        return new Object[] {null, text};
+    }
+
+    private static void assertSameRendering(Node expected, Node actual) {
+        List<Node> expectedChildren = ((HBox) expected).getChildren(), actualChildren = ((HBox) actual).getChildren();
+        assertEquals(expectedChildren.size(), actualChildren.size());
+        assertTrue(actualChildren.get(0) instanceof ImageView);
+        Text expectedText = (Text) expectedChildren.get(1), actualText = (Text) actualChildren.get(1);
+        assertEquals(expectedText.getText(), actualText.getText());
+        assertEquals(expectedText.getTextAlignment(), actualText.getTextAlignment());
+    }
+
+    @Test
+    void reboundCellMatchesANewCell() {
+        ImageTextRenderer renderer = ImageTextRenderer.SINGLETON;
+        for (ValueRenderingContext context : new ValueRenderingContext[] {RIGHT_CONTEXT, EDITABLE_CENTER_CONTEXT, ValueRenderingContext.DEFAULT_READONLY_CONTEXT, null}) {
+            Node node = renderer.renderValue(value("a"), RIGHT_CONTEXT);
+            assertTrue(renderer.rebindValue(node, value("b"), context));
+            assertSameRendering(renderer.renderValue(value("b"), context), node);
+        }
+    }
+
+    @Test
+    void textAlignOfTheContextIsKept() {
+        ImageTextRenderer renderer = ImageTextRenderer.SINGLETON;
+        Node node = renderer.renderValue(value("a"), RIGHT_CONTEXT);
+        assertEquals(TextAlignment.RIGHT, ((Text) ((HBox) node).getChildren().get(1)).getTextAlignment());
+        assertTrue(renderer.rebindValue(node, value("b"), RIGHT_CONTEXT));
+        assertEquals(TextAlignment.RIGHT, ((Text) ((HBox) node).getChildren().get(1)).getTextAlignment());
+        assertTrue(renderer.rebindValue(node, value("c"), EDITABLE_CENTER_CONTEXT)); // the text stays read-only
+        assertEquals(TextAlignment.CENTER, ((Text) ((HBox) node).getChildren().get(1)).getTextAlignment());
+    }
+
+    @Test
+    void emptyCellIsReboundOnlyToANullValue() {
+        ImageTextRenderer renderer = ImageTextRenderer.SINGLETON;
+        Node empty = renderer.renderValue(null, RIGHT_CONTEXT);
+        assertTrue(renderer.rebindValue(empty, null, RIGHT_CONTEXT));
+        assertFalse(renderer.rebindValue(empty, value("a"), RIGHT_CONTEXT));
+        assertFalse(renderer.rebindValue(renderer.renderValue(value("a"), RIGHT_CONTEXT), null, RIGHT_CONTEXT));
+    }
+}
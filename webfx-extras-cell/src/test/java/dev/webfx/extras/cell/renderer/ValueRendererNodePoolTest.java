@@ -0,0 +1,79 @@
+package dev.webfx.extras.cell.renderer;
+
+import javafx.scene.Group;
+import javafx.scene.Node;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class ValueRendererNodePoolTest {
+
+    // Renderer that only rebinds a node already showing the same value (like ImageRenderer with the image urls)
+    private static final RecyclableValueRenderer SAME_VALUE_RENDERER = new RecyclableValueRenderer() {
+        @Override
+        public Node renderValue(Object value, ValueRenderingContext context) {
+            Group node = new Group();
+            node.setUserData(value);
+            return node;
+        }
+
+        @Override
+        public boolean rebindValue(Node node, Object value, ValueRenderingContext context) {
+            return value.equals(node.getUserData());
+        }
+    };
+
+    @Test
+    void reusesARecycledNode() {
+        ValueRendererNodePool pool = new ValueRendererNodePool();
+        Node node = pool.renderValue(SAME_VALUE_RENDERER, "a", null);
+        pool.recycle(SAME_VALUE_RENDERER, node);
+        assertSame(node, pool.renderValue(SAME_VALUE_RENDERER, "a", null));
+        assertEquals(1, pool.getCreatedNodeCount());
+        assertEquals(1, pool.getReusedNodeCount());
+        assertNotSame(node, pool.renderValue(SAME_VALUE_RENDERER, "a", null)); // no longer in the pool
+    }
+
+    @Test
+    void rejectedNodesStayInThePool() {
+        ValueRendererNodePool pool = new ValueRendererNodePool();
+        Node a = pool.renderValue(SAME_VALUE_RENDERER, "a", null);
+        Node b = pool.renderValue(SAME_VALUE_RENDERER, "b", null);
+        Node c = pool.renderValue(SAME_VALUE_RENDERER, "c", null);
+        pool.recycle(SAME_VALUE_RENDERER, a);
+        pool.recycle(SAME_VALUE_RENDERER, b);
+        pool.recycle(SAME_VALUE_RENDERER, c);
+        Node d = pool.renderValue(SAME_VALUE_RENDERER, "d", null); // rejected by all free nodes
+        assertNotSame(a, d);
+        assertNotSame(b, d);
+        assertNotSame(c, d);
+        assertSame(a, pool.renderValue(SAME_VALUE_RENDERER, "a", null)); // a was not lost
+        assertSame(c, pool.renderValue(SAME_VALUE_RENDERER, "c", null));
+        assertSame(b, pool.renderValue(SAME_VALUE_RENDERER, "b", null));
+        assertEquals(3, pool.getReusedNodeCount());
+    }
+
+    @Test
+    void notRecyclableRendererAlwaysCreatesNodes() {
+        ValueRenderer renderer = (value, context) -> new Group();
+        ValueRendererNodePool pool = new ValueRendererNodePool();
+        Node node = pool.renderValue(renderer, "a", null);
+        pool.recycle(renderer, node);
+        assertNotSame(node, pool.renderValue(renderer, "a", null));
+        assertEquals(0, pool.getReusedNodeCount());
+    }
+
+    @Test
+    void poolIsBounded() {
+        ValueRendererNodePool pool = new ValueRendererNodePool(1);
+        Node a = pool.renderValue(SAME_VALUE_RENDERER, "a", null);
+        Node b = pool.renderValue(SAME_VALUE_RENDERER, "b", null);
+        pool.recycle(SAME_VALUE_RENDERER, a);
+        pool.recycle(SAME_VALUE_RENDERER, b); // dropped
+        assertNotSame(b, pool.renderValue(SAME_VALUE_RENDERER, "b", null));
+        assertSame(a, pool.renderValue(SAME_VALUE_RENDERER, "a", null));
+    }
+}
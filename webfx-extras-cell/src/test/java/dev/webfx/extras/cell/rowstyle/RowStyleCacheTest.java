@@ -0,0 +1,93 @@
+package dev.webfx.extras.cell.rowstyle;
+
+import javafx.scene.layout.Background;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Paint;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class RowStyleCacheTest {
+
+    @Test
+    void equalValuesShareTheSameInstances() {
+        RowStyleCache cache = new RowStyleCache();
+        Object[] styleClasses = cache.getStyleClasses(new Object[] {"a", "b"});
+        assertArrayEquals(new Object[] {"a", "b"}, styleClasses);
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertSame(styleClasses, cache.getStyleClasses(new Object[] {"a", "b"})); // equal but not the same array
+        assertEquals("a b", cache.getStyle(new Object[] {"a", "b"}));
+        assertEquals(2, cache.getHitCount());
+        Paint paint = cache.getBackgroundPaint("red");
+        assertTrue(paint instanceof LinearGradient);
+        assertSame(paint, cache.getBackgroundPaint("red"));
+        Background background = cache.getBackground(Color.BLUE);
+        assertSame(background, cache.getBackground(Color.BLUE));
+        assertEquals(4, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    void nullStyleClassesAreFiltered() {
+        RowStyleCache cache = new RowStyleCache();
+        Object[] value = {null, "a", null, 1, null};
+        assertArrayEquals(new Object[] {"a", "1"}, cache.getStyleClasses(value));
+        assertEquals("a 1", cache.getStyle(value));
+        assertArrayEquals(new Object[0], cache.getStyleClasses(new Object[] {null}));
+        assertEquals("", cache.getStyle(new Object[] {null}));
+    }
+
+    @Test
+    void unsupportedValuesAreNotCached() {
+        RowStyleCache cache = new RowStyleCache();
+        assertNull(cache.getStyleClasses("a"));
+        assertNull(cache.getStyle(null));
+        assertNull(cache.getBackgroundPaint(1));
+        assertNull(cache.getBackground(null));
+        assertEquals(0, cache.getHitCount() + cache.getMissCount());
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvicted() {
+        RowStyleCache cache = new RowStyleCache(2);
+        Object[] a = cache.getStyleClasses(new Object[] {"a"});
+        Object[] b = cache.getStyleClasses(new Object[] {"b"});
+        assertSame(a, cache.getStyleClasses(new Object[] {"a"})); // a is now more recently used than b
+        cache.getStyleClasses(new Object[] {"c"}); // evicts b
+        assertEquals(1, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        assertSame(a, cache.getStyleClasses(new Object[] {"a"}));
+        assertEquals(2, cache.getHitCount());
+        Object[] newB = cache.getStyleClasses(new Object[] {"b"}); // evicts c
+        assertNotSame(b, newB);
+        assertArrayEquals(b, newB);
+        assertEquals(4, cache.getMissCount());
+        cache.getStyleClasses(new Object[] {"c"});
+        assertEquals(5, cache.getMissCount());
+    }
+
+    @Test
+    void modifyingTheValueArrayDoesntAffectTheCache() {
+        RowStyleCache cache = new RowStyleCache();
+        Object[] value = {"a"};
+        Object[] styleClasses = cache.getStyleClasses(value);
+        value[0] = "b";
+        assertArrayEquals(new Object[] {"b"}, cache.getStyleClasses(value));
+        assertSame(styleClasses, cache.getStyleClasses(new Object[] {"a"}));
+    }
+
+    @Test
+    void clearResetsTheEntriesAndCounts() {
+        RowStyleCache cache = new RowStyleCache();
+        Object[] styleClasses = cache.getStyleClasses(new Object[] {"a"});
+        cache.clear();
+        assertEquals(0, cache.getHitCount() + cache.getMissCount());
+        assertNotSame(styleClasses, cache.getStyleClasses(new Object[] {"a"}));
+        assertEquals(1, cache.getMissCount());
+    }
+}
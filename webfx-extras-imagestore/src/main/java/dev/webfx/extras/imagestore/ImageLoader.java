@@ -0,0 +1,50 @@
+package dev.webfx.extras.imagestore;
+
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.image.Image;
+
+/**
+ * Creates the images of the ImageStore and reports their loading. This is the only place where the images are actually
+ * loaded, so it can be replaced by a fake loader (ex: in tests, where there is no network nor graphics toolkit).
+ *
+ * @author Bruno Salmon
+ */
+class ImageLoader {
+
+    Image createImage(String url, double w, double h, boolean preserveRatio, boolean smooth) {
+        return new Image(url, w, h, preserveRatio, smooth, true);
+    }
+
+    void cancelImage(Image image) {
+        image.cancel();
+    }
+
+    boolean isImageLoaded(Image image) {
+        return image.getWidth() > 0;
+    }
+
+    boolean isImageFailed(Image image) {
+        return image.isError();
+    }
+
+    void runOnImageLoaded(Image image, Runnable runnable) {
+        image.widthProperty().addListener(new ChangeListener<Number>() { // just diamond <> doesn't compile with GWT for any reason
+            @Override
+            public void changed(ObservableValue<? extends Number> observable, Number oldValue, Number newValue) {
+                observable.removeListener(this);
+                runnable.run();
+            }
+        });
+    }
+
+    void runOnImageFailed(Image image, Runnable runnable) {
+        image.errorProperty().addListener(new ChangeListener<Boolean>() { // just diamond <> doesn't compile with GWT for any reason
+            @Override
+            public void changed(ObservableValue<? extends Boolean> observable, Boolean oldValue, Boolean newValue) {
+                observable.removeListener(this);
+                runnable.run();
+            }
+        });
+    }
+}
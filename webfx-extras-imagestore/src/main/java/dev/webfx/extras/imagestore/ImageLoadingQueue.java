@@ -0,0 +1,203 @@
+package dev.webfx.extras.imagestore;
+
+import dev.webfx.extras.util.ViewportUtil;
+import dev.webfx.platform.uischeduler.UiScheduler;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Scene;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Queue of the image view loads requested to the ImageStore, limiting the number of images loading at the same time, so
+ * that a page with many images (ex: a photo gallery) doesn't stall the other loads. There is no limit by default (the
+ * queue is then not used). The limit applies to the distinct images loading, so several image views requesting the
+ * same image (which is shared by the ImageStore) count as one load. The queue is processed in the next
+ * animation frame, so the requesting image views have time to be inserted in the scene, and the image views that are in
+ * the viewport are loaded first (then the others in the request order). A request is cancelled when its image view
+ * leaves the scene (and requested again if it comes back). If its image was already loading and no other image view
+ * is waiting for it, the load itself is cancelled (and the image removed from the ImageStore), freeing its slot.
+ *
+ * Note: the viewport priority is dynamic (it changes while the user scrolls), so it's evaluated on each poll by scanning
+ * the queue rather than kept in a priority queue.
+ *
+ * @author Bruno Salmon
+ */
+final class ImageLoadingQueue {
+
+    private static int maxConcurrentLoads; // <= 0 means no limit
+    private static final List<LoadingImage> loadingImages = new ArrayList<>();
+    private static final List<ImageLoadRequest> queue = new ArrayList<>();
+    // Key of the image view property holding its pending request (queued, loading, or cancelled while out of the scene)
+    private static final String REQUEST_PROPERTY_KEY = "imageLoadRequest";
+    private static boolean processScheduled;
+    // Optional frame scheduler replacing UiScheduler (ex: to drive the animation frames from a test)
+    private static Consumer<Runnable> frameScheduler;
+
+    static void setFrameScheduler(Consumer<Runnable> frameScheduler) {
+        ImageLoadingQueue.frameScheduler = frameScheduler;
+        processScheduled = false;
+        scheduleProcess();
+    }
+
+    static int getMaxConcurrentLoads() {
+        return maxConcurrentLoads;
+    }
+
+    static void setMaxConcurrentLoads(int maxConcurrentLoads) {
+        ImageLoadingQueue.maxConcurrentLoads = maxConcurrentLoads;
+        scheduleProcess();
+    }
+
+    static boolean isQueueing() {
+        return maxConcurrentLoads > 0;
+    }
+
+    static int getQueuedLoadCount() {
+        return queue.size();
+    }
+
+    static int getActiveLoadCount() {
+        return loadingImages.size();
+    }
+
+    static void enqueue(ImageView imageView, Supplier<Image> imageLoader) {
+        ImageLoadRequest request = new ImageLoadRequest(imageView, imageLoader);
+        imageView.getProperties().put(REQUEST_PROPERTY_KEY, request);
+        imageView.sceneProperty().addListener(request);
+        queue.add(request);
+        scheduleProcess();
+    }
+
+    private static void scheduleProcess() {
+        if (!processScheduled && !queue.isEmpty()) {
+            processScheduled = true;
+            if (frameScheduler != null)
+                frameScheduler.accept(ImageLoadingQueue::process);
+            else
+                UiScheduler.scheduleInAnimationFrame(ImageLoadingQueue::process);
+        }
+    }
+
+    private static void process() {
+        processScheduled = false;
+        while (!queue.isEmpty() && (!isQueueing() || loadingImages.size() < maxConcurrentLoads))
+            pollBestRequest().start();
+    }
+
+    private static ImageLoadRequest pollBestRequest() {
+        int bestIndex = 0;
+        for (int i = 0; i < queue.size(); i++) {
+            if (ViewportUtil.isNodeInViewport(queue.get(i).imageView)) {
+                bestIndex = i;
+                break;
+            }
+        }
+        return queue.remove(bestIndex);
+    }
+
+    private static LoadingImage getLoadingImage(Image image) {
+        for (LoadingImage loadingImage : loadingImages) // Note: short list (max concurrent loads)
+            if (loadingImage.image == image)
+                return loadingImage;
+        return null;
+    }
+
+    private static void onLoadFinished(LoadingImage loadingImage) {
+        if (loadingImages.remove(loadingImage)) { // otherwise cancelled
+            for (ImageLoadRequest request : loadingImage.requests)
+                request.finish();
+            scheduleProcess();
+        }
+    }
+
+    /**
+     * Called when the image view of a pending request leaves or comes back into the scene (this is also the entry point
+     * for the tests, as there is no scene without UI toolkit).
+     */
+    static void onImageViewSceneChanged(ImageView imageView, boolean inScene) {
+        Object request = imageView.getProperties().get(REQUEST_PROPERTY_KEY);
+        if (request instanceof ImageLoadRequest)
+            onRequestSceneChanged((ImageLoadRequest) request, inScene);
+    }
+
+    private static void onRequestSceneChanged(ImageLoadRequest request, boolean inScene) {
+        LoadingImage loadingImage = request.loadingImage;
+        if (!inScene) { // the image view left the scene => cancelling the request
+            if (loadingImage == null)
+                queue.remove(request);
+            else {
+                request.loadingImage = null;
+                loadingImage.requests.remove(request);
+                // The load is cancelled if no other image view needs that image
+                if (loadingImage.requests.isEmpty() && loadingImages.remove(loadingImage)) {
+                    if (request.imageView.getImage() == loadingImage.image)
+                        request.imageView.setImage(null);
+                    ImageStore.cancelImageLoad(loadingImage.image);
+                    scheduleProcess(); // the load slot is free
+                }
+            }
+        } else if (loadingImage == null && !queue.contains(request)) { // the image view is back in the scene => requesting the image again
+            queue.add(request);
+            scheduleProcess();
+        }
+    }
+
+    // An image loading, with the requests waiting for it (several requests can share the same image - same url & size -
+    // which is counted as one load)
+    private static final class LoadingImage {
+
+        private final Image image;
+        private final List<ImageLoadRequest> requests = new ArrayList<>();
+
+        LoadingImage(Image image) {
+            this.image = image;
+        }
+    }
+
+    private static final class ImageLoadRequest implements ChangeListener<Scene> {
+
+        private final ImageView imageView;
+        private final Supplier<Image> imageLoader;
+        private LoadingImage loadingImage; // set while the image is loading
+
+        ImageLoadRequest(ImageView imageView, Supplier<Image> imageLoader) {
+            this.imageView = imageView;
+            this.imageLoader = imageLoader;
+        }
+
+        @Override
+        public void changed(ObservableValue<? extends Scene> observable, Scene oldScene, Scene newScene) {
+            onRequestSceneChanged(this, newScene != null);
+        }
+
+        void start() {
+            Image image = imageLoader.get();
+            if (image == null || ImageStore.isImageLoadedOrFailed(image)) {
+                finish();
+                return;
+            }
+            // Still listening to the scene while loading, so the load can be cancelled if the image view leaves it
+            LoadingImage loadingImage = getLoadingImage(image);
+            if (loadingImage == null) {
+                loadingImages.add(loadingImage = new LoadingImage(image));
+                LoadingImage finalLoadingImage = loadingImage;
+                ImageStore.runOnImageLoadedOrFailed(image, () -> onLoadFinished(finalLoadingImage));
+            }
+            loadingImage.requests.add(this);
+            this.loadingImage = loadingImage;
+        }
+
+        void finish() {
+            loadingImage = null;
+            imageView.sceneProperty().removeListener(this);
+            if (imageView.getProperties().get(REQUEST_PROPERTY_KEY) == this)
+                imageView.getProperties().remove(REQUEST_PROPERTY_KEY);
+        }
+    }
+}
@@ -1,12 +1,13 @@
 package dev.webfx.extras.imagestore;
 
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import dev.webfx.kit.launcher.WebFxKitLauncher;
 
+import java.lang.ref.WeakReference;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -14,7 +15,21 @@ import java.util.Map;
  */
 public final class ImageStore {
 
-    private final static Map<String, Image> imagesCache = new /*Weak*/HashMap<>();
+    // LRU cache of the images, keyed by url and requested size & options, and bounded by a byte budget (based on the
+    // decoded size of the images).
+    private final static Map<ImageKey, CachedImage> imagesCache = new LinkedHashMap<>(16, 0.75f, true);
+    // Evicted images, weakly referenced, so the images still in use (ex: displayed in an ImageView) are not loaded again
+    // if requested again
+    private final static Map<ImageKey, WeakReference<Image>> evictedImages = new HashMap<>();
+    private static long byteBudget = 64 * 1024 * 1024;
+    private static long cachedBytes;
+    private static long hitCount, missCount, evictionCount;
+    // The loader of the images (can be replaced by a fake loader in tests)
+    private static ImageLoader imageLoader = new ImageLoader();
+
+    static void setImageLoader(ImageLoader imageLoader) {
+        ImageStore.imageLoader = imageLoader;
+    }
 
     public static ImageView createImageView(String iconPath) {
         double wh = 0;
@@ -54,34 +69,57 @@ public final class ImageStore {
                 WebFxKitLauncher.onReady(() -> loadImageViewImage(imageView, iconPath, w, h, resetToNaturalSizeOnceLoaded));
                 return false;
             }
-            Image image = getOrCreateImage(iconPath, w, h, resetToNaturalSizeOnceLoaded);
-            if (image != null) {
-                imageView.setImage(image);
-                if (resetToNaturalSizeOnceLoaded) {
-                    if (isImageLoaded(image))
-                        return true;
+            // Images not yet in the cache are loaded through the loading queue (which limits the concurrent loads)
+            if (ImageLoadingQueue.isQueueing() && !isImageCached(iconPath, resetToNaturalSizeOnceLoaded ? 0 : w, resetToNaturalSizeOnceLoaded ? 0 : h)) {
+                ImageLoadingQueue.enqueue(imageView, () -> setImageViewImage(imageView, iconPath, w, h, resetToNaturalSizeOnceLoaded));
+                return false;
+            }
+            Image image = setImageViewImage(imageView, iconPath, w, h, resetToNaturalSizeOnceLoaded);
+            return image != null && resetToNaturalSizeOnceLoaded && isImageLoaded(image);
+        }
+        return false;
+    }
+
+    private static Image setImageViewImage(ImageView imageView, String iconPath, double w, double h, boolean resetToNaturalSizeOnceLoaded) {
+        Image image = getOrCreateImage(iconPath, w, h, resetToNaturalSizeOnceLoaded);
+        if (image != null) {
+            imageView.setImage(image);
+            if (resetToNaturalSizeOnceLoaded) {
+                if (isImageLoaded(image)) {
+                    imageView.setFitWidth(0d);
+                    imageView.setFitHeight(0d);
+                } else
                     runOnImageLoaded(image, () -> {
                         imageView.setFitWidth(0d);
                         imageView.setFitHeight(0d);
                     });
-                }
             }
         }
-        return false;
+        return image;
+    }
+
+    static boolean isImageLoaded(Image image) {
+        return imageLoader.isImageLoaded(image);
     }
 
-    private static boolean isImageLoaded(Image image) {
-        return image.getWidth() > 0;
+    static boolean isImageLoadedOrFailed(Image image) {
+        return imageLoader.isImageLoaded(image) || imageLoader.isImageFailed(image);
     }
 
     private static void runOnImageLoaded(Image image, Runnable runnable) {
-        image.widthProperty().addListener(new ChangeListener<Number>() { // just diamond <> doesn't compile with GWT for any reason
-            @Override
-            public void changed(ObservableValue<? extends Number> observable, Number oldValue, Number newValue) {
-                observable.removeListener(this);
+        imageLoader.runOnImageLoaded(image, runnable);
+    }
+
+    static void runOnImageLoadedOrFailed(Image image, Runnable runnable) {
+        boolean[] done = { false };
+        Runnable onceRunnable = () -> {
+            if (!done[0]) {
+                done[0] = true;
                 runnable.run();
             }
-        });
+        };
+        imageLoader.runOnImageLoaded(image, onceRunnable);
+        imageLoader.runOnImageFailed(image, onceRunnable);
     }
 
     public static Image getOrCreateImage(String url) {
@@ -95,25 +133,217 @@ public final class ImageStore {
     }
 
     public static Image getOrCreateImage(String url, double w, double h) {
-        Image image = getImageFromCache(url, w, h);
-        if (image == null && url != null)
-            synchronized (imagesCache) {
-                image = getImageFromCache(url, w, h); // double check in case several threads were waiting
-                if (image == null) {
-                    try {
-                        imagesCache.put(url, image = new Image(url, w, h, false, false, true));
-                    } catch (Exception e) {
-                        System.out.println("Unable to load image from url " + url);
+        return getOrCreateImage(url, w, h, false, false);
+    }
+
+    public static Image getOrCreateImage(String url, double w, double h, boolean preserveRatio, boolean smooth) {
+        if (url == null)
+            return null;
+        ImageKey key = new ImageKey(url, w, h, preserveRatio, smooth);
+        synchronized (imagesCache) {
+            CachedImage cachedImage = imagesCache.get(key);
+            if (cachedImage != null) {
+                hitCount++;
+                return cachedImage.image;
+            }
+            WeakReference<Image> evictedReference = evictedImages.remove(key);
+            Image evictedImage = evictedReference == null ? null : evictedReference.get();
+            if (evictedImage != null) { // Still in use => back in the cache
+                hitCount++;
+                CachedImage restoredCachedImage = new CachedImage(evictedImage);
+                imagesCache.put(key, restoredCachedImage);
+                onImageLoaded(restoredCachedImage);
+                return evictedImage;
+            }
+            missCount++;
+            Image image;
+            try {
+                image = imageLoader.createImage(url, w, h, preserveRatio, smooth);
+            } catch (Exception e) {
+                System.out.println("Unable to load image from url " + url);
+                return null;
+            }
+            // Note: the image stays in the cache (and can't be evicted) while loading, so concurrent requests of the
+            // same image share the same load.
+            CachedImage newCachedImage = new CachedImage(image);
+            imagesCache.put(key, newCachedImage);
+            if (isImageLoadedOrFailed(image))
+                onImageLoaded(newCachedImage);
+            else
+                runOnImageLoadedOrFailed(image, () -> {
+                    synchronized (imagesCache) {
+                        onImageLoaded(newCachedImage);
                     }
-                }
+                });
+            return image;
+        }
+    }
+
+    private static void onImageLoaded(CachedImage cachedImage) {
+        if (cachedImage.loaded)
+            return;
+        cachedImage.loaded = true;
+        Image image = cachedImage.image;
+        cachedImage.bytes = (long) image.getWidth() * (long) image.getHeight() * 4; // decoded size estimation (RGBA)
+        cachedBytes += cachedImage.bytes;
+        evictOverBudgetImages();
+    }
+
+    private static void evictOverBudgetImages() {
+        // Evicting the least recently used images (the images still loading are skipped)
+        if (cachedBytes <= byteBudget)
+            return;
+        evictedImages.values().removeIf(reference -> reference.get() == null); // purging the garbage collected images
+        for (Iterator<Map.Entry<ImageKey, CachedImage>> it = imagesCache.entrySet().iterator(); cachedBytes > byteBudget && it.hasNext(); ) {
+            Map.Entry<ImageKey, CachedImage> entry = it.next();
+            CachedImage cachedImage = entry.getValue();
+            if (cachedImage.loaded) {
+                it.remove();
+                cachedBytes -= cachedImage.bytes;
+                evictionCount++;
+                evictedImages.put(entry.getKey(), new WeakReference<>(cachedImage.image));
             }
-        return image;
+        }
     }
 
+    // Cancels the load of an image (no longer needed), which is removed from the cache (so it will be loaded again if
+    // requested again)
+    static void cancelImageLoad(Image image) {
+        synchronized (imagesCache) {
+            imagesCache.values().removeIf(cachedImage -> {
+                if (cachedImage.image != image || cachedImage.loaded)
+                    return false;
+                cachedImage.loaded = true; // so the end of the load (if reported) is ignored
+                return true;
+            });
+        }
+        imageLoader.cancelImage(image);
+    }
+
+    // Exact match (same key as getOrCreateImage(url, w, h)), unlike getImageFromCache()
+    private static boolean isImageCached(String url, double w, double h) {
+        synchronized (imagesCache) {
+            return imagesCache.containsKey(new ImageKey(url, w, h, false, false));
+        }
+    }
+
+    /**
+     * @return the cached image of that url and size, where a 0 width or height means any width or height (in which case
+     * an image of that url loaded with another size is returned if there is no image of that exact size in the cache)
+     */
     public static Image getImageFromCache(String url, double w, double h) {
-        Image image = imagesCache.get(url);
-        if (image != null && (w != 0 && image.getWidth() != w || h != 0 && image.getHeight() != h))
-            image = null;
-        return image;
+        synchronized (imagesCache) {
+            CachedImage cachedImage = imagesCache.get(new ImageKey(url, w, h, false, false));
+            if (cachedImage == null && (w == 0 || h == 0))
+                for (Map.Entry<ImageKey, CachedImage> entry : imagesCache.entrySet()) {
+                    Image image = entry.getValue().image;
+                    if (entry.getKey().url.equals(url) && (w == 0 || image.getWidth() == w) && (h == 0 || image.getHeight() == h)) {
+                        cachedImage = entry.getValue();
+                        break;
+                    }
+                }
+            return cachedImage == null ? null : cachedImage.image;
+        }
+    }
+
+    // Cache settings & statistics
+
+    public static long getByteBudget() {
+        return byteBudget;
+    }
+
+    public static void setByteBudget(long byteBudget) {
+        synchronized (imagesCache) {
+            ImageStore.byteBudget = byteBudget;
+            evictOverBudgetImages();
+        }
+    }
+
+    public static long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    public static int getCachedImageCount() {
+        return imagesCache.size();
+    }
+
+    public static long getHitCount() {
+        return hitCount;
+    }
+
+    public static long getMissCount() {
+        return missCount;
+    }
+
+    public static long getEvictionCount() {
+        return evictionCount;
+    }
+
+    // Loading queue settings (a max concurrent loads <= 0 means no limit, i.e. the images are loaded immediately)
+
+    public static int getMaxConcurrentImageLoads() {
+        return ImageLoadingQueue.getMaxConcurrentLoads();
+    }
+
+    public static void setMaxConcurrentImageLoads(int maxConcurrentImageLoads) {
+        ImageLoadingQueue.setMaxConcurrentLoads(maxConcurrentImageLoads);
+    }
+
+    public static int getQueuedImageLoadCount() {
+        return ImageLoadingQueue.getQueuedLoadCount();
+    }
+
+    public static int getActiveImageLoadCount() {
+        return ImageLoadingQueue.getActiveLoadCount();
+    }
+
+    public static void clear() {
+        synchronized (imagesCache) {
+            imagesCache.values().removeIf(cachedImage -> cachedImage.loaded);
+            evictedImages.clear();
+            cachedBytes = 0;
+        }
+    }
+
+    private static final class ImageKey {
+        private final String url;
+        private final double w, h;
+        private final boolean preserveRatio, smooth;
+
+        ImageKey(String url, double w, double h, boolean preserveRatio, boolean smooth) {
+            this.url = url;
+            this.w = w;
+            this.h = h;
+            this.preserveRatio = preserveRatio;
+            this.smooth = smooth;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ImageKey)) return false;
+            ImageKey that = (ImageKey) o;
+            return w == that.w && h == that.h && preserveRatio == that.preserveRatio && smooth == that.smooth && url.equals(that.url);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = url.hashCode();
+            result = 31 * result + Double.hashCode(w);
+            result = 31 * result + Double.hashCode(h);
+            result = 31 * result + (preserveRatio ? 1 : 0);
+            result = 31 * result + (smooth ? 1 : 0);
+            return result;
+        }
+    }
+
+    private static final class CachedImage {
+        private final Image image;
+        private boolean loaded;
+        private long bytes;
+
+        CachedImage(Image image) {
+            this.image = image;
+        }
     }
 }
@@ -5,7 +5,9 @@ module webfx.extras.imagestore {
     // Direct dependencies modules
     requires javafx.base;
     requires javafx.graphics;
+    requires webfx.extras.util;
     requires webfx.kit.launcher;
+    requires webfx.platform.uischeduler;
 
     // Exported packages
     exports dev.webfx.extras.imagestore;
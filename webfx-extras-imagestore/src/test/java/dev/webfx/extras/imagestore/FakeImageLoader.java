@@ -0,0 +1,143 @@
+package dev.webfx.extras.imagestore;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Image loader serving local "image files" (text files containing the natural size of the image, ex: "40x30") without
+ * network nor graphics toolkit. The loads stay pending until they are completed by the test.
+ *
+ * @author Bruno Salmon
+ */
+final class FakeImageLoader extends ImageLoader {
+
+    private final Path directory;
+    private final Map<String, Integer> loadCounts = new HashMap<>();
+    private final List<PendingLoad> pendingLoads = new ArrayList<>();
+    private final List<Image> failedImages = new ArrayList<>();
+    private final List<Image> cancelledImages = new ArrayList<>();
+
+    private static final class PendingLoad {
+        final String url;
+        final Image image;
+        final List<Runnable> onLoaded = new ArrayList<>(), onFailed = new ArrayList<>();
+
+        PendingLoad(String url, Image image) {
+            this.url = url;
+            this.image = image;
+        }
+    }
+
+    FakeImageLoader(Path directory) {
+        this.directory = directory;
+    }
+
+    String addImageFile(String name, int width, int height) throws IOException {
+        return Files.write(directory.resolve(name), (width + "x" + height).getBytes(StandardCharsets.UTF_8)).toUri().toString();
+    }
+
+    String missingImageFile(String name) {
+        return directory.resolve(name).toUri().toString();
+    }
+
+    int getLoadCount(String url) {
+        return loadCounts.getOrDefault(url, 0);
+    }
+
+    int getPendingLoadCount() {
+        return pendingLoads.size();
+    }
+
+    boolean isCancelled(Image image) {
+        return cancelledImages.contains(image);
+    }
+
+    void completeLoads(String url) {
+        for (PendingLoad pendingLoad : new ArrayList<>(pendingLoads))
+            if (pendingLoad.url.equals(url))
+                finish(pendingLoad);
+    }
+
+    void completeAllLoads() {
+        for (PendingLoad pendingLoad : new ArrayList<>(pendingLoads))
+            finish(pendingLoad);
+    }
+
+    private void finish(PendingLoad pendingLoad) {
+        pendingLoads.remove(pendingLoad);
+        boolean failed = failedImages.contains(pendingLoad.image);
+        (failed ? pendingLoad.onFailed : pendingLoad.onLoaded).forEach(Runnable::run);
+    }
+
+    @Override
+    Image createImage(String url, double w, double h, boolean preserveRatio, boolean smooth) {
+        loadCounts.merge(url, 1, Integer::sum);
+        int width = 1, height = 1; // WritableImage can't be empty, so the failed images are 1x1
+        boolean failed = false;
+        try {
+            String[] size = new String(Files.readAllBytes(Paths.get(URI.create(url))), StandardCharsets.UTF_8).split("x");
+            width = w > 0 ? (int) w : Integer.parseInt(size[0]);
+            height = h > 0 ? (int) h : Integer.parseInt(size[1]);
+        } catch (IOException e) {
+            failed = true;
+        }
+        Image image = new WritableImage(width, height);
+        if (failed)
+            failedImages.add(image);
+        pendingLoads.add(new PendingLoad(url, image));
+        return image;
+    }
+
+    @Override
+    void cancelImage(Image image) {
+        // As with JavaFX, a cancelled load ends in error
+        PendingLoad pendingLoad = getPendingLoad(image);
+        if (pendingLoad != null) {
+            cancelledImages.add(image);
+            failedImages.add(image);
+            finish(pendingLoad);
+        }
+    }
+
+    @Override
+    boolean isImageLoaded(Image image) {
+        return getPendingLoad(image) == null && !failedImages.contains(image);
+    }
+
+    @Override
+    boolean isImageFailed(Image image) {
+        return getPendingLoad(image) == null && failedImages.contains(image);
+    }
+
+    @Override
+    void runOnImageLoaded(Image image, Runnable runnable) {
+        PendingLoad pendingLoad = getPendingLoad(image);
+        if (pendingLoad != null)
+            pendingLoad.onLoaded.add(runnable);
+    }
+
+    @Override
+    void runOnImageFailed(Image image, Runnable runnable) {
+        PendingLoad pendingLoad = getPendingLoad(image);
+        if (pendingLoad != null)
+            pendingLoad.onFailed.add(runnable);
+    }
+
+    private PendingLoad getPendingLoad(Image image) {
+        for (PendingLoad pendingLoad : pendingLoads)
+            if (pendingLoad.image == image)
+                return pendingLoad;
+        return null;
+    }
+}
@@ -0,0 +1,144 @@
+package dev.webfx.extras.imagestore;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class ImageLoadingQueueTest {
+
+    @TempDir
+    Path directory;
+    private FakeImageLoader loader;
+    private final List<Runnable> frameRunnables = new ArrayList<>();
+
+    @BeforeEach
+    void useFakeLoader() {
+        ImageLoadingQueue.setFrameScheduler(frameRunnables::add);
+        loader = new FakeImageLoader(directory);
+        ImageStore.setImageLoader(loader);
+        ImageStore.clear();
+    }
+
+    @AfterEach
+    void resetQueue() {
+        ImageStore.setMaxConcurrentImageLoads(0);
+        runFrame();
+        loader.completeAllLoads();
+        runFrame();
+        ImageStore.clear();
+        ImageLoadingQueue.setFrameScheduler(null);
+    }
+
+    private void runFrame() {
+        List<Runnable> runnables = new ArrayList<>(frameRunnables);
+        frameRunnables.clear();
+        runnables.forEach(Runnable::run);
+    }
+
+    @Test
+    void imagesAreLoadedImmediatelyWithoutLimit() throws IOException {
+        assertTrue(ImageStore.getMaxConcurrentImageLoads() <= 0);
+        String url = loader.addImageFile("a.png", 10, 10);
+        ImageView imageView = ImageStore.createImageView(url, 0, 0);
+        assertNotNull(imageView.getImage());
+        assertEquals(0, ImageStore.getQueuedImageLoadCount());
+        assertEquals(1, loader.getLoadCount(url));
+    }
+
+    @Test
+    void concurrentLoadsAreLimitedPerImage() throws IOException {
+        ImageStore.setMaxConcurrentImageLoads(2);
+        String a = loader.addImageFile("a.png", 10, 10), b = loader.addImageFile("b.png", 10, 10), c = loader.addImageFile("c.png", 10, 10);
+        ImageView a1 = ImageStore.createImageView(a, 0, 0), a2 = ImageStore.createImageView(a, 0, 0);
+        ImageView b1 = ImageStore.createImageView(b, 0, 0), c1 = ImageStore.createImageView(c, 0, 0);
+        assertNull(a1.getImage()); // queued until the next animation frame
+        assertEquals(4, ImageStore.getQueuedImageLoadCount());
+        runFrame();
+        // The 2 views of a share the same load, so b is loading as well
+        assertSame(a1.getImage(), a2.getImage());
+        assertNotNull(b1.getImage());
+        assertNull(c1.getImage());
+        assertEquals(2, ImageStore.getActiveImageLoadCount());
+        assertEquals(1, ImageStore.getQueuedImageLoadCount());
+        assertEquals(1, loader.getLoadCount(a));
+        loader.completeLoads(a);
+        assertEquals(1, ImageStore.getActiveImageLoadCount());
+        runFrame();
+        assertNotNull(c1.getImage());
+        assertEquals(2, ImageStore.getActiveImageLoadCount());
+        assertEquals(0, ImageStore.getQueuedImageLoadCount());
+    }
+
+    @Test
+    void failedLoadsFreeTheirSlot() throws IOException {
+        ImageStore.setMaxConcurrentImageLoads(1);
+        String missing = loader.missingImageFile("missing.png"), b = loader.addImageFile("b.png", 10, 10);
+        ImageStore.createImageView(missing, 0, 0);
+        ImageView b1 = ImageStore.createImageView(b, 0, 0);
+        runFrame();
+        assertNull(b1.getImage());
+        loader.completeLoads(missing);
+        assertEquals(0, ImageStore.getActiveImageLoadCount());
+        runFrame();
+        assertNotNull(b1.getImage());
+    }
+
+    @Test
+    void cachedImagesAreNotQueued() throws IOException {
+        String url = loader.addImageFile("a.png", 10, 10);
+        ImageStore.getOrCreateImage(url);
+        ImageStore.setMaxConcurrentImageLoads(1);
+        ImageView imageView = ImageStore.createImageView(url, 0, 0);
+        assertNotNull(imageView.getImage());
+        assertEquals(0, ImageStore.getQueuedImageLoadCount());
+    }
+
+    @Test
+    void requestsAreCancelledWhenTheirViewLeavesTheScene() throws IOException {
+        ImageStore.setMaxConcurrentImageLoads(2);
+        String a = loader.addImageFile("a.png", 10, 10), b = loader.addImageFile("b.png", 10, 10), c = loader.addImageFile("c.png", 10, 10);
+        ImageView a1 = ImageStore.createImageView(a, 0, 0), a2 = ImageStore.createImageView(a, 0, 0);
+        ImageView b1 = ImageStore.createImageView(b, 0, 0), c1 = ImageStore.createImageView(c, 0, 0);
+        // A queued request is just removed from the queue
+        ImageLoadingQueue.onImageViewSceneChanged(c1, false);
+        assertEquals(3, ImageStore.getQueuedImageLoadCount());
+        runFrame();
+        Image image = a1.getImage();
+        assertNotNull(image);
+        assertNotNull(b1.getImage());
+        assertEquals(2, ImageStore.getActiveImageLoadCount());
+        // The load of a is still needed by a2
+        ImageLoadingQueue.onImageViewSceneChanged(a1, false);
+        assertFalse(loader.isCancelled(image));
+        assertEquals(2, ImageStore.getActiveImageLoadCount());
+        // Not anymore => the load is cancelled, and its slot is free
+        ImageLoadingQueue.onImageViewSceneChanged(a2, false);
+        assertTrue(loader.isCancelled(image));
+        assertNull(a2.getImage());
+        assertEquals(1, ImageStore.getActiveImageLoadCount());
+        assertNull(ImageStore.getImageFromCache(a, 0, 0)); // so it will be loaded again if requested again
+        // c1 back in the scene => requested again, and loaded in the free slot
+        ImageLoadingQueue.onImageViewSceneChanged(c1, true);
+        assertEquals(1, ImageStore.getQueuedImageLoadCount());
+        runFrame();
+        assertNotNull(c1.getImage());
+        assertEquals(2, ImageStore.getActiveImageLoadCount());
+        loader.completeLoads(b);
+        loader.completeLoads(c);
+        assertEquals(0, ImageStore.getActiveImageLoadCount());
+        assertEquals(1, loader.getLoadCount(a));
+    }
+}
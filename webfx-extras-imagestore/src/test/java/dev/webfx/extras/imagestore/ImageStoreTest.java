@@ -0,0 +1,187 @@
+package dev.webfx.extras.imagestore;
+
+import javafx.scene.image.Image;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * @author Bruno Salmon
+ */
+class ImageStoreTest {
+
+    private static final long IMAGE_BYTES = 10 * 10 * 4; // 10x10 RGBA images
+
+    @TempDir
+    Path directory;
+    private FakeImageLoader loader;
+    private long hitCount, missCount, evictionCount;
+
+    @BeforeEach
+    void useFakeLoader() {
+        loader = new FakeImageLoader(directory);
+        ImageStore.setImageLoader(loader);
+        ImageStore.clear();
+        ImageStore.setByteBudget(1024 * 1024);
+        hitCount = ImageStore.getHitCount();
+        missCount = ImageStore.getMissCount();
+        evictionCount = ImageStore.getEvictionCount();
+    }
+
+    @AfterEach
+    void clearStore() {
+        loader.completeAllLoads();
+        ImageStore.clear();
+    }
+
+    private Image loadImage(String url) {
+        Image image = ImageStore.getOrCreateImage(url);
+        loader.completeLoads(url);
+        return image;
+    }
+
+    private void assertStats(long hits, long misses, long evictions) {
+        assertEquals(hits, ImageStore.getHitCount() - hitCount, "hits");
+        assertEquals(misses, ImageStore.getMissCount() - missCount, "misses");
+        assertEquals(evictions, ImageStore.getEvictionCount() - evictionCount, "evictions");
+    }
+
+    @Test
+    void imagesAreKeyedByUrlSizeAndOptions() throws IOException {
+        String url = loader.addImageFile("a.png", 40, 30);
+        Image natural = ImageStore.getOrCreateImage(url);
+        assertSame(natural, ImageStore.getOrCreateImage(url, 0, 0));
+        Image resized = ImageStore.getOrCreateImage(url, 20, 15);
+        assertNotSame(natural, resized);
+        assertSame(resized, ImageStore.getOrCreateImage(url, 20, 15, false, false));
+        assertNotSame(resized, ImageStore.getOrCreateImage(url, 20, 15, true, false));
+        assertNotSame(resized, ImageStore.getOrCreateImage(url, 20, 15, false, true));
+        assertSame(natural, ImageStore.getOrCreateImage(url, 20, 15, true)); // reset to natural size => natural image
+        assertEquals(4, loader.getLoadCount(url));
+        assertStats(3, 4, 0);
+        assertNull(ImageStore.getOrCreateImage(null));
+    }
+
+    @Test
+    void zeroWidthOrHeightMatchesAnySizeInTheCache() throws IOException {
+        String url = loader.addImageFile("a.png", 40, 30);
+        Image resized = ImageStore.getOrCreateImage(url, 20, 15);
+        loader.completeLoads(url);
+        assertSame(resized, ImageStore.getImageFromCache(url, 0, 0)); // any size
+        assertSame(resized, ImageStore.getImageFromCache(url, 20, 0)); // any height
+        assertSame(resized, ImageStore.getImageFromCache(url, 0, 15)); // any width
+        assertNull(ImageStore.getImageFromCache(url, 40, 0));
+        assertNull(ImageStore.getImageFromCache(url, 40, 30));
+        Image natural = loadImage(url); // not the resized image, as getOrCreateImage() matches the exact size
+        assertNotSame(resized, natural);
+        assertSame(natural, ImageStore.getImageFromCache(url, 0, 0)); // the exact size first
+        assertSame(natural, ImageStore.getImageFromCache(url, 40, 0));
+        assertSame(resized, ImageStore.getImageFromCache(url, 20, 15));
+    }
+
+    @Test
+    void concurrentRequestsShareTheInFlightLoad() throws IOException {
+        String url = loader.addImageFile("a.png", 10, 10);
+        Image image = ImageStore.getOrCreateImage(url);
+        assertSame(image, ImageStore.getOrCreateImage(url));
+        assertSame(image, ImageStore.getImageFromCache(url, 0, 0));
+        assertEquals(1, loader.getLoadCount(url));
+        assertEquals(0, ImageStore.getCachedBytes()); // counted once loaded
+        loader.completeLoads(url);
+        assertEquals(IMAGE_BYTES, ImageStore.getCachedBytes());
+        assertStats(1, 1, 0);
+    }
+
+    @Test
+    void leastRecentlyUsedImagesAreEvictedOverTheByteBudget() throws IOException {
+        ImageStore.setByteBudget(3 * IMAGE_BYTES);
+        String a = loader.addImageFile("a.png", 10, 10), b = loader.addImageFile("b.png", 10, 10);
+        String c = loader.addImageFile("c.png", 10, 10), d = loader.addImageFile("d.png", 10, 10);
+        loadImage(a);
+        loadImage(b);
+        loadImage(c);
+        ImageStore.getOrCreateImage(a); // a is now more recently used than b
+        loadImage(d);
+        assertNull(ImageStore.getImageFromCache(b, 0, 0));
+        assertNotNull(ImageStore.getImageFromCache(a, 0, 0));
+        assertNotNull(ImageStore.getImageFromCache(c, 0, 0));
+        assertNotNull(ImageStore.getImageFromCache(d, 0, 0));
+        assertEquals(3, ImageStore.getCachedImageCount());
+        assertEquals(3 * IMAGE_BYTES, ImageStore.getCachedBytes());
+        assertStats(1, 4, 1);
+        ImageStore.setByteBudget(IMAGE_BYTES); // reducing the budget evicts immediately
+        assertEquals(1, ImageStore.getCachedImageCount());
+        assertNotNull(ImageStore.getImageFromCache(d, 0, 0));
+        assertStats(1, 4, 3);
+    }
+
+    @Test
+    void loadingImagesAreNotEvicted() throws IOException {
+        ImageStore.setByteBudget(0);
+        String url = loader.addImageFile("a.png", 10, 10);
+        Image image = ImageStore.getOrCreateImage(url);
+        loadImage(loader.addImageFile("b.png", 10, 10)); // evicted as soon as loaded
+        assertSame(image, ImageStore.getImageFromCache(url, 0, 0));
+        assertStats(0, 2, 1);
+        loader.completeLoads(url);
+        assertNull(ImageStore.getImageFromCache(url, 0, 0));
+        assertEquals(0, ImageStore.getCachedBytes());
+        assertStats(0, 2, 2);
+    }
+
+    @Test
+    void failedLoadsAreNotLoadedAgain() {
+        String url = loader.missingImageFile("missing.png");
+        Image image = loadImage(url);
+        assertTrue(loader.isImageFailed(image));
+        assertSame(image, ImageStore.getOrCreateImage(url));
+        assertEquals(1, loader.getLoadCount(url));
+    }
+
+    @Test
+    void evictedImagesStillInUseAreRestored() throws IOException {
+        ImageStore.setByteBudget(IMAGE_BYTES);
+        String a = loader.addImageFile("a.png", 10, 10);
+        Image image = loadImage(a); // kept referenced, as if displayed in an image view
+        loadImage(loader.addImageFile("b.png", 10, 10));
+        assertNull(ImageStore.getImageFromCache(a, 0, 0));
+        assertSame(image, ImageStore.getOrCreateImage(a));
+        assertSame(image, ImageStore.getImageFromCache(a, 0, 0));
+        assertEquals(1, loader.getLoadCount(a));
+        assertEquals(IMAGE_BYTES, ImageStore.getCachedBytes()); // b is now evicted in turn
+        assertStats(1, 2, 2);
+    }
+
+    @Test
+    void evictedImagesCollectedByTheGarbageCollectorAreLoadedAgain() throws IOException {
+        ImageStore.setByteBudget(IMAGE_BYTES);
+        String a = loader.addImageFile("a.png", 10, 10);
+        WeakReference<Image> imageReference = new WeakReference<>(loadImage(a));
+        loadImage(loader.addImageFile("b.png", 10, 10));
+        assumeTrue(collect(imageReference), "the garbage collector didn't collect the evicted image");
+        Image image = loadImage(a);
+        assertNotNull(image);
+        assertEquals(2, loader.getLoadCount(a));
+        assertStats(0, 3, 2);
+    }
+
+    private static boolean collect(WeakReference<?> reference) {
+        for (int i = 0; i < 20 && reference.get() != null; i++) {
+            System.gc();
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }
+        return reference.get() == null;
+    }
+}
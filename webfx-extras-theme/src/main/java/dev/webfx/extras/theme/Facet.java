@@ -29,9 +29,11 @@ public class Facet {
     public static final Facet GENERIC_FACET = new Facet(null, new Region()).setTextNode(GENERIC_TEXT_NODE);
     private final Object facetCategory;
     private final Map<Object /* presumably FacetNodeType */, Node> facetNodes = new HashMap<>();
-    private final Map<Object, ObservableValue<?>> facetStates = new HashMap<>();
-    private final Map<Object, Object> facetValues = new HashMap<>();
+    // Created only when needed, as many facets have no states or values
+    private Map<Object, ObservableValue<?>> facetStates;
+    private Map<Object, Object> facetValues;
     private boolean registered;
+    int styledModeVersion = -1; // mode version of the last styling (managed by ThemeRegistry)
 
 
     public Facet(Object facetCategory) {
@@ -57,12 +59,14 @@ public class Facet {
     }
 
     public <T> Facet setFacetValue(Object facetValueKey, T facetValue) {
+        if (facetValues == null)
+            facetValues = new HashMap<>(4);
         facetValues.put(facetValueKey, facetValue);
         return this;
     }
 
     public <T> T getFacetValue(Object facetValueKey) {
-        return (T) facetValues.get(facetValueKey);
+        return facetValues == null ? null : (T) facetValues.get(facetValueKey);
     }
 
     public <T extends Node> Facet setFacetNode(Object facetNodeKey, T facetNode) {
@@ -78,12 +82,14 @@ public class Facet {
 
     public Facet setFacetStateProperty(Object facetStateKey, ObservableValue<?> facetStateProperty) {
         FXProperties.runOnPropertyChange(this::style, facetStateProperty);
+        if (facetStates == null)
+            facetStates = new HashMap<>(4);
         facetStates.put(facetStateKey, facetStateProperty);
         return this;
     }
 
     public <T> ObservableValue<T> getFacetStateProperty(Object facetStateKey) {
-        return (ObservableValue<T>) facetStates.get(facetStateKey);
+        return facetStates == null ? null : (ObservableValue<T>) facetStates.get(facetStateKey);
     }
 
     public <T> T getFacetState(Object facetStateKey) {
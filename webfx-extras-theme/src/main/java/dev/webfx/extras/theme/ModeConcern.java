@@ -0,0 +1,14 @@
+package dev.webfx.extras.theme;
+
+/**
+ * The different modes that can change the style of the facets (see ThemeRegistry.fireModeChanged()).
+ *
+ * @author Bruno Salmon
+ */
+public enum ModeConcern {
+
+    LUMINANCE,
+    PALETTE,
+    LAYOUT
+
+}
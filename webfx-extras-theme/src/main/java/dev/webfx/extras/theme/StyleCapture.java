@@ -38,35 +38,27 @@ public class StyleCapture implements AutoCloseable {
         STYLE_CAPTURE = null;
     }
 
-    // Cache variables to quickly return the same value on same input
-    private static Theme LAST_THEME;
-    private static Object LAST_LOGICAL_VALUE;
-    private static boolean LAST_SELECTED;
-    private static Object LAST_FACET_CATEGORY;
-    private static StyleCapture LAST_STYLE_CAPTURE;
-
-    static {
-        // Clearing the cache on mode change
-        ThemeRegistry.addModeChangeListener(() -> LAST_THEME = null); // clearing LAST_THEME is enough
-    }
+    // Memo of the style captures to quickly return the same capture on same input (cleared on mode change)
+    private static final StyleMemo<StyleCapture> STYLE_CAPTURES = new StyleMemo<>(256);
+    private static int STYLE_CAPTURES_MODE_VERSION;
 
     public static StyleCapture captureStyle(Theme theme, Object logicalValue, Object facetCategory) {
         return captureStyle(theme, logicalValue, false, facetCategory);
     }
 
     public static StyleCapture captureStyle(Theme theme, Object logicalValue, boolean selected, Object facetCategory) {
-        // Optimization: returning same last capture if same last inputs
-        if (theme == LAST_THEME && logicalValue == LAST_LOGICAL_VALUE && selected == LAST_SELECTED && facetCategory == LAST_FACET_CATEGORY)
-            return LAST_STYLE_CAPTURE;
-        try (StyleCapture styleCapture = new StyleCapture()) {
-            Facet.GENERIC_FACET.setLogicValue(logicalValue).setSelected(selected);
-            theme.styleFacet(Facet.GENERIC_FACET, facetCategory);
-            LAST_THEME = theme;
-            LAST_LOGICAL_VALUE = logicalValue;
-            LAST_SELECTED = selected;
-            LAST_FACET_CATEGORY = facetCategory;
-            return LAST_STYLE_CAPTURE = styleCapture;
+        // Optimization: returning the same capture if same inputs
+        if (STYLE_CAPTURES_MODE_VERSION != ThemeRegistry.getModeVersion()) {
+            STYLE_CAPTURES.clear();
+            STYLE_CAPTURES_MODE_VERSION = ThemeRegistry.getModeVersion();
         }
+        return STYLE_CAPTURES.get(theme, logicalValue, selected, facetCategory, () -> {
+            try (StyleCapture styleCapture = new StyleCapture()) {
+                Facet.GENERIC_FACET.setLogicValue(logicalValue).setSelected(selected);
+                theme.styleFacet(Facet.GENERIC_FACET, facetCategory);
+                return styleCapture;
+            }
+        });
     }
 
     public Paint getBackgroundFill() {
@@ -0,0 +1,69 @@
+package dev.webfx.extras.theme;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Bounded memo table (least recently used entries evicted first) of immutable style objects (backgrounds, borders,
+ * fonts, style captures), so that identical themed facets share the same objects instead of recomputing them.
+ *
+ * @author Bruno Salmon
+ */
+final class StyleMemo<V> {
+
+    private final Map<Key, V> memo;
+
+    StyleMemo(int maxSize) {
+        memo = new LinkedHashMap<Key, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    V get(Object k1, Object k2, Object k3, Object k4, Supplier<V> supplier) {
+        Key key = new Key(k1, k2, k3, k4);
+        V value = memo.get(key);
+        if (value == null) {
+            value = supplier.get();
+            if (value != null)
+                memo.put(key, value);
+        }
+        return value;
+    }
+
+    void clear() {
+        memo.clear();
+    }
+
+    int size() {
+        return memo.size();
+    }
+
+    private static final class Key {
+        private final Object k1, k2, k3, k4;
+
+        Key(Object k1, Object k2, Object k3, Object k4) {
+            this.k1 = k1;
+            this.k2 = k2;
+            this.k3 = k3;
+            this.k4 = k4;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(k1, key.k1) && Objects.equals(k2, key.k2) && Objects.equals(k3, key.k3) && Objects.equals(k4, key.k4);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(k1, k2, k3, k4);
+        }
+    }
+}
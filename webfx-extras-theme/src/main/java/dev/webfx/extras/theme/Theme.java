@@ -6,4 +6,9 @@ public interface Theme {
 
     void styleFacet(Facet facet, Object facetCategory);
 
+    // Tells if the styles of this theme depend on that mode (the facets are restyled only on changes of such modes)
+    default boolean dependsOnModeConcern(ModeConcern modeConcern) {
+        return true;
+    }
+
 }
@@ -1,42 +1,74 @@
 package dev.webfx.extras.theme;
 
 
-import dev.webfx.platform.scheduler.Scheduled;
+import dev.webfx.extras.util.ViewportUtil;
 import dev.webfx.platform.uischeduler.UiScheduler;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
+ * Registry of the themes and of the facets they style. On mode change (ex: switching between light and dark modes),
+ * fireModeChanged() restyles the facets synchronously, while fireModeChangedBatched() is an opt-in alternative that
+ * restyles them in a batched pass starting in the next animation frame (so several mode changes are coalesced into one
+ * pass). That pass restyles the visible facets first (in that first frame), and the others over the next frames within
+ * a time budget per frame, so that the UI doesn't freeze when there are thousands of facets.
+ *
+ * The facets are indexed by facet category, and each category knows the mode concerns (luminance, palette, layout) its
+ * themes depend on, so a mode change restyles only the facets of the categories depending on that mode. The garbage
+ * collected facets are purged from their category when it has doubled in size since its last purge (and on each
+ * restyle pass). Note: java.lang.ref.ReferenceQueue is not used, as it's not emulated on the web platform.
+ *
  * @author Bruno Salmon
  */
 public class ThemeRegistry {
 
     private final static List<Theme> THEMES = new ArrayList<>();
-    private final static List<WeakReference<Facet>> FACETS = new ArrayList<>();
+    private final static Map<Object, FacetCategoryEntry> FACET_CATEGORIES = new HashMap<>();
+    private final static List<FacetCategoryEntry> FACET_CATEGORY_LIST = new ArrayList<>();
     private final static List<Runnable> MODE_CHANGE_LISTENERS = new ArrayList<>();
+    private static int modeVersion; // incremented on each mode change, to know which facets are already restyled
+    private static long restyleFrameBudgetMillis = 8;
+    // Restyle pass state
+    private static boolean restylePassScheduled;
+    private static int restylePassNumber; // to stop the frames of a previous pass when a new pass starts
+    private static int pendingModeConcerns; // mask of the mode concerns changed since the last pass start
+    private static int restylePassModeConcerns; // mask of the mode concerns of the current pass
+    private static List<Facet> restylePassFacets; // the (non-visible) facets remaining to restyle
+    private static int restylePassIndex;
+    // Optional frame scheduler replacing UiScheduler (ex: to drive the animation frames from a test)
+    private static Consumer<Runnable> frameScheduler;
+    // Factory of the weak references to the facets (can be replaced to clear them deterministically from a test)
+    private static Function<Facet, WeakReference<Facet>> facetReferenceFactory = WeakReference::new;
 
 
     public static void registerTheme(Theme theme) {
         THEMES.add(theme);
+        // The mode concerns of the categories need to be computed again
+        for (int i = 0; i < FACET_CATEGORY_LIST.size(); i++)
+            FACET_CATEGORY_LIST.get(i).modeConcerns = -1;
     }
 
-    private static Scheduled purgeScheduled;
-
     public static void styleFacet(Facet facet) {
-        FACETS.add(new WeakReference<>(facet));
+        Object facetCategory = facet.getFacetCategory();
+        FacetCategoryEntry categoryEntry = FACET_CATEGORIES.get(facetCategory);
+        if (categoryEntry == null) {
+            FACET_CATEGORIES.put(facetCategory, categoryEntry = new FacetCategoryEntry(facetCategory));
+            FACET_CATEGORY_LIST.add(categoryEntry);
+        }
+        categoryEntry.addFacet(facet);
         facet.getContainerNode().getProperties().put("facet", facet);
         styleFacetNow(facet);
-        if (purgeScheduled == null)
-            purgeScheduled = UiScheduler.scheduleDelay(1000, () -> {
-                purgeGarbageCollectedFacets(false);
-                purgeScheduled = null;
-            });
     }
 
     public static void styleFacetNow(Facet facet) {
+        facet.styledModeVersion = modeVersion;
         styleFacetNow(facet, facet.getFacetCategory());
     }
 
@@ -50,10 +82,75 @@ public class ThemeRegistry {
     }
 
     public static void fireModeChanged() {
-        purgeGarbageCollectedFacets(true);
+        fireModeChanged(null);
+    }
+
+    /**
+     * Restyles the facets immediately (stopping any batched pass in progress).
+     *
+     * @param modeConcern the mode concern that changed (null if unknown, in which case all facets are restyled)
+     */
+    public static void fireModeChanged(ModeConcern modeConcern) {
+        modeVersion++;
+        int modeConcerns = modeConcernMask(modeConcern) | pendingModeConcerns;
+        if (restylePassFacets != null) // the facets of the pass in progress must be restyled as well
+            modeConcerns |= restylePassModeConcerns;
+        stopRestylePass();
+        for (int i = 0; i < FACET_CATEGORY_LIST.size(); i++) {
+            FacetCategoryEntry categoryEntry = FACET_CATEGORY_LIST.get(i);
+            if ((categoryEntry.getModeConcerns() & modeConcerns) == 0)
+                continue;
+            for (Iterator<WeakReference<Facet>> it = categoryEntry.facets.iterator(); it.hasNext(); ) {
+                Facet facet = it.next().get();
+                if (facet == null)
+                    it.remove();
+                else
+                    styleFacetNow(facet);
+            }
+        }
         fireModeChangedImpl();
     }
 
+    public static void fireModeChangedBatched() {
+        fireModeChangedBatched(null);
+    }
+
+    /**
+     * Restyles the facets in a batched pass starting in the next animation frame (the mode change listeners are called
+     * in that frame).
+     *
+     * @param modeConcern the mode concern that changed (null if unknown, in which case all facets are restyled)
+     */
+    public static void fireModeChangedBatched(ModeConcern modeConcern) {
+        modeVersion++;
+        pendingModeConcerns |= modeConcernMask(modeConcern);
+        if (!restylePassScheduled) {
+            restylePassScheduled = true;
+            scheduleInAnimationFrame(ThemeRegistry::startRestylePass);
+        }
+    }
+
+    static int getModeVersion() {
+        return modeVersion;
+    }
+
+    static int getRegisteredFacetCount(Object facetCategory) { // including the garbage collected facets not yet purged
+        FacetCategoryEntry categoryEntry = FACET_CATEGORIES.get(facetCategory);
+        return categoryEntry == null ? 0 : categoryEntry.facets.size();
+    }
+
+    public static long getRestyleFrameBudgetMillis() {
+        return restyleFrameBudgetMillis;
+    }
+
+    public static void setRestyleFrameBudgetMillis(long restyleFrameBudgetMillis) {
+        ThemeRegistry.restyleFrameBudgetMillis = restyleFrameBudgetMillis;
+    }
+
+    public static boolean isRestylePending() {
+        return restylePassScheduled || restylePassFacets != null;
+    }
+
     public static void addModeChangeListener(Runnable listener) {
         MODE_CHANGE_LISTENERS.add(listener);
     }
@@ -67,21 +164,122 @@ public class ThemeRegistry {
         MODE_CHANGE_LISTENERS.remove(listener);
     }
 
+    static void setFrameScheduler(Consumer<Runnable> frameScheduler) {
+        ThemeRegistry.frameScheduler = frameScheduler;
+        stopRestylePass();
+    }
+
+    static void setFacetReferenceFactory(Function<Facet, WeakReference<Facet>> facetReferenceFactory) {
+        ThemeRegistry.facetReferenceFactory = facetReferenceFactory;
+    }
+
+    private static void scheduleInAnimationFrame(Runnable runnable) {
+        if (frameScheduler != null)
+            frameScheduler.accept(runnable);
+        else
+            UiScheduler.scheduleInAnimationFrame(runnable);
+    }
+
     private static void fireModeChangedImpl() {
         MODE_CHANGE_LISTENERS.forEach(Runnable::run);
     }
 
-    private static void purgeGarbageCollectedFacets(boolean applyStyle) {
-        for (Iterator<WeakReference<Facet>> it = FACETS.iterator(); it.hasNext(); ) {
-            WeakReference<Facet> weakReference = it.next();
-            Facet facet = weakReference.get();
-            if (facet == null) {
-                //Console.log("Removed weak ref!!!");
-                it.remove();
-            } else if (applyStyle)
-                styleFacetNow(facet);
+    private static void stopRestylePass() {
+        restylePassNumber++; // stopping the frames of the pass in progress (and the scheduled start of a pass)
+        restylePassScheduled = false;
+        pendingModeConcerns = 0;
+        restylePassFacets = null;
+    }
+
+    private static void startRestylePass() {
+        if (!restylePassScheduled) // stopped in the meantime
+            return;
+        restylePassScheduled = false;
+        long deadline = System.currentTimeMillis() + restyleFrameBudgetMillis;
+        int passNumber = ++restylePassNumber;
+        int modeConcerns = pendingModeConcerns;
+        if (restylePassFacets != null) // the previous pass was not finished, so its concerns must be included
+            modeConcerns |= restylePassModeConcerns;
+        pendingModeConcerns = 0;
+        restylePassModeConcerns = modeConcerns;
+        // Restyling the visible facets (of the categories concerned) now, and postponing the others
+        List<Facet> otherFacets = new ArrayList<>();
+        for (int i = 0; i < FACET_CATEGORY_LIST.size(); i++) {
+            FacetCategoryEntry categoryEntry = FACET_CATEGORY_LIST.get(i);
+            if ((categoryEntry.getModeConcerns() & modeConcerns) == 0)
+                continue;
+            for (Iterator<WeakReference<Facet>> it = categoryEntry.facets.iterator(); it.hasNext(); ) {
+                Facet facet = it.next().get();
+                if (facet == null)
+                    it.remove();
+                else if (ViewportUtil.isNodeInViewport(facet.getContainerNode()))
+                    restyleFacetIfOutdated(facet);
+                else
+                    otherFacets.add(facet);
+            }
+        }
+        fireModeChangedImpl();
+        restylePassFacets = otherFacets;
+        restylePassIndex = 0;
+        continueRestylePass(passNumber, deadline);
+    }
+
+    private static void continueRestylePass(int passNumber, long deadline) {
+        if (passNumber != restylePassNumber || restylePassFacets == null) // this pass has been replaced or stopped
+            return;
+        int n = restylePassFacets.size();
+        while (restylePassIndex < n) {
+            restyleFacetIfOutdated(restylePassFacets.get(restylePassIndex++));
+            if ((restylePassIndex & 15) == 0 && System.currentTimeMillis() > deadline) // checking the time every 16 facets
+                break;
+        }
+        if (restylePassIndex < n)
+            scheduleInAnimationFrame(() -> continueRestylePass(passNumber, System.currentTimeMillis() + restyleFrameBudgetMillis));
+        else
+            restylePassFacets = null;
+    }
+
+    private static void restyleFacetIfOutdated(Facet facet) {
+        if (facet.styledModeVersion != modeVersion) // may have been restyled already (ex: on a facet state change)
+            styleFacetNow(facet);
+    }
+
+    private static int modeConcernMask(ModeConcern modeConcern) {
+        return modeConcern == null ? -1 : 1 << modeConcern.ordinal();
+    }
+
+    private static final class FacetCategoryEntry {
+        private final Object facetCategory;
+        private final List<WeakReference<Facet>> facets = new ArrayList<>();
+        private int purgeThreshold = 16;
+        private int modeConcerns = -1; // mask of the mode concerns the themes of this category depend on (-1 = to compute)
+
+        FacetCategoryEntry(Object facetCategory) {
+            this.facetCategory = facetCategory;
+        }
+
+        void addFacet(Facet facet) {
+            facets.add(facetReferenceFactory.apply(facet));
+            if (facets.size() >= purgeThreshold) {
+                facets.removeIf(reference -> reference.get() == null);
+                purgeThreshold = Math.max(16, 2 * facets.size());
+            }
+        }
+
+        int getModeConcerns() {
+            if (modeConcerns == -1) {
+                modeConcerns = 0;
+                for (int i = 0; i < THEMES.size(); i++) {
+                    Theme theme = THEMES.get(i);
+                    if (theme.supportsFacetCategory(facetCategory)) {
+                        for (ModeConcern modeConcern : ModeConcern.values())
+                            if (theme.dependsOnModeConcern(modeConcern))
+                                modeConcerns |= modeConcernMask(modeConcern);
+                    }
+                }
+            }
+            return modeConcerns;
         }
-        //Console.log("FACETS.size() = " + FACETS.size());
     }
 
 }
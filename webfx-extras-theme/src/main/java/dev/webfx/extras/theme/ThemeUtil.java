@@ -17,13 +17,18 @@ import javafx.scene.text.Text;
  */
 public final class ThemeUtil {
 
+    // Memos of the immutable style objects, so identical facets share them
+    private static final StyleMemo<Background> BACKGROUNDS = new StyleMemo<>(256);
+    private static final StyleMemo<Border> BORDERS = new StyleMemo<>(256);
+    private static final StyleMemo<Font> FONTS = new StyleMemo<>(256);
+
     public static void applyBackground(Region region, Paint fill, double radius) {
         StyleCapture styleCapture = StyleCapture.getStyleCapture();
         if (styleCapture != null) {
             styleCapture.setBackgroundFill(fill);
             styleCapture.setBackgroundRadius(radius);
         }
-        applyBackground(region, fill == null ? null : BackgroundFactory.newBackground(fill, radius));
+        applyBackground(region, fill == null ? null : BACKGROUNDS.get(fill, radius, null, null, () -> BackgroundFactory.newBackground(fill, radius)));
     }
 
     public static void applyBackground(Region region, Background background) {
@@ -39,7 +44,7 @@ public final class ThemeUtil {
             styleCapture.setBorderFill(fill);
             styleCapture.setBorderRadius(radius);
         }
-        applyBorder(region, fill == null ? null : BorderFactory.newBorder(fill, radius));
+        applyBorder(region, fill == null ? null : BORDERS.get(fill, radius, null, null, () -> BorderFactory.newBorder(fill, radius)));
     }
 
     public static void applyBorder(Region region, Border border) {
@@ -57,7 +62,8 @@ public final class ThemeUtil {
     }
 
     public static void applyFont(Property<Font> fontProperty, String fontFamily, FontDef requestedFont) {
-        Font font = requestedFont == null ? null : Font.font(fontFamily, requestedFont.getWeight(), requestedFont.getPosture(), requestedFont.getSize());
+        Font font = requestedFont == null ? null : FONTS.get(fontFamily, requestedFont.getWeight(), requestedFont.getPosture(), requestedFont.getSize(),
+                () -> Font.font(fontFamily, requestedFont.getWeight(), requestedFont.getPosture(), requestedFont.getSize()));
         applyFont(fontProperty, font);
     }
 
@@ -1,5 +1,6 @@
 package dev.webfx.extras.theme.layout;
 
+import dev.webfx.extras.theme.ModeConcern;
 import dev.webfx.extras.theme.ThemeRegistry;
 import dev.webfx.kit.util.properties.FXProperties;
 import javafx.beans.property.ObjectProperty;
@@ -9,7 +10,7 @@ import javafx.beans.property.ObjectProperty;
  */
 public final class FXLayoutMode {
 
-    private final static ObjectProperty<LayoutMode> layoutModeProperty = FXProperties.newObjectProperty(LayoutMode.STANDARD_LAYOUT, ThemeRegistry::fireModeChanged);
+    private final static ObjectProperty<LayoutMode> layoutModeProperty = FXProperties.newObjectProperty(LayoutMode.STANDARD_LAYOUT, () -> ThemeRegistry.fireModeChanged(ModeConcern.LAYOUT));
 
     public static ObjectProperty<LayoutMode> layoutModeProperty() {
         return layoutModeProperty;
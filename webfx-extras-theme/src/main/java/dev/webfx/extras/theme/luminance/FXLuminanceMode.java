@@ -1,5 +1,6 @@
 package dev.webfx.extras.theme.luminance;
 
+import dev.webfx.extras.theme.ModeConcern;
 import dev.webfx.extras.theme.ThemeRegistry;
 import dev.webfx.kit.util.properties.FXProperties;
 import javafx.beans.property.ObjectProperty;
@@ -9,7 +10,7 @@ import javafx.beans.property.ObjectProperty;
  */
 public final class FXLuminanceMode {
 
-    private final static ObjectProperty<LuminanceMode> luminanceModeProperty = FXProperties.newObjectProperty(LuminanceMode.LIGHT_MODE, ThemeRegistry::fireModeChanged);
+    private final static ObjectProperty<LuminanceMode> luminanceModeProperty = FXProperties.newObjectProperty(LuminanceMode.LIGHT_MODE, () -> ThemeRegistry.fireModeChanged(ModeConcern.LUMINANCE));
 
     public static ObjectProperty<LuminanceMode> luminanceModeProperty() {
         return luminanceModeProperty;
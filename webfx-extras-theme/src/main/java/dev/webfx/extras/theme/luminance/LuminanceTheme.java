@@ -1,6 +1,7 @@
 package dev.webfx.extras.theme.luminance;
 
 import dev.webfx.extras.theme.Facet;
+import dev.webfx.extras.theme.ModeConcern;
 import dev.webfx.extras.theme.Theme;
 import dev.webfx.extras.theme.ThemeRegistry;
 import dev.webfx.extras.theme.ThemeUtil;
@@ -69,6 +70,11 @@ public class LuminanceTheme implements Theme {
         return facetCategory instanceof LuminanceFacetCategory;
     }
 
+    @Override
+    public boolean dependsOnModeConcern(ModeConcern modeConcern) {
+        return modeConcern != ModeConcern.PALETTE;
+    }
+
     @Override
     public void styleFacet(Facet facet, Object facetCategory) {
         LuminanceFacetCategory luminanceFacetCategory = (LuminanceFacetCategory) facetCategory;
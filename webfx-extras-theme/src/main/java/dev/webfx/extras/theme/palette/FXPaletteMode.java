@@ -1,5 +1,6 @@
 package dev.webfx.extras.theme.palette;
 
+import dev.webfx.extras.theme.ModeConcern;
 import dev.webfx.extras.theme.ThemeRegistry;
 import dev.webfx.kit.util.properties.FXProperties;
 import javafx.beans.property.ObjectProperty;
@@ -9,7 +10,7 @@ import javafx.beans.property.ObjectProperty;
  */
 public class FXPaletteMode {
 
-    private final static ObjectProperty<PaletteMode> paletteModeProperty = FXProperties.newObjectProperty(PaletteMode.ESSENTIAL_PALETTE, ThemeRegistry::fireModeChanged);
+    private final static ObjectProperty<PaletteMode> paletteModeProperty = FXProperties.newObjectProperty(PaletteMode.ESSENTIAL_PALETTE, () -> ThemeRegistry.fireModeChanged(ModeConcern.PALETTE));
 
     public ObjectProperty<PaletteMode> paletteModeProperty() {
         return paletteModeProperty;
@@ -1,6 +1,7 @@
 package dev.webfx.extras.theme.shape;
 
 import dev.webfx.extras.theme.Facet;
+import dev.webfx.extras.theme.ModeConcern;
 import dev.webfx.extras.theme.Theme;
 import dev.webfx.extras.theme.ThemeRegistry;
 import dev.webfx.extras.theme.luminance.FXLuminanceMode;
@@ -64,6 +65,11 @@ public class ShapeTheme implements Theme {
         return facetCategory instanceof ShapeFacetCategory;
     }
 
+    @Override
+    public boolean dependsOnModeConcern(ModeConcern modeConcern) {
+        return modeConcern == ModeConcern.LUMINANCE;
+    }
+
     @Override
     public void styleFacet(Facet facet, Object facetCategory) {
         styleFacet(facet, (ShapeFacetCategory) facetCategory);
@@ -70,6 +70,11 @@ public class TextTheme implements Theme {
         return facetCategory instanceof TextFacetCategory;
     }
 
+    @Override
+    public boolean dependsOnModeConcern(ModeConcern modeConcern) {
+        return modeConcern == ModeConcern.LUMINANCE;
+    }
+
     @Override
     public void styleFacet(Facet facet, Object facetCategory) {
         TextFacetCategory textFacetCategory = (TextFacetCategory) facetCategory;
@@ -6,11 +6,11 @@ module webfx.extras.theme {
     requires javafx.base;
     requires javafx.controls;
     requires javafx.graphics;
+    requires webfx.extras.util;
     requires webfx.extras.util.background;
     requires webfx.extras.util.border;
     requires webfx.extras.util.color;
     requires webfx.kit.util;
-    requires webfx.platform.scheduler;
     requires webfx.platform.uischeduler;
 
     // Exported packages
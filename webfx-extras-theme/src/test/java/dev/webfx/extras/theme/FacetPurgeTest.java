@@ -0,0 +1,119 @@
+package dev.webfx.extras.theme;
+
+import javafx.scene.layout.Region;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the garbage collected facets are purged from the registry (the garbage collection is simulated by clearing
+ * the weak references of the dropped facets).
+ *
+ * @author Bruno Salmon
+ */
+class FacetPurgeTest {
+
+    // Theme counting its styling calls, without keeping any reference to the facets
+    private static final class CountingTheme implements Theme {
+        final Object facetCategory = new Object();
+        int styleCount;
+
+        CountingTheme() {
+            ThemeRegistry.registerTheme(this);
+        }
+
+        @Override
+        public boolean supportsFacetCategory(Object facetCategory) {
+            return facetCategory == this.facetCategory;
+        }
+
+        @Override
+        public void styleFacet(Facet facet, Object facetCategory) {
+            styleCount++;
+        }
+
+        List<Facet> styleFacets(int count) {
+            List<Facet> facets = new ArrayList<>();
+            for (int i = 0; i < count; i++)
+                facets.add(new Facet(facetCategory, new Region()).style());
+            return facets;
+        }
+
+        int getRegisteredFacetCount() {
+            return ThemeRegistry.getRegisteredFacetCount(facetCategory);
+        }
+    }
+
+    private final Map<Facet, WeakReference<Facet>> facetReferences = new IdentityHashMap<>();
+    private final List<Runnable> frameRunnables = new ArrayList<>();
+
+    @BeforeEach
+    void recordFacetReferences() {
+        ThemeRegistry.setFacetReferenceFactory(facet -> {
+            WeakReference<Facet> reference = new WeakReference<>(facet);
+            facetReferences.put(facet, reference);
+            return reference;
+        });
+        ThemeRegistry.setFrameScheduler(frameRunnables::add);
+    }
+
+    @AfterEach
+    void resetRegistry() {
+        ThemeRegistry.setFacetReferenceFactory(WeakReference::new);
+        ThemeRegistry.setFrameScheduler(null);
+    }
+
+    // Drops the facets, as if they were garbage collected
+    private void dropAndCollect(List<Facet> facets) {
+        for (Facet facet : facets)
+            facetReferences.remove(facet).clear();
+        facets.clear();
+    }
+
+    @Test
+    void collectedFacetsArePurgedWhenTheCategoryDoublesInSize() {
+        CountingTheme theme = new CountingTheme();
+        List<Facet> droppedFacets = theme.styleFacets(20); // purge at 16 facets (nothing to purge) => next purge at 32
+        assertEquals(20, theme.getRegisteredFacetCount());
+        dropAndCollect(droppedFacets);
+        List<Facet> keptFacets = theme.styleFacets(11);
+        assertEquals(31, theme.getRegisteredFacetCount()); // the collected facets are not purged yet
+        keptFacets.addAll(theme.styleFacets(1));
+        assertEquals(12, theme.getRegisteredFacetCount());
+        assertEquals(12, keptFacets.size());
+    }
+
+    @Test
+    void collectedFacetsArePurgedAndNotRestyledOnModeChange() {
+        CountingTheme theme = new CountingTheme();
+        List<Facet> droppedFacets = theme.styleFacets(5);
+        List<Facet> keptFacets = theme.styleFacets(3);
+        dropAndCollect(droppedFacets);
+        theme.styleCount = 0;
+        ThemeRegistry.fireModeChangedBatched();
+        while (!frameRunnables.isEmpty())
+            frameRunnables.remove(0).run();
+        assertEquals(3, theme.styleCount);
+        assertEquals(3, theme.getRegisteredFacetCount());
+        assertEquals(3, keptFacets.size());
+    }
+
+    @Test
+    void collectedFacetsArePurgedOnSynchronousModeChange() {
+        CountingTheme theme = new CountingTheme();
+        List<Facet> droppedFacets = theme.styleFacets(5);
+        dropAndCollect(droppedFacets);
+        theme.styleCount = 0;
+        ThemeRegistry.fireModeChanged();
+        assertEquals(0, theme.styleCount);
+        assertEquals(0, theme.getRegisteredFacetCount());
+    }
+}
@@ -0,0 +1,101 @@
+package dev.webfx.extras.theme;
+
+import dev.webfx.extras.util.background.BackgroundFactory;
+import dev.webfx.extras.util.border.BorderFactory;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmark of the style memo on a synthetic scene of 10k facets in 10 colours, styled and then restyled on each mode
+ * change, with the background & border shared by the memo (ThemeUtil.applyBackground(region, fill, radius)) versus
+ * created for each facet (as before the memo). Not run by default, as not named *Test - run it explicitly with
+ * -Dtest=StyleMemoBenchmark. It reports the time of the mode changes, and the number of background & border objects
+ * allocated and still referenced by the facets (the memory saving).
+ *
+ * @author Bruno Salmon
+ */
+class StyleMemoBenchmark {
+
+    private static final int FACETS = 10_000, COLORS = 10, MODE_CHANGES = 20;
+
+    // Theme styling the background & border of the facets, with a colour depending on the facet and the current mode
+    private static final class ColoredTheme implements Theme {
+        final Object facetCategory = new Object();
+        final boolean memoized;
+        boolean dark;
+
+        ColoredTheme(boolean memoized) {
+            this.memoized = memoized;
+            ThemeRegistry.registerTheme(this);
+        }
+
+        @Override
+        public boolean supportsFacetCategory(Object facetCategory) {
+            return facetCategory == this.facetCategory;
+        }
+
+        @Override
+        public void styleFacet(Facet facet, Object facetCategory) {
+            int colorIndex = facet.getLogicValue();
+            Paint fill = Color.hsb(colorIndex * 360d / COLORS, 0.5, dark ? 0.3 : 0.9);
+            Region region = (Region) facet.getContainerNode();
+            if (memoized) {
+                ThemeUtil.applyBackground(region, fill, 5);
+                ThemeUtil.applyBorder(region, Color.GRAY, 5);
+            } else {
+                ThemeUtil.applyBackground(region, BackgroundFactory.newBackground(fill, 5));
+                ThemeUtil.applyBorder(region, BorderFactory.newBorder(Color.GRAY, 5));
+            }
+        }
+    }
+
+    @Test
+    void restyleSyntheticScene() {
+        for (int warmup = 0; warmup < 3; warmup++) {
+            run("created ", false, false);
+            run("memoized", true, false);
+        }
+        run("created ", false, true);
+        run("memoized", true, true);
+    }
+
+    private static void run(String name, boolean memoized, boolean report) {
+        ColoredTheme theme = new ColoredTheme(memoized);
+        List<Region> regions = new ArrayList<>();
+        Map<Object, Boolean> allocatedObjects = new IdentityHashMap<>();
+        for (int i = 0; i < FACETS; i++) {
+            Region region = new Region();
+            regions.add(region);
+            new Facet(theme.facetCategory, region).setLogicValue(i % COLORS).style();
+        }
+        collectStyleObjects(regions, allocatedObjects);
+        long totalNanos = 0;
+        for (int i = 0; i < MODE_CHANGES; i++) {
+            theme.dark = !theme.dark;
+            long t0 = System.nanoTime();
+            ThemeRegistry.fireModeChanged(ModeConcern.LUMINANCE);
+            totalNanos += System.nanoTime() - t0;
+            collectStyleObjects(regions, allocatedObjects);
+        }
+        Map<Object, Boolean> referencedObjects = new IdentityHashMap<>();
+        collectStyleObjects(regions, referencedObjects);
+        if (report)
+            System.out.println(name + ": " + totalNanos / MODE_CHANGES / 1000 + " us per mode change, " + allocatedObjects.size() + " backgrounds & borders allocated, " + referencedObjects.size() + " referenced by the " + FACETS + " facets");
+    }
+
+    // Collects the distinct background & border objects referenced by the regions (the ones not collected before are
+    // the ones allocated by the last styling)
+    private static void collectStyleObjects(List<Region> regions, Map<Object, Boolean> objects) {
+        for (Region region : regions) {
+            objects.put(region.getBackground(), true);
+            objects.put(region.getBorder(), true);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package dev.webfx.extras.theme;
+
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class StyleMemoTest {
+
+    @Test
+    void sameKeysShareTheSameValue() {
+        StyleMemo<Object> memo = new StyleMemo<>(10);
+        int[] supplierCalls = { 0 };
+        Object value = memo.get("a", 1d, null, null, () -> { supplierCalls[0]++; return new Object(); });
+        assertSame(value, memo.get("a", 1d, null, null, () -> { supplierCalls[0]++; return new Object(); }));
+        assertNotSame(value, memo.get("a", 2d, null, null, Object::new));
+        assertNotSame(value, memo.get("a", 1d, true, null, Object::new));
+        assertEquals(1, supplierCalls[0]);
+        assertEquals(3, memo.size());
+        assertNull(memo.get("b", null, null, null, () -> null)); // null values are not memoized
+        assertEquals(3, memo.size());
+        memo.clear();
+        assertNotSame(value, memo.get("a", 1d, null, null, Object::new));
+    }
+
+    @Test
+    void leastRecentlyUsedValuesAreEvictedOverTheMaxSize() {
+        StyleMemo<Object> memo = new StyleMemo<>(2);
+        Object a = memo.get("a", null, null, null, Object::new);
+        Object b = memo.get("b", null, null, null, Object::new);
+        memo.get("a", null, null, null, Object::new); // a is now more recently used than b
+        memo.get("c", null, null, null, Object::new);
+        assertEquals(2, memo.size());
+        assertSame(a, memo.get("a", null, null, null, Object::new));
+        assertNotSame(b, memo.get("b", null, null, null, Object::new));
+    }
+
+    @Test
+    void identicalFacetsShareTheirBackgroundAndBorder() {
+        Region region1 = new Region(), region2 = new Region();
+        ThemeUtil.applyBackground(region1, Color.RED, 5);
+        ThemeUtil.applyBackground(region2, Color.RED, 5);
+        assertNotNull(region1.getBackground());
+        assertSame(region1.getBackground(), region2.getBackground());
+        ThemeUtil.applyBackground(region2, Color.RED, 6);
+        assertNotSame(region1.getBackground(), region2.getBackground());
+        ThemeUtil.applyBorder(region1, Color.BLUE, 2);
+        ThemeUtil.applyBorder(region2, Color.BLUE, 2);
+        assertNotNull(region1.getBorder());
+        assertSame(region1.getBorder(), region2.getBorder());
+    }
+
+    @Test
+    void styleCapturesAreMemoizedUntilTheNextModeChange() {
+        Object facetCategory = new Object();
+        int[] styleCalls = { 0 };
+        Theme theme = new Theme() {
+            @Override
+            public boolean supportsFacetCategory(Object category) {
+                return category == facetCategory;
+            }
+
+            @Override
+            public void styleFacet(Facet facet, Object category) {
+                styleCalls[0]++;
+                ThemeUtil.applyBackground(facet.getContainerNode(), facet.isSelected() ? Color.BLUE : Color.GRAY, 0);
+            }
+        };
+        StyleCapture capture = StyleCapture.captureStyle(theme, "value", facetCategory);
+        assertEquals(Color.GRAY, capture.getBackgroundFill());
+        assertSame(capture, StyleCapture.captureStyle(theme, "value", false, facetCategory));
+        assertEquals(1, styleCalls[0]);
+        StyleCapture selectedCapture = StyleCapture.captureStyle(theme, "value", true, facetCategory);
+        assertEquals(Color.BLUE, selectedCapture.getBackgroundFill());
+        assertEquals(2, styleCalls[0]);
+        ThemeRegistry.fireModeChanged();
+        assertNotSame(capture, StyleCapture.captureStyle(theme, "value", facetCategory));
+        assertEquals(3, styleCalls[0]);
+    }
+}
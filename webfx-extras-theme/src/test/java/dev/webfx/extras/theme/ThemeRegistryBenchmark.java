@@ -0,0 +1,91 @@
+package dev.webfx.extras.theme;
+
+import javafx.geometry.Insets;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.CornerRadii;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Headless benchmark of a mode change with 10k synthetic facets, restyled synchronously versus in a batched pass (not
+ * run by default, as not named *Test - run it explicitly with -Dtest=ThemeRegistryBenchmark). It reports the time the
+ * UI is blocked by the mode change call and, for the batched pass, by its frames.
+ *
+ * @author Bruno Salmon
+ */
+class ThemeRegistryBenchmark {
+
+    private static final int FACETS = 10_000, MODE_CHANGES = 20;
+
+    // Theme setting a new background on each facet, depending on the current mode
+    private static final class BackgroundTheme implements Theme {
+        final Object facetCategory = new Object();
+        boolean dark;
+
+        BackgroundTheme() {
+            ThemeRegistry.registerTheme(this);
+        }
+
+        @Override
+        public boolean supportsFacetCategory(Object facetCategory) {
+            return facetCategory == this.facetCategory;
+        }
+
+        @Override
+        public void styleFacet(Facet facet, Object facetCategory) {
+            Region region = (Region) facet.getContainerNode();
+            region.setBackground(new Background(new BackgroundFill(dark ? Color.BLACK : Color.WHITE, new CornerRadii(5), Insets.EMPTY)));
+        }
+    }
+
+    @Test
+    void modeChangeWith10kFacets() {
+        List<Runnable> frameRunnables = new ArrayList<>();
+        ThemeRegistry.setFrameScheduler(frameRunnables::add);
+        try {
+            BackgroundTheme theme = new BackgroundTheme();
+            List<Facet> facets = new ArrayList<>();
+            for (int i = 0; i < FACETS; i++)
+                facets.add(new Facet(theme.facetCategory, new Region()).style());
+            for (int warmup = 0; warmup < 3; warmup++) {
+                run("synchronous", theme, frameRunnables, false, false);
+                run("batched    ", theme, frameRunnables, true, false);
+            }
+            run("synchronous", theme, frameRunnables, false, true);
+            run("batched    ", theme, frameRunnables, true, true);
+            facets.clear();
+        } finally {
+            ThemeRegistry.setFrameScheduler(null);
+        }
+    }
+
+    private static void run(String name, BackgroundTheme theme, List<Runnable> frameRunnables, boolean batched, boolean report) {
+        long totalCallNanos = 0, totalFrameNanos = 0, maxFrameNanos = 0, frameCount = 0;
+        for (int i = 0; i < MODE_CHANGES; i++) {
+            theme.dark = !theme.dark;
+            long t0 = System.nanoTime();
+            if (batched)
+                ThemeRegistry.fireModeChangedBatched(ModeConcern.LUMINANCE);
+            else
+                ThemeRegistry.fireModeChanged(ModeConcern.LUMINANCE);
+            totalCallNanos += System.nanoTime() - t0;
+            while (!frameRunnables.isEmpty()) {
+                List<Runnable> runnables = new ArrayList<>(frameRunnables);
+                frameRunnables.clear();
+                long f0 = System.nanoTime();
+                runnables.forEach(Runnable::run);
+                long frameNanos = System.nanoTime() - f0;
+                totalFrameNanos += frameNanos;
+                maxFrameNanos = Math.max(maxFrameNanos, frameNanos);
+                frameCount++;
+            }
+        }
+        if (report)
+            System.out.println(name + ": " + totalCallNanos / MODE_CHANGES / 1000 + " us per mode change call, " + totalFrameNanos / MODE_CHANGES / 1000 + " us in " + frameCount / MODE_CHANGES + " frames per mode change, " + maxFrameNanos / 1000 + " us for the longest frame");
+    }
+}
@@ -0,0 +1,200 @@
+package dev.webfx.extras.theme;
+
+import javafx.scene.layout.Region;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class ThemeRegistryTest {
+
+    // Theme counting the styling of each facet of its own category (so the tests don't interfere with each other)
+    static final class CountingTheme implements Theme {
+        final Object facetCategory = new Object();
+        final ModeConcern modeConcern; // the only mode concern this theme depends on (null = all)
+        final Map<Facet, Integer> styleCounts = new HashMap<>();
+        long styleMillis;
+
+        CountingTheme(ModeConcern modeConcern) {
+            this.modeConcern = modeConcern;
+            ThemeRegistry.registerTheme(this);
+        }
+
+        @Override
+        public boolean supportsFacetCategory(Object facetCategory) {
+            return facetCategory == this.facetCategory;
+        }
+
+        @Override
+        public void styleFacet(Facet facet, Object facetCategory) {
+            styleCounts.merge(facet, 1, Integer::sum);
+            if (styleMillis > 0)
+                try {
+                    Thread.sleep(styleMillis);
+                } catch (InterruptedException ignored) {
+                }
+        }
+
+        @Override
+        public boolean dependsOnModeConcern(ModeConcern modeConcern) {
+            return this.modeConcern == null || this.modeConcern == modeConcern;
+        }
+
+        List<Facet> styleFacets(int count) {
+            List<Facet> facets = new ArrayList<>();
+            for (int i = 0; i < count; i++)
+                facets.add(new Facet(facetCategory, new Region()).style());
+            return facets;
+        }
+
+        int getStyleCount(Facet facet) {
+            return styleCounts.getOrDefault(facet, 0);
+        }
+
+        int getTotalStyleCount() {
+            int total = 0;
+            for (int count : styleCounts.values())
+                total += count;
+            return total;
+        }
+    }
+
+    private final List<Runnable> frameRunnables = new ArrayList<>();
+
+    @BeforeEach
+    void useFrameRunnables() {
+        ThemeRegistry.setFrameScheduler(frameRunnables::add);
+    }
+
+    @AfterEach
+    void finishRestylePass() {
+        ThemeRegistry.setRestyleFrameBudgetMillis(8);
+        runFramesUntilRestyled();
+        ThemeRegistry.setFrameScheduler(null);
+    }
+
+    private void runFrame() {
+        List<Runnable> runnables = new ArrayList<>(frameRunnables);
+        frameRunnables.clear();
+        runnables.forEach(Runnable::run);
+    }
+
+    private int runFramesUntilRestyled() {
+        int frameCount = 0;
+        while (ThemeRegistry.isRestylePending() && frameCount < 1000) {
+            runFrame();
+            frameCount++;
+        }
+        assertFalse(ThemeRegistry.isRestylePending());
+        return frameCount;
+    }
+
+    @Test
+    void modeChangesAreSynchronousByDefault() {
+        CountingTheme theme = new CountingTheme(null);
+        List<Facet> facets = theme.styleFacets(10);
+        int[] listenerCalls = { 0 };
+        Runnable listener = () -> listenerCalls[0]++;
+        ThemeRegistry.addModeChangeListener(listener);
+        try {
+            ThemeRegistry.fireModeChanged(ModeConcern.LUMINANCE);
+            assertFalse(ThemeRegistry.isRestylePending());
+            assertTrue(frameRunnables.isEmpty());
+            for (Facet facet : facets)
+                assertEquals(2, theme.getStyleCount(facet));
+            assertEquals(1, listenerCalls[0]);
+        } finally {
+            ThemeRegistry.removeModeChangeListener(listener);
+        }
+    }
+
+    @Test
+    void modeChangesOfAFrameAreCoalescedInOnePass() {
+        CountingTheme theme = new CountingTheme(null);
+        List<Facet> facets = theme.styleFacets(10);
+        assertEquals(10, theme.getTotalStyleCount()); // styled on registration
+        int[] listenerCalls = { 0 };
+        Runnable listener = () -> listenerCalls[0]++;
+        ThemeRegistry.addModeChangeListener(listener);
+        try {
+            ThemeRegistry.fireModeChangedBatched(ModeConcern.LUMINANCE);
+            ThemeRegistry.fireModeChangedBatched(ModeConcern.PALETTE);
+            assertTrue(ThemeRegistry.isRestylePending());
+            assertEquals(10, theme.getTotalStyleCount()); // nothing restyled before the next animation frame
+            runFramesUntilRestyled();
+            for (Facet facet : facets)
+                assertEquals(2, theme.getStyleCount(facet));
+            assertEquals(1, listenerCalls[0]);
+        } finally {
+            ThemeRegistry.removeModeChangeListener(listener);
+        }
+    }
+
+    @Test
+    void restyleIsSpreadOverSeveralFramesWithinTheBudget() {
+        CountingTheme theme = new CountingTheme(null);
+        List<Facet> facets = theme.styleFacets(50);
+        theme.styleMillis = 1;
+        ThemeRegistry.setRestyleFrameBudgetMillis(0);
+        ThemeRegistry.fireModeChangedBatched();
+        runFrame();
+        assertTrue(theme.getTotalStyleCount() < 100);
+        assertTrue(ThemeRegistry.isRestylePending());
+        assertTrue(runFramesUntilRestyled() >= 2);
+        for (Facet facet : facets)
+            assertEquals(2, theme.getStyleCount(facet));
+    }
+
+    @Test
+    void facetsAlreadyRestyledAreSkipped() {
+        CountingTheme theme = new CountingTheme(null);
+        List<Facet> facets = theme.styleFacets(3);
+        ThemeRegistry.fireModeChangedBatched();
+        facets.get(0).style(); // ex: restyled on a facet state change before the pass
+        runFramesUntilRestyled();
+        for (Facet facet : facets)
+            assertEquals(2, theme.getStyleCount(facet));
+    }
+
+    @Test
+    void synchronousModeChangeStopsThePassInProgress() {
+        CountingTheme theme = new CountingTheme(null);
+        List<Facet> facets = theme.styleFacets(50);
+        theme.styleMillis = 1;
+        ThemeRegistry.setRestyleFrameBudgetMillis(0);
+        ThemeRegistry.fireModeChangedBatched();
+        runFrame();
+        theme.styleMillis = 0;
+        ThemeRegistry.fireModeChanged();
+        assertFalse(ThemeRegistry.isRestylePending());
+        int totalStyleCount = theme.getTotalStyleCount();
+        runFrame();
+        assertEquals(totalStyleCount, theme.getTotalStyleCount());
+        for (Facet facet : facets)
+            assertTrue(theme.getStyleCount(facet) >= 2);
+    }
+
+    @Test
+    void onlyTheFacetsDependingOnTheChangedModeAreRestyled() {
+        CountingTheme layoutTheme = new CountingTheme(ModeConcern.LAYOUT);
+        CountingTheme paletteTheme = new CountingTheme(ModeConcern.PALETTE);
+        Facet layoutFacet = layoutTheme.styleFacets(1).get(0), paletteFacet = paletteTheme.styleFacets(1).get(0);
+        ThemeRegistry.fireModeChangedBatched(ModeConcern.PALETTE);
+        runFramesUntilRestyled();
+        assertEquals(1, layoutTheme.getStyleCount(layoutFacet));
+        assertEquals(2, paletteTheme.getStyleCount(paletteFacet));
+        ThemeRegistry.fireModeChangedBatched(); // unknown mode concern => all facets
+        runFramesUntilRestyled();
+        assertEquals(2, layoutTheme.getStyleCount(layoutFacet));
+        assertEquals(3, paletteTheme.getStyleCount(paletteFacet));
+    }
+}
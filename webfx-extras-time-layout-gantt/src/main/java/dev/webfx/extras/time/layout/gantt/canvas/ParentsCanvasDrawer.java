@@ -12,12 +12,15 @@ import dev.webfx.extras.time.layout.gantt.impl.GrandparentRow;
 import dev.webfx.extras.time.layout.gantt.impl.ParentRow;
 import dev.webfx.extras.time.layout.impl.ObjectBounds;
 import dev.webfx.extras.time.layout.impl.TimeLayoutUtil;
+import dev.webfx.extras.time.projector.LinearTimeWindowProjector;
+import dev.webfx.extras.time.projector.TimeProjector;
 import javafx.geometry.BoundingBox;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Paint;
 import javafx.stage.Screen;
 
+import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
 import java.util.List;
@@ -48,6 +51,8 @@ public final class ParentsCanvasDrawer {
     private HeaderRotation parentHeaderRotation = HeaderRotation.NO_ROTATION;
 
     private javafx.geometry.Bounds drawingArea;
+    private CanvasInteractionManager canvasInteractionManager;
+    private ParentsCanvasInteractionHandler interactionHandler;
 
     public ParentsCanvasDrawer(GanttLayoutImpl<?, ? extends Temporal> ganttLayout, CanvasDrawer childrenDrawer) {
         this(ganttLayout, childrenDrawer, null);
@@ -89,8 +94,9 @@ public final class ParentsCanvasDrawer {
                     onAfterChildrenDraw(ganttLayout.getParentHeaderWidth(), childrenDrawer.getLayoutOriginY())
             );
             if (childrenDrawer instanceof HasCanvasInteractionManager) {
-                CanvasInteractionManager canvasInteractionManager = ((HasCanvasInteractionManager) childrenDrawer).getCanvasInteractionManager();
-                canvasInteractionManager.addHandler(new ParentsCanvasInteractionHandler(ganttLayout, this), true);
+                canvasInteractionManager = ((HasCanvasInteractionManager) childrenDrawer).getCanvasInteractionManager();
+                interactionHandler = new ParentsCanvasInteractionHandler(ganttLayout, this);
+                canvasInteractionManager.addHandler(interactionHandler, true);
             }
         }
     }
@@ -194,6 +200,9 @@ public final class ParentsCanvasDrawer {
 
     private void onAfterChildrenDraw(double virtualCanvasWidth, double virtualViewPortY) {
         drawAll(virtualCanvasWidth, virtualViewPortY, true);
+        // The headers may have moved, so the interactive regions of the headers are updated
+        if (interactionHandler != null)
+            interactionHandler.declareHeaderRegions(canvasInteractionManager, canvas);
     }
 
     private void drawAll(double virtualCanvasWidth, double virtualViewPortY, boolean afterChildrenPass) {
@@ -343,6 +352,17 @@ public final class ParentsCanvasDrawer {
         gc.setStroke(verticalStroke);
         gc.setLineWidth(STROKE_WIDTH);
         T t0 = ganttLayout.getTimeWindowStart();
+        TimeProjector<T> timeProjector = ganttLayout.getTimeProjector();
+        if (t0 instanceof LocalDate && timeProjector instanceof LinearTimeWindowProjector) { // Fast path with no temporal object creation
+            LinearTimeWindowProjector<T> linearProjector = (LinearTimeWindowProjector<T>) timeProjector;
+            long endEpochDay = ((LocalDate) ganttLayout.getTimeWindowEnd()).toEpochDay();
+            for (long epochDay = ((LocalDate) t0).toEpochDay(); epochDay <= endEpochDay; epochDay++) {
+                double x0 = linearProjector.epochDayToX(epochDay);
+                if (x0 > b.getMinX())
+                    gc.strokeLine(x0, b.getMinY(), x0, b.getMaxY());
+            }
+            return;
+        }
         while (t0.until(ganttLayout.getTimeWindowEnd(), ChronoUnit.DAYS) >= 0) {
             double x0 = ganttLayout.getTimeProjector().timeToX(t0, true, false);
             if (x0 > b.getMinX())
@@ -1,7 +1,9 @@
 package dev.webfx.extras.time.layout.gantt.canvas;
 
 import dev.webfx.extras.canvas.layer.interact.CanvasInteractionHandler;
+import dev.webfx.extras.canvas.layer.interact.CanvasInteractionManager;
 import dev.webfx.extras.time.layout.gantt.impl.GanttLayoutImpl;
+import dev.webfx.extras.time.layout.gantt.impl.GrandparentRow;
 import dev.webfx.extras.time.layout.gantt.impl.ParentRow;
 import javafx.scene.Cursor;
 import javafx.scene.canvas.Canvas;
@@ -23,6 +25,32 @@ public class ParentsCanvasInteractionHandler implements CanvasInteractionHandler
         this.parentsCanvasDrawer = parentsCanvasDrawer;
     }
 
+    /**
+     * Declares the areas of the headers (with their sliders) as the interactive regions of this handler, so it's not
+     * called on mouse moves and presses elsewhere (ex: over the children bars). To be called after each layout change.
+     */
+    void declareHeaderRegions(CanvasInteractionManager canvasInteractionManager, Canvas canvas) {
+        // If no headers are on left or right, there is no slider nor clickable child row header, so this handler doesn't
+        // need any mouse move or press
+        if (!ganttLayout.isGrandparentHeaderOnLeftOrRight() && !ganttLayout.isParentHeaderOnLeftOrRight()) {
+            canvasInteractionManager.declareNoHandlerRegion(this);
+            return;
+        }
+        canvasInteractionManager.clearHandlerRegions(this);
+        if (ganttLayout.isGrandparentHeaderOnLeftOrRight())
+            declareSliderRegion(canvasInteractionManager, canvas, grandparentHeaderBorderX(canvas, true, true), grandparentHeaderBorderX(canvas, true, true));
+        if (ganttLayout.isParentHeaderOnLeftOrRight()) { // parent slider + child row header with its slider
+            double x1 = parentHeaderBorderX(canvas, true, true), x2 = parentHeaderBorderX(canvas, true, false);
+            double x3 = childRowHeaderBorderX(canvas, true, true), x4 = childRowHeaderBorderX(canvas, true, false);
+            declareSliderRegion(canvasInteractionManager, canvas, Math.min(Math.min(x1, x2), Math.min(x3, x4)), Math.max(Math.max(x1, x2), Math.max(x3, x4)));
+        }
+    }
+
+    private void declareSliderRegion(CanvasInteractionManager canvasInteractionManager, Canvas canvas, double minX, double maxX) {
+        // Same 10px tolerance as isHoveringSlider()
+        canvasInteractionManager.addHandlerRegion(this, minX - 10, 0, maxX - minX + 20, canvas.getHeight());
+    }
+
     public boolean handleMouseMoved(MouseEvent e, Canvas canvas) {
         // Showing a horizontal resize cursor when hovering a slider (grandparent, parent or child row header)
         if (isHoveringGrandparentHeaderSlider(e, canvas)
@@ -173,7 +201,12 @@ public class ParentsCanvasInteractionHandler implements CanvasInteractionHandler
     }
 
     private boolean isHoveringGrandparentHeader(MouseEvent e) {
-        return ganttLayout.getGrandparentRows().stream().anyMatch(gr -> gr.getHeader().contains(0, e.getY() + parentsCanvasDrawer.getLastVirtualViewPortY()));
+        double y = e.getY() + parentsCanvasDrawer.getLastVirtualViewPortY();
+        for (GrandparentRow gr : ganttLayout.getGrandparentRows()) { // Note: plain loop (no allocation on mouse moves)
+            if (gr.getHeader().contains(0, y))
+                return true;
+        }
+        return false;
     }
 
     private double grandparentHeaderDragWidth(MouseEvent e, Canvas canvas) {
@@ -35,8 +35,17 @@ final class GanttChildBounds<C, T extends Temporal> extends ChildBounds<C, T> {
 
     public void setParentRow(ParentRow<C> parentRow) {
         this.parentRow = parentRow;
+        rowIndexInParentRow = -1;
         if (parentRow != null)
-            parentRow.addChild(this);
+            parentRow.addChild(this); // may set the row index if the parent row tetris rows are already packed
+    }
+
+    void detachFromParentRow() {
+        if (parentRow != null) {
+            parentRow.removeChild(this, rowIndexInParentRow);
+            parentRow = null;
+        }
+        parent = null;
         rowIndexInParentRow = -1;
     }
 
@@ -48,6 +57,10 @@ final class GanttChildBounds<C, T extends Temporal> extends ChildBounds<C, T> {
         return rowIndexInParentRow;
     }
 
+    void setRowIndexInParentRow(int rowIndexInParentRow) {
+        this.rowIndexInParentRow = rowIndexInParentRow;
+    }
+
     boolean overlaps(GanttChildBounds<C, ?> other) {
         double minX = getMinX();
         double otherMinX = other.getMinX();
@@ -68,18 +68,55 @@ public class GanttLayoutImpl<C, T extends Temporal> extends TimeLayoutBase<C, T>
     private Map<Object, ParentRow<C>> oldParentToParentRowMap;
     private GrandparentRow lastGrandparentRow;
     private ParentRow<C> lastParentRow;
+    // Index of the parent rows by vertical position for getParentRowAtY() (rebuilt when verticalVersion changes): the
+    // parent rows sorted by y, with their min & max y (i.e. the prefix sums of the rows heights), for a binary search.
+    private final List<ParentRow<C>> yIndexedParentRows = new ArrayList<>();
+    private double[] yIndexedParentRowMinYs, yIndexedParentRowMaxYs;
+    private int yIndexVerticalVersion = -1;
 
     public GanttLayoutImpl(TemporalUnit temporalUnit) {
         setTimeProjector(new LinearTimeWindowProjector<>(this, temporalUnit, this::getWidth));
         parents.addListener((ListChangeListener<Object>) c -> invalidateProvidedTree());
     }
 
+    // When the parents are provided, the parent rows don't depend on the children, so (if the tree is in sync) the
+    // children changes can be applied to their parent rows without rebuilding the whole tree. Otherwise (i.e. when the
+    // parent rows are generated from the children), the tree needs to be rebuilt, as the parent rows depend on the
+    // children and their order.
+    private boolean isIncrementalTreeChangeAllowed() {
+        return isParentsProvided() && builtProvidedTreeVersion == providedTreeVersion && builtChildrenTreeVersion == childrenTreeVersion;
+    }
+
     @Override
-    protected void onChildrenChanged(ListChangeListener.Change<? extends C> c) {
-        super.onChildrenChanged(c);
+    protected void onChildBoundsAdded(ChildBounds<C, T> cb) {
+        if (isIncrementalTreeChangeAllowed()) {
+            Object parent = childParentReader == null ? null : childParentReader.apply(cb.getObject());
+            ParentRow<C> parentRow = parentToParentRowMap.get(parent);
+            if (parentRow != null) {
+                GanttChildBounds<C, T> gcb = (GanttChildBounds<C, T>) cb;
+                gcb.setParent(parent);
+                gcb.setParentRow(parentRow); // will add this child to parentRow as well
+                return;
+            }
+        }
         invalidateChildrenTree();
     }
 
+    @Override
+    protected void onChildBoundsRemoved(ChildBounds<C, T> cb) {
+        if (isIncrementalTreeChangeAllowed())
+            ((GanttChildBounds<C, T>) cb).detachFromParentRow(); // the other children of the parent row don't move
+        else
+            invalidateChildrenTree();
+    }
+
+    @Override
+    protected void onChildrenBoundsPermutated() {
+        // Nothing to do with provided parents, as the children order doesn't matter in their parent rows
+        if (!isIncrementalTreeChangeAllowed())
+            invalidateChildrenTree();
+    }
+
     @Override
     protected ChildBounds<C, T> createChildLayoutBounds() {
         return new GanttChildBounds<>(this);
@@ -272,10 +309,8 @@ public class GanttLayoutImpl<C, T extends Temporal> extends TimeLayoutBase<C, T>
 
     @Override
     public int getRowIndexInParentRow(C child) {
-        int childIndex = children.indexOf(child);
-        if (childIndex != -1)
-            childIndex = getRowIndexInParentRow(childrenBounds.get(childIndex));
-        return childIndex;
+        ChildBounds<C, T> cb = findChildBounds(child);
+        return cb == null ? -1 : getRowIndexInParentRow(cb);
     }
 
     @Override
@@ -329,10 +364,41 @@ public class GanttLayoutImpl<C, T extends Temporal> extends TimeLayoutBase<C, T>
     }
 
     public ParentRow<C> getParentRowAtY(double y) {
-        for (ParentRow<C> parentRow : parentRows)
-            if (y >= parentRow.getMinY() && y <= parentRow.getMaxY())
-                return parentRow;
-        return null;
+        checkSyncTree();
+        if (yIndexVerticalVersion != verticalVersion)
+            buildParentRowsYIndex();
+        // Binary search of the first parent row whose bottom is below y (so the upper row wins on a shared boundary)
+        int low = 0, high = yIndexedParentRows.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (yIndexedParentRowMaxYs[middle] < y)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low < yIndexedParentRows.size() && yIndexedParentRowMinYs[low] <= y ? yIndexedParentRows.get(low) : null;
+    }
+
+    private void buildParentRowsYIndex() {
+        int version = verticalVersion;
+        yIndexedParentRows.clear();
+        yIndexedParentRows.addAll(parentRows);
+        int n = yIndexedParentRows.size();
+        // The parent rows are usually already in vertical order, but not necessarily when they have grandparent rows
+        for (int i = 1; i < n; i++) {
+            if (yIndexedParentRows.get(i).getMinY() < yIndexedParentRows.get(i - 1).getMinY()) {
+                yIndexedParentRows.sort((pr1, pr2) -> Double.compare(pr1.getMinY(), pr2.getMinY()));
+                break;
+            }
+        }
+        yIndexedParentRowMinYs = new double[n];
+        yIndexedParentRowMaxYs = new double[n];
+        for (int i = 0; i < n; i++) {
+            ParentRow<C> parentRow = yIndexedParentRows.get(i);
+            yIndexedParentRowMinYs[i] = parentRow.getMinY();
+            yIndexedParentRowMaxYs[i] = parentRow.getMaxY();
+        }
+        yIndexVerticalVersion = version;
     }
 
     private void invalidateChildrenTree() {
@@ -567,8 +633,10 @@ public class GanttLayoutImpl<C, T extends Temporal> extends TimeLayoutBase<C, T>
         // 2) Computing parent row y position
         pr.setHeight(height);
         double y;
-        if (pr.aboveParentRow != null)
+        if (pr.aboveParentRow != null) {
+            layoutInvalidAboveParentRowsVertically(pr);
             y = pr.aboveParentRow.getMaxY();
+        }
         else if (pr.grandparentRow != null) {
             if (isGrandparentHeaderOnTop())
                 y = pr.grandparentRow.getHeader().getMaxY();
@@ -579,6 +647,19 @@ public class GanttLayoutImpl<C, T extends Temporal> extends TimeLayoutBase<C, T>
         pr.setY(y);
     }
 
+    // The y of a parent row is the max y of the row above it, so the vertical layout of the last row of a long chain of
+    // invalid rows would recurse once per row above (and overflow the stack with thousands of parent rows). So the
+    // invalid rows above are laid out iteratively, from the top one.
+    private void layoutInvalidAboveParentRowsVertically(ParentRow<C> pr) {
+        if (pr.aboveParentRow.isVerticalLayoutValid())
+            return;
+        List<ParentRow<C>> invalidRows = new ArrayList<>();
+        for (ParentRow<C> row = pr.aboveParentRow; row != null && !row.isVerticalLayoutValid(); row = row.aboveParentRow)
+            invalidRows.add(row);
+        for (int i = invalidRows.size() - 1; i >= 0; i--)
+            invalidRows.get(i).getY(); // lays out that row, the row above being already valid
+    }
+
     // ============================================ Parent header ======================================================
 
     // ------------------------------------------- Horizontal layout ---------------------------------------------------
@@ -3,8 +3,11 @@ package dev.webfx.extras.time.layout.gantt.impl;
 import dev.webfx.extras.time.layout.impl.ObjectBounds;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
 import java.util.stream.Stream;
 
 /**
@@ -49,15 +52,22 @@ public final class ParentRow<C> extends EnclosingRow<ParentRow<C>> {
 
     void addChild(GanttChildBounds<C, ?> cb) {
         childrenBounds.add(cb);
+        // Once packed, the tetris rows are updated incrementally (otherwise they will be packed on first request)
+        if (tetrisRows != null && ganttLayout.isTetrisPacking())
+            insertTetrisChild(cb);
+    }
+
+    void removeChild(GanttChildBounds<C, ?> cb, int rowIndex) {
+        if (childrenBounds.remove(cb) && tetrisRows != null && ganttLayout.isTetrisPacking())
+            removeTetrisChild(cb, rowIndex);
     }
 
     public int getRowsCount() { // Note: never returns 0, 1 is minimum
         if (!ganttLayout.isTetrisPacking())
             return 1;
-        if (tetrisRows == null && childrenBounds != null) {
-            childrenBounds.forEach(GanttChildBounds::getRowIndexInParentRow);
-        }
-        return tetrisRows == null ? 1 : tetrisRows.size();
+        if (tetrisRows == null)
+            packTetrisRows();
+        return Math.max(1, tetrisRows.size());
     }
 
     public int getChildRowIndexAtY(double y) {
@@ -124,51 +134,134 @@ public final class ParentRow<C> extends EnclosingRow<ParentRow<C>> {
     int computeChildTetrisRowIndex(GanttChildBounds<C, ?> cb) {
         if (!ganttLayout.isTetrisPacking())
             return 0;
-        if (tetrisRows == null) {
-            tetrisRows = new ArrayList<>();
-            // Rebuilding the tetris rows from the previous version (if present) - ignoring the children that may have
-            // disappeared - and inserting the remaining ones back to the new tetris rows in the same order, so the new
-            // tetris rows look almost the same, giving some visual stability (if we don't do that, the children may be
-            // inserted in a complete different order each time the user scroll over the dates, which is disturbing)
-            if (oldTetrisRows != null) {
-                int[] cbRowIndex = { -1 }; // to store the row index of the request child if we find it in the process
-                for (List<GanttChildBounds<C, ?>> oldTetrisRow : oldTetrisRows) { // Iterating all old rows
-                    for (GanttChildBounds<C, ?> oldCp : oldTetrisRow) { // Iterating all old children positions in the row
-                        // Checking if that old child is still present in the new set
-                        childrenBounds.stream().filter(newCp -> Objects.equals(newCp.getObject(), oldCp.getObject()))
-                                .findFirst().ifPresent(newCp -> { // If yes, we reintroduce it in the new tetris rows
-                                    // The following will create a recursive call, but not an infinite loop, because
-                                    int rowIndex = newCp.getRowIndexInParentRow(); // will go to the second part now
-                                    if (newCp == cb) // We store the result for the requested child
-                                        cbRowIndex[0] = rowIndex;
-                                });
-                    }
-                }
-                oldTetrisRows = null; // We can forget the old tetris rows now
-                // We return the result if the requested child was found in the process
-                if (cbRowIndex[0] != -1)
-                    return cbRowIndex[0];
-                // Otherwise, if it's a new child, we keep going
+        if (tetrisRows == null)
+            packTetrisRows();
+        return cb.getRowIndexInParentRow();
+    }
+
+    // Interval partitioning: the children are swept by start position, and each one is placed in the lowest free tetris
+    // row (a row being free when its last child ends before the child start), the busy rows being kept in a min-heap
+    // ordered by end position. This is O(n log n) and produces the minimum number of rows.
+    private void packTetrisRows() {
+        tetrisRows = new ArrayList<>();
+        // For visual stability, the children of the previous version (if present) prefer to go back to their previous
+        // row (if we don't do that, the children may be placed in a complete different order each time the user scroll
+        // over the dates, which is disturbing).
+        Map<Object, Integer> previousRowIndexes = new HashMap<>();
+        if (oldTetrisRows != null) {
+            for (int rowIndex = 0; rowIndex < oldTetrisRows.size(); rowIndex++)
+                for (GanttChildBounds<C, ?> oldCb : oldTetrisRows.get(rowIndex))
+                    previousRowIndexes.putIfAbsent(oldCb.getObject(), rowIndex);
+            oldTetrisRows = null; // We can forget the old tetris rows now
+        }
+        List<GanttChildBounds<C, ?>> sweptChildren = new ArrayList<>(childrenBounds);
+        sweptChildren.sort((cb1, cb2) -> { // stable sort, so the children order is kept for identical starts
+            int c = Double.compare(cb1.getMinX(), cb2.getMinX());
+            if (c == 0)
+                c = Integer.compare(previousRowIndexes.getOrDefault(cb1.getObject(), Integer.MAX_VALUE), previousRowIndexes.getOrDefault(cb2.getObject(), Integer.MAX_VALUE));
+            return c;
+        });
+        PriorityQueue<Integer> busyRows = new PriorityQueue<>((r1, r2) -> {
+            int c = Double.compare(getTetrisRowLastChild(r1).getMaxX(), getTetrisRowLastChild(r2).getMaxX());
+            return c != 0 ? c : Integer.compare(r1, r2);
+        });
+        TreeSet<Integer> freeRows = new TreeSet<>();
+        for (GanttChildBounds<C, ?> cb : sweptChildren) {
+            double minX = cb.getMinX();
+            while (!busyRows.isEmpty() && getTetrisRowLastChild(busyRows.peek()).getMaxX() <= minX)
+                freeRows.add(busyRows.poll());
+            int rowIndex = pickFreeTetrisRow(cb, freeRows, previousRowIndexes.get(cb.getObject()));
+            if (rowIndex < 0) {
+                rowIndex = tetrisRows.size();
+                tetrisRows.add(new ArrayList<>());
             }
+            tetrisRows.get(rowIndex).add(cb);
+            cb.setRowIndexInParentRow(rowIndex);
+            busyRows.add(rowIndex);
         }
-        // We try to find a row where the child can fit without overlapping the other children already present on that row
-        loop: for (int tetrisRowIndex = 0; tetrisRowIndex < tetrisRows.size(); tetrisRowIndex++) { // iterate all rows
-            List<GanttChildBounds<C, ?>> tetrisRow = tetrisRows.get(tetrisRowIndex); // getting the row
-            for (GanttChildBounds<C, ?> other : tetrisRow) { // iterate all children already present on that row
-                if (cb == other) // shouldn't really happen, but just in case the requested child is already present,
-                    return tetrisRowIndex; // we return its row (no change)
-                if (cb.overlaps(other)) // If it overlaps another child,
-                    continue loop; // we continue to iterate to the new row
+    }
+
+    private int pickFreeTetrisRow(GanttChildBounds<C, ?> cb, TreeSet<Integer> freeRows, Integer previousRowIndex) {
+        if (previousRowIndex != null && freeRows.contains(previousRowIndex) && !cb.overlaps(getTetrisRowLastChild(previousRowIndex))) {
+            freeRows.remove(previousRowIndex);
+            return previousRowIndex;
+        }
+        // Note: the overlap check is only necessary for zero-width children (which overlap on identical start or end)
+        for (Integer rowIndex : freeRows) {
+            if (!cb.overlaps(getTetrisRowLastChild(rowIndex))) {
+                freeRows.remove(rowIndex);
+                return rowIndex;
             }
-            // We reach this point if the child didn't overlap any of the existing children on that row
-            tetrisRow.add(cb); // So we can add it to that row,
-            return tetrisRowIndex; // and return that row index
         }
-        // We reach this point when the child couldn't be inserted in any of the existing rows,
-        List<GanttChildBounds<C, ?>> tetrisRow = new ArrayList<>(); // so we need to create a new row for it
-        tetrisRow.add(cb); // and insert it in that row
-        tetrisRows.add(tetrisRow); // and insert that row after the other rows
-        return tetrisRows.size() - 1; // and return that last row index
+        return -1;
+    }
+
+    private GanttChildBounds<C, ?> getTetrisRowLastChild(int rowIndex) {
+        List<GanttChildBounds<C, ?>> tetrisRow = tetrisRows.get(rowIndex);
+        return tetrisRow.get(tetrisRow.size() - 1);
+    }
+
+    // Incremental insertion of a child into the existing tetris rows: it goes into the first row where it doesn't overlap
+    // its neighbours (the rows are sorted by start position), the other children staying in place. If there is no room
+    // in the existing rows, the children are packed again in case this saves the new row (as the rows of a first-fit
+    // insertion may not be optimal anymore), otherwise the child goes into a new row. So the rows count is still the
+    // minimum after the insertion (as after a full packing).
+    private void insertTetrisChild(GanttChildBounds<C, ?> cb) {
+        double minX = cb.getMinX();
+        for (int rowIndex = 0; rowIndex < tetrisRows.size(); rowIndex++) {
+            List<GanttChildBounds<C, ?>> tetrisRow = tetrisRows.get(rowIndex);
+            int low = 0, high = tetrisRow.size(); // binary search of the first child starting after cb
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (tetrisRow.get(middle).getMinX() <= minX)
+                    low = middle + 1;
+                else
+                    high = middle;
+            }
+            if ((low == 0 || !cb.overlaps(tetrisRow.get(low - 1))) && (low == tetrisRow.size() || !cb.overlaps(tetrisRow.get(low)))) {
+                tetrisRow.add(low, cb);
+                cb.setRowIndexInParentRow(rowIndex);
+                return;
+            }
+        }
+        if (!packTetrisRowsAgainIfFewer(tetrisRows.size() + 1)) {
+            List<GanttChildBounds<C, ?>> tetrisRow = new ArrayList<>();
+            tetrisRow.add(cb);
+            tetrisRows.add(tetrisRow);
+            cb.setRowIndexInParentRow(tetrisRows.size() - 1);
+        }
+        ganttLayout.invalidateVerticalLayout(); // the parent row height or the children rows changed
+    }
+
+    // Packs the children again (they go back to their row when possible), and keeps the result only if it has fewer
+    // rows than rowsCount. Otherwise, the current rows are restored.
+    private boolean packTetrisRowsAgainIfFewer(int rowsCount) {
+        List<List<GanttChildBounds<C, ?>>> currentTetrisRows = tetrisRows;
+        oldTetrisRows = currentTetrisRows;
+        packTetrisRows();
+        if (tetrisRows.size() < rowsCount)
+            return true;
+        tetrisRows = currentTetrisRows;
+        for (int rowIndex = 0; rowIndex < tetrisRows.size(); rowIndex++)
+            for (GanttChildBounds<C, ?> cb : tetrisRows.get(rowIndex))
+                cb.setRowIndexInParentRow(rowIndex);
+        return false;
+    }
+
+    // Incremental removal of a child from the tetris rows: the other children stay in place, unless the children can
+    // now be packed in fewer rows (ex: the child was the only one in its row, or its removal reduced the maximum overlap
+    // depth), in which case they are packed again (going back to their row when possible). So the rows count is still
+    // the minimum after the removal (as after a full packing).
+    private void removeTetrisChild(GanttChildBounds<C, ?> cb, int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= tetrisRows.size() || !tetrisRows.get(rowIndex).remove(cb))
+            return;
+        int rowsCount = tetrisRows.size();
+        while (!tetrisRows.isEmpty() && tetrisRows.get(tetrisRows.size() - 1).isEmpty())
+            tetrisRows.remove(tetrisRows.size() - 1);
+        if (tetrisRows.size() > 1)
+            packTetrisRowsAgainIfFewer(tetrisRows.size());
+        if (tetrisRows.size() != rowsCount)
+            ganttLayout.invalidateVerticalLayout(); // the parent row height and the children rows changed
     }
 
     public Stream<C> streamChildrenAtRowIndex(int rowIndex) {
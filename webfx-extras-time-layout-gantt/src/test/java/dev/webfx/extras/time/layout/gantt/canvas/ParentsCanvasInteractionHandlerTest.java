@@ -0,0 +1,86 @@
+package dev.webfx.extras.time.layout.gantt.canvas;
+
+import dev.webfx.extras.canvas.layer.interact.CanvasInteractionHandler;
+import dev.webfx.extras.canvas.layer.interact.CanvasInteractionManager;
+import dev.webfx.extras.time.layout.gantt.HeaderPosition;
+import dev.webfx.extras.time.layout.gantt.LocalDateGanttLayout;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class ParentsCanvasInteractionHandlerTest {
+
+    private final List<String> log = new ArrayList<>();
+    private LocalDateGanttLayout<Object> layout;
+    private Canvas canvas;
+    private CanvasInteractionManager manager;
+    private ParentsCanvasInteractionHandler handler;
+
+    @BeforeEach
+    void createHandler() {
+        layout = new LocalDateGanttLayout<>();
+        layout.setFrameScheduler(frame -> { }); // no layout needed for the headers positions
+        layout.setGrandparentHeaderWidth(100);
+        canvas = new Canvas(500, 500);
+        manager = new CanvasInteractionManager(canvas);
+        manager.makeCanvasInteractive();
+        // Note: no ParentsCanvasDrawer, as it can't be created without UI toolkit (not needed with the grandparent header
+        // slider only)
+        handler = new ParentsCanvasInteractionHandler(layout, null) {
+            @Override
+            public boolean handleMouseMoved(MouseEvent e, Canvas canvas) {
+                log.add("parents moved " + (int) e.getX());
+                return super.handleMouseMoved(e, canvas);
+            }
+        };
+        manager.addHandler(handler);
+        manager.addHandler(new CanvasInteractionHandler() {
+            @Override
+            public boolean handleMouseMoved(MouseEvent e, Canvas canvas) {
+                log.add("children moved " + (int) e.getX());
+                return true;
+            }
+        });
+    }
+
+    private void move(double x, double y) {
+        canvas.getOnMouseMoved().handle(new MouseEvent(MouseEvent.MOUSE_MOVED, x, y, x, y, MouseButton.NONE, 0, false, false, false, false, false, false, false, false, false, false, null));
+    }
+
+    @Test
+    void headersOnTheLeftReceiveOnlyTheMovesAroundTheirSliders() {
+        layout.setGrandparentHeaderPosition(HeaderPosition.LEFT);
+        layout.setParentHeaderPosition(HeaderPosition.TOP);
+        handler.declareHeaderRegions(manager, canvas);
+        move(102, 50); // near the grandparent header slider (at x = 100) => the parents handler stops the propagation
+        move(300, 50);
+        assertEquals(List.of("parents moved 102", "children moved 300"), log);
+    }
+
+    @Test
+    void headersOnTopOrBottomReceiveNoMoves() {
+        layout.setGrandparentHeaderPosition(HeaderPosition.BOTTOM);
+        layout.setParentHeaderPosition(HeaderPosition.TOP);
+        handler.declareHeaderRegions(manager, canvas);
+        move(102, 50);
+        move(300, 50);
+        assertEquals(List.of("children moved 102", "children moved 300"), log);
+        // And back to the regions around the sliders when a header goes to the left
+        log.clear();
+        layout.setGrandparentHeaderPosition(HeaderPosition.LEFT);
+        handler.declareHeaderRegions(manager, canvas);
+        move(102, 50);
+        move(300, 50);
+        assertEquals(List.of("parents moved 102", "children moved 300"), log);
+    }
+}
@@ -0,0 +1,84 @@
+package dev.webfx.extras.time.layout.gantt.impl;
+
+import dev.webfx.extras.time.layout.gantt.LocalDateGanttLayout;
+import dev.webfx.extras.time.layout.gantt.impl.GanttLayoutImplTest.Booking;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark of a Gantt layout with 10k parent rows and 100k children (not run by default, as not named *Test - run it
+ * explicitly with -Dtest=GanttLayoutBenchmark). It reports the time of the first layout, of packing the tetris rows
+ * again, of removing a child incrementally, and of the lookups done on each mouse move (parent row at y and row index of
+ * a child in its parent row) compared to a scan.
+ *
+ * @author Bruno Salmon
+ */
+class GanttLayoutBenchmark {
+
+    private static final int PARENT_COUNT = 10_000, CHILDREN_COUNT = 100_000, INDEXED_LOOKUPS = 100_000, SCANNED_LOOKUPS = 1_000, REMOVALS = 100, ROUNDS = 5;
+
+    @Test
+    void layoutAndLookups() {
+        for (int round = 0; round < ROUNDS; round++)
+            run(round == ROUNDS - 1);
+    }
+
+    private static void run(boolean report) {
+        List<Object> parents = new ArrayList<>();
+        for (int i = 0; i < PARENT_COUNT; i++)
+            parents.add("p" + i);
+        List<Booking> bookings = GanttLayoutImplTest.randomBookings(new Random(11), CHILDREN_COUNT, PARENT_COUNT);
+        LocalDateGanttLayout<Booking> layout = GanttLayoutImplTest.newLayout(true);
+        layout.setParentsProvided(true);
+        long t0 = System.nanoTime();
+        layout.getParents().setAll(parents);
+        layout.getChildren().setAll(bookings);
+        double height = GanttLayoutImplTest.bottomY(layout); // tree sync, tetris packing & vertical layout of the rows
+        long t1 = System.nanoTime();
+        // Building the lookup indexes (done once for all the next lookups)
+        layout.getParentRowAtY(0);
+        layout.getRowIndexInParentRow(bookings.get(0));
+        long t2 = System.nanoTime();
+
+        Random random = new Random(12);
+        int found = 0;
+        for (int i = 0; i < INDEXED_LOOKUPS; i++)
+            if (layout.getParentRowAtY(random.nextDouble() * height) != null)
+                found++;
+        long t3 = System.nanoTime();
+        for (int i = 0; i < SCANNED_LOOKUPS; i++)
+            if (GanttLayoutImplTest.scanParentRowAtY(layout, random.nextDouble() * height) != null)
+                found++;
+        long t4 = System.nanoTime();
+
+        int rowIndexSum = 0;
+        for (int i = 0; i < INDEXED_LOOKUPS; i++)
+            rowIndexSum += layout.getRowIndexInParentRow(bookings.get(random.nextInt(CHILDREN_COUNT)));
+        long t5 = System.nanoTime();
+        for (int i = 0; i < SCANNED_LOOKUPS; i++)
+            rowIndexSum += layout.getRowIndexInParentRow(layout.getChildBounds(layout.getChildren().indexOf(bookings.get(random.nextInt(CHILDREN_COUNT)))));
+        long t6 = System.nanoTime();
+
+        layout.setTetrisPacking(true); // rebuilds the tree and packs the rows again
+        GanttLayoutImplTest.bottomY(layout);
+        long t7 = System.nanoTime();
+
+        // Incremental removal of some children (each one followed by the vertical layout of the rows)
+        for (int i = 0; i < REMOVALS; i++) {
+            layout.getChildren().remove(random.nextInt(layout.getChildren().size()));
+            GanttLayoutImplTest.bottomY(layout);
+        }
+        long t8 = System.nanoTime();
+
+        if (report) {
+            System.out.println("First layout of " + PARENT_COUNT + " parent rows & " + CHILDREN_COUNT + " children: " + (t1 - t0) / 1_000_000 + " ms (+ " + (t2 - t1) / 1_000_000 + " ms to build the lookup indexes)");
+            System.out.println("Tree rebuild & tetris packing again: " + (t7 - t6) / 1_000_000 + " ms");
+            System.out.println("Child removal: " + (t8 - t7) / REMOVALS / 1000 + " us incremental (vs tree rebuild above)");
+            System.out.println("Parent row at y: " + (t3 - t2) / INDEXED_LOOKUPS + " ns indexed, " + (t4 - t3) / SCANNED_LOOKUPS + " ns scanned (" + found + " found)");
+            System.out.println("Row index in parent row: " + (t5 - t4) / INDEXED_LOOKUPS + " ns by identity, " + (t6 - t5) / SCANNED_LOOKUPS + " ns with indexOf() (" + rowIndexSum + ")");
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package dev.webfx.extras.time.layout.gantt.impl;
+
+import dev.webfx.extras.time.layout.gantt.LocalDateGanttLayout;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class GanttLayoutImplTest {
+
+    private static final LocalDate DAY0 = LocalDate.of(2024, 1, 1);
+
+    static final class Booking {
+        final String parent;
+        LocalDate start, end;
+
+        Booking(String parent, int startDay, int endDay) {
+            this.parent = parent;
+            start = DAY0.plusDays(startDay);
+            end = DAY0.plusDays(endDay);
+        }
+
+        @Override
+        public String toString() {
+            return parent + "[" + start + "," + end + "]";
+        }
+    }
+
+    static LocalDateGanttLayout<Booking> newLayout(boolean tetrisPacking) {
+        LocalDateGanttLayout<Booking> layout = new LocalDateGanttLayout<>();
+        layout.setFrameScheduler(frame -> { }); // the layout is done on demand by the tests
+        layout.setChildParentReader(b -> b.parent)
+            .setInclusiveChildStartTimeReader(b -> b.start)
+            .setInclusiveChildEndTimeReader(b -> b.end);
+        layout.setTetrisPacking(tetrisPacking);
+        layout.setChildFixedHeight(20);
+        layout.setVSpacing(2);
+        layout.setTimeWindow(DAY0, DAY0.plusDays(99));
+        layout.setWidth(1000);
+        return layout;
+    }
+
+    static List<Booking> randomBookings(Random random, int count, int parentCount) {
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int start = random.nextInt(90);
+            bookings.add(new Booking("p" + random.nextInt(parentCount), start, start + random.nextInt(10)));
+        }
+        // When the parents are not provided, the children are expected to be grouped by parent (the parent rows being
+        // stacked in the order of their first child)
+        bookings.sort(Comparator.comparing(b -> b.parent));
+        return bookings;
+    }
+
+    static double bottomY(GanttLayoutImpl<Booking, ?> layout) {
+        layout.checkSyncTree();
+        List<ParentRow<Booking>> parentRows = layout.getParentRows();
+        return parentRows.get(parentRows.size() - 1).getMaxY();
+    }
+
+    static ParentRow<Booking> scanParentRowAtY(GanttLayoutImpl<Booking, ?> layout, double y) {
+        for (ParentRow<Booking> parentRow : layout.getParentRows())
+            if (y >= parentRow.getMinY() && y <= parentRow.getMaxY())
+                return parentRow;
+        return null;
+    }
+
+    @Test
+    void parentRowAtYMatchesAScanOfTheRows() {
+        LocalDateGanttLayout<Booking> layout = newLayout(true);
+        layout.getChildren().setAll(randomBookings(new Random(1), 200, 15));
+        double height = bottomY(layout);
+        for (double y = -10; y <= height + 10; y += 0.5)
+            assertSame(scanParentRowAtY(layout, y), layout.getParentRowAtY(y), "y = " + y);
+        // The index follows the vertical layout changes
+        layout.setChildFixedHeight(30);
+        double newHeight = bottomY(layout);
+        assertTrue(newHeight > height);
+        for (double y = -10; y <= newHeight + 10; y += 0.5)
+            assertSame(scanParentRowAtY(layout, y), layout.getParentRowAtY(y), "y = " + y);
+    }
+
+    @Test
+    void rowIndexInParentRowIsFoundByChildIdentity() {
+        LocalDateGanttLayout<Booking> layout = newLayout(true);
+        List<Booking> bookings = randomBookings(new Random(2), 100, 5);
+        layout.getChildren().setAll(bookings);
+        for (int i = 0; i < bookings.size(); i++)
+            assertEquals(layout.getRowIndexInParentRow(layout.getChildBounds(i)), layout.getRowIndexInParentRow(bookings.get(i)));
+        assertEquals(-1, layout.getRowIndexInParentRow(new Booking("p0", 0, 1)));
+        // The identity map is reset when the children change
+        Booking removed = layout.getChildren().remove(0);
+        assertEquals(-1, layout.getRowIndexInParentRow(removed));
+        Booking added = new Booking("p1", 3, 4);
+        layout.getChildren().add(added);
+        assertTrue(layout.getRowIndexInParentRow(added) >= 0);
+    }
+
+    // Checks that the children of a same tetris row don't overlap, and returns the rows count of each parent row
+    private static Map<Object, Integer> checkTetrisRows(GanttLayoutImpl<Booking, ?> layout) {
+        layout.checkSyncTree();
+        Map<Object, Integer> rowsCounts = new HashMap<>();
+        for (ParentRow<Booking> parentRow : layout.getParentRows()) {
+            int rowsCount = parentRow.getRowsCount();
+            List<GanttChildBounds<Booking, ?>> childrenBounds = parentRow.getChildrenBounds();
+            for (GanttChildBounds<Booking, ?> cb1 : childrenBounds) {
+                int rowIndex = cb1.getRowIndexInParentRow();
+                assertTrue(rowIndex >= 0 && rowIndex < rowsCount);
+                for (GanttChildBounds<Booking, ?> cb2 : childrenBounds)
+                    if (cb1 != cb2 && cb2.getRowIndexInParentRow() == rowIndex)
+                        assertFalse(cb1.overlaps(cb2), cb1.getObject() + " overlaps " + cb2.getObject());
+            }
+            rowsCounts.put(parentRow.getParent(), rowsCount);
+        }
+        return rowsCounts;
+    }
+
+    // Maximum number of children of the parent row that overlap at a same position (= minimum number of tetris rows)
+    private static int maxOverlapDepth(ParentRow<Booking> parentRow) {
+        int maxDepth = 1;
+        for (GanttChildBounds<Booking, ?> cb : parentRow.getChildrenBounds()) {
+            double x = cb.getMinX();
+            int depth = 0;
+            for (GanttChildBounds<Booking, ?> other : parentRow.getChildrenBounds())
+                if (other.getMinX() <= x && x < other.getMaxX())
+                    depth++;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+        return maxDepth;
+    }
+
+    @Test
+    void tetrisPackingUsesTheMinimumNumberOfRows() {
+        LocalDateGanttLayout<Booking> layout = newLayout(true);
+        layout.getChildren().setAll(randomBookings(new Random(3), 300, 6));
+        checkTetrisRows(layout);
+        for (ParentRow<Booking> parentRow : layout.getParentRows())
+            assertEquals(maxOverlapDepth(parentRow), parentRow.getRowsCount(), String.valueOf(parentRow.getParent()));
+    }
+
+    @Test
+    void tetrisRepackingKeepsTheChildrenInTheirRows() {
+        LocalDateGanttLayout<Booking> layout = newLayout(true);
+        List<Booking> bookings = randomBookings(new Random(4), 200, 4);
+        layout.getChildren().setAll(bookings);
+        checkTetrisRows(layout);
+        Map<Booking, Integer> rowIndexes = new HashMap<>();
+        for (Booking booking : bookings)
+            rowIndexes.put(booking, layout.getRowIndexInParentRow(booking));
+        layout.setTetrisPacking(true); // rebuilds the tree and packs the rows again
+        for (Booking booking : bookings)
+            assertEquals(rowIndexes.get(booking), layout.getRowIndexInParentRow(booking));
+    }
+
+    @Test
+    void childAddedToAPackedParentRowDoesNotMoveTheOthersWhenItFits() {
+        LocalDateGanttLayout<Booking> layout = newLayout(true);
+        layout.setParentsProvided(true);
+        layout.getParents().setAll(Arrays.asList("p0", "p1", "p2"));
+        Random random = new Random(5);
+        List<Booking> bookings = randomBookings(random, 60, 3);
+        layout.getChildren().setAll(bookings);
+        checkTetrisRows(layout);
+        int fittingCount = 0;
+        for (int i = 0; i < 40; i++) {
+            Map<Booking, Integer> rowIndexes = new HashMap<>();
+            for (Booking booking : layout.getChildren())
+                rowIndexes.put(booking, layout.getRowIndexInParentRow(booking));
+            Booking added = randomBookings(random, 1, 3).get(0);
+            layout.getChildren().add(added);
+            boolean fits = fitsInExistingRows(layout, added, rowIndexes);
+            checkTetrisRows(layout);
+            assertTrue(layout.getRowIndexInParentRow(added) >= 0);
+            // The rows count is still the minimum
+            for (ParentRow<Booking> parentRow : layout.getParentRows())
+                assertEquals(maxOverlapDepth(parentRow), parentRow.getRowsCount(), String.valueOf(parentRow.getParent()));
+            if (fits) {
+                fittingCount++;
+                rowIndexes.forEach((booking, rowIndex) -> assertEquals(rowIndex, layout.getRowIndexInParentRow(booking)));
+            }
+        }
+        assertTrue(fittingCount > 0);
+    }
+
+    // Tells if the added child doesn't overlap any child of its parent in at least one of the rows before its addition
+    private static boolean fitsInExistingRows(GanttLayoutImpl<Booking, ?> layout, Booking added, Map<Booking, Integer> rowIndexes) {
+        GanttChildBounds<Booking, ?> addedBounds = (GanttChildBounds<Booking, ?>) layout.findChildBounds(added);
+        List<GanttChildBounds<Booking, ?>> siblingsBounds = new ArrayList<>();
+        int rowsCount = 0;
+        for (Booking booking : rowIndexes.keySet())
+            if (booking.parent.equals(added.parent)) {
+                siblingsBounds.add((GanttChildBounds<Booking, ?>) layout.findChildBounds(booking));
+                rowsCount = Math.max(rowsCount, rowIndexes.get(booking) + 1);
+            }
+        for (int rowIndex = 0; rowIndex < rowsCount; rowIndex++) {
+            boolean fits = true;
+            for (GanttChildBounds<Booking, ?> siblingBounds : siblingsBounds)
+                if (rowIndexes.get(siblingBounds.getObject()) == rowIndex && addedBounds.overlaps(siblingBounds))
+                    fits = false;
+            if (fits)
+                return true;
+        }
+        return false;
+    }
+
+    @Test
+    void childAddedToAPackedParentRowPacksItAgainWhenThatSavesARow() {
+        LocalDateGanttLayout<Booking> layout = newLayout(true);
+        layout.setParentsProvided(true);
+        layout.getParents().setAll(Arrays.asList("p0"));
+        // 10px per day: a = [0, 20], b = [40, 60] and d = [10, 30], packed as a & b in the first row, and d in the second
+        Booking a = new Booking("p0", 0, 1), b = new Booking("p0", 4, 5), d = new Booking("p0", 1, 2);
+        layout.getChildren().setAll(a, b, d);
+        assertEquals(0, layout.getRowIndexInParentRow(b));
+        assertEquals(1, layout.getRowIndexInParentRow(d));
+        // g = [20, 50] overlaps b and d, so a first-fit insertion would need a third row, while 2 rows are enough
+        Booking g = new Booking("p0", 2, 4);
+        layout.getChildren().add(g);
+        checkTetrisRows(layout);
+        ParentRow<Booking> parentRow = layout.getParentRows().get(0);
+        assertEquals(2, parentRow.getRowsCount());
+        assertEquals(0, layout.getRowIndexInParentRow(a));
+        assertEquals(1, layout.getRowIndexInParentRow(d));
+        assertEquals(0, layout.getRowIndexInParentRow(g));
+        assertEquals(1, layout.getRowIndexInParentRow(b));
+    }
+
+    // Vertical position of each child, and parent of its parent row (as a full layout of these children would compute)
+    private static List<String> childrenPositions(GanttLayoutImpl<Booking, ?> layout) {
+        layout.checkSyncTree();
+        List<String> positions = new ArrayList<>();
+        for (int i = 0; i < layout.getChildren().size(); i++) {
+            GanttChildBounds<Booking, ?> cb = (GanttChildBounds<Booking, ?>) layout.getChildBounds(i);
+            assertSame(layout.getChildren().get(i), cb.getObject());
+            positions.add(cb.getObject() + " in " + cb.getParentRow().getParent() + " at x=" + cb.getX() + " y=" + cb.getY());
+        }
+        return positions;
+    }
+
+    private static void assertSameLayoutAsAFreshOne(GanttLayoutImpl<Booking, ?> layout) {
+        LocalDateGanttLayout<Booking> freshLayout = newLayout(layout.isTetrisPacking());
+        freshLayout.getChildren().setAll(layout.getChildren());
+        assertEquals(childrenPositions(freshLayout), childrenPositions(layout));
+    }
+
+    @Test
+    void pureAdditionKeepsTheExistingChildrenBounds() {
+        LocalDateGanttLayout<Booking> layout = newLayout(false);
+        layout.setParentsProvided(true);
+        layout.getParents().setAll(Arrays.asList("p0", "p1", "p2"));
+        layout.getChildren().setAll(randomBookings(new Random(6), 30, 3));
+        childrenPositions(layout);
+        List<Object> oldBounds = new ArrayList<>();
+        for (int i = 0; i < layout.getChildren().size(); i++)
+            oldBounds.add(layout.getChildBounds(i));
+        layout.getChildren().addAll(0, randomBookings(new Random(7), 2, 3));
+        for (int i = 0; i < oldBounds.size(); i++)
+            assertSame(oldBounds.get(i), layout.getChildBounds(i + 2));
+        childrenPositions(layout); // checks the children bounds match the children
+    }
+
+    static LocalDateGanttLayout<Booking> newProvidedParentsLayout(boolean tetrisPacking, int parentCount) {
+        LocalDateGanttLayout<Booking> layout = newLayout(tetrisPacking);
+        layout.setParentsProvided(true);
+        for (int i = 0; i < parentCount; i++)
+            layout.getParents().add("p" + i);
+        return layout;
+    }
+
+    @Test
+    void removalsAndPermutationsWithProvidedParentsKeepTheOtherChildrenBounds() {
+        for (boolean tetrisPacking : new boolean[] {false, true}) {
+            LocalDateGanttLayout<Booking> layout = newProvidedParentsLayout(tetrisPacking, 5);
+            layout.getChildren().setAll(randomBookings(new Random(10), 80, 5));
+            childrenPositions(layout);
+            int childrenTreeVersion = ((GanttLayoutImpl<Booking, ?>) layout).childrenTreeVersion;
+            List<Object> oldBounds = new ArrayList<>();
+            for (int i = 0; i < layout.getChildren().size(); i++)
+                oldBounds.add(layout.getChildBounds(i));
+            layout.getChildren().remove(10, 30);
+            for (int i = 0; i < layout.getChildren().size(); i++)
+                assertSame(oldBounds.get(i < 10 ? i : i + 20), layout.getChildBounds(i));
+            checkIncrementalLayout(layout);
+            // Removing the children one by one: the others stay in their tetris row unless the rows count decreases
+            Random random = new Random(11);
+            for (int n = 0; n < 20; n++) {
+                Map<Booking, Integer> rowIndexes = new HashMap<>();
+                Map<Object, Integer> rowsCounts = tetrisPacking ? checkTetrisRows(layout) : null;
+                for (Booking booking : layout.getChildren())
+                    rowIndexes.put(booking, layout.getRowIndexInParentRow(booking));
+                Booking removed = layout.getChildren().remove(random.nextInt(layout.getChildren().size()));
+                rowIndexes.remove(removed);
+                checkIncrementalLayout(layout);
+                if (!tetrisPacking || checkTetrisRows(layout).get(removed.parent).equals(rowsCounts.get(removed.parent)))
+                    rowIndexes.forEach((booking, rowIndex) -> assertEquals(rowIndex, layout.getRowIndexInParentRow(booking)));
+            }
+            layout.getChildren().sort(Comparator.comparing((Booking b) -> b.start)); // permutation
+            checkIncrementalLayout(layout);
+            layout.getChildren().set(5, new Booking("p1", 0, 5)); // replacement with another parent
+            checkIncrementalLayout(layout);
+            assertEquals(childrenTreeVersion, ((GanttLayoutImpl<Booking, ?>) layout).childrenTreeVersion); // the tree was never rebuilt
+        }
+    }
+
+    private static void checkIncrementalLayout(LocalDateGanttLayout<Booking> layout) {
+        if (!layout.isTetrisPacking()) {
+            LocalDateGanttLayout<Booking> freshLayout = newProvidedParentsLayout(false, layout.getParents().size());
+            freshLayout.getChildren().setAll(layout.getChildren());
+            assertEquals(childrenPositions(freshLayout), childrenPositions(layout));
+        } else {
+            childrenPositions(layout); // checks the children bounds match the children
+            checkTetrisRows(layout);
+            for (ParentRow<Booking> parentRow : layout.getParentRows()) // the rows count is still the minimum
+                assertEquals(maxOverlapDepth(parentRow), parentRow.getRowsCount(), String.valueOf(parentRow.getParent()));
+        }
+    }
+
+    @Test
+    void childRemovedFromAPackedParentRowPacksItAgainWhenThatSavesARow() {
+        LocalDateGanttLayout<Booking> layout = newProvidedParentsLayout(true, 1);
+        // 10px per day: a = [0, 20], d = [10, 30] and e = [10, 30] are packed in 3 rows
+        Booking a = new Booking("p0", 0, 1), d = new Booking("p0", 1, 2), e = new Booking("p0", 1, 2);
+        layout.getChildren().setAll(a, d, e);
+        assertEquals(1, layout.getRowIndexInParentRow(d));
+        ParentRow<Booking> parentRow = layout.getParentRows().get(0);
+        assertEquals(3, parentRow.getRowsCount());
+        // Removing d leaves an empty row in the middle, so the children are packed in 2 rows again
+        layout.getChildren().remove(d);
+        checkTetrisRows(layout);
+        assertEquals(2, parentRow.getRowsCount());
+        assertEquals(0, layout.getRowIndexInParentRow(a));
+        assertEquals(1, layout.getRowIndexInParentRow(e));
+    }
+
+    @Test
+    void removalsAndPermutationsOfGeneratedParentsRebuildTheTree() {
+        // Without tetris packing (with tetris packing, the children prefer their previous rows, so the layout may differ
+        // from a fresh one, but the packing is still checked below)
+        for (boolean tetrisPacking : new boolean[] {false, true}) {
+            LocalDateGanttLayout<Booking> layout = newLayout(tetrisPacking);
+            layout.getChildren().setAll(randomBookings(new Random(8), 80, 5));
+            childrenPositions(layout);
+            layout.getChildren().remove(10, 30); // removes all the children of some parents
+            checkRebuiltLayout(layout);
+            layout.getChildren().sort(Comparator.comparing((Booking b) -> b.parent).reversed()); // permutation
+            checkRebuiltLayout(layout);
+            layout.getChildren().set(5, new Booking("p9", 0, 5)); // replacement with a new parent
+            checkRebuiltLayout(layout);
+        }
+    }
+
+    private static void checkRebuiltLayout(GanttLayoutImpl<Booking, ?> layout) {
+        if (!layout.isTetrisPacking())
+            assertSameLayoutAsAFreshOne(layout);
+        else {
+            checkTetrisRows(layout);
+            List<Object> parents = new ArrayList<>();
+            for (ParentRow<Booking> parentRow : layout.getParentRows())
+                parents.add(parentRow.getParent());
+            GanttLayoutImpl<Booking, ?> freshLayout = newLayout(true);
+            freshLayout.getChildren().setAll(layout.getChildren());
+            freshLayout.checkSyncTree();
+            List<Object> freshParents = new ArrayList<>();
+            for (ParentRow<Booking> parentRow : freshLayout.getParentRows())
+                freshParents.add(parentRow.getParent());
+            assertEquals(freshParents, parents);
+            for (Booking booking : layout.getChildren())
+                assertTrue(layout.getRowIndexInParentRow(booking) >= 0);
+        }
+    }
+
+    @Test
+    void childrenTimesAreReadAgainWhenTheChildrenAreReset() {
+        LocalDateGanttLayout<Booking> layout = newLayout(false);
+        List<Booking> bookings = randomBookings(new Random(9), 10, 2);
+        layout.getChildren().setAll(bookings);
+        double x = layout.getChildBounds(3).getX();
+        Booking booking = bookings.get(3);
+        booking.start = booking.start.plusDays(5);
+        booking.end = booking.end.plusDays(5);
+        layout.getChildren().setAll(bookings); // same children, but with new times
+        assertEquals(booking.start, layout.getChildBounds(3).getStartTime());
+        assertEquals(x + 50, layout.getChildBounds(3).getX(), 1e-6); // 1000 px for 100 days
+    }
+}
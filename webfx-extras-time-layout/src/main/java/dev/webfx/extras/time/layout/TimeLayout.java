@@ -60,6 +60,12 @@ public interface TimeLayout<C, T> extends CanLayout,
 
     ChildBounds<C, T> getChildBounds(int childIndex);
 
+    // Returns the bounds of that child (or null if not a child of this layout)
+    default ChildBounds<C, T> findChildBounds(C child) {
+        int childIndex = getChildren().indexOf(child);
+        return childIndex < 0 ? null : getChildBounds(childIndex);
+    }
+
     int getRowsCount();
 
     default void processVisibleChildren(BiConsumer<C, Bounds> childProcessor) {
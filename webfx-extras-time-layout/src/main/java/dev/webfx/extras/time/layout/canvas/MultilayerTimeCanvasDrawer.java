@@ -45,7 +45,7 @@ public class MultilayerTimeCanvasDrawer<T extends Temporal> extends CanvasDrawer
 
     @Override
     protected void drawObjectsInArea() {
-        Bounds bounds = getDrawAreaOrCanvasBounds();
+        Bounds bounds = getRedrawAreaBounds();
         // Using safe Collections.forEach() - otherwise ConcurrentModificationException have been noticed.
         Collections.forEach(multilayerTimeLayout.getLayers(), layer -> {
             if (layer.isVisible()) {
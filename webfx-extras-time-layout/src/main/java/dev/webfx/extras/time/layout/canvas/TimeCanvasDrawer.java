@@ -2,10 +2,13 @@ package dev.webfx.extras.time.layout.canvas;
 
 import dev.webfx.extras.canvas.impl.CanvasDrawerBase;
 import dev.webfx.extras.canvas.layer.ChildDrawer;
+import dev.webfx.extras.canvas.layer.GraphicsContextState;
 import dev.webfx.extras.canvas.layer.interact.CanvasInteractionManager;
 import dev.webfx.extras.canvas.layer.interact.HasCanvasInteractionManager;
 import dev.webfx.extras.layer.interact.TranslatedCanSelectChild;
 import dev.webfx.extras.time.layout.TimeLayout;
+import dev.webfx.extras.time.layout.impl.ChildBounds;
+import javafx.geometry.Bounds;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 
@@ -20,6 +23,7 @@ public class TimeCanvasDrawer<C, T extends Temporal> extends CanvasDrawerBase im
     private final ChildDrawer<C> childDrawer;
     private final TemporalUnit temporalUnit;
     private CanvasInteractionManager canvasInteractionManager;
+    private TimeCanvasTileCache<C, T> tileCache;
 
     public TimeCanvasDrawer(TimeLayout<C, T> timeLayout, ChildDrawer<C> childDrawer) {
         this(new Canvas(), timeLayout, childDrawer);
@@ -31,7 +35,19 @@ public class TimeCanvasDrawer<C, T extends Temporal> extends CanvasDrawerBase im
         this.childDrawer = childDrawer;
         this.temporalUnit = timeLayout.getTimeProjector().getTemporalUnit();
         timeLayout.addOnAfterLayout(this::markDrawAreaAsDirty);
-        timeLayout.selectedChildProperty().addListener(observable -> markDrawAreaAsDirty());
+        timeLayout.selectedChildProperty().addListener((observable, oldChild, newChild) -> {
+            // Only the previously and newly selected children need to be redrawn
+            markChildAsDirty(oldChild);
+            markChildAsDirty(newChild);
+        });
+    }
+
+    private void markChildAsDirty(C child) {
+        ChildBounds<C, T> cb = child == null ? null : timeLayout.findChildBounds(child);
+        if (cb != null) {
+            // 1px margin for the strokes drawn on the child edges
+            markLayoutAreaAsDirty(cb.getMinX() - 1, cb.getMinY() - 1, cb.getWidth() + 2, cb.getHeight() + 2);
+        }
     }
 
     @Override
@@ -43,20 +59,54 @@ public class TimeCanvasDrawer<C, T extends Temporal> extends CanvasDrawerBase im
         return canvasInteractionManager;
     }
 
+    public boolean isTileCacheEnabled() {
+        return tileCache != null;
+    }
+
+    /**
+     * Enables or disables the tile cache, which renders the children into offscreen tiles, so that panning the time
+     * window just blits the tiles (see TimeCanvasTileCache).
+     */
+    public void setTileCacheEnabled(boolean tileCacheEnabled) {
+        if (tileCacheEnabled != isTileCacheEnabled()) {
+            tileCache = tileCacheEnabled ? new TimeCanvasTileCache<>(timeLayout, childDrawer, temporalUnit) : null;
+            markDrawAreaAsDirty();
+        }
+    }
+
+    public TimeCanvasTileCache<C, T> getTileCache() {
+        return tileCache;
+    }
+
     @Override
     protected void drawObjectsInArea() {
-        drawVisibleChildren(getDrawAreaOrCanvasBounds(), getLayoutOriginX(), getLayoutOriginY(), timeLayout, childDrawer, gc);
+        Bounds redrawAreaBounds = getRedrawAreaBounds();
+        if (tileCache != null) {
+            // Full redraw => drawn from the tiles (unless the tiles can't be rendered on this platform)
+            if (redrawAreaBounds.equals(getDrawAreaOrCanvasBounds())) {
+                if (tileCache.drawArea(redrawAreaBounds, getLayoutOriginX(), getLayoutOriginY(), gc))
+                    return;
+            } else // Partial redraw => the content of that area changed, so the tiles covering it are not valid anymore
+                tileCache.invalidateArea(redrawAreaBounds, getLayoutOriginX(), getLayoutOriginY());
+        }
+        drawVisibleChildren(redrawAreaBounds, getLayoutOriginX(), getLayoutOriginY(), timeLayout, childDrawer, gc);
     }
 
     static <C, T> void drawVisibleChildren(javafx.geometry.Bounds drawAreaBounds, double layoutOriginX, double layoutOriginY, TimeLayout<C, T> timeLayout, ChildDrawer<C> childDrawer, GraphicsContext gc) {
         // Translating the canvas to consider the effect of the possible layout origin coordinate changes
         gc.save();
         gc.translate(-layoutOriginX, -layoutOriginY);
-        timeLayout.processVisibleChildren(drawAreaBounds, layoutOriginX, layoutOriginY, (child, b) -> {
-            gc.save();
-            childDrawer.drawChild(child, b, gc);
-            gc.restore();
-        });
+        if (childDrawer.isIsolationRequired()) {
+            timeLayout.processVisibleChildren(drawAreaBounds, layoutOriginX, layoutOriginY, (child, b) -> {
+                gc.save();
+                childDrawer.drawChild(child, b, gc);
+                gc.restore();
+            });
+        } else { // No save() & restore() for each child, and redundant state changes skipped
+            GraphicsContextState state = GraphicsContextState.startTracking(gc);
+            timeLayout.processVisibleChildren(drawAreaBounds, layoutOriginX, layoutOriginY, (child, b) -> childDrawer.drawChild(child, b, gc));
+            state.stop();
+        }
         // Restoring the canvas context (rolls back the translation)
         gc.restore();
     }
@@ -78,6 +78,11 @@ public class TimeCanvasInteractionHandler<T extends Temporal> implements CanvasI
         return true; // -> Ok to continue propagation
     }
 
+    @Override
+    public boolean isMouseMoveCoalesced() {
+        return true; // the mouse moves are just used to update the cursor, so once per animation frame is enough
+    }
+
     @Override
     public boolean handleScroll(ScrollEvent e, Canvas canvas) {
         // if the scroll time window feature is disabled on this canvas, we immediately return
@@ -0,0 +1,247 @@
+package dev.webfx.extras.time.layout.canvas;
+
+import dev.webfx.extras.canvas.layer.ChildDrawer;
+import dev.webfx.extras.time.layout.TimeLayout;
+import dev.webfx.extras.time.layout.impl.TimeLayoutBase;
+import dev.webfx.extras.time.window.TimeWindowUtil;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalUnit;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cache of the children drawing of a time layout, made of fixed-size tiles rendered into offscreen images. The tiles
+ * are positioned in time (and not relative to the time window), so when the user pans the time window, the tiles are
+ * just blitted at their new position, and only the newly exposed tiles are rendered. The tiles are dropped when the
+ * time scale (layout width or time window duration) or the layout content (children, times, horizontal or vertical
+ * layout, selection) changes. The least recently used tiles are evicted when the cached pixels exceed the pixel budget.
+ *
+ * @author Bruno Salmon
+ */
+public final class TimeCanvasTileCache<C, T extends Temporal> {
+
+    private final TimeLayout<C, T> timeLayout;
+    private final ChildDrawer<C> childDrawer;
+    private final TemporalUnit temporalUnit;
+    private final int tileWidth, tileHeight;
+    private long pixelBudget;
+    private final Map<Long, WritableImage> tiles = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedPixels;
+    private Canvas tileCanvas; // offscreen canvas used to render the tiles
+    private Function<Canvas, WritableImage> tileCanvasSnapshotter = TimeCanvasTileCache::snapshotCanvas;
+    private boolean snapshotUnsupported; // set when the platform can't snapshot the offscreen canvas into a tile
+    // Validity key of the cached tiles
+    private T referenceTime; // the absolute x origin of the tiles is the position of this time
+    private double layoutWidth;
+    private long timeWindowDuration;
+    private int timeVersion, horizontalVersion, verticalVersion, childrenVersion;
+    private C selectedChild;
+
+    public TimeCanvasTileCache(TimeLayout<C, T> timeLayout, ChildDrawer<C> childDrawer, TemporalUnit temporalUnit) {
+        this(timeLayout, childDrawer, temporalUnit, 256, 256, 8_000_000);
+    }
+
+    public TimeCanvasTileCache(TimeLayout<C, T> timeLayout, ChildDrawer<C> childDrawer, TemporalUnit temporalUnit, int tileWidth, int tileHeight, long pixelBudget) {
+        this.timeLayout = timeLayout;
+        this.childDrawer = childDrawer;
+        this.temporalUnit = temporalUnit;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.pixelBudget = pixelBudget;
+    }
+
+    public long getPixelBudget() {
+        return pixelBudget;
+    }
+
+    public void setPixelBudget(long pixelBudget) {
+        this.pixelBudget = pixelBudget;
+        evictOverBudgetTiles();
+    }
+
+    public int getTileCount() {
+        return tiles.size();
+    }
+
+    /**
+     * @return false if the tiles can't be rendered on this platform (snapshot of the offscreen canvas not supported),
+     * in which case drawArea() doesn't draw anything, and the children need to be drawn directly.
+     */
+    public boolean isSupported() {
+        return !snapshotUnsupported;
+    }
+
+    /**
+     * Drops all tiles. To be called when the children drawing changes for a reason the cache can't detect (ex: the
+     * child drawer uses different colors).
+     */
+    public void invalidate() {
+        tiles.clear();
+        cachedPixels = 0;
+        referenceTime = null;
+    }
+
+    /**
+     * Drops the tiles intersecting that area (in canvas coordinates), typically because its content has been redrawn.
+     */
+    public void invalidateArea(Bounds area, double layoutOriginX, double layoutOriginY) {
+        if (referenceTime == null || tiles.isEmpty())
+            return;
+        double xShift = getAbsoluteXShift();
+        for (int row = tileRow(area.getMinY() + layoutOriginY), lastRow = lastTileRow(area.getMaxY() + layoutOriginY); row <= lastRow; row++)
+            for (int column = tileColumn(area.getMinX() + layoutOriginX + xShift), lastColumn = lastTileColumn(area.getMaxX() + layoutOriginX + xShift); column <= lastColumn; column++) {
+                if (tiles.remove(tileKey(column, row)) != null)
+                    cachedPixels -= (long) tileWidth * tileHeight;
+            }
+    }
+
+    /**
+     * Draws the children in that area (in canvas coordinates) by blitting the tiles (rendered first if not cached).
+     *
+     * @return false if the tiles can't be rendered on this platform (see isSupported())
+     */
+    public boolean drawArea(Bounds area, double layoutOriginX, double layoutOriginY, GraphicsContext gc) {
+        if (snapshotUnsupported)
+            return false;
+        checkValidity();
+        if (referenceTime == null) // no time window yet
+            return true;
+        double xShift = getAbsoluteXShift(); // absolute x = layout x + xShift
+        double minX = area.getMinX() + layoutOriginX + xShift, maxX = area.getMaxX() + layoutOriginX + xShift;
+        double minY = area.getMinY() + layoutOriginY, maxY = area.getMaxY() + layoutOriginY;
+        for (int row = tileRow(minY), lastRow = lastTileRow(maxY); row <= lastRow; row++) {
+            for (int column = tileColumn(minX), lastColumn = lastTileColumn(maxX); column <= lastColumn; column++) {
+                WritableImage tile = getOrRenderTile(column, row, xShift);
+                if (tile == null) // can happen only on the very first tile rendering, so nothing has been blitted yet
+                    return false;
+                // Blitting only the part of the tile that is inside the area
+                double tileMinX = (double) column * tileWidth, tileMinY = (double) row * tileHeight;
+                double sx = Math.max(0, minX - tileMinX), sy = Math.max(0, minY - tileMinY);
+                double sw = Math.min(tileWidth, maxX - tileMinX) - sx, sh = Math.min(tileHeight, maxY - tileMinY) - sy;
+                if (sw > 0 && sh > 0)
+                    gc.drawImage(tile, sx, sy, sw, sh, tileMinX + sx - xShift - layoutOriginX, tileMinY + sy - layoutOriginY, sw, sh);
+            }
+        }
+        evictOverBudgetTiles();
+        return true;
+    }
+
+    private WritableImage getOrRenderTile(int column, int row, double xShift) {
+        Long key = tileKey(column, row);
+        WritableImage tile = tiles.get(key);
+        if (tile == null) {
+            if (tileCanvas == null)
+                tileCanvas = new Canvas(tileWidth, tileHeight);
+            GraphicsContext tileGc = tileCanvas.getGraphicsContext2D();
+            tileGc.clearRect(0, 0, tileWidth, tileHeight);
+            TimeCanvasDrawer.drawVisibleChildren(new BoundingBox(0, 0, tileWidth, tileHeight), (double) column * tileWidth - xShift, (double) row * tileHeight, timeLayout, childDrawer, tileGc);
+            tile = snapshotTileCanvas();
+            if (tile == null)
+                return null;
+            tiles.put(key, tile);
+            cachedPixels += (long) tileWidth * tileHeight;
+        }
+        return tile;
+    }
+
+    private WritableImage snapshotTileCanvas() {
+        WritableImage tile = null;
+        try {
+            // The offscreen canvas is not attached to a scene, which some platforms may not support (or not yet), so
+            // the result is verified before using the tiles
+            tile = tileCanvasSnapshotter.apply(tileCanvas);
+        } catch (RuntimeException e) {
+            // Treated as unsupported below
+        }
+        if (tile == null || tile.getWidth() != tileWidth || tile.getHeight() != tileHeight) {
+            snapshotUnsupported = true;
+            invalidate();
+            tileCanvas = null;
+            return null;
+        }
+        return tile;
+    }
+
+    private static WritableImage snapshotCanvas(Canvas canvas) {
+        SnapshotParameters snapshotParameters = new SnapshotParameters();
+        snapshotParameters.setFill(Color.TRANSPARENT);
+        return canvas.snapshot(snapshotParameters, null);
+    }
+
+    // Replaces the snapshot of the offscreen canvas into a tile (ex: by a test, as the snapshot needs a UI toolkit)
+    void setTileCanvasSnapshotter(Function<Canvas, WritableImage> tileCanvasSnapshotter) {
+        this.tileCanvasSnapshotter = tileCanvasSnapshotter;
+    }
+
+    private void evictOverBudgetTiles() {
+        for (Iterator<WritableImage> it = tiles.values().iterator(); cachedPixels > pixelBudget && it.hasNext(); ) {
+            it.next();
+            it.remove();
+            cachedPixels -= (long) tileWidth * tileHeight;
+        }
+    }
+
+    private void checkValidity() {
+        T timeWindowStart = timeLayout.getTimeWindowStart();
+        if (timeWindowStart == null || timeLayout.getTimeWindowEnd() == null) {
+            invalidate();
+            return;
+        }
+        double layoutWidth = timeLayout.getWidth();
+        long timeWindowDuration = TimeWindowUtil.getTimeWindowDuration(timeLayout, temporalUnit);
+        C selectedChild = timeLayout.getSelectedChild();
+        boolean valid = referenceTime != null && layoutWidth == this.layoutWidth && timeWindowDuration == this.timeWindowDuration && selectedChild == this.selectedChild;
+        if (timeLayout instanceof TimeLayoutBase) {
+            TimeLayoutBase<?, ?> layoutBase = (TimeLayoutBase<?, ?>) timeLayout;
+            // The time window changes (such as panning) are excluded from the horizontal version, as the tiles are
+            // positioned in time. Any other horizontal layout change (ex: hSpacing) invalidates the tiles.
+            int horizontalVersion = layoutBase.horizontalVersion - layoutBase.getTimeWindowHorizontalVersion();
+            valid &= layoutBase.timeVersion == timeVersion && horizontalVersion == this.horizontalVersion && layoutBase.verticalVersion == verticalVersion && layoutBase.childrenVersion == childrenVersion;
+            timeVersion = layoutBase.timeVersion;
+            this.horizontalVersion = horizontalVersion;
+            verticalVersion = layoutBase.verticalVersion;
+            childrenVersion = layoutBase.childrenVersion;
+        }
+        if (!valid) {
+            invalidate();
+            referenceTime = timeWindowStart;
+            this.layoutWidth = layoutWidth;
+            this.timeWindowDuration = timeWindowDuration;
+            this.selectedChild = selectedChild;
+        }
+    }
+
+    private double getAbsoluteXShift() {
+        return -timeLayout.getTimeProjector().timeToX(referenceTime, true, false);
+    }
+
+    private int tileColumn(double absoluteX) {
+        return (int) Math.floor(absoluteX / tileWidth);
+    }
+
+    private int tileRow(double layoutY) {
+        return (int) Math.floor(layoutY / tileHeight);
+    }
+
+    private int lastTileColumn(double absoluteMaxX) {
+        return (int) Math.ceil(absoluteMaxX / tileWidth) - 1;
+    }
+
+    private int lastTileRow(double layoutMaxY) {
+        return (int) Math.ceil(layoutMaxY / tileHeight) - 1;
+    }
+
+    private static Long tileKey(int column, int row) {
+        return ((long) column << 32) | (row & 0xFFFFFFFFL);
+    }
+}
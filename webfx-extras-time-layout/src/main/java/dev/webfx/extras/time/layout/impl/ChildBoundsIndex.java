@@ -0,0 +1,150 @@
+package dev.webfx.extras.time.layout.impl;
+
+import dev.webfx.extras.geometry.Bounds;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Index of the children bounds of a TimeLayout for the visible children queries and the child picking. The children are
+ * grouped in rows (children having the same y), the rows being sorted by y, and the children of each row being sorted
+ * by start (i.e. by time). Each row and each child also keeps the maximal end reached so far (prefix maximum), so that
+ * a query can binary search the last row or child starting before the area end, and then walk back only while the
+ * previous ones can still reach the area start.
+ *
+ * The children x are not stored but read from the bounds on query (only the bounds involved in the binary searches are
+ * laid out). As the time projection is monotonic, the time window moves or zooms don't change the children order, and
+ * the prefix maximums are stored as child indexes for the same reason. So the index just needs to be rebuilt when the
+ * children times or the vertical layout change.
+ *
+ * @author Bruno Salmon
+ */
+final class ChildBoundsIndex<C> {
+
+    private final List<? extends ChildBounds<C, ?>> childrenBounds;
+    private final int timeVersion, verticalVersion;
+    private final int[] children; // children indexes sorted by row and then by start
+    private final int[] childMaxEnds; // index of the child with the max end among the previous children in the row
+    private final int[] rowStarts; // position of the first child of each row in children (+ the final end)
+    private final double[] rowMinYs, rowMaxMaxYs; // min y of each row and max y reached by the rows so far
+    private final boolean[] collected;
+
+    ChildBoundsIndex(List<? extends ChildBounds<C, ?>> childrenBounds, int timeVersion, int verticalVersion) {
+        this.childrenBounds = childrenBounds;
+        this.timeVersion = timeVersion;
+        this.verticalVersion = verticalVersion;
+        int n = childrenBounds.size();
+        Integer[] sorted = new Integer[n];
+        for (int i = 0; i < n; i++)
+            sorted[i] = i;
+        Arrays.sort(sorted, (i1, i2) -> {
+            ChildBounds<C, ?> cb1 = childrenBounds.get(i1), cb2 = childrenBounds.get(i2);
+            int c = Double.compare(cb1.getMinY(), cb2.getMinY());
+            return c != 0 ? c : Double.compare(cb1.getMinX(), cb2.getMinX());
+        });
+        children = new int[n];
+        childMaxEnds = new int[n];
+        int[] rowStarts = new int[n + 1];
+        double[] rowMinYs = new double[n], rowMaxMaxYs = new double[n];
+        int rowCount = 0;
+        double lastMinY = Double.NaN, maxMaxY = Double.NEGATIVE_INFINITY;
+        for (int p = 0; p < n; p++) {
+            int childIndex = children[p] = sorted[p];
+            ChildBounds<C, ?> cb = childrenBounds.get(childIndex);
+            double minY = cb.getMinY();
+            if (p == 0 || minY != lastMinY) { // new row
+                rowStarts[rowCount] = p;
+                rowMinYs[rowCount] = lastMinY = minY;
+                rowCount++;
+                childMaxEnds[p] = childIndex;
+            } else {
+                int previousMaxEnd = childMaxEnds[p - 1];
+                childMaxEnds[p] = cb.getMaxX() > childrenBounds.get(previousMaxEnd).getMaxX() ? childIndex : previousMaxEnd;
+            }
+            maxMaxY = Math.max(maxMaxY, cb.getMaxY());
+            rowMaxMaxYs[rowCount - 1] = maxMaxY;
+        }
+        rowStarts[rowCount] = n;
+        this.rowStarts = Arrays.copyOf(rowStarts, rowCount + 1);
+        this.rowMinYs = Arrays.copyOf(rowMinYs, rowCount);
+        this.rowMaxMaxYs = Arrays.copyOf(rowMaxMaxYs, rowCount);
+        collected = new boolean[n];
+    }
+
+    boolean isValid(List<? extends ChildBounds<C, ?>> childrenBounds, int timeVersion, int verticalVersion) {
+        return childrenBounds == this.childrenBounds && timeVersion == this.timeVersion && verticalVersion == this.verticalVersion;
+    }
+
+    // Calls the consumer with the index of the children that may intersect the area (in increasing index order)
+    void queryArea(double minX, double minY, double maxX, double maxY, IntConsumer childIndexConsumer) {
+        int[] found = new int[16];
+        int foundCount = 0;
+        for (int r = lastAtOrBefore(rowMinYs, rowMinYs.length, maxY); r >= 0 && rowMaxMaxYs[r] >= minY; r--) {
+            int rowStart = rowStarts[r];
+            int p = lastChildStartingAtOrBefore(rowStart, rowStarts[r + 1], maxX);
+            for (; p >= rowStart && childrenBounds.get(childMaxEnds[p]).getMaxX() >= minX; p--) {
+                int childIndex = children[p];
+                ChildBounds<C, ?> cb = childrenBounds.get(childIndex);
+                if (cb.getMaxX() >= minX && cb.getMaxY() >= minY && !collected[childIndex]) {
+                    collected[childIndex] = true;
+                    if (foundCount == found.length)
+                        found = Arrays.copyOf(found, foundCount * 2);
+                    found[foundCount++] = childIndex;
+                }
+            }
+        }
+        // Sorting the children back in their original order (which is also the drawing order)
+        Arrays.sort(found, 0, foundCount);
+        for (int i = 0; i < foundCount; i++) {
+            collected[found[i]] = false;
+            childIndexConsumer.accept(found[i]);
+        }
+    }
+
+    // Returns the first child (in children order) containing that point, or null if none
+    C pickChildAt(double x, double y) {
+        int pickedIndex = Integer.MAX_VALUE;
+        for (int r = lastAtOrBefore(rowMinYs, rowMinYs.length, y); r >= 0 && rowMaxMaxYs[r] >= y; r--) {
+            int rowStart = rowStarts[r];
+            for (int p = lastChildStartingAtOrBefore(rowStart, rowStarts[r + 1], x); p >= rowStart && childrenBounds.get(childMaxEnds[p]).getMaxX() >= x; p--) {
+                int childIndex = children[p];
+                if (childIndex < pickedIndex && childrenBounds.get(childIndex).contains(x, y))
+                    pickedIndex = childIndex;
+            }
+        }
+        return pickedIndex == Integer.MAX_VALUE ? null : childrenBounds.get(pickedIndex).getObject();
+    }
+
+    void processVisibleChildren(javafx.geometry.Bounds visibleArea, double layoutOriginX, double layoutOriginY, BiConsumer<C, Bounds> childProcessor) {
+        queryArea(visibleArea.getMinX() + layoutOriginX, visibleArea.getMinY() + layoutOriginY, visibleArea.getMaxX() + layoutOriginX, visibleArea.getMaxY() + layoutOriginY, childIndex -> {
+            ChildBounds<C, ?> cb = childrenBounds.get(childIndex);
+            TimeLayoutUtil.processObjectIfVisible(cb.getObject(), (Bounds) cb, visibleArea, layoutOriginX, layoutOriginY, childProcessor);
+        });
+    }
+
+    private static int lastAtOrBefore(double[] sortedValues, int length, double value) {
+        int low = 0, high = length; // binary search of the first value after that value
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedValues[middle] <= value)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low - 1;
+    }
+
+    private int lastChildStartingAtOrBefore(int from, int to, double x) {
+        int low = from, high = to; // binary search of the first child starting after x
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (childrenBounds.get(children[middle]).getMinX() <= x)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low - 1;
+    }
+}
@@ -2,6 +2,7 @@ package dev.webfx.extras.time.layout.impl;
 
 import dev.webfx.extras.geometry.Bounds;
 import dev.webfx.extras.time.layout.TimeLayout;
+import dev.webfx.extras.time.projector.LinearTimeWindowProjector;
 import dev.webfx.extras.time.projector.TimeProjector;
 import dev.webfx.extras.time.window.impl.ListenableTimeWindowImpl;
 import dev.webfx.extras.util.DirtyMarker;
@@ -12,17 +13,23 @@ import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * @author Bruno Salmon
  */
 public abstract class TimeLayoutBase<C, T> extends ListenableTimeWindowImpl<T> implements TimeLayout<C, T> {
 
+    private static final int MIN_INDEXED_CHILDREN_COUNT = 64; // below that, scanning all children is fast enough
+
     private boolean fillHeight;
     private final DoubleProperty widthProperty = FXProperties.newDoubleProperty(-1, this::invalidateHorizontalLayout);
     private final DoubleProperty heightProperty = FXProperties.newDoubleProperty(-1, () -> {
@@ -51,25 +58,128 @@ public abstract class TimeLayoutBase<C, T> extends ListenableTimeWindowImpl<T> i
     private boolean childSelectionEnabled;
     private ObjectProperty<C> selectedChildProperty;
     protected TimeProjector<T> timeProjector;
-    public int timeVersion, horizontalVersion, verticalVersion;
+    public int timeVersion, horizontalVersion, verticalVersion, childrenVersion;
+    private int timeWindowHorizontalVersion; // number of horizontalVersion increments caused by time window changes
+    private boolean childrenIndexing = true;
+    private ChildBoundsIndex<C> childrenIndex; // built on demand for the visible children queries and the child picking
+    private Map<C, ChildBounds<C, T>> childToChildBoundsMap; // identity map built on demand for findChildBounds()
 
     public TimeLayoutBase() {
         children.addListener(this::onChildrenChanged);
-        setOnTimeWindowChanged((end, start) -> invalidateHorizontalLayout()); // this changes the x values for the time projection (but children start/end times & y)
+        setOnTimeWindowChanged((end, start) -> { // this changes the x values for the time projection (but children start/end times & y)
+            timeWindowHorizontalVersion++;
+            invalidateHorizontalLayout();
+        });
     }
 
     protected void onChildrenChanged(ListChangeListener.Change<? extends C> c) {
-        // TODO: improve this and try to recycle existing layout bounds
-        childrenBounds = Stream.generate(this::createChildLayoutBounds)
-            .limit(children.size())
-            .collect(Collectors.toList());
-        for (int i = 0; i < children.size(); i++) {
-            ChildBounds<C, T> cb = childrenBounds.get(i);
-            cb.setObject(children.get(i));
+        if (childrenBounds == null) { // first children received
+            childrenBounds = new ArrayList<>(children.size());
+            for (C child : children) {
+                ChildBounds<C, T> cb = createChildLayoutBounds();
+                cb.setObject(child);
+                childrenBounds.add(cb);
+                onChildBoundsAdded(cb);
+            }
+        } else
+            applyChildrenChange(c);
+        rowsCount = -1;
+        childrenIndex = null;
+        childToChildBoundsMap = null;
+        childrenVersion++;
+        if (fillHeight) // the rows height depends on the rows count, which may have changed
+            invalidateVerticalLayout();
+        else
+            markLayoutAsDirty();
+    }
+
+    // Applies the deltas of the children list to the children bounds, so that the bounds of the children that are not
+    // affected by the change are kept as is (with their times and layout still valid). The removed, added and updated
+    // children are notified to the subclass through the hooks below. The bounds of the removed children are pooled by
+    // child identity, so they are reused if these children are added back (ex: when the list is reset with the same
+    // children), or otherwise recycled for other added children. In all cases, the bounds of the added or updated
+    // children are invalidated, so their start & end times are read again.
+    private void applyChildrenChange(ListChangeListener.Change<? extends C> c) {
+        Map<C, ChildBounds<C, T>> removedBoundsPool = null;
+        List<ChildBounds<C, T>> spareBounds = null; // removed bounds of duplicate children
+        List<ChildBounds<C, T>> addedBounds = null;
+        boolean unboundAddedChildren = false;
+        while (c.next()) {
+            int from = c.getFrom(), to = c.getTo();
+            if (c.wasPermutated()) {
+                List<ChildBounds<C, T>> permutedBounds = new ArrayList<>(childrenBounds.subList(from, to));
+                for (int i = from; i < to; i++)
+                    childrenBounds.set(c.getPermutation(i), permutedBounds.get(i - from));
+                onChildrenBoundsPermutated();
+            } else if (c.wasUpdated()) {
+                for (int i = from; i < to; i++) {
+                    ChildBounds<C, T> cb = childrenBounds.get(i);
+                    onChildBoundsRemoved(cb);
+                    cb.invalidateObject(); // the child may have new start & end times
+                    if (addedBounds == null)
+                        addedBounds = new ArrayList<>();
+                    addedBounds.add(cb);
+                }
+            } else {
+                if (c.wasRemoved()) {
+                    if (removedBoundsPool == null)
+                        removedBoundsPool = new IdentityHashMap<>();
+                    List<ChildBounds<C, T>> removedBounds = childrenBounds.subList(from, from + c.getRemovedSize());
+                    for (ChildBounds<C, T> cb : removedBounds) {
+                        onChildBoundsRemoved(cb);
+                        if (removedBoundsPool.putIfAbsent(cb.getObject(), cb) != null) {
+                            if (spareBounds == null)
+                                spareBounds = new ArrayList<>();
+                            spareBounds.add(cb);
+                        }
+                    }
+                    removedBounds.clear();
+                }
+                if (c.wasAdded()) {
+                    if (addedBounds == null)
+                        addedBounds = new ArrayList<>();
+                    for (int i = from; i < to; i++) {
+                        ChildBounds<C, T> cb = removedBoundsPool == null ? null : removedBoundsPool.remove(children.get(i));
+                        if (cb == null)
+                            unboundAddedChildren = true;
+                        else {
+                            cb.invalidateObject(); // same child, but it may have new start & end times
+                            addedBounds.add(cb);
+                        }
+                        childrenBounds.add(i, cb); // null placeholder if no bounds for that child (will be set below)
+                    }
+                }
+            }
         }
-        invalidateTimesReading(); // the children may have new start & end times
+        if (unboundAddedChildren) {
+            if (removedBoundsPool != null && !removedBoundsPool.isEmpty()) {
+                if (spareBounds == null)
+                    spareBounds = new ArrayList<>();
+                spareBounds.addAll(removedBoundsPool.values());
+            }
+            for (int i = 0; i < childrenBounds.size(); i++) {
+                if (childrenBounds.get(i) == null) {
+                    ChildBounds<C, T> cb = spareBounds == null || spareBounds.isEmpty() ? createChildLayoutBounds() : spareBounds.remove(spareBounds.size() - 1);
+                    cb.invalidateObject(); // recycled bounds
+                    cb.setObject(children.get(i));
+                    childrenBounds.set(i, cb);
+                    addedBounds.add(cb);
+                }
+            }
+        }
+        if (addedBounds != null)
+            addedBounds.forEach(this::onChildBoundsAdded);
     }
 
+    // Hooks called when children bounds are attached to or detached from the children, or when they are reordered (ex:
+    // to update the subclass structures incrementally)
+
+    protected void onChildBoundsAdded(ChildBounds<C, T> cb) { }
+
+    protected void onChildBoundsRemoved(ChildBounds<C, T> cb) { }
+
+    protected void onChildrenBoundsPermutated() { }
+
     protected ChildBounds<C, T> createChildLayoutBounds() {
         return new ChildBounds<>(this);
     }
@@ -188,6 +298,14 @@ public abstract class TimeLayoutBase<C, T> extends ListenableTimeWindowImpl<T> i
         return this;
     }
 
+    /**
+     * Replaces UiScheduler for scheduling the layout in the next animation frame. This is mainly for tests and
+     * benchmarks, which can then run the frames themselves (without UI toolkit).
+     */
+    public void setFrameScheduler(Consumer<Runnable> frameScheduler) {
+        layoutDirtyMarker.setFrameScheduler(frameScheduler);
+    }
+
     @Override
     public void markLayoutAsDirty() {
         if (!isLayouting())
@@ -217,6 +335,12 @@ public abstract class TimeLayoutBase<C, T> extends ListenableTimeWindowImpl<T> i
         }
     }
 
+    // Number of horizontal layout invalidations caused by the time window changes (the other ones are the difference
+    // with horizontalVersion)
+    public int getTimeWindowHorizontalVersion() {
+        return timeWindowHorizontalVersion;
+    }
+
     public void invalidateTimesReading() {
         timeVersion++;
         invalidateHorizontalLayout(); // because x is a time projection (invalid times => invalid x)
@@ -241,8 +365,17 @@ public abstract class TimeLayoutBase<C, T> extends ListenableTimeWindowImpl<T> i
 
     protected void layoutChildHorizontally(ChildBounds<C, T> cb) {
         TimeProjector<T> timeProjector = getTimeProjector();
-        double startX = timeProjector.timeToX(cb.getStartTime(), true, childStartTimeExclusive);
-        double endX = timeProjector.timeToX(cb.getEndTime(), false, childEndTimeExclusive);
+        T startTime = cb.getStartTime(), endTime = cb.getEndTime();
+        double startX, endX;
+        if (startTime instanceof LocalDate && endTime instanceof LocalDate && timeProjector instanceof LinearTimeWindowProjector && timeProjector.getTemporalUnit() == ChronoUnit.DAYS) {
+            // Fast path with no temporal computation (same x values as timeToX() for days)
+            LinearTimeWindowProjector<?> linearProjector = (LinearTimeWindowProjector<?>) timeProjector;
+            startX = linearProjector.epochDayToX(((LocalDate) startTime).toEpochDay(), true, childStartTimeExclusive);
+            endX = linearProjector.epochDayToX(((LocalDate) endTime).toEpochDay(), false, childEndTimeExclusive);
+        } else {
+            startX = timeProjector.timeToX(startTime, true, childStartTimeExclusive);
+            endX = timeProjector.timeToX(endTime, false, childEndTimeExclusive);
+        }
         cb.setX(startX + hSpacing / 2);
         cb.setWidth(endX - startX - hSpacing);
     }
@@ -301,6 +434,18 @@ public abstract class TimeLayoutBase<C, T> extends ListenableTimeWindowImpl<T> i
         return childrenBounds.get(childIndex);
     }
 
+    @Override
+    public ChildBounds<C, T> findChildBounds(C child) {
+        if (childToChildBoundsMap == null) {
+            if (childrenBounds == null)
+                return null;
+            childToChildBoundsMap = new IdentityHashMap<>(childrenBounds.size());
+            for (int i = childrenBounds.size() - 1; i >= 0; i--) // reverse order, so the first occurrence wins (as with indexOf())
+                childToChildBoundsMap.put(children.get(i), childrenBounds.get(i));
+        }
+        return childToChildBoundsMap.get(child);
+    }
+
     private T readChildStartTime(C child) {
         return childStartTimeReader.apply(child);
     }
@@ -342,10 +487,36 @@ public abstract class TimeLayoutBase<C, T> extends ListenableTimeWindowImpl<T> i
         return selectedChildProperty;
     }
 
+    public boolean isChildrenIndexing() {
+        return childrenIndexing;
+    }
+
+    /**
+     * Enables or disables the index used (for large number of children) to find the visible children and the picked
+     * child without scanning all children.
+     */
+    public TimeLayoutBase<C, T> setChildrenIndexing(boolean childrenIndexing) {
+        this.childrenIndexing = childrenIndexing;
+        childrenIndex = null;
+        return this;
+    }
+
+    // Returns the children index (rebuilt if the children times or the vertical layout changed), or null if not worth it
+    private ChildBoundsIndex<C> getChildrenIndex() {
+        if (!childrenIndexing || childrenBounds == null || childrenBounds.size() < MIN_INDEXED_CHILDREN_COUNT)
+            return null;
+        if (childrenIndex == null || !childrenIndex.isValid(childrenBounds, timeVersion, verticalVersion))
+            childrenIndex = new ChildBoundsIndex<>(childrenBounds, timeVersion, verticalVersion);
+        return childrenIndex;
+    }
+
     @Override
     public C pickChildAt(double x, double y, boolean onlyIfSelectable) {
         if (onlyIfSelectable && !isSelectionEnabled() || childrenBounds == null)
             return null;
+        ChildBoundsIndex<C> index = getChildrenIndex();
+        if (index != null)
+            return index.pickChildAt(x, y);
         for (ChildBounds<C, T> cb : childrenBounds) {
             if (cb.contains(x, y))
                 return cb.getObject();
@@ -362,6 +533,10 @@ public abstract class TimeLayoutBase<C, T> extends ListenableTimeWindowImpl<T> i
     }
 
     protected void processVisibleChildrenNow(javafx.geometry.Bounds visibleArea, double layoutOriginX, double layoutOriginY, BiConsumer<C, Bounds> childProcessor) {
-        TimeLayoutUtil.processVisibleObjectBounds(childrenBounds, false, visibleArea, layoutOriginX, layoutOriginY, childProcessor);
+        ChildBoundsIndex<C> index = getChildrenIndex();
+        if (index != null)
+            index.processVisibleChildren(visibleArea, layoutOriginX, layoutOriginY, childProcessor);
+        else
+            TimeLayoutUtil.processVisibleObjectBounds(childrenBounds, false, visibleArea, layoutOriginX, layoutOriginY, childProcessor);
     }
 }
@@ -0,0 +1,100 @@
+package dev.webfx.extras.time.layout.canvas;
+
+import dev.webfx.extras.time.layout.impl.ChildBounds;
+import dev.webfx.extras.time.layout.impl.TimeLayoutBase;
+import dev.webfx.extras.time.projector.TimeProjector;
+import javafx.scene.canvas.Canvas;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class TimeCanvasDrawerTest {
+
+    private final List<Runnable> frameRunnables = new ArrayList<>();
+
+    private void runFrame() {
+        List<Runnable> runnables = new ArrayList<>(frameRunnables);
+        frameRunnables.clear();
+        runnables.forEach(Runnable::run);
+    }
+
+    private TimeLayoutBase<Integer, LocalDate> newLayout() {
+        TimeLayoutBase<Integer, LocalDate> layout = new TimeLayoutBase<Integer, LocalDate>() {
+            @Override
+            protected void computeChildRowIndex(ChildBounds<Integer, LocalDate> cb) {
+                cb.setRowIndex(cb.getObject() % 3);
+            }
+        };
+        layout.setFrameScheduler(frameRunnables::add);
+        layout.setTimeProjector(new TimeProjector<LocalDate>() {
+            @Override
+            public double timeToX(LocalDate time, boolean start, boolean exclusive) {
+                return (start ? time.toEpochDay() : time.toEpochDay() + 1) * 10;
+            }
+
+            @Override
+            public LocalDate xToTime(double x) {
+                return LocalDate.ofEpochDay((long) (x / 10));
+            }
+
+            @Override
+            public TemporalUnit getTemporalUnit() {
+                return ChronoUnit.DAYS;
+            }
+        });
+        layout.setChildStartTimeReader(i -> LocalDate.ofEpochDay(i * 5), false);
+        layout.setChildEndTimeReader(i -> LocalDate.ofEpochDay(i * 5 + 2), false);
+        layout.setChildFixedHeight(10);
+        layout.setVSpacing(5);
+        layout.setWidth(1000);
+        layout.setSelectionEnabled(true);
+        for (int i = 0; i < 20; i++)
+            layout.getChildren().add(i);
+        return layout;
+    }
+
+    @Test
+    void selectionChangeRedrawsOnlyTheOldAndNewSelectedChildren() {
+        TimeLayoutBase<Integer, LocalDate> layout = newLayout();
+        List<Integer> drawnChildren = new ArrayList<>();
+        TimeCanvasDrawer<Integer, LocalDate> drawer = new TimeCanvasDrawer<>(new Canvas(1000, 100), layout, (child, b, gc) -> drawnChildren.add(child));
+        drawer.setFrameScheduler(frameRunnables::add);
+        drawer.drawArea();
+        runFrame();
+        assertTrue(drawnChildren.containsAll(layout.getChildren())); // full redraw
+        drawnChildren.clear();
+
+        layout.setSelectedChild(7);
+        runFrame();
+        assertEquals(List.of(7), drawnChildren);
+        drawnChildren.clear();
+
+        layout.setSelectedChild(12);
+        runFrame();
+        // One pass over the union of both children bounds (rows 0 & 1 from day 35 to day 62)
+        assertEquals(List.of(7, 9, 10, 12), drawnChildren);
+    }
+
+    @Test
+    void childrenAreDrawnDirectlyWhenTheTilesCantBeRendered() {
+        TimeLayoutBase<Integer, LocalDate> layout = newLayout();
+        layout.setTimeWindow(LocalDate.ofEpochDay(0), LocalDate.ofEpochDay(99));
+        List<Integer> drawnChildren = new ArrayList<>();
+        TimeCanvasDrawer<Integer, LocalDate> drawer = new TimeCanvasDrawer<>(new Canvas(1000, 100), layout, (child, b, gc) -> drawnChildren.add(child));
+        drawer.setFrameScheduler(frameRunnables::add);
+        drawer.setTileCacheEnabled(true);
+        drawer.drawArea(); // the offscreen canvas snapshot is not possible here (no JavaFX toolkit running)
+        assertFalse(drawer.getTileCache().isSupported());
+        assertEquals(0, drawer.getTileCache().getTileCount());
+        assertTrue(drawnChildren.containsAll(layout.getChildren()));
+    }
+}
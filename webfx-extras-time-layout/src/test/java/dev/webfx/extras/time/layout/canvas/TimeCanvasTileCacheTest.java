@@ -0,0 +1,121 @@
+package dev.webfx.extras.time.layout.canvas;
+
+import dev.webfx.extras.time.layout.impl.ChildBounds;
+import dev.webfx.extras.time.layout.impl.TimeLayoutBase;
+import dev.webfx.extras.time.projector.LinearTimeWindowProjector;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class TimeCanvasTileCacheTest {
+
+    private static final int TILE_SIZE = 100;
+    private static final Bounds CANVAS_AREA = new BoundingBox(0, 0, 1000, 100);
+
+    private final List<Runnable> frameRunnables = new ArrayList<>();
+    private final List<Integer> drawnChildren = new ArrayList<>();
+    private int renderedTileCount;
+    private TimeLayoutBase<Integer, LocalDate> layout;
+    private TimeCanvasTileCache<Integer, LocalDate> tileCache;
+    private GraphicsContext gc;
+
+    @BeforeEach
+    void createTileCache() {
+        layout = new TimeLayoutBase<Integer, LocalDate>() {
+            @Override
+            protected void computeChildRowIndex(ChildBounds<Integer, LocalDate> cb) {
+                cb.setRowIndex(cb.getObject() % 3);
+            }
+        };
+        layout.setFrameScheduler(frameRunnables::add);
+        layout.setTimeProjector(new LinearTimeWindowProjector<>(layout, ChronoUnit.DAYS, layout::getWidth));
+        layout.setChildStartTimeReader(i -> LocalDate.ofEpochDay(i * 5), false);
+        layout.setChildEndTimeReader(i -> LocalDate.ofEpochDay(i * 5 + 2), false);
+        layout.setChildFixedHeight(10);
+        layout.setVSpacing(5);
+        layout.setWidth(1000);
+        layout.setSelectionEnabled(true);
+        for (int i = 0; i < 40; i++) // children up to day 197
+            layout.getChildren().add(i);
+        layout.setTimeWindow(LocalDate.ofEpochDay(0), LocalDate.ofEpochDay(99)); // 10px per day
+        tileCache = new TimeCanvasTileCache<>(layout, (child, b, gc) -> drawnChildren.add(child), ChronoUnit.DAYS, TILE_SIZE, TILE_SIZE, 1_000_000);
+        // Snapshots are not possible without UI toolkit, so the tiles are just blank images of the right size
+        tileCache.setTileCanvasSnapshotter(canvas -> {
+            renderedTileCount++;
+            return new WritableImage((int) canvas.getWidth(), (int) canvas.getHeight());
+        });
+        gc = new Canvas(CANVAS_AREA.getWidth(), CANVAS_AREA.getHeight()).getGraphicsContext2D();
+    }
+
+    private void drawCanvasArea() {
+        drawnChildren.clear();
+        assertTrue(tileCache.drawArea(CANVAS_AREA, 0, 0, gc));
+    }
+
+    @Test
+    void panningRendersOnlyTheNewlyExposedTiles() {
+        drawCanvasArea();
+        assertTrue(tileCache.isSupported());
+        assertEquals(10, renderedTileCount);
+        assertEquals(10, tileCache.getTileCount());
+        assertTrue(drawnChildren.containsAll(List.of(0, 10, 19)));
+
+        drawCanvasArea(); // nothing changed => everything is blitted from the tiles
+        assertEquals(10, renderedTileCount);
+        assertEquals(List.of(), drawnChildren);
+
+        layout.setTimeWindow(LocalDate.ofEpochDay(10), LocalDate.ofEpochDay(109)); // panning 100px to the right
+        drawCanvasArea();
+        assertEquals(11, renderedTileCount);
+        assertEquals(11, tileCache.getTileCount());
+        assertEquals(List.of(20, 21, 22), drawnChildren); // only the children of the new tile (days 100 to 110 included)
+    }
+
+    @Test
+    void invalidatedAreaTilesAreRenderedAgain() {
+        drawCanvasArea();
+        tileCache.invalidateArea(new BoundingBox(150, 0, 10, 10), 0, 0); // inside the second tile
+        assertEquals(9, tileCache.getTileCount());
+        drawCanvasArea();
+        assertEquals(11, renderedTileCount);
+        assertEquals(List.of(2, 3, 4), drawnChildren); // children of the second tile (days 10 to 20 included)
+    }
+
+    @Test
+    void layoutChangesInvalidateAllTiles() {
+        drawCanvasArea();
+        layout.setSelectedChild(3);
+        drawCanvasArea();
+        assertEquals(20, renderedTileCount);
+        layout.setHSpacing(2);
+        drawCanvasArea();
+        assertEquals(30, renderedTileCount);
+        layout.setWidth(500); // new time scale
+        drawCanvasArea();
+        assertEquals(40, renderedTileCount);
+    }
+
+    @Test
+    void leastRecentlyUsedTilesAreEvictedOverThePixelBudget() {
+        drawCanvasArea();
+        tileCache.setPixelBudget(5 * TILE_SIZE * TILE_SIZE);
+        assertEquals(5, tileCache.getTileCount());
+        drawCanvasArea(); // the 5 evicted tiles are rendered again (and then evicted in turn)
+        assertEquals(15, renderedTileCount);
+        assertEquals(5, tileCache.getTileCount());
+    }
+}
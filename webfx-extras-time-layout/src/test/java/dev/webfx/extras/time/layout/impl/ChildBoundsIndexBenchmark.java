@@ -0,0 +1,60 @@
+package dev.webfx.extras.time.layout.impl;
+
+import javafx.geometry.BoundingBox;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import dev.webfx.extras.time.layout.impl.ChildBoundsIndexTest.Item;
+
+/**
+ * Benchmark of the visible children queries and the child picks on 100k children, with a viewport of 1% of the
+ * timeline, with and without the children index (not run by default, as not named *Test - run it explicitly with
+ * -Dtest=ChildBoundsIndexBenchmark).
+ *
+ * @author Bruno Salmon
+ */
+class ChildBoundsIndexBenchmark {
+
+    private static final int CHILDREN_COUNT = 100_000, DAYS = 10_000, ROWS = 200, QUERIES = 1_000, ROUNDS = 5;
+
+    @Test
+    void queryAndPick() {
+        Random random = new Random(14);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < CHILDREN_COUNT; i++) {
+            int start = random.nextInt(DAYS);
+            items.add(new Item(random.nextInt(ROWS), start, start + random.nextInt(10)));
+        }
+        TimeLayoutBase<Item, Integer> layout = ChildBoundsIndexTest.newLayout(items);
+        layout.setSelectionEnabled(true);
+        double timelineWidth = DAYS * 10, timelineHeight = ROWS * 10;
+        for (int round = 0; round < ROUNDS; round++) {
+            boolean report = round == ROUNDS - 1;
+            run("scanned", layout, false, timelineWidth, timelineHeight, report);
+            run("indexed", layout, true, timelineWidth, timelineHeight, report);
+        }
+    }
+
+    private static void run(String name, TimeLayoutBase<Item, Integer> layout, boolean indexing, double timelineWidth, double timelineHeight, boolean report) {
+        layout.setChildrenIndexing(indexing);
+        Random random = new Random(15);
+        long t0 = System.nanoTime();
+        int visibleCount = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            BoundingBox viewport = new BoundingBox(random.nextDouble() * timelineWidth * 0.99, 0, timelineWidth / 100, timelineHeight);
+            visibleCount += ChildBoundsIndexTest.visibleChildren(layout, viewport, 0, 0).size();
+        }
+        long t1 = System.nanoTime();
+        int pickedCount = 0;
+        for (int i = 0; i < QUERIES; i++)
+            if (layout.pickChildAt(random.nextDouble() * timelineWidth, random.nextDouble() * timelineHeight, true) != null)
+                pickedCount++;
+        long t2 = System.nanoTime();
+        if (report)
+            System.out.println(name + ": " + (t1 - t0) / QUERIES / 1000 + " us per 1% viewport query (" + visibleCount / QUERIES + " visible children), "
+                    + (t2 - t1) / QUERIES + " ns per pick (" + pickedCount + " picked out of " + QUERIES + ")");
+    }
+}
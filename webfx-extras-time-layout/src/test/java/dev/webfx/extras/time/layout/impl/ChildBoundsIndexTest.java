@@ -0,0 +1,127 @@
+package dev.webfx.extras.time.layout.impl;
+
+import dev.webfx.extras.time.projector.TimeProjector;
+import javafx.geometry.BoundingBox;
+
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the children index gives the same results as the scan of all children.
+ *
+ * @author Bruno Salmon
+ */
+class ChildBoundsIndexTest {
+
+    private static final double DAY_WIDTH = 10, ROW_HEIGHT = 10;
+
+    static final class Item {
+        final int row, start, end;
+
+        Item(int row, int start, int end) {
+            this.row = row;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    static TimeLayoutBase<Item, Integer> newLayout(List<Item> items) {
+        TimeLayoutBase<Item, Integer> layout = new TimeLayoutBase<Item, Integer>() {
+            @Override
+            protected void computeChildRowIndex(ChildBounds<Item, Integer> cb) {
+                cb.setRowIndex(cb.getObject().row);
+            }
+        };
+        layout.setFrameScheduler(frame -> { }); // the layout is done on demand by processVisibleChildren()
+        layout.setTimeProjector(new TimeProjector<Integer>() {
+            @Override
+            public double timeToX(Integer time, boolean start, boolean exclusive) {
+                return (start ? time : time + 1) * DAY_WIDTH;
+            }
+
+            @Override
+            public Integer xToTime(double x) {
+                return (int) (x / DAY_WIDTH);
+            }
+
+            @Override
+            public TemporalUnit getTemporalUnit() {
+                return ChronoUnit.DAYS;
+            }
+        });
+        layout.setChildStartTimeReader(item -> item.start, false);
+        layout.setChildEndTimeReader(item -> item.end, false);
+        layout.setChildFixedHeight(ROW_HEIGHT);
+        layout.setWidth(1000);
+        layout.getChildren().setAll(items);
+        return layout;
+    }
+
+    private static List<Item> randomItems(Random random, int count) {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int start = random.nextInt(100);
+            items.add(new Item(random.nextInt(20), start, start + random.nextInt(random.nextInt(10) == 0 ? 50 : 5)));
+        }
+        return items;
+    }
+
+    static List<Item> visibleChildren(TimeLayoutBase<Item, Integer> layout, BoundingBox visibleArea, double originX, double originY) {
+        List<Item> visibleChildren = new ArrayList<>();
+        layout.processVisibleChildren(visibleArea, originX, originY, (item, b) -> visibleChildren.add(item));
+        return visibleChildren;
+    }
+
+    @Test
+    void visibleChildrenAreTheSameAsWithoutIndex() {
+        Random random = new Random(11);
+        TimeLayoutBase<Item, Integer> layout = newLayout(randomItems(random, 500));
+        for (int i = 0; i < 300; i++) {
+            BoundingBox visibleArea = new BoundingBox(random.nextInt(1100) - 50, random.nextInt(220) - 10, 1 + random.nextInt(300), 1 + random.nextInt(80));
+            double originX = random.nextInt(3) == 0 ? random.nextInt(100) : 0, originY = random.nextInt(3) == 0 ? random.nextInt(50) : 0;
+            layout.setChildrenIndexing(true);
+            List<Item> indexed = visibleChildren(layout, visibleArea, originX, originY);
+            layout.setChildrenIndexing(false);
+            List<Item> scanned = visibleChildren(layout, visibleArea, originX, originY);
+            assertEquals(scanned, indexed, visibleArea.toString());
+        }
+    }
+
+    @Test
+    void pickedChildIsTheSameAsWithoutIndex() {
+        Random random = new Random(12);
+        TimeLayoutBase<Item, Integer> layout = newLayout(randomItems(random, 500));
+        layout.setSelectionEnabled(true);
+        for (int i = 0; i < 2000; i++) {
+            double x = random.nextDouble() * 1100 - 50, y = random.nextDouble() * 220 - 10;
+            layout.setChildrenIndexing(true);
+            Item indexed = layout.pickChildAt(x, y, true);
+            layout.setChildrenIndexing(false);
+            Item scanned = layout.pickChildAt(x, y, true);
+            assertSame(scanned, indexed, "x = " + x + ", y = " + y);
+        }
+    }
+
+    @Test
+    void indexFollowsTheChildrenAndTimeWindowChanges() {
+        Random random = new Random(13);
+        List<Item> items = randomItems(random, 200);
+        TimeLayoutBase<Item, Integer> layout = newLayout(items);
+        BoundingBox visibleArea = new BoundingBox(200, 0, 300, 100);
+        layout.setChildrenIndexing(true);
+        visibleChildren(layout, visibleArea, 0, 0); // builds the index
+        layout.getChildren().addAll(randomItems(random, 50));
+        layout.getChildren().remove(0, 30);
+        layout.setChildFixedHeight(ROW_HEIGHT / 2); // vertical layout change
+        List<Item> indexed = visibleChildren(layout, visibleArea, 0, 0);
+        layout.setChildrenIndexing(false);
+        assertEquals(visibleChildren(layout, visibleArea, 0, 0), indexed);
+    }
+}
@@ -3,8 +3,13 @@ package dev.webfx.extras.time.projector;
 import dev.webfx.extras.time.window.TimeWindow;
 import dev.webfx.extras.time.window.TimeWindowUtil;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoField;
 import java.time.temporal.Temporal;
 import java.time.temporal.TemporalUnit;
+import java.time.temporal.UnsupportedTemporalTypeException;
+import java.util.function.DoubleSupplier;
 import java.util.function.Supplier;
 
 /**
@@ -14,25 +19,61 @@ public class LinearTimeWindowProjector<T extends Temporal> implements TimeProjec
 
     private final TimeWindow<T> timeWindow;
     private final TemporalUnit temporalUnit;
-    private final Supplier<Double> widthSupplier;
+    private final DoubleSupplier widthSupplier;
+    private final double unitsPerDay;
+    // Projection coefficients, recomputed only when the time window or the width changes
+    private T coefficientsStart, coefficientsEnd;
+    private double width;
+    private long duration; // time window duration in temporal units
+    private double startEpochDay; // time window start as (fractional) epoch day, or NaN if not supported by the temporal
 
     public LinearTimeWindowProjector(TimeWindow<T> timeWindow, TemporalUnit timeUnit, Supplier<Double> widthSupplier) {
+        this(timeWindow, timeUnit, (DoubleSupplier) widthSupplier::get);
+    }
+
+    public LinearTimeWindowProjector(TimeWindow<T> timeWindow, TemporalUnit timeUnit, DoubleSupplier widthSupplier) {
         this.timeWindow = timeWindow;
         this.temporalUnit = timeUnit;
         this.widthSupplier = widthSupplier;
+        Duration unitDuration = timeUnit.getDuration();
+        unitsPerDay = unitDuration.getSeconds() > 0 ? 86400d / (unitDuration.getSeconds() + unitDuration.getNano() / 1e9) : 86400e9 / unitDuration.getNano();
     }
 
-    @Override
-    public double timeToX(T time, boolean start, boolean exclusive) {
+    private boolean checkCoefficients() {
         T timeWindowStart = timeWindow.getTimeWindowStart();
         T timeWindowEnd = timeWindow.getTimeWindowEnd();
         if (timeWindowStart == null || timeWindowEnd == null)
+            return false;
+        width = widthSupplier.getAsDouble();
+        if (timeWindowStart != coefficientsStart || timeWindowEnd != coefficientsEnd) {
+            coefficientsStart = timeWindowStart;
+            coefficientsEnd = timeWindowEnd;
+            duration = TimeWindowUtil.getTimeWindowDuration(timeWindow, temporalUnit);
+            startEpochDay = computeEpochDay(timeWindowStart);
+        }
+        return true;
+    }
+
+    private static double computeEpochDay(Temporal time) {
+        if (time.isSupported(ChronoField.EPOCH_DAY))
+            return time.getLong(ChronoField.EPOCH_DAY)
+                + (time.isSupported(ChronoField.NANO_OF_DAY) ? time.getLong(ChronoField.NANO_OF_DAY) / 86400e9 : 0);
+        if (time.isSupported(ChronoField.INSTANT_SECONDS)) // ex: Instant
+            return (time.getLong(ChronoField.INSTANT_SECONDS) + (time.isSupported(ChronoField.NANO_OF_SECOND) ? time.getLong(ChronoField.NANO_OF_SECOND) / 1e9 : 0)) / 86400;
+        return Double.NaN;
+    }
+
+    @Override
+    public double timeToX(T time, boolean start, boolean exclusive) {
+        if (!checkCoefficients())
             return 0;
-        long duration = TimeWindowUtil.getTimeWindowDuration(timeWindow, temporalUnit);
-        long unitsUntilTime = timeWindowStart.until(time, temporalUnit);
+        long unitsUntilTime = coefficientsStart.until(time, temporalUnit);
         if (start && exclusive || !start && !exclusive)
             unitsUntilTime++;
-        double width = widthSupplier.get();
+        return unitsToX(unitsUntilTime);
+    }
+
+    private double unitsToX(double unitsUntilTime) {
         double x = width * unitsUntilTime / duration;
         x = Math.round(x);
         return x;
@@ -40,13 +81,49 @@ public class LinearTimeWindowProjector<T extends Temporal> implements TimeProjec
 
     @Override
     public T xToTime(double x) {
-        T timeWindowStart = timeWindow.getTimeWindowStart();
-        T timeWindowEnd = timeWindow.getTimeWindowEnd();
-        if (timeWindowStart == null || timeWindowEnd == null)
+        if (!checkCoefficients())
             return null;
-        long duration = TimeWindowUtil.getTimeWindowDuration(timeWindow, temporalUnit);
-        double width = widthSupplier.get();
-        return (T) timeWindowStart.plus((long) (x * duration / width), temporalUnit);
+        return (T) coefficientsStart.plus((long) (x * duration / width), temporalUnit);
+    }
+
+    // Primitive fast paths (no temporal object creation) for callers working with epoch days, such as canvas drawers.
+    // They are only fast if the time window temporal supports the epoch day or instant seconds fields (ex: LocalDate,
+    // LocalDateTime, Instant). Otherwise (ex: YearMonth), they fall back to the general path through temporal objects.
+
+    public double epochDayToX(long epochDay) {
+        return epochDayToX(epochDay, true, false);
+    }
+
+    public double epochDayToX(long epochDay, boolean start, boolean exclusive) {
+        if (!checkCoefficients())
+            return 0;
+        boolean endOfDay = start && exclusive || !start && !exclusive;
+        if (Double.isNaN(startEpochDay)) { // General path
+            long unitsUntilTime = coefficientsStart.until(LocalDate.ofEpochDay(epochDay), temporalUnit);
+            if (endOfDay)
+                unitsUntilTime++;
+            return unitsToX(unitsUntilTime);
+        }
+        double unitsUntilTime = Math.floor((epochDay - startEpochDay) * unitsPerDay);
+        if (endOfDay)
+            unitsUntilTime += unitsPerDay < 1 ? 1 : unitsPerDay; // end of that day (or of the temporal unit if bigger)
+        return unitsToX(unitsUntilTime);
+    }
+
+    public long xToEpochDay(double x) {
+        if (!checkCoefficients())
+            return 0;
+        if (Double.isNaN(startEpochDay)) // General path
+            return toEpochDay(xToTime(x));
+        return (long) Math.floor(startEpochDay + x * duration / width / unitsPerDay);
+    }
+
+    private static long toEpochDay(Temporal time) {
+        if (!time.isSupported(ChronoField.YEAR))
+            throw new UnsupportedTemporalTypeException("Can't convert " + time + " to epoch day");
+        return LocalDate.of(time.get(ChronoField.YEAR),
+            time.isSupported(ChronoField.MONTH_OF_YEAR) ? time.get(ChronoField.MONTH_OF_YEAR) : 1,
+            time.isSupported(ChronoField.DAY_OF_MONTH) ? time.get(ChronoField.DAY_OF_MONTH) : 1).toEpochDay();
     }
 
     public TemporalUnit getTemporalUnit() {
@@ -0,0 +1,75 @@
+package dev.webfx.extras.time.projector;
+
+import dev.webfx.extras.time.window.impl.TimeWindowImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the epoch day paths give the same x values as the temporal ones.
+ *
+ * @author Bruno Salmon
+ */
+class LinearTimeWindowProjectorTest {
+
+    private static <T extends Temporal> LinearTimeWindowProjector<T> newProjector(T start, T end, TemporalUnit unit, double width) {
+        TimeWindowImpl<T> timeWindow = new TimeWindowImpl<>();
+        timeWindow.setTimeWindowStart(start);
+        timeWindow.setTimeWindowEnd(end);
+        return new LinearTimeWindowProjector<>(timeWindow, unit, () -> width);
+    }
+
+    @Test
+    void epochDaysProjectLikeLocalDates() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LinearTimeWindowProjector<LocalDate> projector = newProjector(start, start.plusDays(40), ChronoUnit.DAYS, 1234);
+        for (LocalDate day = start.minusDays(10); day.isBefore(start.plusDays(60)); day = day.plusDays(1))
+            for (boolean startOfDay : new boolean[] {true, false})
+                for (boolean exclusive : new boolean[] {true, false})
+                    assertEquals(projector.timeToX(day, startOfDay, exclusive), projector.epochDayToX(day.toEpochDay(), startOfDay, exclusive), day.toString());
+        for (double x = 0; x < 1234; x += 7.5)
+            assertEquals(projector.xToTime(x).toEpochDay(), projector.xToEpochDay(x), "x = " + x);
+    }
+
+    @Test
+    void epochDaysProjectLikeLocalDateTimesAndInstants() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LinearTimeWindowProjector<LocalDateTime> projector = newProjector(start, start.plusDays(10), ChronoUnit.HOURS, 1000);
+        Instant instantStart = start.toInstant(ZoneOffset.UTC);
+        LinearTimeWindowProjector<Instant> instantProjector = newProjector(instantStart, instantStart.plus(10, ChronoUnit.DAYS), ChronoUnit.DAYS, 1000);
+        for (int i = 0; i < 15; i++) {
+            long epochDay = start.toLocalDate().toEpochDay() + i;
+            assertEquals(projector.timeToX(start.plusDays(i), true, false), projector.epochDayToX(epochDay));
+            assertEquals(instantProjector.timeToX(instantStart.plus(i, ChronoUnit.DAYS), true, false), instantProjector.epochDayToX(epochDay));
+        }
+        assertEquals(start.toLocalDate().toEpochDay() + 5, projector.xToEpochDay(500));
+        assertEquals(start.toLocalDate().toEpochDay() + 5, instantProjector.xToEpochDay(500));
+    }
+
+    @Test
+    void epochDaysFallBackToTheGeneralPathWithoutEpochDaySupport() {
+        YearMonth start = YearMonth.of(2024, 1);
+        LinearTimeWindowProjector<YearMonth> projector = newProjector(start, start.plusMonths(11), ChronoUnit.MONTHS, 1200);
+        LocalDate day = LocalDate.of(2024, 3, 15);
+        assertEquals(projector.timeToX(YearMonth.of(2024, 3), true, false), projector.epochDayToX(day.toEpochDay()));
+        assertEquals(projector.timeToX(YearMonth.of(2024, 3), false, false), projector.epochDayToX(day.toEpochDay(), false, false));
+        assertNotEquals(0, projector.epochDayToX(day.toEpochDay()));
+        assertEquals(LocalDate.of(2024, 3, 1).toEpochDay(), projector.xToEpochDay(projector.timeToX(YearMonth.of(2024, 3), true, false)));
+    }
+
+    @Test
+    void boxedWidthSupplierIsStillAccepted() {
+        TimeWindowImpl<LocalDate> timeWindow = new TimeWindowImpl<>();
+        timeWindow.setTimeWindowStart(LocalDate.of(2024, 1, 1));
+        timeWindow.setTimeWindowEnd(LocalDate.of(2024, 1, 10));
+        Supplier<Double> widthSupplier = () -> 100d;
+        LinearTimeWindowProjector<LocalDate> projector = new LinearTimeWindowProjector<>(timeWindow, ChronoUnit.DAYS, widthSupplier);
+        assertEquals(50, projector.timeToX(LocalDate.of(2024, 1, 6), true, false));
+    }
+}
@@ -3,6 +3,8 @@ package dev.webfx.extras.util;
 import dev.webfx.platform.scheduler.Scheduled;
 import dev.webfx.platform.uischeduler.UiScheduler;
 
+import java.util.function.Consumer;
+
 /**
  * This utility class offers a markAsDirty() method that will run the passed cleaner runnable in the next animation
  * frame. For performance optimisation, the cleaner will run only once even if many calls to markAsDirty() are made.
@@ -15,14 +17,28 @@ public final class DirtyMarker {
     private final Runnable cleaner;
 
     private Scheduled cleanerScheduled;
+    // Optional frame scheduler replacing UiScheduler (ex: to drive the animation frames from a test or a benchmark)
+    private Consumer<Runnable> frameScheduler;
+    private Object frameSchedulerToken; // identifies the cleaner scheduled with frameScheduler (null = none)
 
     public DirtyMarker(Runnable cleaner) {
         this.cleaner = cleaner;
     }
 
+    public void setFrameScheduler(Consumer<Runnable> frameScheduler) {
+        markAsClean();
+        this.frameScheduler = frameScheduler;
+    }
+
     public void markAsDirty() {
         if (!isDirty()) {
-            if (UiScheduler.isAnimationFrameNow())
+            if (frameScheduler != null) {
+                Object token = frameSchedulerToken = new Object();
+                frameScheduler.accept(() -> {
+                    if (frameSchedulerToken == token) // otherwise cleaned (or rescheduled) in the meantime
+                        runCleaner();
+                });
+            } else if (UiScheduler.isAnimationFrameNow())
                 runCleaner();
             else
                 cleanerScheduled = UiScheduler.scheduleInAnimationFrame(this::runCleaner);
@@ -35,10 +51,11 @@ public final class DirtyMarker {
     }
 
     public boolean isDirty() {
-        return cleanerScheduled != null;
+        return cleanerScheduled != null || frameSchedulerToken != null;
     }
 
     public void markAsClean() {
+        frameSchedulerToken = null;
         if (cleanerScheduled != null) {
             cleanerScheduled.cancel();
             cleanerScheduled = null;
@@ -0,0 +1,25 @@
+package dev.webfx.extras.util;
+
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+
+/**
+ * Utility methods to know if a node is in the viewport, i.e. in the visible area of its scene. This can be used to
+ * prioritize the work on the nodes the user can see (ex: loading their images or restyling them first).
+ *
+ * @author Bruno Salmon
+ */
+public final class ViewportUtil {
+
+    public static boolean isNodeInViewport(Node node) {
+        Scene scene = node == null ? null : node.getScene();
+        if (scene == null || !node.isVisible())
+            return false;
+        return isInViewport(node.localToScene(node.getLayoutBounds()), scene.getWidth(), scene.getHeight());
+    }
+
+    public static boolean isInViewport(Bounds sceneBounds, double viewportWidth, double viewportHeight) {
+        return sceneBounds.getMaxX() >= 0 && sceneBounds.getMinX() <= viewportWidth && sceneBounds.getMaxY() >= 0 && sceneBounds.getMinY() <= viewportHeight;
+    }
+}
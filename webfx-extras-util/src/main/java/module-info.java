@@ -4,6 +4,7 @@ module webfx.extras.util {
 
     // Direct dependencies modules
     requires javafx.base;
+    requires javafx.graphics;
     requires webfx.platform.scheduler;
     requires webfx.platform.uischeduler;
 
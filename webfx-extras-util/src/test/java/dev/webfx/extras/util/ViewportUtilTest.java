@@ -0,0 +1,28 @@
+package dev.webfx.extras.util;
+
+import javafx.geometry.BoundingBox;
+import javafx.scene.shape.Rectangle;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class ViewportUtilTest {
+
+    @Test
+    void boundsIntersectingTheViewportAreInTheViewport() {
+        assertTrue(ViewportUtil.isInViewport(new BoundingBox(10, 10, 20, 20), 100, 100));
+        assertTrue(ViewportUtil.isInViewport(new BoundingBox(-20, 90, 30, 30), 100, 100)); // partially visible
+        assertTrue(ViewportUtil.isInViewport(new BoundingBox(100, 0, 10, 10), 100, 100)); // touching the edge
+        assertFalse(ViewportUtil.isInViewport(new BoundingBox(101, 10, 10, 10), 100, 100));
+        assertFalse(ViewportUtil.isInViewport(new BoundingBox(10, -30, 10, 10), 100, 100)); // scrolled above
+    }
+
+    @Test
+    void nodesOutsideAnySceneAreNotInTheViewport() {
+        assertFalse(ViewportUtil.isNodeInViewport(null));
+        assertFalse(ViewportUtil.isNodeInViewport(new Rectangle(10, 10)));
+    }
+}
@@ -0,0 +1,58 @@
+package dev.webfx.extras.visual.controls;
+
+import dev.webfx.extras.visual.VisualSelection;
+import javafx.scene.Node;
+
+import java.util.function.IntFunction;
+
+/**
+ * Reflects the visual selection in the body rows with the "selected" style class. Only the rows whose selection state
+ * changed are touched, and the rows that are materialized or reused later (ex: virtualized grid or patched rows) are
+ * styled when set up.
+ *
+ * @author Bruno Salmon
+ */
+final class BodyRowSelectionStyler<ROW extends Node> {
+
+    private static final String SELECTED_STYLE_CLASS = "selected";
+
+    // Returns the body row of a row index, or null if that row is not materialized (ex: virtualized grid)
+    private final IntFunction<ROW> bodyRowGetter;
+    private VisualSelection appliedSelection; // The selection currently reflected in the body rows
+
+    BodyRowSelectionStyler(IntFunction<ROW> bodyRowGetter) {
+        this.bodyRowGetter = bodyRowGetter;
+    }
+
+    VisualSelection getAppliedSelection() {
+        return appliedSelection;
+    }
+
+    void applySelection(VisualSelection selection) {
+        VisualSelection oldSelection = appliedSelection;
+        appliedSelection = selection;
+        VisualSelection.forEachChangedRow(oldSelection, selection, rowIndex -> {
+            ROW bodyRow = bodyRowGetter.apply(rowIndex);
+            if (bodyRow != null)
+                bodyRow.getStyleClass().remove(SELECTED_STYLE_CLASS);
+        }, rowIndex -> {
+            ROW bodyRow = bodyRowGetter.apply(rowIndex);
+            if (bodyRow != null)
+                addSelectedStyleClass(bodyRow);
+        });
+    }
+
+    void styleBodyRow(ROW bodyRow, int rowIndex) {
+        if (appliedSelection != null && appliedSelection.isRowSelected(rowIndex))
+            addSelectedStyleClass(bodyRow);
+        else // the row may be reused from a previously selected row
+            bodyRow.getStyleClass().remove(SELECTED_STYLE_CLASS);
+    }
+
+    private static void addSelectedStyleClass(Node bodyRow) {
+        // Guarded because the row can be set up while already selected (ex: virtualized grid), and a single removal
+        // must then be enough to unselect it
+        if (!bodyRow.getStyleClass().contains(SELECTED_STYLE_CLASS))
+            bodyRow.getStyleClass().add(SELECTED_STYLE_CLASS);
+    }
+}
@@ -3,6 +3,7 @@ package dev.webfx.extras.visual.controls;
 import dev.webfx.kit.util.properties.FXProperties;
 import javafx.scene.Node;
 import dev.webfx.extras.visual.VisualResult;
+import dev.webfx.extras.visual.VisualResultRowMapping;
 import dev.webfx.extras.visual.VisualSelection;
 
 /**
@@ -15,19 +16,18 @@ public abstract class SelectableVisualResultControlSkinBase<C extends Selectable
         super(control, hasSpecialRenderingForImageAndText);
     }
 
+    // Note: getOrAddBodyRow() may return null for rows that are not materialized (ex: virtualized grid)
+    private final BodyRowSelectionStyler<ROW> selectionStyler = new BodyRowSelectionStyler<>(this::getOrAddBodyRow);
+
     @Override
     protected void start() {
         super.start();
-        updateVisualSelection(getSkinnable().getVisualSelection(), null);
-        FXProperties.runOnPropertyChange((o, oldValue, newValue) -> updateVisualSelection(newValue, oldValue)
-            , getSkinnable().visualSelectionProperty());
+        FXProperties.runNowAndOnPropertyChange(this::applyVisualSelection, getSkinnable().visualSelectionProperty());
     }
 
-    private void updateVisualSelection(VisualSelection selection, VisualSelection oldSelection) {
-        if (oldSelection != null)
-            oldSelection.forEachRow(rowIndex -> getOrAddBodyRow(rowIndex).getStyleClass().remove("selected"));
-        if (selection != null)
-            selection.forEachRow(rowIndex -> getOrAddBodyRow(rowIndex).getStyleClass().add("selected"));
+    private void applyVisualSelection(VisualSelection selection) {
+        // Touching only the rows whose selection state changed since the last applied selection
+        selectionStyler.applySelection(selection);
     }
 
     @Override
@@ -36,9 +36,25 @@ public abstract class SelectableVisualResultControlSkinBase<C extends Selectable
         super.updateResult(rs);
     }
 
+    @Override
+    protected void applyRowChanges(VisualResultRowMapping rowMapping) {
+        // Same order as in the grid peers: the rows are unselected before being patched (as their indexes may change),
+        // and the remapped selection is applied to the patched rows and then set to the control (which doesn't change
+        // the rows again, as that selection is already applied).
+        C control = getSkinnable();
+        VisualSelection selection = control.getVisualSelection();
+        applyVisualSelection(null);
+        super.applyRowChanges(rowMapping);
+        VisualSelection remappedSelection = rowMapping.remapSelection(selection);
+        applyVisualSelection(remappedSelection);
+        control.setVisualSelection(remappedSelection);
+    }
+
     @Override
     protected void setUpBodyRow(ROW bodyRow, int rowIndex) {
         super.setUpBodyRow(bodyRow, rowIndex);
+        // Rows can be materialized or reused after the selection has been applied (ex: virtualized grid or patched rows)
+        selectionStyler.styleBodyRow(bodyRow, rowIndex);
         bodyRow.setOnMouseClicked(e -> {
             C control = getSkinnable();
             VisualSelection visualSelection = control.getVisualSelection();
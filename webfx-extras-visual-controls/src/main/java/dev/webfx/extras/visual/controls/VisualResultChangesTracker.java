@@ -0,0 +1,74 @@
+package dev.webfx.extras.visual.controls;
+
+import dev.webfx.extras.visual.PatchableVisualResult;
+import dev.webfx.extras.visual.VisualResult;
+import dev.webfx.extras.visual.VisualResultChange;
+import dev.webfx.extras.visual.VisualResultRowMapping;
+import dev.webfx.kit.util.properties.FXProperties;
+import dev.webfx.kit.util.properties.Unregisterable;
+import dev.webfx.platform.uischeduler.UiScheduler;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Tracks the changes of the visual result displayed by a visual control when it's a patchable visual result. The
+ * changes made in the same animation frame are coalesced, and then passed to the rows applier as a row mapping. If the
+ * change log doesn't go back to the last applied version, the full rebuilder is called instead.
+ *
+ * @author Bruno Salmon
+ */
+public final class VisualResultChangesTracker {
+
+    private final Consumer<VisualResultRowMapping> rowsApplier;
+    private final Runnable fullRebuilder;
+    private PatchableVisualResult trackedRs;
+    private Unregisterable versionListener;
+    private int appliedVersion;
+    private boolean applyScheduled;
+
+    public VisualResultChangesTracker(Consumer<VisualResultRowMapping> rowsApplier, Runnable fullRebuilder) {
+        this.rowsApplier = rowsApplier;
+        this.fullRebuilder = fullRebuilder;
+    }
+
+    /**
+     * To be called when the control displays a (possibly new) visual result in full. The changes made from there will
+     * be passed to the rows applier.
+     */
+    public void onResultDisplayed(VisualResult rs) {
+        PatchableVisualResult patchableRs = rs instanceof PatchableVisualResult ? (PatchableVisualResult) rs : null;
+        if (patchableRs != trackedRs) {
+            if (versionListener != null)
+                versionListener.unregister();
+            trackedRs = patchableRs;
+            versionListener = patchableRs == null ? null : FXProperties.runOnPropertyChange(this::scheduleApply, patchableRs.versionProperty());
+        }
+        if (patchableRs != null)
+            appliedVersion = patchableRs.getVersion();
+    }
+
+    private void scheduleApply() {
+        if (!applyScheduled) {
+            applyScheduled = true;
+            UiScheduler.scheduleInAnimationFrame(this::applyChanges);
+        }
+    }
+
+    private void applyChanges() {
+        applyScheduled = false;
+        PatchableVisualResult rs = trackedRs;
+        if (rs == null)
+            return;
+        int version = rs.getVersion();
+        if (version == appliedVersion)
+            return;
+        List<VisualResultChange> changes = rs.getChangesSince(appliedVersion);
+        VisualResultRowMapping rowMapping = changes == null ? null : VisualResultRowMapping.replay(rs.getRowCount(), changes);
+        appliedVersion = version;
+        if (rowMapping != null)
+            rowsApplier.accept(rowMapping);
+        else
+            fullRebuilder.run();
+    }
+}
@@ -7,8 +7,10 @@ import dev.webfx.extras.cell.renderer.ImageRenderer;
 import dev.webfx.extras.cell.renderer.ImageTextRenderer;
 import dev.webfx.extras.cell.renderer.TextRenderer;
 import dev.webfx.extras.cell.renderer.ValueRenderer;
+import dev.webfx.extras.cell.rowstyle.RowStyleCache;
 import dev.webfx.extras.visual.VisualColumn;
 import dev.webfx.extras.visual.VisualResult;
+import dev.webfx.extras.visual.VisualResultRowMapping;
 import dev.webfx.extras.label.Label;
 import dev.webfx.kit.util.properties.FXProperties;
 import dev.webfx.platform.uischeduler.UiScheduler;
@@ -29,6 +31,10 @@ public abstract class VisualResultControlSkinBase<C extends VisualResultControl,
     private int gridColumnCount;
     private int rowStyleColumnIndex;
     private int rowBackgroundColumnIndex;
+    private int rowKeyColumnIndex;
+    // Applies the row changes of a patchable visual result (see PatchableVisualResult)
+    private final VisualResultChangesTracker changesTracker = new VisualResultChangesTracker(this::applyRowChanges, this::buildGrid);
+    private RowStyleCache rowStyleCache = new RowStyleCache();
 
     protected void start() {
         FXProperties.runNowAndOnPropertyChange(this::updateResult, getSkinnable().visualResultProperty());
@@ -40,12 +46,26 @@ public abstract class VisualResultControlSkinBase<C extends VisualResultControl,
     }
 
     protected void buildGrid() {
+        changesTracker.onResultDisplayed(rs);
         startBuildingGrid();
         computeGridSizeAndSetUpColumns();
         buildRows();
         endBuildingGrid();
     }
 
+    protected void applyRowChanges(VisualResultRowMapping rowMapping) {
+        if (!patchBodyRows(rowMapping))
+            buildGrid();
+    }
+
+    /**
+     * Can be overridden to apply only the changed rows of a patchable visual result (the visual result already contains
+     * the changes). Returns false if not supported, in which case the whole grid is rebuilt.
+     */
+    protected boolean patchBodyRows(VisualResultRowMapping rowMapping) {
+        return false;
+    }
+
     protected void buildRows() {
         if (rs != null) {
             int rowCount = rs.getRowCount();
@@ -128,7 +148,7 @@ public abstract class VisualResultControlSkinBase<C extends VisualResultControl,
     }
 
     private void computeGridSize(boolean setUpGridColumns) {
-        rowStyleColumnIndex = rowBackgroundColumnIndex = -1;
+        rowStyleColumnIndex = rowBackgroundColumnIndex = rowKeyColumnIndex = -1;
         gridColumnCount = 0;
         if (rs == null)
             return;
@@ -145,6 +165,8 @@ public abstract class VisualResultControlSkinBase<C extends VisualResultControl,
                 rowStyleColumnIndex = columnIndex;
             else if (role.equals("background"))
                 rowBackgroundColumnIndex = columnIndex;
+            else if (role.equals("key")) // identifies the rows (see VisualResultRowsPatcher)
+                rowKeyColumnIndex = columnIndex;
         }
         gridColumnCount = gridColumnIndex;
     }
@@ -180,7 +202,12 @@ public abstract class VisualResultControlSkinBase<C extends VisualResultControl,
                 return;
             }
         }
-        setCellContent(cell, valueRenderer.renderValue(cellValue, visualColumn.getValueRenderingContext()), visualColumn);
+        setCellContent(cell, renderCellValue(cellValue, visualColumn, valueRenderer), visualColumn);
+    }
+
+    // Can be overridden to reuse the nodes of a previous rendering (see ValueRendererNodePool)
+    protected Node renderCellValue(Object cellValue, VisualColumn visualColumn, ValueRenderer valueRenderer) {
+        return valueRenderer.renderValue(cellValue, visualColumn.getValueRenderingContext());
     }
 
 
@@ -192,8 +219,12 @@ public abstract class VisualResultControlSkinBase<C extends VisualResultControl,
         return rowBackgroundColumnIndex;
     }
 
+    public int getRowKeyColumnIndex() {
+        return rowKeyColumnIndex;
+    }
+
     public boolean isDataColumn(int columnIndex) {
-        return columnIndex != rowStyleColumnIndex && columnIndex != rowBackgroundColumnIndex;
+        return columnIndex != rowStyleColumnIndex && columnIndex != rowBackgroundColumnIndex && columnIndex != rowKeyColumnIndex;
     }
 
     public int gridColumnIndexToResultColumnIndex(int gridColumnIndex, int rowStyleColumnIndex) {
@@ -212,15 +243,7 @@ public abstract class VisualResultControlSkinBase<C extends VisualResultControl,
     }
 
     public Paint getRowBackground(Object value) {
-        if (value instanceof String) {
-            Paint paint = Paint.valueOf(value.toString());
-            if (paint instanceof Color) {
-                Color color = (Color) paint;
-                paint = new LinearGradient(0, 0, 0, 1, true, CycleMethod.NO_CYCLE, new Stop(0, color.deriveColor(0, 1.0, 1.2, 1.0)), new Stop(1, color.deriveColor(0, 1.0, 0.8, 1.0)));
-            }
-            return paint;
-        }
-        return null;
+        return rowStyleCache.getBackgroundPaint(value);
     }
 
     public Paint getRowBackground(Integer rowIndex) {
@@ -238,23 +261,21 @@ public abstract class VisualResultControlSkinBase<C extends VisualResultControl,
     }
 
     public Object[] getRowStyleClasses(Object value) {
-        if (!(value instanceof Object[]))
-            return null;
-        return (Object[]) value;
+        return rowStyleCache.getStyleClasses(value);
     }
 
     public String getRowStyle(int rowIndex) {
-        Object[] styleClasses = getRowStyleClasses(rowIndex);
-        if (styleClasses == null)
-            return null;
-        StringBuilder sb = new StringBuilder();
-        for (Object styleClass : styleClasses) {
-            if (styleClass != null) {
-                if (sb.length() > 0)
-                    sb.append(' ');
-                sb.append(styleClass);
-            }
-        }
-        return sb.toString().trim();
+        return rowStyleCache.getStyle(getRowStyleResultValue(rowIndex));
+    }
+
+    public RowStyleCache getRowStyleCache() {
+        return rowStyleCache;
+    }
+
+    /**
+     * Replaces the row style cache of this grid, for example to share one cache between several grids.
+     */
+    public void setRowStyleCache(RowStyleCache rowStyleCache) {
+        this.rowStyleCache = rowStyleCache;
     }
 }
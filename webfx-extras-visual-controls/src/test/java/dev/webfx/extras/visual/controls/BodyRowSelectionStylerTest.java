@@ -0,0 +1,119 @@
+package dev.webfx.extras.visual.controls;
+
+import dev.webfx.extras.visual.VisualSelection;
+import javafx.scene.layout.Pane;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the selection styling of body rows that are materialized on demand and recycled while scrolling (as in a
+ * virtualized grid).
+ *
+ * @author Bruno Salmon
+ */
+class BodyRowSelectionStylerTest {
+
+    // Body rows materialized only for a window of row indexes, reusing the panes of the rows leaving the window for the
+    // rows entering it (and setting them up as the skins do)
+    private static final class RowWindow {
+        private final Map<Integer, Pane> materializedRows = new HashMap<>();
+        private final List<Pane> recycledRows = new ArrayList<>();
+        private final BodyRowSelectionStyler<Pane> styler = new BodyRowSelectionStyler<>(materializedRows::get);
+        private int firstRow, lastRow; // The materialized rows are [firstRow, lastRow)
+        private int createdRowCount;
+
+        RowWindow(int firstRow, int lastRow) {
+            scrollTo(firstRow, lastRow);
+        }
+
+        void scrollTo(int firstRow, int lastRow) {
+            for (int rowIndex = this.firstRow; rowIndex < this.lastRow; rowIndex++)
+                if (rowIndex < firstRow || rowIndex >= lastRow)
+                    recycledRows.add(materializedRows.remove(rowIndex));
+            for (int rowIndex = firstRow; rowIndex < lastRow; rowIndex++)
+                if (!materializedRows.containsKey(rowIndex)) {
+                    Pane bodyRow;
+                    if (!recycledRows.isEmpty())
+                        bodyRow = recycledRows.remove(recycledRows.size() - 1);
+                    else {
+                        bodyRow = new Pane();
+                        createdRowCount++;
+                    }
+                    materializedRows.put(rowIndex, bodyRow);
+                    styler.styleBodyRow(bodyRow, rowIndex);
+                }
+            this.firstRow = firstRow;
+            this.lastRow = lastRow;
+        }
+
+        // Checks that each materialized row has the "selected" style class once if selected, and not at all otherwise
+        void assertSelectedRows(int... selectedRows) {
+            assertEquals(lastRow - firstRow, materializedRows.size());
+            for (int rowIndex = firstRow; rowIndex < lastRow; rowIndex++) {
+                boolean selected = false;
+                for (int selectedRow : selectedRows)
+                    selected |= selectedRow == rowIndex;
+                int count = 0;
+                for (String styleClass : materializedRows.get(rowIndex).getStyleClass())
+                    if (styleClass.equals("selected"))
+                        count++;
+                assertEquals(selected ? 1 : 0, count, "row " + rowIndex);
+            }
+        }
+    }
+
+    @Test
+    void selectionIsStyledOnTheMaterializedRowsOnly() {
+        RowWindow window = new RowWindow(0, 10);
+        window.styler.applySelection(VisualSelection.createRowsSelection(new int[] {2, 5, 50}));
+        window.assertSelectedRows(2, 5);
+        assertNull(window.materializedRows.get(50));
+    }
+
+    @Test
+    void recycledRowsAreStyledWithTheSelectionOfTheirNewRow() {
+        RowWindow window = new RowWindow(0, 10);
+        window.styler.applySelection(VisualSelection.createRowsSelection(new int[] {2, 5, 50}));
+        // Scrolling by a few rows, and then by a whole window (so the selected row panes are reused for other rows)
+        window.scrollTo(3, 13);
+        window.assertSelectedRows(5);
+        window.scrollTo(45, 55);
+        window.assertSelectedRows(50);
+        window.scrollTo(0, 10);
+        window.assertSelectedRows(2, 5);
+        assertEquals(10, window.createdRowCount); // only the panes of the first window were created
+    }
+
+    @Test
+    void selectionChangesAreAppliedOnceToTheMaterializedRows() {
+        RowWindow window = new RowWindow(0, 10);
+        BodyRowSelectionStyler<Pane> styler = window.styler;
+        styler.applySelection(VisualSelection.createSingleRowSelection(3));
+        styler.applySelection(VisualSelection.createRowsSelection(new int[] {3, 4}));
+        window.assertSelectedRows(3, 4);
+        styler.applySelection(VisualSelection.createRowRangeSelection(4, 60));
+        window.assertSelectedRows(4, 5, 6, 7, 8, 9);
+        window.scrollTo(55, 65);
+        window.assertSelectedRows(55, 56, 57, 58, 59, 60);
+        styler.applySelection(null);
+        window.assertSelectedRows();
+        assertNull(styler.getAppliedSelection());
+    }
+
+    @Test
+    void rowSetUpWhileAlreadySelectedIsNotStyledTwice() {
+        RowWindow window = new RowWindow(0, 10);
+        window.styler.applySelection(VisualSelection.createSingleRowSelection(1));
+        Pane bodyRow = window.materializedRows.get(1);
+        window.styler.styleBodyRow(bodyRow, 1); // ex: the row is set up again after a patch
+        window.assertSelectedRows(1);
+        window.styler.applySelection(null); // a single removal unselects it
+        window.assertSelectedRows();
+    }
+}
@@ -1,14 +1,19 @@
 package dev.webfx.extras.visual.controls.grid.peers.base;
 
 import javafx.beans.value.ObservableValue;
+import javafx.scene.Node;
 import javafx.scene.paint.*;
 import dev.webfx.extras.cell.renderer.ImageTextRenderer;
 import dev.webfx.extras.cell.renderer.TextRenderer;
 import dev.webfx.extras.cell.renderer.ValueRenderer;
+import dev.webfx.extras.cell.renderer.ValueRendererNodePool;
+import dev.webfx.extras.cell.rowstyle.RowStyleCache;
+import dev.webfx.extras.visual.controls.VisualResultChangesTracker;
 import dev.webfx.extras.visual.controls.grid.VisualGrid;
 import dev.webfx.extras.visual.controls.peers.base.SelectableVisualResultControlPeerBase;
 import dev.webfx.extras.visual.VisualColumn;
 import dev.webfx.extras.visual.VisualResult;
+import dev.webfx.extras.visual.VisualResultRowMapping;
 import dev.webfx.kit.mapper.peers.javafxgraphics.SceneRequester;
 import dev.webfx.platform.util.Strings;
 
@@ -22,9 +27,14 @@ public class VisualGridPeerBase
 
     private int rowStyleColumnIndex;
     private int rowBackgroundColumnIndex;
+    private int rowKeyColumnIndex;
     private int gridColumnCount;
     private VisualResult rs;
     private VisualGridPeerImageTextMixin<C, N, NB, NM> imageTextMixin;
+    private final ValueRendererNodePool cellNodePool = new ValueRendererNodePool();
+    // Applies the row changes of a patchable visual result (see PatchableVisualResult)
+    private final VisualResultChangesTracker changesTracker = new VisualResultChangesTracker(this::applyRowChanges, () -> mixin.updateVisualResult(rs));
+    private RowStyleCache rowStyleCache = new RowStyleCache();
 
     @Override
     public void bind(N shape, SceneRequester sceneRequester) {
@@ -70,7 +80,8 @@ public class VisualGridPeerBase
 
 
     public void fillGrid(boolean init) {
-        rowStyleColumnIndex = rowBackgroundColumnIndex = -1;
+        changesTracker.onResultDisplayed(rs);
+        rowStyleColumnIndex = rowBackgroundColumnIndex = rowKeyColumnIndex = -1;
         gridColumnCount = 0;
         if (rs == null)
             return;
@@ -88,10 +99,18 @@ public class VisualGridPeerBase
                 rowStyleColumnIndex = columnIndex;
             else if (role.equals("background"))
                 rowBackgroundColumnIndex = columnIndex;
+            else if (role.equals("key")) // identifies the rows (see VisualResultRowsPatcher)
+                rowKeyColumnIndex = columnIndex;
         }
         gridColumnCount = gridColumnIndex;
     }
 
+    private void applyRowChanges(VisualResultRowMapping rowMapping) {
+        mixin.updateVisualResultRows(rowMapping);
+        // Keeping the same rows selected (their indexes may have changed)
+        node.setVisualSelection(rowMapping.remapSelection(node.getVisualSelection()));
+    }
+
     public void fillCell(C cell, int rowIndex, int rsColumnIndex) {
         fillCell(cell, rowIndex, rsColumnIndex, rs.getColumns()[rsColumnIndex]);
     }
@@ -117,7 +136,18 @@ public class VisualGridPeerBase
                 return;
             }
         }
-        mixin.setCellContent(cell, valueRenderer.renderValue(cellValue, visualColumn.getValueRenderingContext()), visualColumn);
+        mixin.setCellContent(cell, cellNodePool.renderValue(valueRenderer, cellValue, visualColumn.getValueRenderingContext()), visualColumn);
+    }
+
+    /**
+     * To be called by the peers when a cell content (rendered by fillCell()) is discarded, so it can be reused by a
+     * next cell rendering.
+     */
+    public void recycleCellContent(Node content, VisualColumn visualColumn) {
+        ValueRenderer valueRenderer = visualColumn.getValueRenderer();
+        // The text and image-text columns don't produce a content node when the peer has a special rendering for them
+        if (imageTextMixin == null || valueRenderer != TextRenderer.SINGLETON && valueRenderer != ImageTextRenderer.SINGLETON)
+            cellNodePool.recycle(valueRenderer, content);
     }
 
     public int getRowStyleColumnIndex() {
@@ -128,8 +158,12 @@ public class VisualGridPeerBase
         return rowBackgroundColumnIndex;
     }
 
+    public int getRowKeyColumnIndex() {
+        return rowKeyColumnIndex;
+    }
+
     public boolean isDataColumn(int columnIndex) {
-        return columnIndex != rowStyleColumnIndex && columnIndex != rowBackgroundColumnIndex;
+        return columnIndex != rowStyleColumnIndex && columnIndex != rowBackgroundColumnIndex && columnIndex != rowKeyColumnIndex;
     }
 
     public int gridColumnIndexToResultColumnIndex(int gridColumnIndex, int rowStyleColumnIndex) {
@@ -148,15 +182,7 @@ public class VisualGridPeerBase
     }
 
     public Paint getRowBackground(Object value) {
-        if (value instanceof String) {
-            Paint paint = Paint.valueOf(value.toString());
-            if (paint instanceof Color) {
-                Color color = (Color) paint;
-                paint = new LinearGradient(0, 0, 0, 1, true, CycleMethod.NO_CYCLE, new Stop(0, color.deriveColor(0, 1.0, 1.2, 1.0)), new Stop(1, color.deriveColor(0, 1.0, 0.8, 1.0)));
-            }
-            return paint;
-        }
-        return null;
+        return rowStyleCache.getBackgroundPaint(value);
     }
 
     public Paint getRowBackground(int rowIndex) {
@@ -174,23 +200,21 @@ public class VisualGridPeerBase
     }
 
     public Object[] getRowStyleClasses(Object value) {
-        if (!(value instanceof Object[]))
-            return null;
-        return (Object[]) value;
+        return rowStyleCache.getStyleClasses(value);
     }
 
     public String getRowStyle(int rowIndex) {
-        Object[] styleClasses = getRowStyleClasses(rowIndex);
-        if (styleClasses == null)
-            return null;
-        StringBuilder sb = new StringBuilder();
-        for (Object styleClass : styleClasses) {
-            if (styleClass != null) {
-                if (sb.length() > 0)
-                    sb.append(' ');
-                sb.append(styleClass);
-            }
-        }
-        return sb.toString().trim();
+        return rowStyleCache.getStyle(getRowStyleResultValue(rowIndex));
+    }
+
+    public RowStyleCache getRowStyleCache() {
+        return rowStyleCache;
+    }
+
+    /**
+     * Replaces the row style cache of this grid, for example to share one cache between several grids.
+     */
+    public void setRowStyleCache(RowStyleCache rowStyleCache) {
+        this.rowStyleCache = rowStyleCache;
     }
 }
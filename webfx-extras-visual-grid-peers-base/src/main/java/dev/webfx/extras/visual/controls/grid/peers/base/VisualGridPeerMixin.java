@@ -4,6 +4,7 @@ import javafx.scene.Node;
 import dev.webfx.extras.visual.controls.grid.VisualGrid;
 import dev.webfx.extras.visual.controls.peers.base.SelectableVisualResultControlPeerMixin;
 import dev.webfx.extras.visual.VisualColumn;
+import dev.webfx.extras.visual.VisualResultRowMapping;
 
 /**
  * @author Bruno Salmon
@@ -21,4 +22,13 @@ public interface VisualGridPeerMixin
 
     void setCellContent(C cell, Node content, VisualColumn visualColumn);
 
+    /**
+     * Called when the rows of the displayed patchable visual result changed (it already contains the changes). The
+     * default implementation updates the whole visual result. Note: the peer should apply the visual selection remapped
+     * by rowMapping to its rows, as the visual selection property will be set to it only afterwards.
+     */
+    default void updateVisualResultRows(VisualResultRowMapping rowMapping) {
+        updateVisualResult(getNodePeerBase().getRs());
+    }
+
 }
@@ -0,0 +1,262 @@
+package dev.webfx.extras.visual.controls.grid.peers.base;
+
+import dev.webfx.extras.label.Label;
+import dev.webfx.extras.visual.VisualColumn;
+import dev.webfx.extras.visual.VisualResult;
+import dev.webfx.extras.visual.VisualResultRowMapping;
+import dev.webfx.extras.visual.VisualStyle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keyed diff between the previous and the new visual result displayed by a grid peer. Instead of rebuilding all rows,
+ * it emits the minimal row operations (removes, inserts, moves and value updates) to a platform-specific target (ex:
+ * the html table rows). The row identity is given by the column having the "key" role, or by the whole row content if
+ * there is no such column. This class doesn't depend on any platform, so it can be run on the JVM with a fake target.
+ *
+ * @author Bruno Salmon
+ */
+public final class VisualResultRowsPatcher<R> {
+
+    public interface Target<R> {
+
+        R insertRow(int rowIndex, R beforeRow); // beforeRow = null means at the end
+
+        void moveRow(R row, R beforeRow); // beforeRow = null means at the end
+
+        void removeRow(R row);
+
+        void updateRowValue(R row, int rowIndex, int columnIndex);
+
+    }
+
+    private VisualResult rs;
+    private final List<R> rows = new ArrayList<>();
+
+    public List<R> getRows() {
+        return rows;
+    }
+
+    public void reset() {
+        rs = null;
+        rows.clear();
+    }
+
+    /**
+     * Applies the operations to the target to go from the previous result to the new one. Note: the previous and new
+     * results are supposed to have the same columns (see haveSameColumns()), otherwise the caller should reset() this
+     * patcher and clear the target before.
+     */
+    public void patch(VisualResult newRs, Target<R> target) {
+        VisualResult oldRs = rs;
+        int oldRowCount = oldRs == null ? 0 : oldRs.getRowCount();
+        int newRowCount = newRs == null ? 0 : newRs.getRowCount();
+        // 1) Matching the new rows with the old rows by key
+        int[] oldIndexes = new int[newRowCount]; // old index of each new row, -1 if not matched
+        boolean[] matchedOldRows = new boolean[oldRowCount];
+        if (oldRowCount > 0 && newRowCount > 0) {
+            int oldKeyColumnIndex = getKeyColumnIndex(oldRs);
+            Map<Object, Integer> firstOldIndexByKey = new HashMap<>(2 * oldRowCount);
+            int[] nextOldIndexWithSameKey = new int[oldRowCount];
+            for (int oldIndex = oldRowCount - 1; oldIndex >= 0; oldIndex--) {
+                Integer next = firstOldIndexByKey.put(getRowKey(oldRs, oldIndex, oldKeyColumnIndex), oldIndex);
+                nextOldIndexWithSameKey[oldIndex] = next == null ? -1 : next;
+            }
+            int newKeyColumnIndex = getKeyColumnIndex(newRs);
+            for (int newIndex = 0; newIndex < newRowCount; newIndex++) {
+                Object key = getRowKey(newRs, newIndex, newKeyColumnIndex);
+                Integer oldIndex = firstOldIndexByKey.get(key);
+                if (oldIndex == null)
+                    oldIndexes[newIndex] = -1;
+                else {
+                    oldIndexes[newIndex] = oldIndex;
+                    matchedOldRows[oldIndex] = true;
+                    int next = nextOldIndexWithSameKey[oldIndex];
+                    if (next < 0)
+                        firstOldIndexByKey.remove(key);
+                    else
+                        firstOldIndexByKey.put(key, next);
+                }
+            }
+        } else
+            Arrays.fill(oldIndexes, -1);
+        applyRowOperations(oldRs, newRs, oldIndexes, matchedOldRows, null, target);
+    }
+
+    /**
+     * Applies the operations to the target to go from the previous version of a patchable visual result to its current
+     * version, as described by the row mapping (so no value comparison is needed, and the updated rows are rendered
+     * again). Note: the patchable visual result is supposed to be the one passed on the previous patch() call.
+     */
+    public void patch(VisualResult patchableRs, VisualResultRowMapping rowMapping, Target<R> target) {
+        int oldRowCount = rowMapping.getOldRowCount(), newRowCount = rowMapping.getRowCount();
+        if (oldRowCount != rows.size()) { // Shouldn't happen, but if so we rebuild all rows
+            for (R row : rows)
+                target.removeRow(row);
+            rows.clear();
+            oldRowCount = 0;
+        }
+        int[] oldIndexes = new int[newRowCount];
+        boolean[] matchedOldRows = new boolean[oldRowCount];
+        boolean[] updatedNewRows = new boolean[newRowCount];
+        for (int newIndex = 0; newIndex < newRowCount; newIndex++) {
+            int oldIndex = oldRowCount == 0 ? -1 : rowMapping.getOldRowIndex(newIndex);
+            oldIndexes[newIndex] = oldIndex;
+            if (oldIndex >= 0) {
+                matchedOldRows[oldIndex] = true;
+                updatedNewRows[newIndex] = rowMapping.isRowChanged(newIndex);
+            }
+        }
+        applyRowOperations(null, patchableRs, oldIndexes, matchedOldRows, updatedNewRows, target);
+    }
+
+    // updatedNewRows = null means that the updated values are found by comparing the old and new results
+    private void applyRowOperations(VisualResult oldRs, VisualResult newRs, int[] oldIndexes, boolean[] matchedOldRows, boolean[] updatedNewRows, Target<R> target) {
+        int oldRowCount = matchedOldRows.length, newRowCount = oldIndexes.length;
+        // 2) Removing the old rows that are not in the new result
+        for (int oldIndex = 0; oldIndex < oldRowCount; oldIndex++)
+            if (!matchedOldRows[oldIndex])
+                target.removeRow(rows.get(oldIndex));
+        // 3) Inserting, moving and updating the rows (from last to first, so we always know the row that follows).
+        // The matched rows that are part of the longest increasing subsequence of old indexes don't need to be moved.
+        boolean[] stableNewRows = computeLongestIncreasingSubsequence(oldIndexes);
+        List<R> newRows = new ArrayList<>(Collections.nCopies(newRowCount, null));
+        R nextRow = null;
+        int columnCount = newRs == null ? 0 : newRs.getColumnCount();
+        for (int newIndex = newRowCount - 1; newIndex >= 0; newIndex--) {
+            int oldIndex = oldIndexes[newIndex];
+            R row;
+            if (oldIndex < 0)
+                row = target.insertRow(newIndex, nextRow);
+            else {
+                row = rows.get(oldIndex);
+                if (!stableNewRows[newIndex])
+                    target.moveRow(row, nextRow);
+                if (updatedNewRows == null) {
+                    for (int columnIndex = 0; columnIndex < columnCount; columnIndex++)
+                        if (!Objects.deepEquals(oldRs.getValue(oldIndex, columnIndex), newRs.getValue(newIndex, columnIndex)))
+                            target.updateRowValue(row, newIndex, columnIndex);
+                } else if (updatedNewRows[newIndex]) {
+                    for (int columnIndex = 0; columnIndex < columnCount; columnIndex++)
+                        target.updateRowValue(row, newIndex, columnIndex);
+                }
+            }
+            newRows.set(newIndex, row);
+            nextRow = row;
+        }
+        rows.clear();
+        rows.addAll(newRows);
+        rs = newRs;
+    }
+
+    public static boolean haveSameColumns(VisualResult rs1, VisualResult rs2) {
+        if (rs1 == null || rs2 == null)
+            return rs1 == rs2;
+        VisualColumn[] columns1 = rs1.getColumns(), columns2 = rs2.getColumns();
+        if (columns1.length != columns2.length)
+            return false;
+        for (int i = 0; i < columns1.length; i++) {
+            VisualColumn c1 = columns1[i], c2 = columns2[i];
+            if (c1 != c2 && !haveSameColumn(c1, c2))
+                return false;
+        }
+        return true;
+    }
+
+    // Compares everything that affects the header or the rendering of the cells
+    private static boolean haveSameColumn(VisualColumn c1, VisualColumn c2) {
+        return Objects.equals(c1.getRole(), c2.getRole())
+               && Objects.equals(c1.getType(), c2.getType())
+               && Objects.equals(c1.getHeaderValue(), c2.getHeaderValue())
+               && haveSameLabel(c1.getLabel(), c2.getLabel())
+               && haveSameStyle(c1.getStyle(), c2.getStyle())
+               // The default renderers are singletons (except for arrays), so the identity is enough to detect a different
+               // rendering (a different instance of an equivalent renderer just causes an unnecessary rebuild)
+               && c1.getValueRenderer() == c2.getValueRenderer();
+    }
+
+    private static boolean haveSameLabel(Label label1, Label label2) {
+        if (label1 == null || label2 == null)
+            return label1 == label2;
+        return Objects.equals(label1.getText(), label2.getText()) && Objects.equals(label1.getCode(), label2.getCode()) && Objects.equals(label1.getIconPath(), label2.getIconPath());
+    }
+
+    private static boolean haveSameStyle(VisualStyle style1, VisualStyle style2) {
+        if (style1 == null || style2 == null)
+            return style1 == style2;
+        return Objects.equals(style1.getPrefWidth(), style2.getPrefWidth()) && Objects.equals(style1.getTextAlign(), style2.getTextAlign());
+    }
+
+    private static int getKeyColumnIndex(VisualResult rs) {
+        VisualColumn[] columns = rs.getColumns();
+        for (int columnIndex = 0; columnIndex < columns.length; columnIndex++)
+            if ("key".equals(columns[columnIndex].getRole()))
+                return columnIndex;
+        return -1;
+    }
+
+    private static Object getRowKey(VisualResult rs, int rowIndex, int keyColumnIndex) {
+        if (keyColumnIndex >= 0)
+            return rs.getValue(rowIndex, keyColumnIndex);
+        int columnCount = rs.getColumnCount();
+        Object[] values = new Object[columnCount];
+        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++)
+            values[columnIndex] = rs.getValue(rowIndex, columnIndex);
+        return new RowContentKey(values);
+    }
+
+    private static final class RowContentKey {
+        private final Object[] values;
+        private final int hashCode;
+
+        RowContentKey(Object[] values) {
+            this.values = values;
+            hashCode = Arrays.deepHashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RowContentKey && Arrays.deepEquals(values, ((RowContentKey) o).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    // Returns the positions of a longest increasing subsequence of the non-negative values (O(n log n))
+    private static boolean[] computeLongestIncreasingSubsequence(int[] values) {
+        int n = values.length;
+        boolean[] inSubsequence = new boolean[n];
+        int[] tailPositions = new int[n]; // tailPositions[k] = position of the smallest tail of a subsequence of length k+1
+        int[] predecessors = new int[n];
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            int value = values[i];
+            if (value < 0)
+                continue;
+            int low = 0, high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[tailPositions[middle]] < value)
+                    low = middle + 1;
+                else
+                    high = middle;
+            }
+            predecessors[i] = low > 0 ? tailPositions[low - 1] : -1;
+            tailPositions[low] = i;
+            if (low == length)
+                length++;
+        }
+        for (int i = length > 0 ? tailPositions[length - 1] : -1; i >= 0; i = predecessors[i])
+            inSubsequence[i] = true;
+        return inSubsequence;
+    }
+}
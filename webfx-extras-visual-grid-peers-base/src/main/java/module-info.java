@@ -7,7 +7,9 @@ module webfx.extras.visual.grid.peers.base {
     requires javafx.controls;
     requires javafx.graphics;
     requires webfx.extras.cell;
+    requires webfx.extras.label;
     requires webfx.extras.visual;
+    requires webfx.extras.visual.controls;
     requires webfx.extras.visual.grid;
     requires webfx.extras.visual.peers.base;
     requires webfx.kit.javafxgraphics.peers;
@@ -0,0 +1,105 @@
+package dev.webfx.extras.visual.controls.grid.peers.base;
+
+import dev.webfx.extras.visual.VisualResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fake DOM table used as VisualResultRowsPatcher target: a list of row elements holding the cell texts, that also counts
+ * the DOM operations it receives.
+ *
+ * @author Bruno Salmon
+ */
+final class FakeDomTable implements VisualResultRowsPatcher.Target<FakeDomTable.Row> {
+
+    static final class Row {
+        final String[] cellTexts;
+
+        Row(int columnCount) {
+            cellTexts = new String[columnCount];
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(cellTexts);
+        }
+    }
+
+    final List<Row> rows = new ArrayList<>();
+    VisualResult rs; // the result the patcher is currently applying
+    int insertCount, moveCount, removeCount, updateCount;
+
+    void resetCounts() {
+        insertCount = moveCount = removeCount = updateCount = 0;
+    }
+
+    @Override
+    public Row insertRow(int rowIndex, Row beforeRow) {
+        Row row = new Row(rs.getColumnCount());
+        for (int columnIndex = 0; columnIndex < rs.getColumnCount(); columnIndex++)
+            row.cellTexts[columnIndex] = String.valueOf(rs.getValue(rowIndex, columnIndex));
+        insertBefore(row, beforeRow);
+        insertCount++;
+        return row;
+    }
+
+    @Override
+    public void moveRow(Row row, Row beforeRow) {
+        if (!rows.remove(row))
+            throw new IllegalStateException("Moving a row that is not in the table");
+        insertBefore(row, beforeRow);
+        moveCount++;
+    }
+
+    @Override
+    public void removeRow(Row row) {
+        if (!rows.remove(row))
+            throw new IllegalStateException("Removing a row that is not in the table");
+        removeCount++;
+    }
+
+    @Override
+    public void updateRowValue(Row row, int rowIndex, int columnIndex) {
+        if (!rows.contains(row))
+            throw new IllegalStateException("Updating a row that is not in the table");
+        row.cellTexts[columnIndex] = String.valueOf(rs.getValue(rowIndex, columnIndex));
+        updateCount++;
+    }
+
+    private void insertBefore(Row row, Row beforeRow) {
+        if (beforeRow == null)
+            rows.add(row);
+        else {
+            int index = rows.indexOf(beforeRow);
+            if (index < 0)
+                throw new IllegalStateException("Inserting before a row that is not in the table");
+            rows.add(index, row);
+        }
+    }
+
+    void patch(VisualResultRowsPatcher<Row> patcher, VisualResult newRs) {
+        rs = newRs;
+        patcher.patch(newRs, this);
+    }
+
+    // The cell texts a full rebuild would produce
+    static List<String> rebuild(VisualResult rs) {
+        List<String> texts = new ArrayList<>();
+        for (int rowIndex = 0; rowIndex < rs.getRowCount(); rowIndex++) {
+            String[] cellTexts = new String[rs.getColumnCount()];
+            for (int columnIndex = 0; columnIndex < rs.getColumnCount(); columnIndex++)
+                cellTexts[columnIndex] = String.valueOf(rs.getValue(rowIndex, columnIndex));
+            texts.add(Arrays.toString(cellTexts));
+        }
+        return texts;
+    }
+
+    List<String> texts() {
+        List<String> texts = new ArrayList<>();
+        for (Row row : rows)
+            texts.add(row.toString());
+        return texts;
+    }
+}
@@ -0,0 +1,174 @@
+package dev.webfx.extras.visual.controls.grid.peers.base;
+
+import dev.webfx.extras.cell.renderer.TextRenderer;
+import dev.webfx.extras.label.Label;
+import dev.webfx.extras.type.PrimType;
+import dev.webfx.extras.visual.VisualColumn;
+import dev.webfx.extras.visual.VisualResult;
+import dev.webfx.extras.visual.VisualResultBuilder;
+import dev.webfx.extras.visual.VisualResultRowMapping;
+import dev.webfx.extras.visual.VisualStyle;
+import dev.webfx.extras.visual.impl.PatchableVisualResultImpl;
+import dev.webfx.extras.visual.impl.VisualColumnImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class VisualResultRowsPatcherTest {
+
+    private static final VisualColumn KEY_COLUMN = new VisualColumnImpl(null, "id", PrimType.INTEGER, "key", null, null, null, null);
+    private static final VisualColumn NAME_COLUMN = VisualColumn.create("name", PrimType.STRING);
+
+    private static VisualResult result(Object... idAndNames) {
+        int rowCount = idAndNames.length / 2;
+        VisualResultBuilder builder = VisualResultBuilder.create(rowCount, KEY_COLUMN, NAME_COLUMN);
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            builder.setValue(rowIndex, 0, idAndNames[2 * rowIndex]);
+            builder.setValue(rowIndex, 1, idAndNames[2 * rowIndex + 1]);
+        }
+        return builder.build();
+    }
+
+    private final VisualResultRowsPatcher<FakeDomTable.Row> patcher = new VisualResultRowsPatcher<>();
+    private final FakeDomTable dom = new FakeDomTable();
+
+    @Test
+    void firstPatchInsertsAllRows() {
+        VisualResult rs = result(1, "a", 2, "b", 3, "c");
+        dom.patch(patcher, rs);
+        assertEquals(FakeDomTable.rebuild(rs), dom.texts());
+        assertEquals(3, dom.insertCount);
+        assertEquals(dom.rows, patcher.getRows());
+    }
+
+    @Test
+    void unchangedResultDoesNothing() {
+        dom.patch(patcher, result(1, "a", 2, "b"));
+        dom.resetCounts();
+        dom.patch(patcher, result(1, "a", 2, "b"));
+        assertEquals(0, dom.insertCount + dom.moveCount + dom.removeCount + dom.updateCount);
+    }
+
+    @Test
+    void updatedValueOnlyUpdatesItsCell() {
+        dom.patch(patcher, result(1, "a", 2, "b", 3, "c"));
+        FakeDomTable.Row row2 = dom.rows.get(1);
+        dom.resetCounts();
+        VisualResult rs = result(1, "a", 2, "B", 3, "c");
+        dom.patch(patcher, rs);
+        assertEquals(FakeDomTable.rebuild(rs), dom.texts());
+        assertSame(row2, dom.rows.get(1)); // same DOM element
+        assertEquals(1, dom.updateCount);
+        assertEquals(0, dom.insertCount + dom.moveCount + dom.removeCount);
+    }
+
+    @Test
+    void insertsAndRemovesOnlyTheChangedRows() {
+        dom.patch(patcher, result(1, "a", 2, "b", 3, "c"));
+        dom.resetCounts();
+        VisualResult rs = result(1, "a", 4, "d", 3, "c", 5, "e");
+        dom.patch(patcher, rs);
+        assertEquals(FakeDomTable.rebuild(rs), dom.texts());
+        assertEquals(2, dom.insertCount);
+        assertEquals(1, dom.removeCount);
+        assertEquals(0, dom.moveCount + dom.updateCount);
+    }
+
+    @Test
+    void movedRowIsTheOnlyOneMoved() {
+        dom.patch(patcher, result(1, "a", 2, "b", 3, "c", 4, "d"));
+        FakeDomTable.Row row4 = dom.rows.get(3);
+        dom.resetCounts();
+        VisualResult rs = result(4, "d", 1, "a", 2, "b", 3, "c");
+        dom.patch(patcher, rs);
+        assertEquals(FakeDomTable.rebuild(rs), dom.texts());
+        assertSame(row4, dom.rows.get(0));
+        assertEquals(1, dom.moveCount);
+        assertEquals(0, dom.insertCount + dom.removeCount + dom.updateCount);
+    }
+
+    @Test
+    void rowsWithoutKeyAreMatchedByContent() {
+        VisualColumn[] columns = { VisualColumn.create("name", PrimType.STRING) };
+        VisualResult rs1 = VisualResultBuilder.create(3, columns).setValue(0, 0, "a").setValue(1, 0, "a").setValue(2, 0, "b").build();
+        VisualResult rs2 = VisualResultBuilder.create(3, columns).setValue(0, 0, "b").setValue(1, 0, "a").setValue(2, 0, "a").build();
+        dom.patch(patcher, rs1);
+        dom.resetCounts();
+        dom.patch(patcher, rs2);
+        assertEquals(FakeDomTable.rebuild(rs2), dom.texts());
+        assertEquals(0, dom.insertCount + dom.removeCount + dom.updateCount);
+        assertEquals(1, dom.moveCount);
+    }
+
+    @Test
+    void randomChangesMatchAFullRebuild() {
+        Random random = new Random(42);
+        VisualResult rs = result();
+        for (int round = 0; round < 200; round++) {
+            int rowCount = random.nextInt(20);
+            Object[] idAndNames = new Object[2 * rowCount];
+            boolean[] usedIds = new boolean[40];
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                int id;
+                do id = random.nextInt(40); while (usedIds[id]);
+                usedIds[id] = true;
+                idAndNames[2 * rowIndex] = id;
+                idAndNames[2 * rowIndex + 1] = random.nextInt(4) == 0 ? "name" + random.nextInt(3) : "name";
+            }
+            rs = result(idAndNames);
+            dom.patch(patcher, rs);
+            assertEquals(FakeDomTable.rebuild(rs), dom.texts(), "round " + round);
+            assertEquals(dom.rows, patcher.getRows());
+        }
+    }
+
+    @Test
+    void replayedChangeStreamMatchesAFullRebuild() {
+        Random random = new Random(7);
+        PatchableVisualResultImpl rs = new PatchableVisualResultImpl(KEY_COLUMN, NAME_COLUMN);
+        dom.patch(patcher, rs);
+        int version = rs.getVersion(), nextId = 0;
+        for (int round = 0; round < 200; round++) {
+            int changeCount = 1 + random.nextInt(5);
+            for (int i = 0; i < changeCount; i++) {
+                int rowCount = rs.getRowCount();
+                switch (rowCount == 0 ? 0 : random.nextInt(4)) {
+                    case 0: rs.insertRow(random.nextInt(rowCount + 1), nextId, "name" + nextId++); break;
+                    case 1: rs.updateRow(random.nextInt(rowCount), nextId, "name" + nextId++); break;
+                    case 2: rs.setValue(random.nextInt(rowCount), 1, "value" + nextId++); break;
+                    case 3: rs.deleteRow(random.nextInt(rowCount)); break;
+                }
+            }
+            VisualResultRowMapping rowMapping = VisualResultRowMapping.replay(rs.getRowCount(), rs.getChangesSince(version));
+            version = rs.getVersion();
+            dom.resetCounts();
+            dom.rs = rs;
+            patcher.patch(rs, rowMapping, dom);
+            assertEquals(FakeDomTable.rebuild(rs), dom.texts(), "round " + round);
+            assertEquals(dom.rows, patcher.getRows());
+            assertEquals(0, dom.moveCount, "round " + round); // a change stream never moves the rows
+        }
+    }
+
+    @Test
+    void sameColumnsDetection() {
+        VisualResult rs = result(1, "a");
+        assertTrue(VisualResultRowsPatcher.haveSameColumns(rs, result(2, "b")));
+        assertTrue(VisualResultRowsPatcher.haveSameColumns(null, null));
+        assertFalse(VisualResultRowsPatcher.haveSameColumns(rs, null));
+        // Same name & type but different label icon
+        VisualColumn iconColumn = new VisualColumnImpl(null, new Label(null, "name", "icon.png"), PrimType.STRING, null, null, null, null, null);
+        assertFalse(VisualResultRowsPatcher.haveSameColumns(rs, VisualResultBuilder.create(0, KEY_COLUMN, iconColumn).build()));
+        // Same name & type but different value renderer
+        VisualColumn rendererColumn = new VisualColumnImpl(null, "name", PrimType.STRING, null, null, (value, context) -> null, null, null);
+        assertFalse(VisualResultRowsPatcher.haveSameColumns(rs, VisualResultBuilder.create(0, KEY_COLUMN, rendererColumn).build()));
+        // Equivalent columns built separately
+        VisualColumn sameNameColumn = new VisualColumnImpl("name", "name", PrimType.STRING, null, VisualStyle.NO_STYLE, TextRenderer.SINGLETON, null, null);
+        assertTrue(VisualResultRowsPatcher.haveSameColumns(rs, VisualResultBuilder.create(0, KEY_COLUMN, sameNameColumn).build()));
+    }
+}
@@ -6,6 +6,7 @@ import dev.webfx.extras.visual.*;
 import dev.webfx.extras.visual.controls.grid.VisualGrid;
 import dev.webfx.extras.visual.controls.grid.peers.base.VisualGridPeerBase;
 import dev.webfx.extras.visual.controls.grid.peers.base.VisualGridPeerMixin;
+import dev.webfx.extras.visual.controls.grid.peers.base.VisualResultRowsPatcher;
 import dev.webfx.kit.mapper.peers.javafxgraphics.HasNoChildrenPeers;
 import dev.webfx.kit.mapper.peers.javafxgraphics.SceneRequester;
 import dev.webfx.kit.mapper.peers.javafxgraphics.gwtj2cl.html.HtmlRegionPeer;
@@ -25,6 +26,9 @@ import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Region;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static dev.webfx.kit.mapper.peers.javafxgraphics.gwtj2cl.util.HtmlUtil.setStyleAttribute;
 
 /**
@@ -42,6 +46,20 @@ public final class HtmlVisualGridPeer
     private final HTMLTableRowElement tHeadRow = (HTMLTableRowElement) tHead.insertRow(0);
     private final HTMLTableSectionElement tBody = HtmlUtil.createElement("tbody");
     private double scrollTop;
+    private VisualResult displayedRs;
+    private final VisualResultRowsPatcher<HTMLTableRowElement> rowsPatcher = new VisualResultRowsPatcher<>();
+    // Content nodes of the body cells, given back to the cell node pool when the cells are discarded or updated
+    private final Map<HTMLTableCellElement, CellContent> cellContents = new HashMap<>();
+
+    private static final class CellContent {
+        private final Node node;
+        private final VisualColumn visualColumn;
+
+        private CellContent(Node node, VisualColumn visualColumn) {
+            this.node = node;
+            this.visualColumn = visualColumn;
+        }
+    }
 
     public HtmlVisualGridPeer() {
         this((NB) new VisualGridPeerBase(), HtmlUtil.createDivElement());
@@ -56,6 +74,35 @@ public final class HtmlVisualGridPeer
             scrollTop = element.scrollTop;
             return null;
         };
+        // Selection management through single listeners delegated to the table body (rather than per row)
+        // - on devices with mouse such as desktops
+        tBody.onmousedown = e -> {
+            int row = getEventRowIndex(e);
+            if (row >= 0) {
+                MouseEvent me = (MouseEvent) e;
+                N visualGrid = getNode();
+                visualGrid.setVisualSelection(VisualSelection.updateRowsSelection(visualGrid.getVisualSelection(), visualGrid.getSelectionMode(), row, me.button == 0, me.ctrlKey, me.shiftKey));
+                visualGrid.requestFocus(); // to enable keyPressed detection and therefore arrow selection navigation
+            }
+            return null;
+        };
+        // - on touch devices such as mobiles
+        tBody.ontouchstart = e -> {
+            int row = getEventRowIndex(e);
+            if (row >= 0) {
+                N visualGrid = getNode();
+                visualGrid.setVisualSelection(VisualSelection.updateRowsSelection(visualGrid.getVisualSelection(), visualGrid.getSelectionMode(), row, true, e.ctrlKey, e.shiftKey));
+                visualGrid.requestFocus(); // to enable keyPressed detection and therefore arrow selection navigation
+            }
+            return null;
+        };
+    }
+
+    private int getEventRowIndex(Event e) {
+        elemental2.dom.Node node = e.target instanceof elemental2.dom.Node ? (elemental2.dom.Node) e.target : null;
+        while (node != null && node.parentNode != tBody)
+            node = node.parentNode;
+        return node instanceof HTMLTableRowElement ? ((HTMLTableRowElement) node).sectionRowIndex : -1;
     }
 
     @Override
@@ -111,19 +158,15 @@ public final class HtmlVisualGridPeer
     public void updateSelectionMode(SelectionMode mode) {
     }
 
+    private VisualSelection appliedVisualSelection; // The selection currently reflected in the table rows
+
     @Override
     public void updateVisualSelection(VisualSelection visualSelection) {
-        int[] lastUnselectedRowIndex = { 0 };
-        if (visualSelection != null) {
-            visualSelection.forEachRow(rowIndex -> {
-                applyVisualSelectionRange(lastUnselectedRowIndex[0], rowIndex - 1, false);
-                applyVisualSelectionRange(rowIndex, rowIndex, true);
-                lastUnselectedRowIndex[0] = rowIndex + 1;
-            });
-        }
-        VisualResult rs = getNode().getVisualResult();
-        if (rs != null)
-            applyVisualSelectionRange(lastUnselectedRowIndex[0], rs.getRowCount(), false);
+        // Touching only the rows whose selection state changed since the last applied selection
+        VisualSelection.forEachChangedRow(appliedVisualSelection, visualSelection,
+            rowIndex -> applyVisualSelectionRange(rowIndex, rowIndex, false),
+            rowIndex -> applyVisualSelectionRange(rowIndex, rowIndex, true));
+        appliedVisualSelection = visualSelection;
     }
 
     private void applyVisualSelectionRange(int firstRow, int lastRow, boolean selected) {
@@ -145,38 +188,21 @@ public final class HtmlVisualGridPeer
     public void updateVisualResult(VisualResult rs) {
         VisualGrid visualGrid = getNode();
         NB base = getNodePeerBase();
-        HtmlUtil.removeChildren(tHeadRow);
-        HtmlUtil.removeChildren(tBody);
-        base.fillGrid(rs);
-        if (rs != null) {
-            int rowCount = rs.getRowCount();
-            int columnCount = rs.getColumnCount();
-            for (int row = 0; row < rowCount; row++) {
-                HTMLTableRowElement tBodyRow = (HTMLTableRowElement) tBody.insertRow(-1);
-                int finalRow = row;
-                // Selection management on devices with mouse such as desktops
-                tBodyRow.onmousedown = e -> {
-                    MouseEvent me = (MouseEvent) e;
-                    visualGrid.setVisualSelection(VisualSelection.updateRowsSelection(visualGrid.getVisualSelection(), visualGrid.getSelectionMode(), finalRow, me.button == 0, me.ctrlKey, me.shiftKey));
-                    visualGrid.requestFocus(); // to enable keyPressed detection and therefore arrow selection navigation
-                    return null;
-                };
-                // Selection management on touch devices such as mobiles
-                tBodyRow.ontouchstart = e -> {
-                    visualGrid.setVisualSelection(VisualSelection.updateRowsSelection(visualGrid.getVisualSelection(), visualGrid.getSelectionMode(), finalRow, true, e.ctrlKey, e.shiftKey));
-                    visualGrid.requestFocus(); // to enable keyPressed detection and therefore arrow selection navigation
-                    return null;
-                };
-                String rowStyle = base.getRowStyle(row);
-                if (rowStyle != null)
-                    tBodyRow.className = rowStyle;
-                tBodyRow.style.background = HtmlPaints.toCssPaint(base.getRowBackground(row), DomType.HTML);
-                for (int column = 0; column < columnCount; column++) {
-                    if (base.isDataColumn(column))
-                        base.fillCell((HTMLTableCellElement) tBodyRow.insertCell(-1), row, column);
-                }
-            }
+        // Unselecting the rows before patching them, as their indexes may change (the selection is applied again below)
+        updateVisualSelection(null);
+        // Note: a patchable visual result displayed again can't be compared with itself, so its rows are rebuilt
+        if (rs != displayedRs && VisualResultRowsPatcher.haveSameColumns(displayedRs, rs))
+            base.initGrid(rs); // Same as fillGrid() but without setting up the header columns again
+        else { // The columns changed => we rebuild the whole table
+            HtmlUtil.removeChildren(tHeadRow);
+            recycleAllCellContents();
+            HtmlUtil.removeChildren(tBody);
+            rowsPatcher.reset();
+            base.fillGrid(rs);
         }
+        // Applying only the differences between the previous result and the new one to the table rows
+        rowsPatcher.patch(rs, rowsPatcherTarget);
+        displayedRs = rs;
         clearCache();
         if (visualGrid.isFullHeight()) {
             double height = measure(table, false);
@@ -185,12 +211,95 @@ public final class HtmlVisualGridPeer
             visualGrid.setPrefHeight(height);
             visualGrid.setMaxHeight(height);
         }
-        // Since we just created a new html table (with no selection), we need to apply the selection again at this
-        // point. This is important for example to not loose the selection when receiving a server push notication
-        // that updates the content of this visual grid.
+        // Since we just unselected all rows (which may also have been recreated or moved), we need to apply the
+        // selection again at this point. This is important for example to not loose the selection when receiving a
+        // server push notication that updates the content of this visual grid.
         updateVisualSelection(visualGrid.getVisualSelection());
     }
 
+    @Override
+    public void updateVisualResultRows(VisualResultRowMapping rowMapping) {
+        VisualGrid visualGrid = getNode();
+        VisualSelection visualSelection = visualGrid.getVisualSelection();
+        updateVisualSelection(null);
+        // Applying only the inserted, deleted and updated rows (no value comparison needed)
+        rowsPatcher.patch(displayedRs, rowMapping, rowsPatcherTarget);
+        clearCache();
+        if (visualGrid.isFullHeight() && rowMapping.getRowCount() != rowMapping.getOldRowCount()) {
+            double height = measure(table, false);
+            visualGrid.setMinHeight(height);
+            visualGrid.setPrefHeight(height);
+            visualGrid.setMaxHeight(height);
+        }
+        // The selection rows may have moved (the visual selection property will be set to the same remapped selection)
+        updateVisualSelection(rowMapping.remapSelection(visualSelection));
+    }
+
+    private final VisualResultRowsPatcher.Target<HTMLTableRowElement> rowsPatcherTarget = new VisualResultRowsPatcher.Target<>() {
+        @Override
+        public HTMLTableRowElement insertRow(int rowIndex, HTMLTableRowElement beforeRow) {
+            NB base = getNodePeerBase();
+            HTMLTableRowElement tBodyRow = (HTMLTableRowElement) DomGlobal.document.createElement("tr");
+            tBody.insertBefore(tBodyRow, beforeRow);
+            applyRowStyleAndBackground(tBodyRow, rowIndex);
+            int columnCount = base.getRs().getColumnCount();
+            for (int column = 0; column < columnCount; column++) {
+                if (base.isDataColumn(column))
+                    base.fillCell((HTMLTableCellElement) tBodyRow.insertCell(-1), rowIndex, column);
+            }
+            return tBodyRow;
+        }
+
+        @Override
+        public void moveRow(HTMLTableRowElement row, HTMLTableRowElement beforeRow) {
+            tBody.insertBefore(row, beforeRow);
+        }
+
+        @Override
+        public void removeRow(HTMLTableRowElement row) {
+            tBody.removeChild(row);
+            for (int i = 0, n = row.cells.getLength(); i < n; i++)
+                recycleCellContent((HTMLTableCellElement) row.cells.item(i));
+        }
+
+        @Override
+        public void updateRowValue(HTMLTableRowElement row, int rowIndex, int columnIndex) {
+            NB base = getNodePeerBase();
+            if (columnIndex == base.getRowStyleColumnIndex() || columnIndex == base.getRowBackgroundColumnIndex())
+                applyRowStyleAndBackground(row, rowIndex);
+            else if (base.isDataColumn(columnIndex)) {
+                int cellIndex = 0;
+                for (int column = 0; column < columnIndex; column++)
+                    if (base.isDataColumn(column))
+                        cellIndex++;
+                HTMLTableCellElement cell = (HTMLTableCellElement) row.cells.item(cellIndex);
+                recycleCellContent(cell);
+                HtmlUtil.removeChildren(cell);
+                base.fillCell(cell, rowIndex, columnIndex);
+            }
+        }
+    };
+
+    private void recycleCellContent(HTMLTableCellElement cell) {
+        CellContent cellContent = cellContents.remove(cell);
+        if (cellContent != null)
+            getNodePeerBase().recycleCellContent(cellContent.node, cellContent.visualColumn);
+    }
+
+    private void recycleAllCellContents() {
+        NB base = getNodePeerBase();
+        for (CellContent cellContent : cellContents.values())
+            base.recycleCellContent(cellContent.node, cellContent.visualColumn);
+        cellContents.clear();
+    }
+
+    private void applyRowStyleAndBackground(HTMLTableRowElement tBodyRow, int rowIndex) {
+        NB base = getNodePeerBase();
+        String rowStyle = base.getRowStyle(rowIndex);
+        tBodyRow.className = rowStyle != null ? rowStyle : "";
+        tBodyRow.style.background = HtmlPaints.toCssPaint(base.getRowBackground(rowIndex), DomType.HTML);
+    }
+
     @Override
     public void setUpGridColumn(int gridColumnIndex, int rsColumnIndex, VisualColumn visualColumn) {
         Label label = visualColumn.getLabel();
@@ -245,6 +354,8 @@ public final class HtmlVisualGridPeer
                 ((Parent) content).layout();
             }
             cell.appendChild(contentElement);
+            if (cell.parentNode != tHeadRow) // The header cells are not recycled (they are not rendered by the column renderer)
+                cellContents.put(cell, new CellContent(content, visualColumn));
         }
     }
 
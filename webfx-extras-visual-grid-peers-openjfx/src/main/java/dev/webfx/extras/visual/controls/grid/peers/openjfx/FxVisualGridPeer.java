@@ -6,7 +6,7 @@ import dev.webfx.extras.imagestore.ImageStore;
 import dev.webfx.extras.label.Label;
 import dev.webfx.extras.visual.VisualColumn;
 import dev.webfx.extras.visual.VisualResult;
-import dev.webfx.extras.visual.VisualResultBuilder;
+import dev.webfx.extras.visual.VisualResultRowMapping;
 import dev.webfx.extras.visual.VisualSelection;
 import dev.webfx.extras.visual.controls.grid.VisualGrid;
 import dev.webfx.extras.visual.controls.grid.peers.base.VisualGridPeerBase;
@@ -17,8 +17,8 @@ import dev.webfx.kit.mapper.peers.javafxgraphics.openjfx.FxRegionPeer;
 import dev.webfx.kit.util.properties.FXProperties;
 import dev.webfx.platform.uischeduler.UiScheduler;
 import dev.webfx.platform.util.collection.IdentityList;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.SimpleObjectProperty;
-import javafx.beans.value.ObservableValue;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.event.Event;
@@ -32,7 +32,6 @@ import javafx.scene.control.skin.TableHeaderRow;
 import javafx.scene.control.skin.TableViewSkin;
 import javafx.scene.control.skin.VirtualFlow;
 import javafx.scene.input.ScrollEvent;
-import javafx.scene.layout.Background;
 import javafx.scene.layout.Region;
 import javafx.scene.paint.Paint;
 import javafx.util.Callback;
@@ -62,9 +61,13 @@ public final class FxVisualGridPeer
         tableView.setRowFactory(createRowFactory());
         tableView.getSelectionModel().getSelectedIndices().addListener((ListChangeListener<Integer>) c -> syncVisualSelectionFromTableViewIfEnabled());
         tableView.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
-        // Disabling sort for now as the default sort policy doesn't work in Modality with ReactiveVisualMapper (the
-        // selected line doesn't match the selected entity)
-        tableView.setSortPolicy(param -> false);
+        // The default sort policy doesn't work in Modality with ReactiveVisualMapper (the selected line doesn't match
+        // the selected entity) as it reorders the items. Instead, the items are the visual result row indexes, and we
+        // reorder them through a permutation, keeping the visual selection expressed in visual result row indexes.
+        tableView.setSortPolicy(param -> {
+            applySortOrder();
+            return true;
+        });
         // Overriding the table skin for a better pref width computation, and height management (with fullHeight mode)
         try { // Try catch block for java 9 where TableViewSkin is not accessible anymore
             tableView.setSkin(new TableViewSkin<>(tableView) {
@@ -184,7 +187,14 @@ public final class FxVisualGridPeer
             return;
 
         syncingVisualSelectionFromTableView = true;
-        VisualSelection rowsSelection = VisualSelection.createRowsSelection(getFxNode().getSelectionModel().getSelectedIndices());
+        List<Integer> selectedIndices = getFxNode().getSelectionModel().getSelectedIndices();
+        if (rowOrder != null) { // Mapping the view indexes to the visual result row indexes
+            List<Integer> selectedRows = new ArrayList<>(selectedIndices.size());
+            for (Integer viewIndex : selectedIndices)
+                selectedRows.add(rowOrder.getRowIndex(viewIndex));
+            selectedIndices = selectedRows;
+        }
+        VisualSelection rowsSelection = VisualSelection.createRowsSelection(selectedIndices);
         FXProperties.setIfNotEquals(getNode().visualSelectionProperty(), rowsSelection);
         syncingVisualSelectionFromTableView = false;
     }
@@ -202,8 +212,16 @@ public final class FxVisualGridPeer
         enableSyncVisualSelectionFromTableView = false;
         TableView.TableViewSelectionModel<Integer> selectionModel = getFxNode().getSelectionModel();
         selectionModel.clearSelection();
-        if (selection != null)
-            selection.forEachRow(selectionModel::select);
+        if (selection != null) {
+            if (rowOrder == null)
+                selection.forEachSelectedRow(selectionModel::select);
+            else // Mapping the visual result row indexes to the view indexes
+                selection.forEachSelectedRow(rowIndex -> {
+                    int viewIndex = rowOrder.getViewIndex(rowIndex);
+                    if (viewIndex >= 0)
+                        selectionModel.select(viewIndex);
+                });
+        }
         enableSyncVisualSelectionFromTableView = true;
     }
 
@@ -230,12 +248,13 @@ public final class FxVisualGridPeer
     }
 
     private List<TableColumn<Integer, ?>> currentColumns, newColumns;
+    private VisualResultRowOrder rowOrder; // null when not sorted
+    private boolean applyingSortOrder;
 
     @Override
     public void updateVisualResult(VisualResult rs) {
         if (rs == null)
             return;
-        rs = transformVisualResultValuesToProperties(rs);
         TableView<Integer> tableView = getFxNode();
         N dataGrid = getNode();
         synchronized (this) {
@@ -251,7 +270,8 @@ public final class FxVisualGridPeer
             tableView.getColumns().setAll(newColumns);
             currentColumns = newColumns = null;
             tableView.getSelectionModel().clearSelection(); // Clearing selection otherwise an undesired selection event is triggered on new items
-            tableView.getItems().setAll(new IdentityList(rowCount));
+            rowOrder = computeRowOrder(rs, tableView);
+            tableView.getItems().setAll(rowOrder == null ? new IdentityList(rowCount) : rowOrder.asItems());
             enableSyncVisualSelectionFromTableView = true;
             syncTableViewSelectionFromVisualSelection();
             if (rowCount > 0) { // Workaround for the JavaFX wrong resize columns problem when vertical scroll bar appears
@@ -262,10 +282,64 @@ public final class FxVisualGridPeer
         dataGrid.requestLayout(); // this is essentially to clear the cached sized values (prefWith, etc...)
     }
 
-    private static VisualResult transformVisualResultValuesToProperties(VisualResult rs) {
-        return VisualResultBuilder.convertVisualResult(rs, SimpleObjectProperty::new);
+    @Override
+    public void updateVisualResultRows(VisualResultRowMapping rowMapping) {
+        TableView<Integer> tableView = getFxNode();
+        VisualSelection visualSelection = getNode().getVisualSelection();
+        enableSyncVisualSelectionFromTableView = false;
+        tableView.getSelectionModel().clearSelection();
+        if (rowOrder != null) // The changed rows may have moved in the sort order => the permutation is computed again
+            rowOrder = computeRowOrder(getNodePeerBase().getRs(), tableView);
+        if (rowOrder != null)
+            tableView.getItems().setAll(rowOrder.asItems());
+        else {
+            // The items are the row indexes, so only the items whose row changed (or moved) are touched, which makes
+            // the table view update the cells of these rows only
+            ObservableList<Integer> items = tableView.getItems();
+            int oldRowCount = items.size(), rowCount = rowMapping.getRowCount();
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                if (rowIndex >= oldRowCount)
+                    items.add(rowIndex);
+                else if (!rowMapping.isRowUnchanged(rowIndex))
+                    items.set(rowIndex, rowIndex);
+            }
+            if (rowCount < oldRowCount)
+                items.remove(rowCount, oldRowCount);
+        }
+        enableSyncVisualSelectionFromTableView = true;
+        // The visual selection property will be set to the same remapped selection
+        updateVisualSelection(rowMapping.remapSelection(visualSelection));
+    }
+
+    private void applySortOrder() {
+        VisualResult rs = getNodePeerBase().getRs();
+        // Skipping the calls while the columns are being rebuilt (updateVisualResult() computes the row order itself)
+        if (rs == null || applyingSortOrder || newColumns != null)
+            return;
+        applyingSortOrder = true;
+        TableView<Integer> tableView = getFxNode();
+        enableSyncVisualSelectionFromTableView = false;
+        tableView.getSelectionModel().clearSelection();
+        rowOrder = computeRowOrder(rs, tableView);
+        tableView.getItems().setAll(rowOrder == null ? new IdentityList(rs.getRowCount()) : rowOrder.asItems());
+        enableSyncVisualSelectionFromTableView = true;
+        syncTableViewSelectionFromVisualSelection(); // the visual selection is unchanged, but its view indexes moved
+        applyingSortOrder = false;
+    }
+
+    private static VisualResultRowOrder computeRowOrder(VisualResult rs, TableView<Integer> tableView) {
+        VisualResultRowOrder.RowComparator comparator = null;
+        for (TableColumn<Integer, ?> sortColumn : tableView.getSortOrder()) {
+            Object rsColumnIndex = sortColumn.getProperties().get(RS_COLUMN_INDEX_KEY);
+            if (rsColumnIndex instanceof Integer)
+                comparator = VisualResultRowOrder.thenComparing(comparator,
+                        VisualResultRowOrder.createColumnComparator(rs, (Integer) rsColumnIndex, sortColumn.getSortType() == TableColumn.SortType.DESCENDING));
+        }
+        return comparator == null ? null : VisualResultRowOrder.sort(rs.getRowCount(), comparator);
     }
 
+    private static final String RS_COLUMN_INDEX_KEY = "rsColumnIndex";
+
     @Override
     public void setUpGridColumn(int gridColumnIndex, int rsColumnIndex, VisualColumn visualColumn) {
         TableColumn<Integer, ?> gridColumn = gridColumnIndex < currentColumns.size() ? currentColumns.get(gridColumnIndex) : new TableColumn<>();
@@ -284,13 +358,22 @@ public final class FxVisualGridPeer
         }
         String textAlign = visualColumn.getStyle().getTextAlign();
         Pos alignment = "right".equals(textAlign) ? Pos.CENTER_RIGHT : "center".equals(textAlign) ? Pos.CENTER : Pos.CENTER_LEFT;
-        gridColumn.setCellValueFactory(cdf -> (ObservableValue) getNodePeerBase().getRs().getValue(cdf.getValue(), rsColumnIndex));
+        gridColumn.getProperties().put(RS_COLUMN_INDEX_KEY, rsColumnIndex);
+        // The items are the visual result row indexes, so the value is read on demand (only for the visible cells)
+        gridColumn.setCellValueFactory(cdf -> new ReadOnlyObjectWrapper(getNodePeerBase().getRs().getValue(cdf.getValue(), rsColumnIndex)));
         gridColumn.setCellFactory(param -> new TableCell() {
             { setAlignment(alignment); }
             @Override
             protected void updateItem(Object item, boolean empty) {
                 super.updateItem(item, empty);
-                if (!empty)
+                Node oldContent = getGraphic();
+                if (oldContent != null) { // Giving the old content back to the pool, so fillCell() can reuse it
+                    setGraphic(null);
+                    getNodePeerBase().recycleCellContent(oldContent, visualColumn);
+                }
+                if (empty) // Ex: cell of a filler row below the last row, or of a row removed on a result update
+                    setText(null);
+                else
                     getNodePeerBase().fillCell(this, item, visualColumn);
             }
         });
@@ -306,14 +389,15 @@ public final class FxVisualGridPeer
         return tableView -> {
             TableRow<Integer> row = new TableRow<>();
             RowStyleUpdater rowStyleUpdater = new RowStyleUpdater(new RowAdapter() {
-                @Override public int getRowIndex() { return row.getIndex(); }
+                // The item is the visual result row index (which differs from the view index when the table is sorted)
+                @Override public int getRowIndex() { Integer rowIndex = row.getItem(); return rowIndex == null ? -1 : rowIndex; }
                 @Override public void addStyleClass(String styleClass) { row.getStyleClass().add(styleClass); }
                 @Override public void removeStyleClass(String styleClass) { row.getStyleClass().remove(styleClass); }
                 @Override public void applyBackground(Paint fill) {
                     if (fill == null)
                         row.backgroundProperty().unbind();
                     else
-                        row.backgroundProperty().bind(new SimpleObjectProperty<>(Background.fill(fill)));
+                        row.backgroundProperty().bind(new SimpleObjectProperty<>(getNodePeerBase().getRowStyleCache().getBackground(fill)));
                 }
             }, this::getRowStyleClasses, this::getRowBackground);
             row.getProperties().put("nodeStyleUpdater", rowStyleUpdater); // keeping strong reference to avoid garbage collection
@@ -323,19 +407,11 @@ public final class FxVisualGridPeer
     }
 
     private Object[] getRowStyleClasses(int rowIndex) {
-        NB base = getNodePeerBase();
-        Object value = base.getRowStyleResultValue(rowIndex);
-        if (value instanceof ObservableValue)
-            value = ((ObservableValue) value).getValue();
-        return base.getRowStyleClasses(value);
+        return getNodePeerBase().getRowStyleClasses(rowIndex);
     }
 
     private Paint getRowBackground(int rowIndex) {
-        NB base = getNodePeerBase();
-        Object value = base.getRowBackgroundResultValue(rowIndex);
-        if (value instanceof ObservableValue)
-            value = ((ObservableValue) value).getValue();
-        return base.getRowBackground(value);
+        return getNodePeerBase().getRowBackground(rowIndex);
     }
 
 // Code not working anymore since Java 9 - can't access call VirtualFlow.getCellLength()
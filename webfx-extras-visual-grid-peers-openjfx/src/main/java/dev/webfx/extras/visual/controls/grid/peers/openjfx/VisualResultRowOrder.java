@@ -0,0 +1,190 @@
+package dev.webfx.extras.visual.controls.grid.peers.openjfx;
+
+import dev.webfx.extras.visual.VisualResult;
+import dev.webfx.extras.visual.impl.BooleanColumnVector;
+import dev.webfx.extras.visual.impl.ColumnarVisualResultImpl;
+import dev.webfx.extras.visual.impl.DoubleColumnVector;
+import dev.webfx.extras.visual.impl.IntColumnVector;
+import dev.webfx.extras.visual.impl.LongColumnVector;
+import dev.webfx.extras.visual.impl.StringColumnVector;
+import dev.webfx.extras.visual.impl.VisualColumnVector;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Sorted view of the rows of a visual result, stored as a permutation of the row indexes (viewIndex -> rowIndex) and
+ * its inverse (rowIndex -> viewIndex). The visual result itself is never touched or copied. The rows are compared with
+ * primitive comparators when the result is columnar, so no value is boxed while sorting.
+ *
+ * @author Bruno Salmon
+ */
+final class VisualResultRowOrder {
+
+    interface RowComparator {
+        int compare(int rowIndex1, int rowIndex2);
+    }
+
+    private final int[] rowIndexes; // viewIndex -> rowIndex
+    private final int[] viewIndexes; // rowIndex -> viewIndex
+
+    private VisualResultRowOrder(int[] rowIndexes) {
+        this.rowIndexes = rowIndexes;
+        viewIndexes = new int[rowIndexes.length];
+        for (int viewIndex = 0; viewIndex < rowIndexes.length; viewIndex++)
+            viewIndexes[rowIndexes[viewIndex]] = viewIndex;
+    }
+
+    int getRowIndex(int viewIndex) {
+        return rowIndexes[viewIndex];
+    }
+
+    int getViewIndex(int rowIndex) {
+        return rowIndex >= 0 && rowIndex < viewIndexes.length ? viewIndexes[rowIndex] : -1;
+    }
+
+    List<Integer> asItems() {
+        return new AbstractList<>() {
+            @Override
+            public Integer get(int index) {
+                return rowIndexes[index];
+            }
+
+            @Override
+            public int size() {
+                return rowIndexes.length;
+            }
+        };
+    }
+
+    static VisualResultRowOrder sort(int rowCount, RowComparator comparator) {
+        int[] rowIndexes = new int[rowCount];
+        for (int i = 0; i < rowCount; i++)
+            rowIndexes[i] = i;
+        mergeSort(rowIndexes, comparator);
+        return new VisualResultRowOrder(rowIndexes);
+    }
+
+    static RowComparator createColumnComparator(VisualResult rs, int columnIndex, boolean descending) {
+        RowComparator comparator = createAscendingColumnComparator(rs, columnIndex);
+        return descending ? (r1, r2) -> comparator.compare(r2, r1) : comparator;
+    }
+
+    static RowComparator thenComparing(RowComparator first, RowComparator second) {
+        if (first == null)
+            return second;
+        return (r1, r2) -> {
+            int c = first.compare(r1, r2);
+            return c != 0 ? c : second.compare(r1, r2);
+        };
+    }
+
+    private static RowComparator createAscendingColumnComparator(VisualResult rs, int columnIndex) {
+        if (rs instanceof ColumnarVisualResultImpl) {
+            VisualColumnVector vector = ((ColumnarVisualResultImpl) rs).getColumnVector(columnIndex);
+            if (vector instanceof IntColumnVector) {
+                IntColumnVector v = (IntColumnVector) vector;
+                return (r1, r2) -> {
+                    int c = compareNulls(v, r1, r2);
+                    return c != BOTH_NON_NULL ? c : Integer.compare(v.getInt(r1), v.getInt(r2));
+                };
+            }
+            if (vector instanceof LongColumnVector) {
+                LongColumnVector v = (LongColumnVector) vector;
+                return (r1, r2) -> {
+                    int c = compareNulls(v, r1, r2);
+                    return c != BOTH_NON_NULL ? c : Long.compare(v.getLong(r1), v.getLong(r2));
+                };
+            }
+            if (vector instanceof DoubleColumnVector) {
+                DoubleColumnVector v = (DoubleColumnVector) vector;
+                return (r1, r2) -> {
+                    int c = compareNulls(v, r1, r2);
+                    return c != BOTH_NON_NULL ? c : Double.compare(v.getDouble(r1), v.getDouble(r2));
+                };
+            }
+            if (vector instanceof BooleanColumnVector) {
+                BooleanColumnVector v = (BooleanColumnVector) vector;
+                return (r1, r2) -> {
+                    int c = compareNulls(v, r1, r2);
+                    return c != BOTH_NON_NULL ? c : Boolean.compare(v.getBoolean(r1), v.getBoolean(r2));
+                };
+            }
+            if (vector instanceof StringColumnVector) {
+                StringColumnVector v = (StringColumnVector) vector;
+                int[] ranks = computeDictionaryRanks(v); // so the strings are compared only once per distinct value
+                return (r1, r2) -> {
+                    int c = compareNulls(v, r1, r2);
+                    return c != BOTH_NON_NULL ? c : Integer.compare(ranks[v.getCode(r1)], ranks[v.getCode(r2)]);
+                };
+            }
+        }
+        // Generic case: the values are read once (rather than on each comparison) and compared as Comparable
+        int rowCount = rs.getRowCount();
+        Object[] values = new Object[rowCount];
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++)
+            values[rowIndex] = rs.getValue(rowIndex, columnIndex);
+        return (r1, r2) -> compareValues(values[r1], values[r2]);
+    }
+
+    private static final int BOTH_NON_NULL = 2;
+
+    // Nulls first, otherwise returns BOTH_NON_NULL so the caller compares the primitive values
+    private static int compareNulls(VisualColumnVector vector, int r1, int r2) {
+        boolean null1 = vector.isNull(r1), null2 = vector.isNull(r2);
+        if (null1 || null2)
+            return null1 == null2 ? 0 : null1 ? -1 : 1;
+        return BOTH_NON_NULL;
+    }
+
+    private static int[] computeDictionaryRanks(StringColumnVector vector) {
+        int size = vector.getDictionarySize();
+        int[] codes = new int[size];
+        for (int code = 0; code < size; code++)
+            codes[code] = code;
+        mergeSort(codes, (c1, c2) -> vector.getDictionaryValue(c1).compareTo(vector.getDictionaryValue(c2)));
+        int[] ranks = new int[size];
+        for (int rank = 0; rank < size; rank++)
+            ranks[codes[rank]] = rank;
+        return ranks;
+    }
+
+    private static int compareValues(Object v1, Object v2) {
+        if (v1 == v2)
+            return 0;
+        if (v1 == null)
+            return -1;
+        if (v2 == null)
+            return 1;
+        if (v1 instanceof Comparable && v1.getClass() == v2.getClass())
+            return ((Comparable) v1).compareTo(v2);
+        if (v1 instanceof Number && v2 instanceof Number)
+            return Double.compare(((Number) v1).doubleValue(), ((Number) v2).doubleValue());
+        return v1.toString().compareTo(v2.toString());
+    }
+
+    // Stable bottom-up merge sort of an int array (Arrays.sort() doesn't accept a comparator for primitive arrays)
+    private static void mergeSort(int[] a, RowComparator comparator) {
+        int n = a.length;
+        int[] src = a, dst = new int[n];
+        for (int width = 1; width < n; width <<= 1) {
+            for (int low = 0; low < n; low += width << 1) {
+                int middle = Math.min(low + width, n), high = Math.min(low + (width << 1), n);
+                int i = low, j = middle, k = low;
+                if (middle < high && comparator.compare(src[middle - 1], src[middle]) <= 0) // already in order
+                    System.arraycopy(src, low, dst, low, high - low);
+                else {
+                    while (i < middle && j < high)
+                        dst[k++] = comparator.compare(src[j], src[i]) < 0 ? src[j++] : src[i++];
+                    while (i < middle)
+                        dst[k++] = src[i++];
+                    while (j < high)
+                        dst[k++] = src[j++];
+                }
+            }
+            int[] tmp = src; src = dst; dst = tmp;
+        }
+        if (src != a)
+            System.arraycopy(src, 0, a, 0, n);
+    }
+}
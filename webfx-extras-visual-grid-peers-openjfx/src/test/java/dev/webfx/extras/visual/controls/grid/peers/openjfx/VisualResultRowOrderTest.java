@@ -0,0 +1,140 @@
+package dev.webfx.extras.visual.controls.grid.peers.openjfx;
+
+import dev.webfx.extras.type.PrimType;
+import dev.webfx.extras.visual.VisualColumn;
+import dev.webfx.extras.visual.VisualResult;
+import dev.webfx.extras.visual.VisualResultBuilder;
+import dev.webfx.extras.visual.impl.ColumnarVisualResultImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the row orders against List.sort() (a stable sort) with the same ordering: nulls first, then the natural order
+ * of the values (or their numeric order for mixed numbers), everything reversed when descending.
+ *
+ * @author Bruno Salmon
+ */
+class VisualResultRowOrderTest {
+
+    private static final int ROW_COUNT = 500;
+    private static final String[] NAMES = {"pear", "apple", "Banana", "apple ", "cherry", "", "\u00e9clair", "fig"};
+
+    private static final VisualColumn[] COLUMNS = {
+            VisualColumn.create("int", PrimType.INTEGER),
+            VisualColumn.create("long", PrimType.LONG),
+            VisualColumn.create("double", PrimType.DOUBLE),
+            VisualColumn.create("boolean", PrimType.BOOLEAN),
+            VisualColumn.create("string", PrimType.STRING)
+    };
+
+    // Values with many duplicates (so the stability matters) and about 10% of nulls
+    private static Object randomValue(int columnIndex, Random random) {
+        if (random.nextInt(10) == 0)
+            return null;
+        switch (columnIndex) {
+            case 0: return random.nextInt(20) - 10;
+            case 1: return (random.nextInt(20) - 10) * 10_000_000_000L;
+            case 2: return random.nextInt(20) / 4d - 2;
+            case 3: return random.nextBoolean();
+            default: return NAMES[random.nextInt(NAMES.length)];
+        }
+    }
+
+    private static VisualResult randomResult(boolean columnar) {
+        Random random = new Random(42);
+        VisualResultBuilder builder = columnar ? VisualResultBuilder.createColumnar(ROW_COUNT, COLUMNS) : VisualResultBuilder.create(ROW_COUNT, COLUMNS);
+        for (int rowIndex = 0; rowIndex < ROW_COUNT; rowIndex++)
+            for (int columnIndex = 0; columnIndex < COLUMNS.length; columnIndex++)
+                builder.setValue(rowIndex, columnIndex, randomValue(columnIndex, random));
+        return builder.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator<Integer> expectedComparator(VisualResult rs, int columnIndex, boolean descending) {
+        Comparator<Object> valueComparator = (v1, v2) -> v1 instanceof Number && v1.getClass() != v2.getClass() ?
+                Double.compare(((Number) v1).doubleValue(), ((Number) v2).doubleValue()) : ((Comparable<Object>) v1).compareTo(v2);
+        Comparator<Integer> comparator = Comparator.comparing(rowIndex -> rs.getValue(rowIndex, columnIndex), Comparator.nullsFirst(valueComparator));
+        return descending ? comparator.reversed() : comparator;
+    }
+
+    private static List<Integer> expectedOrder(int rowCount, Comparator<Integer> comparator) {
+        List<Integer> rowIndexes = new ArrayList<>();
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++)
+            rowIndexes.add(rowIndex);
+        rowIndexes.sort(comparator);
+        return rowIndexes;
+    }
+
+    private static void assertOrder(List<Integer> expected, VisualResultRowOrder order) {
+        assertEquals(expected, new ArrayList<>(order.asItems()));
+        for (int viewIndex = 0; viewIndex < expected.size(); viewIndex++) {
+            assertEquals(expected.get(viewIndex), order.getRowIndex(viewIndex));
+            assertEquals(viewIndex, order.getViewIndex(expected.get(viewIndex)));
+        }
+        assertEquals(-1, order.getViewIndex(expected.size()));
+    }
+
+    @Test
+    void singleColumnOrdersMatchAStableListSort() {
+        for (boolean columnar : new boolean[] {true, false}) {
+            VisualResult rs = randomResult(columnar);
+            assertEquals(columnar, rs instanceof ColumnarVisualResultImpl);
+            for (int columnIndex = 0; columnIndex < COLUMNS.length; columnIndex++)
+                for (boolean descending : new boolean[] {false, true}) {
+                    VisualResultRowOrder order = VisualResultRowOrder.sort(ROW_COUNT, VisualResultRowOrder.createColumnComparator(rs, columnIndex, descending));
+                    assertOrder(expectedOrder(ROW_COUNT, expectedComparator(rs, columnIndex, descending)), order);
+                }
+        }
+    }
+
+    @Test
+    void multiColumnOrdersMatchAStableListSort() {
+        for (boolean columnar : new boolean[] {true, false}) {
+            VisualResult rs = randomResult(columnar);
+            // string descending, then boolean, then int descending
+            VisualResultRowOrder.RowComparator comparator = VisualResultRowOrder.thenComparing(null, VisualResultRowOrder.createColumnComparator(rs, 4, true));
+            comparator = VisualResultRowOrder.thenComparing(comparator, VisualResultRowOrder.createColumnComparator(rs, 3, false));
+            comparator = VisualResultRowOrder.thenComparing(comparator, VisualResultRowOrder.createColumnComparator(rs, 0, true));
+            Comparator<Integer> expected = expectedComparator(rs, 4, true).thenComparing(expectedComparator(rs, 3, false)).thenComparing(expectedComparator(rs, 0, true));
+            assertOrder(expectedOrder(ROW_COUNT, expected), VisualResultRowOrder.sort(ROW_COUNT, comparator));
+        }
+    }
+
+    @Test
+    void dictionaryRanksFollowTheStringOrder() {
+        // Strings set in the reverse order, so the dictionary codes are in the reverse order of the strings
+        VisualResultBuilder builder = VisualResultBuilder.createColumnar(6, VisualColumn.create("string", PrimType.STRING));
+        String[] values = {"d", null, "c", "b", "d", "a"};
+        for (int rowIndex = 0; rowIndex < values.length; rowIndex++)
+            builder.setValue(rowIndex, 0, values[rowIndex]);
+        VisualResult rs = builder.build();
+        VisualResultRowOrder order = VisualResultRowOrder.sort(6, VisualResultRowOrder.createColumnComparator(rs, 0, false));
+        assertEquals(List.of(1, 5, 3, 2, 0, 4), new ArrayList<>(order.asItems())); // the 2 "d" rows in their initial order
+        order = VisualResultRowOrder.sort(6, VisualResultRowOrder.createColumnComparator(rs, 0, true));
+        assertEquals(List.of(0, 4, 2, 3, 5, 1), new ArrayList<>(order.asItems()));
+    }
+
+    @Test
+    void mixedNumbersAndNullsOfARowBasedResultAreComparedNumerically() {
+        Object[] values = {3, null, 2.5, 10L, -1, null, 2.5f, 3L, 0.0};
+        VisualResultBuilder builder = VisualResultBuilder.create(values.length, VisualColumn.create("number", PrimType.DOUBLE));
+        for (int rowIndex = 0; rowIndex < values.length; rowIndex++)
+            builder.setValue(rowIndex, 0, values[rowIndex]);
+        VisualResult rs = builder.build();
+        VisualResultRowOrder order = VisualResultRowOrder.sort(values.length, VisualResultRowOrder.createColumnComparator(rs, 0, false));
+        assertOrder(expectedOrder(values.length, expectedComparator(rs, 0, false)), order);
+        assertEquals(List.of(1, 5, 4, 8, 2, 6, 0, 7, 3), new ArrayList<>(order.asItems()));
+    }
+
+    @Test
+    void sortingAnEmptyOrSingleRowResultIsTheIdentity() {
+        assertEquals(List.of(), new ArrayList<>(VisualResultRowOrder.sort(0, (r1, r2) -> 0).asItems()));
+        assertEquals(List.of(0), new ArrayList<>(VisualResultRowOrder.sort(1, (r1, r2) -> 0).asItems()));
+    }
+}
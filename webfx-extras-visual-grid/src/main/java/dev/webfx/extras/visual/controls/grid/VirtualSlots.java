@@ -0,0 +1,36 @@
+package dev.webfx.extras.visual.controls.grid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Slots of the materialized rows of a virtualized grid (the slot index is rowIndex - firstRow), used for the row panes
+ * and for the cells of each column.
+ *
+ * @author Bruno Salmon
+ */
+final class VirtualSlots {
+
+    private VirtualSlots() {}
+
+    /**
+     * Shifts the slots when the window of the materialized rows moves to [firstRow, lastRow) while scrolling: the slots
+     * of the rows staying in the window are kept (at their new index), the non-null slots of the rows leaving it are
+     * passed to the recycler (if any), and the slots of the rows entering it are null (to be materialized).
+     */
+    static <T> void shift(List<T> slots, int oldFirstRow, int firstRow, int lastRow, Consumer<? super T> recycler) {
+        int oldLastRow = oldFirstRow + slots.size();
+        List<T> windowSlots = new ArrayList<>(Math.max(0, lastRow - firstRow));
+        for (int rowIndex = firstRow; rowIndex < lastRow; rowIndex++)
+            windowSlots.add(rowIndex >= oldFirstRow && rowIndex < oldLastRow ? slots.get(rowIndex - oldFirstRow) : null);
+        if (recycler != null)
+            for (int rowIndex = oldFirstRow; rowIndex < oldLastRow; rowIndex++) {
+                T slot = slots.get(rowIndex - oldFirstRow);
+                if (slot != null && (rowIndex < firstRow || rowIndex >= lastRow))
+                    recycler.accept(slot);
+            }
+        slots.clear();
+        slots.addAll(windowSlots);
+    }
+}
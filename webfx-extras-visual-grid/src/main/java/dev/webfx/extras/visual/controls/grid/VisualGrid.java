@@ -1,8 +1,13 @@
 package dev.webfx.extras.visual.controls.grid;
 
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import dev.webfx.extras.visual.controls.grid.registry.VisualGridRegistry;
+import dev.webfx.extras.visual.ColumnWidthEstimator;
 import dev.webfx.extras.visual.VisualResult;
 import dev.webfx.extras.visual.controls.SelectableVisualResultControl;
 
@@ -46,6 +51,52 @@ public class VisualGrid extends SelectableVisualResultControl {
         this.fullHeightProperty.set(fullHeight);
     }
 
+    // When virtualized, the skin materializes only the rows intersecting the enclosing viewport (plus the overscan rows
+    // above and below it), and recycles these rows while scrolling. The full content height is still reported.
+    private final BooleanProperty virtualizedProperty = new SimpleBooleanProperty(false);
+
+    public BooleanProperty virtualizedProperty() {
+        return virtualizedProperty;
+    }
+
+    public boolean isVirtualized() {
+        return virtualizedProperty.get();
+    }
+
+    public void setVirtualized(boolean virtualized) {
+        this.virtualizedProperty.set(virtualized);
+    }
+
+    private final IntegerProperty overscanProperty = new SimpleIntegerProperty(10);
+
+    public IntegerProperty overscanProperty() {
+        return overscanProperty;
+    }
+
+    public int getOverscan() {
+        return overscanProperty.get();
+    }
+
+    public void setOverscan(int overscan) {
+        this.overscanProperty.set(overscan);
+    }
+
+    // Strategy used to compute the width of the columns that have no fixed width (unless the visual column provides its
+    // own cumulator)
+    private final ObjectProperty<ColumnWidthEstimator> columnWidthEstimatorProperty = new SimpleObjectProperty<>(ColumnWidthEstimator.EXACT);
+
+    public ObjectProperty<ColumnWidthEstimator> columnWidthEstimatorProperty() {
+        return columnWidthEstimatorProperty;
+    }
+
+    public ColumnWidthEstimator getColumnWidthEstimator() {
+        return columnWidthEstimatorProperty.get();
+    }
+
+    public void setColumnWidthEstimator(ColumnWidthEstimator columnWidthEstimator) {
+        this.columnWidthEstimatorProperty.set(columnWidthEstimator);
+    }
+
     static {
         VisualGridRegistry.registerVisualGrid();
     }
@@ -1,26 +1,36 @@
 package dev.webfx.extras.visual.controls.grid;
 
+import javafx.collections.ObservableList;
+import javafx.geometry.Bounds;
 import javafx.geometry.HPos;
 import javafx.geometry.Insets;
 import javafx.geometry.VPos;
 import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.Background;
-import javafx.scene.layout.BackgroundFill;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.Region;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.Paint;
 import javafx.scene.shape.Rectangle;
+import dev.webfx.extras.cell.renderer.ValueRenderer;
+import dev.webfx.extras.cell.renderer.ValueRendererNodePool;
 import dev.webfx.extras.visual.*;
 import dev.webfx.extras.visual.controls.SelectableVisualResultControlSkinBase;
 import dev.webfx.kit.util.properties.FXProperties;
+import dev.webfx.kit.util.properties.Unregisterable;
 import dev.webfx.platform.uischeduler.UiScheduler;
 import dev.webfx.platform.scheduler.Scheduled;
 import dev.webfx.platform.util.collection.Collections;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
@@ -35,6 +45,22 @@ public final class VisualGridSkin extends SelectableVisualResultControlSkinBase<
     private double headOffset;
     private final static Pane fakeCell = new Pane();
     private List<Node> fakeCellChildren;
+    private List<Object> fakeCellValues; // values rendered in fakeCellChildren (used as width cache keys)
+    private Object fillingCellValue;
+    // Virtualized mode (captured from VisualGrid.virtualizedProperty() at each grid build)
+    private boolean virtualized;
+    private int virtualFirstRow, virtualLastRow; // The materialized rows are [virtualFirstRow, virtualLastRow)
+    private final List<Pane> recycledRows = new ArrayList<>();
+    // Cell contents of the previous builds, rebound to the new values instead of rendering new nodes
+    private final ValueRendererNodePool cellNodePool = new ValueRendererNodePool();
+    private int buildNumber; // Incremented on each build, so a progressive build can stop when a new build starts
+    private ScrollPane enclosingScrollPane;
+    private Unregisterable enclosingScrollPaneListener;
+    // When the body is not directly the scroll pane content (ex: full height grid scrolled with its page), the visible
+    // range is tracked through the vertical position of the body ancestors and the scene height
+    private List<Node> watchedAncestors = new ArrayList<>();
+    private Scene watchedScene;
+    private final List<Unregisterable> ancestorListeners = new ArrayList<>();
 
     private final static double rowHeight = 24;
     private final static double headerHeight = rowHeight;
@@ -75,6 +101,8 @@ public final class VisualGridSkin extends SelectableVisualResultControlSkinBase<
             else
                 getChildren().setAll(body);
         }, visualGrid.headerVisibleProperty(), visualGrid.fullHeightProperty());
+        FXProperties.runOnPropertiesChange(() -> UiScheduler.runInUiThread(this::buildGrid), visualGrid.virtualizedProperty(), visualGrid.columnWidthEstimatorProperty());
+        FXProperties.runOnPropertiesChange(this::updateVirtualRows, visualGrid.overscanProperty(), gridBody.sceneProperty(), gridBody.layoutBoundsProperty());
         start();
     }
 
@@ -89,8 +117,19 @@ public final class VisualGridSkin extends SelectableVisualResultControlSkinBase<
 
     @Override
     protected void startBuildingGrid() {
+        buildNumber++;
+        boolean wasVirtualized = virtualized;
+        virtualized = getSkinnable().isVirtualized();
         gridHead.startBuildingGrid();
-        gridBody.startBuildingGrid();
+        gridBody.startBuildingGrid(wasVirtualized && virtualized);
+        virtualFirstRow = virtualLastRow = 0;
+    }
+
+    @Override
+    protected void buildRows() {
+        // In virtualized mode, the rows are materialized on demand by updateVirtualRows()
+        if (!virtualized)
+            super.buildRows();
     }
 
     @Override
@@ -101,16 +140,21 @@ public final class VisualGridSkin extends SelectableVisualResultControlSkinBase<
 
     @Override
     protected void endBuildingGrid() {
-        if (getRowCount() <= 20) {
+        if (virtualized) {
+            gridHead.endBuildingGrid();
+            gridBody.endBuildingGrid();
+            updateVirtualRows();
+        } else if (getRowCount() <= 20) {
             gridHead.endBuildingGrid();
             gridBody.endBuildingGrid();
         } else
             UiScheduler.schedulePeriodicInAnimationFrame(new Consumer<Scheduled/*GWT*/>() {
                 final VisualResult rs = getRs();
+                final int build = buildNumber; // A patchable visual result can be built again while being the same object
                 int rowIndex = 0;
                 @Override
                 public void accept(Scheduled scheduled) {
-                    if (rs != getRs())
+                    if (rs != getRs() || build != buildNumber)
                         scheduled.cancel();
                     else {
                         if (rowIndex >= getRowCount())
@@ -128,6 +172,78 @@ public final class VisualGridSkin extends SelectableVisualResultControlSkinBase<
             });
     }
 
+    private void updateVirtualRows() {
+        if (!virtualized) {
+            updateAncestorListeners(false);
+            return;
+        }
+        updateEnclosingScrollPane();
+        // Computing the vertical range of the body that is visible through the enclosing viewport
+        double top = 0, bottom = 0;
+        ScrollPane scrollPane = enclosingScrollPane;
+        Scene scene = gridBody.getScene();
+        boolean scrollPaneContent = scrollPane != null && scrollPane.getContent() == gridBody;
+        updateAncestorListeners(!scrollPaneContent);
+        if (scrollPaneContent) {
+            double vmin = scrollPane.getVmin();
+            double vmax = scrollPane.getVmax();
+            double vvalue = scrollPane.getVvalue();
+            double contentHeight = gridBody.getLayoutBounds().getHeight();
+            double viewportHeight = scrollPane.getViewportBounds().getHeight();
+            top = vmax <= vmin ? 0 : Math.max(0, contentHeight - viewportHeight) * (vvalue - vmin) / (vmax - vmin);
+            bottom = top + viewportHeight;
+        } else if (scene != null) { // The body is not directly the scroll pane content (ex: full height grid in a page)
+            double viewportMinY = 0, viewportMaxY = scene.getHeight();
+            if (scrollPane != null) {
+                Bounds scrollPaneSceneBounds = scrollPane.localToScene(scrollPane.getLayoutBounds());
+                viewportMinY = Math.max(viewportMinY, scrollPaneSceneBounds.getMinY());
+                viewportMaxY = Math.min(viewportMaxY, scrollPaneSceneBounds.getMaxY());
+            }
+            double bodySceneY = gridBody.localToScene(gridBody.getLayoutBounds()).getMinY();
+            top = viewportMinY - bodySceneY;
+            bottom = viewportMaxY - bodySceneY;
+        }
+        int overscan = Math.max(0, getSkinnable().getOverscan());
+        int rowCount = getRowCount();
+        int lastRow = Math.max(0, Math.min(rowCount, (int) Math.ceil(bottom / rowHeight) + overscan));
+        int firstRow = Math.min(lastRow, Math.max(0, (int) (top / rowHeight) - overscan));
+        if (firstRow != virtualFirstRow || lastRow != virtualLastRow)
+            gridBody.updateVirtualRows(firstRow, lastRow);
+    }
+
+    private void updateEnclosingScrollPane() {
+        ScrollPane scrollPane = null;
+        for (Parent parent = gridBody.getParent(); parent != null && scrollPane == null; parent = parent.getParent())
+            if (parent instanceof ScrollPane)
+                scrollPane = (ScrollPane) parent;
+        if (scrollPane != enclosingScrollPane) {
+            if (enclosingScrollPaneListener != null)
+                enclosingScrollPaneListener.unregister();
+            enclosingScrollPane = scrollPane;
+            enclosingScrollPaneListener = scrollPane == null ? null :
+                FXProperties.runOnPropertiesChange(this::updateVirtualRows, scrollPane.vvalueProperty(), scrollPane.viewportBoundsProperty());
+        }
+    }
+
+    private void updateAncestorListeners(boolean needed) {
+        List<Node> ancestors = new ArrayList<>();
+        Scene scene = needed ? gridBody.getScene() : null;
+        if (scene != null)
+            for (Node node = gridBody; node != null; node = node.getParent())
+                ancestors.add(node);
+        if (scene == watchedScene && ancestors.equals(watchedAncestors))
+            return;
+        for (Unregisterable ancestorListener : ancestorListeners)
+            ancestorListener.unregister();
+        ancestorListeners.clear();
+        for (Node ancestor : ancestors)
+            ancestorListeners.add(FXProperties.runOnPropertiesChange(this::updateVirtualRows, ancestor.layoutYProperty(), ancestor.translateYProperty()));
+        if (scene != null)
+            ancestorListeners.add(FXProperties.runOnPropertiesChange(this::updateVirtualRows, scene.heightProperty()));
+        watchedAncestors = ancestors;
+        watchedScene = scene;
+    }
+
     @Override
     protected void setUpGridColumn(int gridColumnIndex, int rsColumnIndex, VisualColumn visualColumn) {
         GridColumn headColumn = gridHead.getOrCreateHeadColumn(gridColumnIndex);
@@ -163,11 +279,36 @@ public final class VisualGridSkin extends SelectableVisualResultControlSkinBase<
         return gridBody.getOrAddBodyRowCell(gridColumnIndex);
     }
 
+    @Override
+    public void fillCell(Pane cell, Object cellValue, VisualColumn visualColumn) {
+        fillingCellValue = cellValue;
+        super.fillCell(cell, cellValue, visualColumn);
+        fillingCellValue = null;
+    }
+
+    @Override
+    protected boolean patchBodyRows(VisualResultRowMapping rowMapping) {
+        if (!virtualized)
+            return gridBody.patchStackedRows(rowMapping);
+        gridBody.patchVirtualRows(rowMapping);
+        updateVirtualRows(); // in case the rows visible through the viewport changed (ex: appended rows)
+        return true;
+    }
+
+    @Override
+    protected Node renderCellValue(Object cellValue, VisualColumn visualColumn, ValueRenderer valueRenderer) {
+        return cellNodePool.renderValue(valueRenderer, cellValue, visualColumn.getValueRenderingContext());
+    }
+
     @Override
     protected void setCellContent(Pane cell, Node content, VisualColumn visualColumn) {
         if (content != null) {
-            List<Node> children = cell == fakeCell ? fakeCellChildren : cell.getChildren();
-            children.add(content);
+            if (cell == fakeCell) {
+                fakeCellChildren.add(content);
+                if (fakeCellValues != null)
+                    fakeCellValues.add(fillingCellValue);
+            } else
+                cell.getChildren().add(content);
         }
     }
 
@@ -305,7 +446,9 @@ public final class VisualGridSkin extends SelectableVisualResultControlSkinBase<
         }
 
         Pane getOrAddHeadCell(int gridColumnIndex) {
-            return getOrCreateHeadColumn(gridColumnIndex).getOrAddBodyRowCell();
+            Pane headCell = getOrCreateHeadColumn(gridColumnIndex).getOrAddBodyRowCell();
+            fakeCellValues = null; // the header is measured without cache
+            return headCell;
         }
 
         private GridColumn getOrCreateHeadColumn(int columnIndex) {
@@ -337,19 +480,28 @@ public final class VisualGridSkin extends SelectableVisualResultControlSkinBase<
     private final class GridBody extends Region {
         private final List<Pane> bodyRows = new ArrayList<>();
         private final List<GridColumn> bodyColumns = new ArrayList<>();
+        private boolean patchingStackedCells;
 
         GridBody() {
             getStyleClass().add("grid-body");
         }
 
-        void startBuildingGrid() {
+        void startBuildingGrid(boolean recycleRows) {
+            if (!recycleRows)
+                recycledRows.clear();
+            else // The rows of the previous build will be reused for the new materialized rows
+                for (Pane bodyRow : bodyRows)
+                    recycleBodyRow(bodyRow);
             bodyRows.clear();
+            for (GridColumn bodyColumn : bodyColumns)
+                bodyColumn.recycleCells();
             bodyColumns.clear();
         }
 
         void endBuildingGrid() {
-            List<Node> rowsAndColumns = new ArrayList<>(bodyRows.size() + bodyColumns.size());
+            List<Node> rowsAndColumns = new ArrayList<>(bodyRows.size() + recycledRows.size() + bodyColumns.size());
             rowsAndColumns.addAll(bodyRows);
+            rowsAndColumns.addAll(recycledRows);
             rowsAndColumns.addAll(bodyColumns);
             getChildren().setAll(rowsAndColumns);
             //setPrefWidth(getGridColumnCount() * columnWidth);
@@ -365,7 +517,7 @@ public final class VisualGridSkin extends SelectableVisualResultControlSkinBase<
                 gridColumn.setOnMouseClicked(e -> {
                     if (getSkinnable().getSelectionMode() != SelectionMode.DISABLED) {
                         int rowIndex = (int) (e.getY() / rowHeight);
-                        Pane row = Collections.get(bodyRows, rowIndex);
+                        Pane row = getMaterializedBodyRow(rowIndex);
                         if (row != null)
                             row.getOnMouseClicked().handle(e);
                     }
@@ -375,7 +527,35 @@ public final class VisualGridSkin extends SelectableVisualResultControlSkinBase<
             return gridColumn;
         }
 
+        Pane getMaterializedBodyRow(int rowIndex) {
+            if (virtualized)
+                rowIndex -= virtualFirstRow;
+            return rowIndex < 0 ? null : Collections.get(bodyRows, rowIndex);
+        }
+
         Pane getOrAddBodyRow(int rowIndex) {
+            if (virtualized) {
+                if (rowIndex < virtualFirstRow || rowIndex >= virtualLastRow)
+                    return null; // This row is not materialized
+                int slot = rowIndex - virtualFirstRow;
+                Pane bodyRow = bodyRows.get(slot);
+                if (bodyRow == null) {
+                    int lastIndex = recycledRows.size() - 1;
+                    if (lastIndex >= 0) {
+                        bodyRow = recycledRows.remove(lastIndex);
+                        bodyRow.getStyleClass().setAll("grid-row");
+                        bodyRow.setVisible(true);
+                    } else {
+                        bodyRow = new Pane();
+                        bodyRow.getStyleClass().add("grid-row");
+                        getChildren().add(0, bodyRow); // rows must stay behind the columns
+                    }
+                    bodyRow.relocate(0, rowIndex * rowHeight);
+                    bodyRow.resize(columnWidthsTotal, rowHeight);
+                    bodyRows.set(slot, bodyRow);
+                }
+                return bodyRow;
+            }
             Pane bodyRow;
             if (rowIndex < bodyRows.size())
                 bodyRow = bodyRows.get(rowIndex);
@@ -390,7 +570,113 @@ public final class VisualGridSkin extends SelectableVisualResultControlSkinBase<
         }
 
         Pane getOrAddBodyRowCell(int gridColumnIndex) {
-            return getOrCreateBodyColumn(gridColumnIndex).getOrAddBodyRowCell();
+            GridColumn bodyColumn = getOrCreateBodyColumn(gridColumnIndex);
+            return virtualized || patchingStackedCells ? bodyColumn.getOrAddVirtualRowCell() : bodyColumn.getOrAddBodyRowCell();
+        }
+
+        private void recycleBodyRow(Pane bodyRow) {
+            if (bodyRow != null) {
+                bodyRow.setVisible(false);
+                bodyRow.setOnMouseClicked(null);
+                recycledRows.add(bodyRow);
+            }
+        }
+
+        void updateVirtualRows(int firstRow, int lastRow) {
+            int oldFirstRow = virtualFirstRow;
+            // Keeping the rows that are still in the window, and recycling the others
+            VirtualSlots.shift(bodyRows, oldFirstRow, firstRow, lastRow, this::recycleBodyRow);
+            for (GridColumn bodyColumn : bodyColumns)
+                bodyColumn.shiftVirtualCells(oldFirstRow, firstRow, lastRow);
+            virtualFirstRow = firstRow;
+            virtualLastRow = lastRow;
+            // Materializing the rows that just entered the window
+            for (int rowIndex = firstRow; rowIndex < lastRow; rowIndex++) {
+                if (bodyRows.get(rowIndex - firstRow) == null) {
+                    Pane bodyRow = getOrAddBodyRow(rowIndex);
+                    setUpBodyRow(bodyRow, rowIndex);
+                    VisualGridSkin.super.buildRowCells(bodyRow, rowIndex);
+                    for (GridColumn bodyColumn : bodyColumns)
+                        bodyColumn.collectVirtualRowCell(rowIndex);
+                }
+            }
+            for (GridColumn bodyColumn : bodyColumns)
+                bodyColumn.syncChildrenWithVirtualCells();
+        }
+
+        void patchVirtualRows(VisualResultRowMapping rowMapping) {
+            int firstRow = virtualFirstRow, lastRow = virtualLastRow;
+            // Releasing the materialized rows whose index or content changed, so they are materialized again below
+            for (int rowIndex = firstRow; rowIndex < lastRow; rowIndex++) {
+                if (rowIndex >= rowMapping.getRowCount() || !rowMapping.isRowUnchanged(rowIndex)) {
+                    int slot = rowIndex - firstRow;
+                    recycleBodyRow(bodyRows.get(slot));
+                    bodyRows.set(slot, null);
+                    for (GridColumn bodyColumn : bodyColumns)
+                        bodyColumn.releaseVirtualCell(slot);
+                }
+            }
+            int rowCount = getRowCount();
+            lastRow = Math.min(lastRow, rowCount);
+            updateVirtualRows(Math.min(firstRow, lastRow), lastRow);
+            setPrefHeight(rowCount * rowHeight);
+        }
+
+        // Non-virtualized mode: the row panes are indexed by row, and the cells are stacked in the columns in the row order
+        boolean patchStackedRows(VisualResultRowMapping rowMapping) {
+            int oldRowCount = rowMapping.getOldRowCount(), rowCount = rowMapping.getRowCount();
+            // The rows can be patched only once all their cells are built (see the progressive build in endBuildingGrid())
+            if (bodyRows.size() != oldRowCount)
+                return false;
+            for (GridColumn bodyColumn : bodyColumns)
+                if (!bodyColumn.hasStackedCells(oldRowCount))
+                    return false;
+            // The mapping doesn't move the rows, so the old indexes of the kept rows are increasing
+            boolean[] keptOldRows = new boolean[oldRowCount];
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                int oldRowIndex = rowMapping.getOldRowIndex(rowIndex);
+                if (oldRowIndex >= 0)
+                    keptOldRows[oldRowIndex] = true;
+            }
+            // 1) Removing the panes and cells of the deleted rows
+            List<Pane> oldBodyRows = new ArrayList<>(bodyRows);
+            List<Node> deletedRows = new ArrayList<>();
+            for (int oldRowIndex = 0; oldRowIndex < oldRowCount; oldRowIndex++)
+                if (!keptOldRows[oldRowIndex])
+                    deletedRows.add(oldBodyRows.get(oldRowIndex));
+            getChildren().removeAll(deletedRows);
+            for (GridColumn bodyColumn : bodyColumns)
+                bodyColumn.removeStackedCells(keptOldRows);
+            // 2) Setting up the inserted and updated rows again, and rendering their cells only
+            bodyRows.clear();
+            List<Pane> insertedRows = new ArrayList<>();
+            patchingStackedCells = true; // the rendered cells are collected, and then placed by each column
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                int oldRowIndex = rowMapping.getOldRowIndex(rowIndex);
+                Pane bodyRow;
+                if (oldRowIndex < 0) {
+                    bodyRow = new Pane();
+                    bodyRow.getStyleClass().add("grid-row");
+                    insertedRows.add(bodyRow);
+                } else {
+                    bodyRow = oldBodyRows.get(oldRowIndex);
+                    if (rowMapping.isRowUnchanged(rowIndex)) {
+                        bodyRows.add(bodyRow);
+                        continue;
+                    }
+                    bodyRow.getStyleClass().setAll("grid-row"); // the row style will be applied again
+                }
+                bodyRow.relocate(0, rowIndex * rowHeight);
+                bodyRows.add(bodyRow);
+                setUpBodyRow(bodyRow, rowIndex);
+                VisualGridSkin.super.buildRowCells(bodyRow, rowIndex);
+                for (GridColumn bodyColumn : bodyColumns)
+                    bodyColumn.placeStackedCell(rowIndex, oldRowIndex < 0);
+            }
+            patchingStackedCells = false;
+            getChildren().addAll(0, insertedRows); // rows must stay behind the columns
+            setPrefHeight(rowCount * rowHeight);
+            return true;
         }
 
         void applyBodyRowStyleAndBackground(Pane bodyRow, int rowIndex) {
@@ -401,7 +687,7 @@ public final class VisualGridSkin extends SelectableVisualResultControlSkinBase<
                         bodyRow.getStyleClass().add(rowStyleClass.toString());
             }
             Paint fill = getRowBackground(rowIndex);
-            bodyRow.setBackground(fill == null ? null : new Background(new BackgroundFill(fill, null, null)));
+            bodyRow.setBackground(getRowStyleCache().getBackground(fill));
             //bodyRow.setBackground(new Background(new BackgroundFill(Color.YELLOW, null, null)));
         }
 
@@ -409,7 +695,8 @@ public final class VisualGridSkin extends SelectableVisualResultControlSkinBase<
         protected void layoutChildren() {
             double width = columnWidthsTotal;
             for (Pane row : bodyRows)
-                row.resize(width, rowHeight);
+                if (row != null)
+                    row.resize(width, rowHeight);
             double x = 0;
             double height = rowHeight * getRowCount();
             for (GridColumn bodyColumn : bodyColumns) {
@@ -425,10 +712,18 @@ public final class VisualGridSkin extends SelectableVisualResultControlSkinBase<
 
     private final class GridColumn extends Pane {
         private Double fixedWidth;
+        private VisualColumn visualColumn;
         private ColumnWidthCumulator cumulator;
+        // Values rendered by the children (same size and order), so the cumulator can cache the measured widths
+        private final List<Object> cellValues = new ArrayList<>();
         private HPos hAlignment = HPos.LEFT;
         private final VPos vAlignment = VPos.CENTER;
         private double columnWidth;
+        // Virtualized mode: cell of each materialized row (index = rowIndex - virtualFirstRow), null if no content
+        private final List<Node> virtualCells = new ArrayList<>();
+        private final List<Node> virtualCellCollector = new ArrayList<>(1);
+        private final List<Object> virtualCellValues = new ArrayList<>();
+        private final List<Object> virtualCellValueCollector = new ArrayList<>(1);
 
         GridColumn() {
             getStyleClass().add("grid-col");
@@ -443,6 +738,7 @@ public final class VisualGridSkin extends SelectableVisualResultControlSkinBase<
         }
 
         void setVisualColumn(VisualColumn visualColumn) {
+            this.visualColumn = visualColumn;
             VisualStyle style = visualColumn.getStyle();
             if (style != null) {
                 fixedWidth = style.getPrefWidth();
@@ -462,12 +758,12 @@ public final class VisualGridSkin extends SelectableVisualResultControlSkinBase<
         void setCumulator(ColumnWidthCumulator cumulator) {
             this.cumulator = cumulator;
             if (cumulator != null)
-                cumulator.registerColumnNodes(getChildren());
+                cumulator.registerColumnNodes(getChildren(), cellValues, visualColumn == null ? null : visualColumn.getValueRenderer());
         }
 
         ColumnWidthCumulator getCumulator() {
             if (cumulator == null)
-                setCumulator(new ColumnWidthCumulator());
+                setCumulator(new ColumnWidthCumulator(getSkinnable().getColumnWidthEstimator()));
             return cumulator;
         }
 
@@ -479,14 +775,142 @@ public final class VisualGridSkin extends SelectableVisualResultControlSkinBase<
 
         Pane getOrAddBodyRowCell() {
             fakeCellChildren = getChildren();
+            fakeCellValues = cellValues;
             return fakeCell;
         }
 
+        Pane getOrAddVirtualRowCell() {
+            virtualCellCollector.clear();
+            virtualCellValueCollector.clear();
+            fakeCellChildren = virtualCellCollector;
+            fakeCellValues = virtualCellValueCollector;
+            return fakeCell;
+        }
+
+        void collectVirtualRowCell(int rowIndex) {
+            boolean empty = virtualCellCollector.isEmpty();
+            virtualCells.set(rowIndex - virtualFirstRow, empty ? null : virtualCellCollector.get(0));
+            virtualCellValues.set(rowIndex - virtualFirstRow, empty ? null : virtualCellValueCollector.get(0));
+            virtualCellCollector.clear();
+            virtualCellValueCollector.clear();
+        }
+
+        void recycleCells() {
+            if (visualColumn != null) {
+                ValueRenderer valueRenderer = visualColumn.getValueRenderer();
+                for (Node cell : getChildren())
+                    cellNodePool.recycle(valueRenderer, cell);
+            }
+            getChildren().clear();
+        }
+
+        void releaseVirtualCell(int slot) {
+            Node cell = virtualCells.get(slot);
+            if (cell != null && visualColumn != null)
+                cellNodePool.recycle(visualColumn.getValueRenderer(), cell);
+            virtualCells.set(slot, null);
+            virtualCellValues.set(slot, null);
+        }
+
+        void shiftVirtualCells(int oldFirstRow, int firstRow, int lastRow) {
+            // The cells of the rows leaving the window go back to the pool for the rows entering it
+            ValueRenderer valueRenderer = visualColumn == null ? null : visualColumn.getValueRenderer();
+            VirtualSlots.shift(virtualCells, oldFirstRow, firstRow, lastRow, valueRenderer == null ? null : cell -> cellNodePool.recycle(valueRenderer, cell));
+            VirtualSlots.shift(virtualCellValues, oldFirstRow, firstRow, lastRow, null);
+        }
+
+        boolean hasStackedCells(int rowCount) {
+            return getChildren().size() == rowCount && cellValues.size() == rowCount;
+        }
+
+        void removeStackedCells(boolean[] keptOldRows) {
+            ObservableList<Node> children = getChildren();
+            List<Node> deletedCells = new ArrayList<>();
+            List<Object> keptValues = new ArrayList<>(cellValues.size());
+            for (int oldRowIndex = 0; oldRowIndex < keptOldRows.length; oldRowIndex++) {
+                if (keptOldRows[oldRowIndex])
+                    keptValues.add(cellValues.get(oldRowIndex));
+                else
+                    deletedCells.add(children.get(oldRowIndex));
+            }
+            if (!deletedCells.isEmpty()) {
+                children.removeAll(deletedCells);
+                if (visualColumn != null) {
+                    ValueRenderer valueRenderer = visualColumn.getValueRenderer();
+                    for (Node cell : deletedCells)
+                        cellNodePool.recycle(valueRenderer, cell);
+                }
+            }
+            cellValues.clear();
+            cellValues.addAll(keptValues);
+        }
+
+        void placeStackedCell(int rowIndex, boolean inserted) {
+            // A placeholder keeps the cells aligned with their rows when the rendered value has no content
+            Node cell = virtualCellCollector.isEmpty() ? new Pane() : virtualCellCollector.get(0);
+            Object value = virtualCellValueCollector.isEmpty() ? null : virtualCellValueCollector.get(0);
+            virtualCellCollector.clear();
+            virtualCellValueCollector.clear();
+            ObservableList<Node> children = getChildren();
+            if (inserted) {
+                cellValues.add(rowIndex, value);
+                children.add(rowIndex, cell);
+            } else {
+                Node oldCell = children.get(rowIndex);
+                cellValues.set(rowIndex, value);
+                children.set(rowIndex, cell);
+                if (visualColumn != null)
+                    cellNodePool.recycle(visualColumn.getValueRenderer(), oldCell);
+            }
+        }
+
+        void syncChildrenWithVirtualCells() {
+            // Diffing the children with the window cells (the children order doesn't matter, as the layout is done
+            // from virtualCells), so the cells staying in the window are not removed and added again
+            Map<Node, Object> windowCellValues = new HashMap<>();
+            for (int slot = 0; slot < virtualCells.size(); slot++) {
+                Node cell = virtualCells.get(slot);
+                if (cell != null)
+                    windowCellValues.put(cell, virtualCellValues.get(slot));
+            }
+            ObservableList<Node> children = getChildren();
+            Set<Node> leavingCells = null;
+            for (Node child : children)
+                if (!windowCellValues.containsKey(child)) {
+                    if (leavingCells == null)
+                        leavingCells = new HashSet<>();
+                    leavingCells.add(child);
+                }
+            if (leavingCells != null)
+                children.removeAll(leavingCells);
+            if (children.size() < windowCellValues.size()) {
+                Set<Node> keptCells = new HashSet<>(children);
+                List<Node> enteringCells = new ArrayList<>(windowCellValues.size() - children.size());
+                for (Node cell : virtualCells)
+                    if (cell != null && !keptCells.contains(cell))
+                        enteringCells.add(cell);
+                children.addAll(enteringCells);
+            }
+            // The values must be in the same order as the children
+            cellValues.clear();
+            for (Node child : children)
+                cellValues.add(windowCellValues.get(child));
+        }
+
         @Override
         protected void layoutChildren() {
             //System.out.println("Column " + columnIndex + " - layoutChildren() with " + getChildren().size() + " children");
             boolean snapToPixel = getSkinnable().isSnapToPixel();
             double cellWidth = getWidth();
+            if (virtualized) {
+                double y = virtualFirstRow * rowHeight;
+                for (Node cell : virtualCells) {
+                    if (cell != null)
+                        layoutInArea(cell, 0, y, cellWidth, rowHeight, -1, CELL_MARGIN, true, true, hAlignment, vAlignment, snapToPixel);
+                    y += rowHeight;
+                }
+                return;
+            }
             double y = 0;
             for (Node child : getChildren()) {
                 layoutInArea(child, 0, y, cellWidth, rowHeight, -1, CELL_MARGIN, true, true, hAlignment, vAlignment, snapToPixel);
@@ -0,0 +1,119 @@
+package dev.webfx.extras.visual.controls.grid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the recycling of the materialized rows while scrolling a virtualized grid.
+ *
+ * @author Bruno Salmon
+ */
+class VirtualSlotsTest {
+
+    private static final class Row {
+        int rowIndex; // The row currently shown by this object
+
+        Row(int rowIndex) {
+            this.rowIndex = rowIndex;
+        }
+    }
+
+    // Window of materialized rows, reusing the rows leaving the window for the rows entering it (as VisualGridSkin does)
+    private static final class RowWindow {
+        final List<Row> slots = new ArrayList<>();
+        final List<Row> recycledRows = new ArrayList<>();
+        int firstRow, createdRowCount, recycledRowCount;
+
+        void scrollTo(int firstRow, int lastRow) {
+            VirtualSlots.shift(slots, this.firstRow, firstRow, lastRow, row -> {
+                recycledRowCount++;
+                recycledRows.add(row);
+            });
+            this.firstRow = firstRow;
+            for (int slot = 0; slot < slots.size(); slot++)
+                if (slots.get(slot) == null) { // materializing the row entering the window
+                    Row row;
+                    if (!recycledRows.isEmpty()) {
+                        row = recycledRows.remove(recycledRows.size() - 1);
+                        row.rowIndex = firstRow + slot;
+                    } else {
+                        row = new Row(firstRow + slot);
+                        createdRowCount++;
+                    }
+                    slots.set(slot, row);
+                }
+        }
+
+        void assertRows(int firstRow, int lastRow) {
+            assertEquals(lastRow - firstRow, slots.size());
+            Map<Row, Boolean> distinctRows = new IdentityHashMap<>();
+            for (int slot = 0; slot < slots.size(); slot++) {
+                assertEquals(firstRow + slot, slots.get(slot).rowIndex);
+                distinctRows.put(slots.get(slot), true);
+            }
+            assertEquals(slots.size(), distinctRows.size());
+        }
+    }
+
+    @Test
+    void rowsStayingInTheWindowAreKept() {
+        List<String> slots = new ArrayList<>(Arrays.asList("r10", "r11", "r12", "r13"));
+        List<String> recycled = new ArrayList<>();
+        VirtualSlots.shift(slots, 10, 12, 16, recycled::add); // scrolling down by 2 rows
+        assertEquals(Arrays.asList("r12", "r13", null, null), slots);
+        assertEquals(Arrays.asList("r10", "r11"), recycled);
+        recycled.clear();
+        VirtualSlots.shift(slots, 12, 11, 14, recycled::add); // scrolling up by 1 row with a smaller window
+        assertEquals(Arrays.asList(null, "r12", "r13"), slots);
+        assertTrue(recycled.isEmpty()); // the null slots are not recycled
+        VirtualSlots.shift(slots, 11, 100, 102, recycled::add); // jumping far away
+        assertEquals(Arrays.asList(null, null), slots);
+        assertEquals(Arrays.asList("r12", "r13"), recycled);
+        VirtualSlots.shift(slots, 100, 0, 0, null); // empty window
+        assertTrue(slots.isEmpty());
+    }
+
+    @Test
+    void rowsAreRecycledWhileScrolling() {
+        int windowSize = 30, rowCount = 10_000;
+        RowWindow window = new RowWindow();
+        window.scrollTo(0, windowSize);
+        window.assertRows(0, windowSize);
+        Random random = new Random(42);
+        int firstRow = 0;
+        for (int step = 0; step < 1000; step++) {
+            // Mostly small scrolls (ex: mouse wheel) in both directions, sometimes jumps (ex: scroll bar drag)
+            int delta = random.nextInt(10) == 0 ? random.nextInt(2000) - 1000 : random.nextInt(21) - 10;
+            int newFirstRow = Math.max(0, Math.min(rowCount - windowSize, firstRow + delta));
+            List<Row> oldSlots = new ArrayList<>(window.slots);
+            int oldFirstRow = firstRow;
+            window.scrollTo(firstRow = newFirstRow, newFirstRow + windowSize);
+            window.assertRows(firstRow, firstRow + windowSize);
+            // The rows staying in the window are the same objects, at their new slot
+            for (int rowIndex = Math.max(oldFirstRow, firstRow); rowIndex < Math.min(oldFirstRow, firstRow) + windowSize; rowIndex++)
+                assertSame(oldSlots.get(rowIndex - oldFirstRow), window.slots.get(rowIndex - firstRow));
+        }
+        assertEquals(windowSize, window.createdRowCount); // only the rows of the first window were created
+        assertTrue(window.recycledRowCount > windowSize);
+        assertTrue(window.recycledRows.isEmpty());
+    }
+
+    @Test
+    void growingWindowCreatesOnlyTheMissingRows() {
+        RowWindow window = new RowWindow();
+        window.scrollTo(0, 10);
+        window.scrollTo(5, 10); // the window shrinks (ex: viewport resized)
+        assertEquals(5, window.recycledRows.size());
+        window.scrollTo(5, 25); // and grows again
+        window.assertRows(5, 25);
+        assertEquals(20, window.createdRowCount);
+    }
+}
@@ -1,48 +1,114 @@
 package dev.webfx.extras.visual;
 
+import dev.webfx.extras.cell.renderer.ValueRenderer;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.scene.Node;
-import dev.webfx.platform.util.collection.Collections;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * @author Bruno Salmon
  */
 public final class ColumnWidthCumulator {
 
+    private static final int MAX_CACHED_WIDTHS = 4096;
+
     private double maxWidth;
     private boolean hasChanged;
-    private List<ObservableList<Node>> severalColumnNodes;
+    private ColumnWidthEstimator estimator;
+    private List<RegisteredColumn> registeredColumns;
     private final ListChangeListener<Node> columnNodesListener = c -> hasChanged = true;
+    // Measured widths cache, so repeated values are measured only once
+    private final Map<WidthKey, Double> cachedWidths = new HashMap<>();
+
+    public ColumnWidthCumulator() {
+        this(ColumnWidthEstimator.EXACT);
+    }
+
+    public ColumnWidthCumulator(ColumnWidthEstimator estimator) {
+        setEstimator(estimator);
+    }
+
+    public ColumnWidthEstimator getEstimator() {
+        return estimator;
+    }
+
+    public void setEstimator(ColumnWidthEstimator estimator) {
+        this.estimator = estimator != null ? estimator : ColumnWidthEstimator.EXACT;
+        cachedWidths.clear();
+        hasChanged = true;
+        maxWidth = 0;
+    }
 
     public void registerColumnNodes(ObservableList<Node> columnNodes) {
-        if (severalColumnNodes == null)
-            severalColumnNodes = new ArrayList<>();
-        if (Collections.noneMatch(severalColumnNodes, cn -> cn == columnNodes)) {
-            severalColumnNodes.add(columnNodes);
+        registerColumnNodes(columnNodes, null, null);
+    }
+
+    /**
+     * @param columnValues the values rendered by the column nodes (same size and order), or null if unknown
+     * @param valueRenderer the renderer used for these values, which together with the value and the font are the key
+     *                      of the width cache
+     */
+    public void registerColumnNodes(ObservableList<Node> columnNodes, List<?> columnValues, ValueRenderer valueRenderer) {
+        if (registeredColumns == null)
+            registeredColumns = new ArrayList<>();
+        RegisteredColumn registeredColumn = null;
+        for (RegisteredColumn rc : registeredColumns)
+            if (rc.nodes == columnNodes)
+                registeredColumn = rc;
+        if (registeredColumn == null) {
+            registeredColumns.add(registeredColumn = new RegisteredColumn(columnNodes));
             columnNodes.addListener(columnNodesListener);
         }
+        registeredColumn.values = columnValues;
+        registeredColumn.valueRenderer = valueRenderer;
         hasChanged = true;
         maxWidth = 0;
     }
 
     public void update() {
         if (hasChanged) {
-            for (ObservableList<Node> columnNodes : severalColumnNodes)
-                for (Node node : columnNodes)
+            for (RegisteredColumn registeredColumn : registeredColumns) {
+                ObservableList<Node> columnNodes = registeredColumn.nodes;
+                int[] cellIndexes = estimator.selectCellsToMeasure(columnNodes.size());
+                int cellCount = cellIndexes == null ? columnNodes.size() : cellIndexes.length;
+                for (int i = 0; i < cellCount; i++) {
+                    int cellIndex = cellIndexes == null ? i : cellIndexes[i];
+                    Node node = columnNodes.get(cellIndex);
                     if (node.getScene() == null)
                         break;
-                    else
-                        cumulate(node);
+                    cumulate(measureCell(registeredColumn, cellIndex, node));
+                }
+            }
             hasChanged = false;
         }
     }
 
+    private double measureCell(RegisteredColumn registeredColumn, int cellIndex, Node node) {
+        List<?> values = registeredColumn.values;
+        if (values == null || cellIndex >= values.size())
+            return estimator.measureCellContent(node);
+        Font font = node instanceof Text ? ((Text) node).getFont() : null;
+        WidthKey key = new WidthKey(registeredColumn.valueRenderer, values.get(cellIndex), font);
+        Double width = cachedWidths.get(key);
+        if (width == null) {
+            width = estimator.measureCellContent(node);
+            if (cachedWidths.size() < MAX_CACHED_WIDTHS)
+                cachedWidths.put(key, width);
+        }
+        return width;
+    }
+
     public void cumulate(Node cellContent) {
-        cumulate(cellContent.prefWidth(-1));
+        cumulate(estimator.measureCellContent(cellContent));
     }
 
     public void cumulate(double columnWidth) {
@@ -53,4 +119,41 @@ public final class ColumnWidthCumulator {
     public double getMaxWidth() {
         return maxWidth;
     }
-}
\ No newline at end of file
+
+    private static final class RegisteredColumn {
+        private final ObservableList<Node> nodes;
+        private List<?> values;
+        private ValueRenderer valueRenderer;
+
+        RegisteredColumn(ObservableList<Node> nodes) {
+            this.nodes = nodes;
+        }
+    }
+
+    private static final class WidthKey {
+        private final ValueRenderer valueRenderer;
+        private final Object value;
+        private final Font font;
+        private final int hashCode;
+
+        WidthKey(ValueRenderer valueRenderer, Object value, Font font) {
+            this.valueRenderer = valueRenderer;
+            this.value = value;
+            this.font = font;
+            hashCode = Objects.hash(valueRenderer, font) * 31 + Arrays.deepHashCode(new Object[]{value});
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof WidthKey))
+                return false;
+            WidthKey that = (WidthKey) o;
+            return valueRenderer == that.valueRenderer && Objects.equals(font, that.font) && Objects.deepEquals(value, that.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package dev.webfx.extras.visual;
+
+import dev.webfx.extras.visual.impl.SamplingColumnWidthEstimator;
+import dev.webfx.extras.visual.impl.TextLengthColumnWidthEstimator;
+import javafx.scene.Node;
+
+/**
+ * Strategy used by ColumnWidthCumulator to compute the max width of a column. Measuring every cell with prefWidth(-1)
+ * is exact but can dominate the first layout of wide grids, so an estimator can measure only a sample of the cells,
+ * and/or measure them in a cheaper way.
+ *
+ * @author Bruno Salmon
+ */
+public interface ColumnWidthEstimator {
+
+    /**
+     * @return the indexes of the cells to measure among the cellCount cells of a column, or null to measure all of them.
+     */
+    default int[] selectCellsToMeasure(int cellCount) {
+        return null;
+    }
+
+    /**
+     * @return the width of the cell content (only called on nodes that are in a scene, so their css is applied).
+     */
+    default double measureCellContent(Node cellContent) {
+        return cellContent.prefWidth(-1);
+    }
+
+    // Measures all cells with prefWidth(-1) (default)
+    ColumnWidthEstimator EXACT = new ColumnWidthEstimator() {};
+
+    // Measures all cells, but computes the width of the text nodes from a per-font glyph width table
+    ColumnWidthEstimator TEXT_LENGTH = new TextLengthColumnWidthEstimator();
+
+    // Measures (with prefWidth(-1)) only the first, last and some random cells of each column
+    static ColumnWidthEstimator sampling(int firstCount, int lastCount, int randomCount) {
+        return new SamplingColumnWidthEstimator(firstCount, lastCount, randomCount);
+    }
+}
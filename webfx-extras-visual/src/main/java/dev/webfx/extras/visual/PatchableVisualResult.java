@@ -0,0 +1,40 @@
+package dev.webfx.extras.visual;
+
+import javafx.beans.property.ReadOnlyIntegerProperty;
+
+import java.util.List;
+
+/**
+ * Visual result that can be modified row by row after being displayed (ex: server push feeds), instead of building a
+ * new result for each modification. Each modification increments the version and is recorded in a change log, so the
+ * visual controls can apply only the changed rows (see VisualResultRowMapping).
+ *
+ * @author Bruno Salmon
+ */
+public interface PatchableVisualResult extends VisualResult {
+
+    ReadOnlyIntegerProperty versionProperty();
+
+    default int getVersion() {
+        return versionProperty().get();
+    }
+
+    /**
+     * @return the changes made after the specified version (in order), or null if the change log doesn't go back that
+     * far (in which case the caller should consider the whole result as changed).
+     */
+    List<VisualResultChange> getChangesSince(int version);
+
+    void insertRow(int rowIndex, Object... values);
+
+    default void appendRow(Object... values) {
+        insertRow(getRowCount(), values);
+    }
+
+    void updateRow(int rowIndex, Object... values);
+
+    void setValue(int rowIndex, int columnIndex, Object value);
+
+    void deleteRow(int rowIndex);
+
+}
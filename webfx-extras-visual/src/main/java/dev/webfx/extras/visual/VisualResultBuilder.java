@@ -1,6 +1,10 @@
 package dev.webfx.extras.visual;
 
+import dev.webfx.extras.visual.impl.ColumnarVisualResultImpl;
+import dev.webfx.extras.visual.impl.ConvertedVisualResultImpl;
+import dev.webfx.extras.visual.impl.ObjectColumnVector;
 import dev.webfx.extras.visual.impl.VisualColumnImpl;
+import dev.webfx.extras.visual.impl.VisualColumnVector;
 import dev.webfx.extras.visual.impl.VisualResultImpl;
 import dev.webfx.platform.util.function.Converter;
 
@@ -10,19 +14,26 @@ import dev.webfx.platform.util.function.Converter;
 public final class VisualResultBuilder {
 
     private final int rowCount;
-    private final Object[] values;
+    private final Object[] values; // null in columnar mode
+    private final VisualColumnVector[] vectors; // only in columnar mode (created on first value set)
     private final VisualColumn[] columns;
 
     private VisualResultBuilder(int rowCount, int columnCount) {
         this.rowCount = rowCount;
         this.values = new Object[rowCount * columnCount];
+        this.vectors = null;
         this.columns = new VisualColumnImpl[columnCount];
     }
 
     public VisualResultBuilder(int rowCount, VisualColumn... columns) {
+        this(rowCount, false, columns);
+    }
+
+    private VisualResultBuilder(int rowCount, boolean columnar, VisualColumn... columns) {
         this.rowCount = rowCount;
         this.columns = columns;
-        this.values = new Object[rowCount * columns.length];
+        this.values = columnar ? null : new Object[rowCount * columns.length];
+        this.vectors = columnar ? new VisualColumnVector[columns.length] : null;
     }
 
     public VisualResultBuilder setVisualColumn(int columnIndex, VisualColumn visualColumn) {
@@ -31,15 +42,70 @@ public final class VisualResultBuilder {
     }
 
     public VisualResultBuilder setValue(int rowIndex, int columnIndex, Object value) {
+        if (vectors != null) {
+            if (!getOrCreateVector(columnIndex).setValue(rowIndex, value))
+                promoteVector(columnIndex).setValue(rowIndex, value);
+            return this;
+        }
         return setInlineValue(rowIndex + columnIndex * rowCount, value);
     }
 
     public VisualResultBuilder setInlineValue(int inlineIndex, Object value) {
+        if (vectors != null) {
+            if (inlineIndex < 0 || inlineIndex >= rowCount * vectors.length) // also prevents a division by zero when rowCount = 0
+                throw new IndexOutOfBoundsException("Inline index " + inlineIndex + " out of bounds for " + rowCount + " rows x " + vectors.length + " columns");
+            return setValue(inlineIndex % rowCount, inlineIndex / rowCount, value);
+        }
         values[inlineIndex] = value;
         return this;
     }
 
+    // Primitive setters (no boxing in columnar mode when the value matches the column type)
+
+    public VisualResultBuilder setIntValue(int rowIndex, int columnIndex, int value) {
+        if (vectors == null || !getOrCreateVector(columnIndex).setIntValue(rowIndex, value))
+            setValue(rowIndex, columnIndex, value);
+        return this;
+    }
+
+    public VisualResultBuilder setLongValue(int rowIndex, int columnIndex, long value) {
+        if (vectors == null || !getOrCreateVector(columnIndex).setLongValue(rowIndex, value))
+            setValue(rowIndex, columnIndex, value);
+        return this;
+    }
+
+    public VisualResultBuilder setDoubleValue(int rowIndex, int columnIndex, double value) {
+        if (vectors == null || !getOrCreateVector(columnIndex).setDoubleValue(rowIndex, value))
+            setValue(rowIndex, columnIndex, value);
+        return this;
+    }
+
+    public VisualResultBuilder setBooleanValue(int rowIndex, int columnIndex, boolean value) {
+        if (vectors == null || !getOrCreateVector(columnIndex).setBooleanValue(rowIndex, value))
+            setValue(rowIndex, columnIndex, value);
+        return this;
+    }
+
+    private VisualColumnVector getOrCreateVector(int columnIndex) {
+        VisualColumnVector vector = vectors[columnIndex];
+        if (vector == null) {
+            VisualColumn column = columns[columnIndex];
+            vectors[columnIndex] = vector = VisualColumnVector.create(column == null ? null : column.getType(), rowCount);
+        }
+        return vector;
+    }
+
+    // Called when a value doesn't match the column type => the column falls back to boxed values
+    private VisualColumnVector promoteVector(int columnIndex) {
+        return vectors[columnIndex] = ObjectColumnVector.copyOf(vectors[columnIndex]);
+    }
+
     public VisualResult build() {
+        if (vectors != null) {
+            for (int columnIndex = 0; columnIndex < vectors.length; columnIndex++)
+                getOrCreateVector(columnIndex).seal();
+            return new ColumnarVisualResultImpl(rowCount, columns, vectors);
+        }
         return new VisualResultImpl(rowCount, values, columns);
     }
 
@@ -51,6 +117,29 @@ public final class VisualResultBuilder {
         return new VisualResultBuilder(rowCount, columns);
     }
 
+    /**
+     * Creates a builder of a columnar visual result, where the values are stored in typed column vectors chosen from the
+     * column types (primitive arrays for numbers and booleans, dictionary encoding for strings). The columns must
+     * therefore be known before setting the values.
+     */
+    public static VisualResultBuilder createColumnar(int rowCount, VisualColumn... columns) {
+        return new VisualResultBuilder(rowCount, true, columns);
+    }
+
+    public static VisualResult convertVisualResult(VisualResult rs, Converter valueConverter, boolean lazy) {
+        return lazy ? convertVisualResultLazily(rs, valueConverter, true) : convertVisualResult(rs, valueConverter);
+    }
+
+    /**
+     * Returns a view of the visual result that converts its values on access, instead of converting them all at once
+     * like convertVisualResult(). This is better when only a small part of the values is read (ex: large result
+     * displayed in a virtualized grid), while the eager conversion is better when all values are read several times.
+     * The memoizing mode caches the converted values, so each of them is converted at most once.
+     */
+    public static VisualResult convertVisualResultLazily(VisualResult rs, Converter valueConverter, boolean memoize) {
+        return new ConvertedVisualResultImpl(rs, valueConverter, memoize);
+    }
+
     public static VisualResult convertVisualResult(VisualResult rs, Converter valueConverter) {
         int rowCount = rs.getRowCount();
         int columnCount = rs.getColumnCount();
@@ -0,0 +1,42 @@
+package dev.webfx.extras.visual;
+
+/**
+ * Row change made to a patchable visual result, as recorded in its change log. The row index refers to the rows of the
+ * result at the time of the change (i.e. after applying the previous changes).
+ *
+ * @author Bruno Salmon
+ */
+public final class VisualResultChange {
+
+    public enum Type { INSERT, UPDATE, DELETE }
+
+    private final int version;
+    private final Type type;
+    private final int rowIndex;
+
+    public VisualResultChange(int version, Type type, int rowIndex) {
+        this.version = version;
+        this.type = type;
+        this.rowIndex = rowIndex;
+    }
+
+    /**
+     * @return the version of the visual result once this change was applied
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getRowIndex() {
+        return rowIndex;
+    }
+
+    @Override
+    public String toString() {
+        return "v" + version + " " + type + " " + rowIndex;
+    }
+}
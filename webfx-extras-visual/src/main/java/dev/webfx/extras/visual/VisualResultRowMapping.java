@@ -0,0 +1,142 @@
+package dev.webfx.extras.visual;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Origin of each row of a patchable visual result after replaying its changes since a previous version: either a row
+ * of the previous version (unchanged or updated), or a new row. This tells a visual control which rows it can keep (and
+ * where they moved), and which ones it needs to render again.
+ *
+ * @author Bruno Salmon
+ */
+public final class VisualResultRowMapping {
+
+    private static final int INSERTED = -1;
+
+    private final int oldRowCount;
+    // Origin of each row: old row index if unchanged, -2 - old row index if updated, or INSERTED
+    private final int[] origins;
+    private final int[] newRowIndexes; // old row index -> new row index, or -1 if deleted
+
+    private VisualResultRowMapping(int oldRowCount, int[] origins) {
+        this.oldRowCount = oldRowCount;
+        this.origins = origins;
+        newRowIndexes = new int[oldRowCount];
+        Arrays.fill(newRowIndexes, -1);
+        for (int rowIndex = 0; rowIndex < origins.length; rowIndex++) {
+            int oldRowIndex = getOldRowIndex(rowIndex);
+            if (oldRowIndex >= 0)
+                newRowIndexes[oldRowIndex] = rowIndex;
+        }
+    }
+
+    /**
+     * @param rowCount the current number of rows (i.e. once the changes are applied)
+     * @return the mapping, or null if the changes are not consistent with the row count
+     */
+    public static VisualResultRowMapping replay(int rowCount, List<VisualResultChange> changes) {
+        int oldRowCount = rowCount, insertCount = 0;
+        for (VisualResultChange change : changes) {
+            if (change.getType() == VisualResultChange.Type.INSERT) {
+                oldRowCount--;
+                insertCount++;
+            } else if (change.getType() == VisualResultChange.Type.DELETE)
+                oldRowCount++;
+        }
+        if (oldRowCount < 0)
+            return null;
+        int[] origins = new int[oldRowCount + insertCount];
+        for (int i = 0; i < oldRowCount; i++)
+            origins[i] = i;
+        int size = oldRowCount;
+        for (VisualResultChange change : changes) {
+            int rowIndex = change.getRowIndex();
+            switch (change.getType()) {
+                case INSERT:
+                    if (rowIndex < 0 || rowIndex > size)
+                        return null;
+                    System.arraycopy(origins, rowIndex, origins, rowIndex + 1, size - rowIndex);
+                    origins[rowIndex] = INSERTED;
+                    size++;
+                    break;
+                case UPDATE:
+                    if (rowIndex < 0 || rowIndex >= size)
+                        return null;
+                    if (origins[rowIndex] >= 0)
+                        origins[rowIndex] = -2 - origins[rowIndex];
+                    break;
+                case DELETE:
+                    if (rowIndex < 0 || rowIndex >= size)
+                        return null;
+                    System.arraycopy(origins, rowIndex + 1, origins, rowIndex, size - rowIndex - 1);
+                    size--;
+                    break;
+            }
+        }
+        return size != rowCount ? null : new VisualResultRowMapping(oldRowCount, Arrays.copyOf(origins, size));
+    }
+
+    public int getOldRowCount() {
+        return oldRowCount;
+    }
+
+    public int getRowCount() {
+        return origins.length;
+    }
+
+    /**
+     * @return the index of the row in the previous version (whether it was updated or not), or -1 for a new row
+     */
+    public int getOldRowIndex(int rowIndex) {
+        int origin = origins[rowIndex];
+        return origin >= 0 ? origin : origin == INSERTED ? -1 : -2 - origin;
+    }
+
+    /**
+     * @return true if the row is new or has been updated, i.e. if its content needs to be rendered again
+     */
+    public boolean isRowChanged(int rowIndex) {
+        return origins[rowIndex] < 0;
+    }
+
+    /**
+     * @return true if the row has the same index and content as in the previous version
+     */
+    public boolean isRowUnchanged(int rowIndex) {
+        return origins[rowIndex] == rowIndex;
+    }
+
+    /**
+     * @return the index of a previous version row in the current version, or -1 if that row has been deleted
+     */
+    public int getNewRowIndex(int oldRowIndex) {
+        return oldRowIndex >= 0 && oldRowIndex < oldRowCount ? newRowIndexes[oldRowIndex] : -1;
+    }
+
+    /**
+     * @return the selection of the same rows, cells and columns in the current version (the selected rows and cells of
+     * the deleted rows are unselected, and the selected columns are kept as is)
+     */
+    public VisualSelection remapSelection(VisualSelection selection) {
+        if (selection == null)
+            return null;
+        int hitRow = getNewRowIndex(selection.getHitRow());
+        VisualSelection.Builder builder = VisualSelection.createBuilder(selection.getUnitsCount()).setHitRow(hitRow >= 0 ? hitRow : null);
+        boolean empty = true;
+        for (VisualSelection.Unit unit : selection.getUnits()) {
+            Integer oldRowIndex = unit.getRow(), column = unit.getColumn();
+            int rowIndex = oldRowIndex == null ? -1 : getNewRowIndex(oldRowIndex);
+            if (oldRowIndex == null) // selected column
+                builder.addSelectedColumn(column);
+            else if (rowIndex < 0) // selected row or cell of a deleted row
+                continue;
+            else if (column == null) // selected row
+                builder.addSelectedRow(rowIndex);
+            else // selected cell
+                builder.addSelectedCell(rowIndex, column);
+            empty = false;
+        }
+        return empty ? null : builder.build();
+    }
+}
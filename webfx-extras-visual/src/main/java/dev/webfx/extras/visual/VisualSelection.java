@@ -6,87 +6,238 @@ import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.value.ObservableValue;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
+ * The selected rows are stored in a bit set (1 bit per row, in 32-bit words which are cheaper than 64-bit words once
+ * transpiled to JavaScript), so range selection, inversion, intersection and diff operations work word by word. Only
+ * the selected columns and cells (which are rare) are stored as units.
+ *
+ * <p>A selection built from units (constructor or builder) also keeps them as they were added, so the unit-based
+ * methods (getUnits(), getUnitsCount(), getSelectedRow(), getSelectedRows() and forEachRow()) return them in the same
+ * order and with the same duplicates as before. A selection computed from bit sets (row ranges, set operations and
+ * updateRowsSelection()) returns its rows in ascending order followed by its columns and cells. The bit set methods
+ * (isRowSelected(), nextSelectedRow(), forEachSelectedRow(), selectedRowsIterator() and getSelectedRowCount()) always
+ * iterate the distinct rows in ascending order. In both cases, the row of a selected cell counts as a selected row.
+ *
  * @author Bruno Salmon
  */
 public final class VisualSelection {
 
-    private final Unit[] units;
+    private static final int[] NO_BITS = {};
+    private static final Unit[] NO_UNITS = {};
+
+    private final int[] rowBits; // Rows selected as whole rows (no trailing zero words)
+    private final int[] selectedRowBits; // Same as rowBits + the rows of the selected cells (same array if no cells)
+    private final Unit[] nonRowUnits; // Selected columns and cells
+    private final Unit[] addedUnits; // The units in the order they were added (null if computed from bit sets)
     private final int hitRow;
+    private Unit[] units; // Lazily built by getUnits() when computed from bit sets
 
-    private VisualSelection(Unit unit) {
-        this(new Unit[]{unit});
+    private VisualSelection(int[] rowBits, Unit[] nonRowUnits, Integer hitRow) {
+        this(rowBits, nonRowUnits, null, hitRow);
     }
 
-    private VisualSelection(Unit[] units) {
-        this(units, null);
+    private VisualSelection(int[] rowBits, Unit[] nonRowUnits, Unit[] addedUnits, Integer hitRow) {
+        this.rowBits = rowBits;
+        this.nonRowUnits = nonRowUnits;
+        this.addedUnits = units = addedUnits;
+        int[] bits = rowBits;
+        for (Unit unit : nonRowUnits)
+            if (unit.row != null)
+                bits = setBit(bits == rowBits ? Arrays.copyOf(rowBits, rowBits.length) : bits, unit.row);
+        selectedRowBits = bits;
+        if (hitRow == null)
+            hitRow = addedUnits != null && addedUnits.length > 0 && addedUnits[0].row != null ? addedUnits[0].row : nextSetBit(selectedRowBits, 0);
+        this.hitRow = hitRow;
     }
 
     public VisualSelection(Unit[] units, Integer hitRow) {
-        this.units = units;
-        this.hitRow = hitRow != null ? hitRow : units.length == 0 ? -1 : units[0].row;
+        this(createBuilder(units.length).addUnits(units).setHitRow(hitRow));
+    }
+
+    private VisualSelection(Builder builder) {
+        this(trimmedCopy(builder.rowBits), builder.nonRowUnits.toArray(NO_UNITS), builder.addedUnits == null ? null : builder.addedUnits.toArray(NO_UNITS), builder.hitRow);
     }
 
     public Unit[] getUnits() {
+        if (units == null) {
+            List<Unit> unitList = new ArrayList<>(getUnitsCount());
+            for (int row = nextSetBit(rowBits, 0); row >= 0; row = nextSetBit(rowBits, row + 1))
+                unitList.add(Unit.createSelectedRow(row));
+            unitList.addAll(Arrays.asList(nonRowUnits));
+            units = unitList.toArray(NO_UNITS);
+        }
         return units;
     }
 
     public int getUnitsCount() {
-        return units.length;
+        return addedUnits != null ? addedUnits.length : cardinality(rowBits) + nonRowUnits.length;
     }
 
     public boolean isEmpty() {
-        return units.length == 0;
+        return addedUnits != null ? addedUnits.length == 0 : rowBits.length == 0 && nonRowUnits.length == 0;
     }
 
     public boolean isMultiple() {
-        return units.length > 1;
+        return getUnitsCount() > 1;
     }
 
     public boolean isSingle() {
-        return units.length == 1;
+        return getUnitsCount() == 1;
+    }
+
+    public int getHitRow() {
+        return hitRow;
     }
 
     public int getSelectedRow() {
-        for (Unit unit: units)
-            if (unit.getRow() != null)
-                return unit.getRow();
-        return -1;
+        if (addedUnits != null) {
+            for (Unit unit : addedUnits)
+                if (unit.row != null)
+                    return unit.row;
+            return -1;
+        }
+        return nextSetBit(selectedRowBits, 0);
+    }
+
+    public int getSelectedRowCount() {
+        return cardinality(selectedRowBits);
+    }
+
+    public boolean isRowSelected(int row) {
+        return row >= 0 && (row >>> 5) < selectedRowBits.length && (selectedRowBits[row >>> 5] & (1 << row)) != 0;
+    }
+
+    /**
+     * @return the first selected row that is equal or after fromRow, or -1 if there is none. This allows iterating over
+     * the selected rows without boxing: for (int row = s.nextSelectedRow(0); row >= 0; row = s.nextSelectedRow(row + 1))
+     */
+    public int nextSelectedRow(int fromRow) {
+        return nextSetBit(selectedRowBits, fromRow);
+    }
+
+    public PrimitiveIterator.OfInt selectedRowsIterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int nextRow = nextSelectedRow(0);
+
+            @Override
+            public boolean hasNext() {
+                return nextRow >= 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (nextRow < 0)
+                    throw new NoSuchElementException();
+                int row = nextRow;
+                nextRow = nextSelectedRow(row + 1);
+                return row;
+            }
+        };
+    }
+
+    public void forEachSelectedRow(IntConsumer rowConsumer) {
+        for (int row = nextSetBit(selectedRowBits, 0); row >= 0; row = nextSetBit(selectedRowBits, row + 1))
+            rowConsumer.accept(row);
     }
 
     public List<Integer> getSelectedRows() {
-        List<Integer> selectedRows = new ArrayList<>();
-        for (Unit unit: units)
-            if (unit.getRow() != null)
-                selectedRows.add(unit.getRow());
+        List<Integer> selectedRows = new ArrayList<>(addedUnits != null ? addedUnits.length : getSelectedRowCount());
+        forEachRow(selectedRows::add);
         return selectedRows;
     }
 
     public void forEachRow(Consumer<Integer> rowConsumer) {
-        for (Unit unit : units)
-            if (unit.getRow() != null)
-                rowConsumer.accept(unit.getRow());
+        if (addedUnits == null)
+            forEachSelectedRow(rowConsumer::accept);
+        else
+            for (Unit unit : addedUnits)
+                if (unit.row != null)
+                    rowConsumer.accept(unit.row);
+    }
+
+    // Rows set operations (the returned selections contain only whole rows)
+
+    public VisualSelection union(VisualSelection selection) {
+        if (isEmptySelection(selection))
+            return this;
+        int[] bits = selection.selectedRowBits;
+        int[] union = Arrays.copyOf(selectedRowBits, Math.max(selectedRowBits.length, bits.length));
+        for (int i = 0; i < bits.length; i++)
+            union[i] |= bits[i];
+        return new VisualSelection(trimmedCopy(union), NO_UNITS, hitRow);
+    }
+
+    public VisualSelection intersect(VisualSelection selection) {
+        int[] bits = selection == null ? NO_BITS : selection.selectedRowBits;
+        int[] intersection = Arrays.copyOf(selectedRowBits, Math.min(selectedRowBits.length, bits.length));
+        for (int i = 0; i < intersection.length; i++)
+            intersection[i] &= bits[i];
+        return new VisualSelection(trimmedCopy(intersection), NO_UNITS, null);
+    }
+
+    public VisualSelection invertRows(int rowCount) {
+        int[] inversion = new int[(rowCount + 31) >>> 5];
+        for (int i = 0; i < inversion.length; i++)
+            inversion[i] = ~(i < selectedRowBits.length ? selectedRowBits[i] : 0);
+        if ((rowCount & 31) != 0)
+            inversion[inversion.length - 1] &= -1 >>> (32 - (rowCount & 31));
+        return new VisualSelection(trimmedCopy(inversion), NO_UNITS, null);
+    }
+
+    /**
+     * Calls the consumers only for the rows whose selection state is different between the 2 selections (each of them
+     * can be null). This allows the grid peers to touch only the rows that changed.
+     */
+    public static void forEachChangedRow(VisualSelection oldSelection, VisualSelection newSelection, IntConsumer unselectedRowConsumer, IntConsumer selectedRowConsumer) {
+        int[] oldBits = oldSelection == null ? NO_BITS : oldSelection.selectedRowBits;
+        int[] newBits = newSelection == null ? NO_BITS : newSelection.selectedRowBits;
+        int n = Math.max(oldBits.length, newBits.length);
+        for (int i = 0; i < n; i++) {
+            int oldWord = i < oldBits.length ? oldBits[i] : 0;
+            int newWord = i < newBits.length ? newBits[i] : 0;
+            int changes = oldWord ^ newWord;
+            while (changes != 0) {
+                int bit = Integer.numberOfTrailingZeros(changes);
+                int row = (i << 5) + bit;
+                if ((newWord & (1 << bit)) != 0)
+                    selectedRowConsumer.accept(row);
+                else
+                    unselectedRowConsumer.accept(row);
+                changes &= changes - 1;
+            }
+        }
     }
 
     public static VisualSelection createSingleRowSelection(int row) {
-        return new VisualSelection(Unit.createSelectedRow(row));
+        return new VisualSelection(setBit(NO_BITS, row), NO_UNITS, null);
     }
 
     public static VisualSelection createSingleColumnSelection(int column) {
-        return new VisualSelection(Unit.createSelectedColumn(column));
+        return new VisualSelection(NO_BITS, new Unit[]{Unit.createSelectedColumn(column)}, null);
     }
 
     public static VisualSelection createSingleCellSelection(int row, int column) {
-        return new VisualSelection(Unit.createSelectedCell(row, column));
+        return new VisualSelection(NO_BITS, new Unit[]{Unit.createSelectedCell(row, column)}, null);
+    }
+
+    public static VisualSelection createRowRangeSelection(int firstRow, int lastRow) {
+        return new VisualSelection(setBitRange(NO_BITS, firstRow, lastRow), NO_UNITS, null);
+    }
+
+    public static VisualSelection createAllRowsSelection(int rowCount) {
+        return createRowRangeSelection(0, rowCount - 1);
     }
 
     public static VisualSelection createRowsSelection(int[] rows) {
         VisualSelection.Builder selectionBuilder = VisualSelection.createBuilder(rows.length);
-        for (Integer row : rows)
+        for (int row : rows)
             selectionBuilder.addSelectedRow(row);
         return selectionBuilder.build();
     }
@@ -107,30 +258,29 @@ public final class VisualSelection {
             return null;
         if (visualSelection == null || visualSelection.isEmpty() || mainButton && !ctrlKey && !shiftKey)
             return createSingleRowSelection(hitRow);
-        List<Integer> selectedRows = visualSelection.getSelectedRows();
-        if (!mainButton && selectedRows.contains(hitRow))
+        boolean hitRowSelected = visualSelection.isRowSelected(hitRow);
+        if (!mainButton && hitRowSelected)
             return visualSelection;
         if (!ctrlKey && !shiftKey)
             return createSingleRowSelection(hitRow);
+        int[] rowBits;
         if (ctrlKey) {
-            if (selectedRows.contains(hitRow)) {
-                selectedRows.remove((Object) hitRow); // Calling remove(Object) and not remove(index)
-                if (!selectedRows.isEmpty())
-                    hitRow = selectedRows.get(0);
+            int[] selectedRowBits = visualSelection.selectedRowBits;
+            if (hitRowSelected) {
+                rowBits = Arrays.copyOf(selectedRowBits, selectedRowBits.length);
+                rowBits[hitRow >>> 5] &= ~(1 << hitRow);
+                rowBits = trimmedCopy(rowBits);
+                if (rowBits.length > 0)
+                    hitRow = nextSetBit(rowBits, 0);
             } else {
-                selectedRows.add(hitRow);
-                selectedRows.sort(Integer::compareTo);
+                rowBits = setBit(Arrays.copyOf(selectedRowBits, Math.max(selectedRowBits.length, (hitRow >>> 5) + 1)), hitRow);
                 hitRow = visualSelection.hitRow;
             }
         } else { // shift key
-            selectedRows.clear();
-            int rangeStart = Math.min(hitRow, visualSelection.hitRow);
-            int rangeEnd = Math.max(hitRow, visualSelection.hitRow);
-            for (int i = rangeStart; i <= rangeEnd; i++)
-                selectedRows.add(i);
+            rowBits = setBitRange(NO_BITS, Math.min(hitRow, visualSelection.hitRow), Math.max(hitRow, visualSelection.hitRow));
             hitRow = visualSelection.hitRow;
         }
-        return createRowsSelection(selectedRows, hitRow);
+        return new VisualSelection(rowBits, NO_UNITS, hitRow);
     }
 
     public static Builder createBuilder(int expectedUnitsCount) {
@@ -173,11 +323,18 @@ public final class VisualSelection {
 
     public static final class Builder {
 
-        final Collection<Unit> units;
-        Integer hitRow;
+        private int[] rowBits = NO_BITS;
+        private final List<Unit> nonRowUnits = new ArrayList<>(1);
+        private List<Unit> addedUnits; // null once a row range is added (its rows are not stored as units)
+        private Integer hitRow;
 
         private Builder(int expectedUnitsCount) {
-            units = new ArrayList<>(expectedUnitsCount);
+            addedUnits = new ArrayList<>(expectedUnitsCount);
+        }
+
+        private void addUnit(Unit unit) {
+            if (addedUnits != null)
+                addedUnits.add(unit);
         }
 
         public Builder setHitRow(Integer hitRow) {
@@ -186,25 +343,115 @@ public final class VisualSelection {
         }
 
         public Builder addSelectedRow(int row) {
-            units.add(Unit.createSelectedRow(row));
+            rowBits = setBit(rowBits, row);
+            addUnit(Unit.createSelectedRow(row));
             return this;
         }
 
-        public Builder addSelectedColumn(int column) {
-            units.add(Unit.createSelectedColumn(column));
+        /**
+         * Adds the rows from firstRow to lastRow (inclusive) without creating a unit per row, so the built selection
+         * returns its units in the bit set order (ascending rows, then columns and cells).
+         */
+        public Builder addSelectedRowRange(int firstRow, int lastRow) {
+            rowBits = setBitRange(rowBits, firstRow, lastRow);
+            addedUnits = null;
             return this;
         }
 
+        public Builder addSelectedColumn(int column) {
+            return addNonRowUnit(Unit.createSelectedColumn(column));
+        }
+
         public Builder addSelectedCell(int row, int column) {
-            units.add(Unit.createSelectedCell(row, column));
+            return addNonRowUnit(Unit.createSelectedCell(row, column));
+        }
+
+        private Builder addNonRowUnit(Unit unit) {
+            nonRowUnits.add(unit);
+            addUnit(unit);
+            return this;
+        }
+
+        private Builder addUnits(Unit[] units) {
+            for (Unit unit : units) {
+                if (unit.column != null)
+                    nonRowUnits.add(unit);
+                else if (unit.row != null)
+                    rowBits = setBit(rowBits, unit.row);
+                addUnit(unit);
+            }
             return this;
         }
 
         public VisualSelection build() {
-            return new VisualSelection(units.toArray(new Unit[units.size()]), hitRow);
+            return new VisualSelection(this);
         }
     }
 
+    // Bit set helpers (the arrays passed to the set methods may be modified and are returned grown if necessary)
+
+    private static int[] ensureCapacity(int[] bits, int bitIndex) {
+        int wordCount = (bitIndex >>> 5) + 1;
+        return wordCount <= bits.length ? bits : Arrays.copyOf(bits, Math.max(wordCount, 2 * bits.length));
+    }
+
+    private static int[] setBit(int[] bits, int bitIndex) {
+        if (bitIndex < 0)
+            return bits;
+        bits = ensureCapacity(bits, bitIndex);
+        bits[bitIndex >>> 5] |= 1 << bitIndex;
+        return bits;
+    }
+
+    private static int[] setBitRange(int[] bits, int firstIndex, int lastIndex) { // lastIndex inclusive
+        if (firstIndex < 0)
+            firstIndex = 0;
+        if (lastIndex < firstIndex)
+            return bits;
+        bits = ensureCapacity(bits, lastIndex);
+        int firstWord = firstIndex >>> 5, lastWord = lastIndex >>> 5;
+        int firstMask = -1 << firstIndex, lastMask = -1 >>> (31 - (lastIndex & 31));
+        if (firstWord == lastWord)
+            bits[firstWord] |= firstMask & lastMask;
+        else {
+            bits[firstWord] |= firstMask;
+            for (int i = firstWord + 1; i < lastWord; i++)
+                bits[i] = -1;
+            bits[lastWord] |= lastMask;
+        }
+        return bits;
+    }
+
+    private static int nextSetBit(int[] bits, int fromIndex) {
+        if (fromIndex < 0)
+            fromIndex = 0;
+        int wordIndex = fromIndex >>> 5;
+        if (wordIndex >= bits.length)
+            return -1;
+        int word = bits[wordIndex] & (-1 << fromIndex);
+        while (true) {
+            if (word != 0)
+                return (wordIndex << 5) + Integer.numberOfTrailingZeros(word);
+            if (++wordIndex == bits.length)
+                return -1;
+            word = bits[wordIndex];
+        }
+    }
+
+    private static int cardinality(int[] bits) {
+        int cardinality = 0;
+        for (int word : bits)
+            cardinality += Integer.bitCount(word);
+        return cardinality;
+    }
+
+    private static int[] trimmedCopy(int[] bits) {
+        int length = bits.length;
+        while (length > 0 && bits[length - 1] == 0)
+            length--;
+        return length == 0 ? NO_BITS : Arrays.copyOf(bits, length);
+    }
+
     public static boolean isEmptySelection(VisualSelection selection) {
         return selection == null || selection.isEmpty();
     }
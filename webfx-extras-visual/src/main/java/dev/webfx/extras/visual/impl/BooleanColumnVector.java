@@ -0,0 +1,41 @@
+package dev.webfx.extras.visual.impl;
+
+/**
+ * @author Bruno Salmon
+ */
+public final class BooleanColumnVector extends VisualColumnVector {
+
+    private final boolean[] values;
+
+    public BooleanColumnVector(int rowCount) {
+        super(rowCount, true);
+        values = new boolean[rowCount];
+    }
+
+    public boolean getBoolean(int rowIndex) {
+        return values[rowIndex];
+    }
+
+    @Override
+    public Object getValue(int rowIndex) {
+        return isNull(rowIndex) ? null : values[rowIndex];
+    }
+
+    @Override
+    public boolean setValue(int rowIndex, Object value) {
+        if (value == null)
+            setNull(rowIndex, true);
+        else if (value instanceof Boolean)
+            setBooleanValue(rowIndex, (Boolean) value);
+        else
+            return false;
+        return true;
+    }
+
+    @Override
+    public boolean setBooleanValue(int rowIndex, boolean value) {
+        values[rowIndex] = value;
+        setNull(rowIndex, false);
+        return true;
+    }
+}
@@ -0,0 +1,73 @@
+package dev.webfx.extras.visual.impl;
+
+import dev.webfx.extras.visual.VisualColumn;
+import dev.webfx.extras.visual.VisualResult;
+
+/**
+ * Visual result storing its values in typed column vectors (see VisualColumnVector) instead of a single boxed array.
+ * Compared to VisualResultImpl (1 reference + 1 boxed object per cell, i.e. ~20-28 bytes per numeric cell on a 64-bit
+ * JVM), a numeric or boolean cell costs here 1 to 8 bytes + 1 bit, and a string cell costs 4 bytes + 1 bit (+ the
+ * distinct strings stored once in the column dictionary). Reading a primitive value through getValue() boxes it on
+ * demand, but the primitive getters of the vectors (ex: IntColumnVector.getInt()) read it without any allocation.
+ *
+ * @author Bruno Salmon
+ */
+public final class ColumnarVisualResultImpl implements VisualResult {
+
+    private final int rowCount;
+    private final int columnCount;
+    private final VisualColumn[] columns;
+    private final VisualColumnVector[] vectors;
+
+    public ColumnarVisualResultImpl(int rowCount, VisualColumn[] columns, VisualColumnVector[] vectors) {
+        this.rowCount = rowCount;
+        this.columns = columns;
+        this.vectors = vectors;
+        columnCount = columns.length;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    @Override
+    public VisualColumn[] getColumns() {
+        return columns;
+    }
+
+    @Override
+    public Object getValue(int rowIndex, int columnIndex) {
+        return vectors[columnIndex].getValue(rowIndex);
+    }
+
+    public VisualColumnVector getColumnVector(int columnIndex) {
+        return vectors[columnIndex];
+    }
+
+    @Override
+    public String toString() {
+        return toString(new StringBuilder()).toString();
+    }
+
+    public StringBuilder toString(StringBuilder sb) {
+        sb.append('[');
+        for (VisualColumn column : columns)
+            sb.append(sb.length() == 1 ? "" : ", ").append(column.getName()).append(" (").append(column.getType()).append(')');
+        for (int rowIndex = 0; rowIndex < rowCount;) {
+            sb.append("\n[");
+            for (int columnIndex = 0; columnIndex < columnCount; columnIndex++)
+                sb.append(columnIndex == 0 ? "" : ", ").append(getValue(rowIndex, columnIndex));
+            sb.append(']');
+            if (++rowIndex < rowCount)
+                sb.append(',');
+        }
+        sb.append("\n]");
+        return sb;
+    }
+}
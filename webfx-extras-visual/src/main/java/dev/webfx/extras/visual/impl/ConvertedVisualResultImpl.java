@@ -0,0 +1,69 @@
+package dev.webfx.extras.visual.impl;
+
+import dev.webfx.extras.visual.VisualColumn;
+import dev.webfx.extras.visual.VisualResult;
+import dev.webfx.platform.util.function.Converter;
+
+/**
+ * Lazy view of a visual result whose values are converted on access, so only the cells actually read (ex: the visible
+ * cells of a virtualized grid) pay the conversion. In memoizing mode, the converted values are cached per column (the
+ * cache of a column being allocated only when one of its values is read), so each cell is converted at most once.
+ * Note: the source visual result is supposed to be immutable.
+ *
+ * @author Bruno Salmon
+ */
+public final class ConvertedVisualResultImpl implements VisualResult {
+
+    private final VisualResult rs;
+    private final Converter valueConverter;
+    private final boolean memoize;
+    private final Object[][] convertedColumns; // only in memoizing mode
+    private final int[][] convertedBits; // tells which values of each column have been converted (they can be null)
+
+    public ConvertedVisualResultImpl(VisualResult rs, Converter valueConverter, boolean memoize) {
+        this.rs = rs;
+        this.valueConverter = valueConverter;
+        this.memoize = memoize;
+        int columnCount = rs.getColumnCount();
+        convertedColumns = memoize ? new Object[columnCount][] : null;
+        convertedBits = memoize ? new int[columnCount][] : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rs.getRowCount();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return rs.getColumnCount();
+    }
+
+    @Override
+    public VisualColumn[] getColumns() {
+        return rs.getColumns();
+    }
+
+    @Override
+    public Object getValue(int rowIndex, int columnIndex) {
+        if (!memoize)
+            return valueConverter.convert(rs.getValue(rowIndex, columnIndex));
+        Object[] values = convertedColumns[columnIndex];
+        int[] bits = convertedBits[columnIndex];
+        if (values == null) {
+            int rowCount = rs.getRowCount();
+            convertedColumns[columnIndex] = values = new Object[rowCount];
+            convertedBits[columnIndex] = bits = new int[(rowCount + 31) >>> 5];
+        }
+        int word = rowIndex >>> 5, mask = 1 << rowIndex;
+        if ((bits[word] & mask) != 0)
+            return values[rowIndex];
+        Object value = values[rowIndex] = valueConverter.convert(rs.getValue(rowIndex, columnIndex));
+        bits[word] |= mask;
+        return value;
+    }
+
+    public VisualResult getSourceVisualResult() {
+        return rs;
+    }
+}
@@ -0,0 +1,51 @@
+package dev.webfx.extras.visual.impl;
+
+/**
+ * @author Bruno Salmon
+ */
+public final class DoubleColumnVector extends VisualColumnVector {
+
+    private final double[] values;
+
+    public DoubleColumnVector(int rowCount) {
+        super(rowCount, true);
+        values = new double[rowCount];
+    }
+
+    public double getDouble(int rowIndex) {
+        return values[rowIndex];
+    }
+
+    @Override
+    public Object getValue(int rowIndex) {
+        return isNull(rowIndex) ? null : values[rowIndex];
+    }
+
+    @Override
+    public boolean setValue(int rowIndex, Object value) {
+        if (value == null)
+            setNull(rowIndex, true);
+        else if (value instanceof Double || value instanceof Float || value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+            setDoubleValue(rowIndex, ((Number) value).doubleValue()); // same widening as Java primitives (long -> double may round)
+        else
+            return false;
+        return true;
+    }
+
+    @Override
+    public boolean setIntValue(int rowIndex, int value) {
+        return setDoubleValue(rowIndex, value);
+    }
+
+    @Override
+    public boolean setLongValue(int rowIndex, long value) {
+        return setDoubleValue(rowIndex, value);
+    }
+
+    @Override
+    public boolean setDoubleValue(int rowIndex, double value) {
+        values[rowIndex] = value;
+        setNull(rowIndex, false);
+        return true;
+    }
+}
@@ -0,0 +1,79 @@
+package dev.webfx.extras.visual.impl;
+
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cached widths of the glyphs of a font. The widths are measured lazily (once per character), and the width of a text
+ * is then approximated by the sum of its glyph widths (kerning is ignored).
+ *
+ * @author Bruno Salmon
+ */
+final class GlyphWidthTable {
+
+    // Bounded LRU, as an application can create many fonts over time (ex: zoom or dynamic font sizes)
+    private static final int MAX_TABLES = 32;
+    private static final Map<Font, GlyphWidthTable> TABLES = new LinkedHashMap<Font, GlyphWidthTable>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Font, GlyphWidthTable> eldest) {
+            return size() > MAX_TABLES;
+        }
+    };
+    // Offscreen text node used to measure the glyphs (its layout bounds are computed by the toolkit text measurement)
+    private static Text measuringText;
+
+    static GlyphWidthTable get(Font font) {
+        if (font == null)
+            font = Font.getDefault();
+        return TABLES.computeIfAbsent(font, GlyphWidthTable::new);
+    }
+
+    private final Font font;
+    private final double[] latinWidths = new double[256]; // NaN = not measured yet
+    private Map<Character, Double> otherWidths; // for the characters beyond Latin-1 (rare)
+
+    private GlyphWidthTable(Font font) {
+        this.font = font;
+        Arrays.fill(latinWidths, Double.NaN);
+    }
+
+    double computeTextWidth(String text) {
+        if (text == null)
+            return 0;
+        double maxLineWidth = 0, lineWidth = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                maxLineWidth = Math.max(maxLineWidth, lineWidth);
+                lineWidth = 0;
+            } else
+                lineWidth += getGlyphWidth(c);
+        }
+        return Math.max(maxLineWidth, lineWidth);
+    }
+
+    private double getGlyphWidth(char c) {
+        if (c < 256) {
+            double width = latinWidths[c];
+            if (Double.isNaN(width))
+                latinWidths[c] = width = measureGlyph(c);
+            return width;
+        }
+        if (otherWidths == null)
+            otherWidths = new HashMap<>();
+        return otherWidths.computeIfAbsent(c, this::measureGlyph);
+    }
+
+    private double measureGlyph(char c) {
+        if (measuringText == null)
+            measuringText = new Text();
+        measuringText.setFont(font);
+        measuringText.setText(String.valueOf(c));
+        return measuringText.getLayoutBounds().getWidth();
+    }
+}
@@ -0,0 +1,41 @@
+package dev.webfx.extras.visual.impl;
+
+/**
+ * @author Bruno Salmon
+ */
+public final class IntColumnVector extends VisualColumnVector {
+
+    private final int[] values;
+
+    public IntColumnVector(int rowCount) {
+        super(rowCount, true);
+        values = new int[rowCount];
+    }
+
+    public int getInt(int rowIndex) {
+        return values[rowIndex];
+    }
+
+    @Override
+    public Object getValue(int rowIndex) {
+        return isNull(rowIndex) ? null : values[rowIndex];
+    }
+
+    @Override
+    public boolean setValue(int rowIndex, Object value) {
+        if (value == null)
+            setNull(rowIndex, true);
+        else if (value instanceof Integer || value instanceof Short || value instanceof Byte)
+            setIntValue(rowIndex, ((Number) value).intValue()); // widening the smaller integers
+        else
+            return false;
+        return true;
+    }
+
+    @Override
+    public boolean setIntValue(int rowIndex, int value) {
+        values[rowIndex] = value;
+        setNull(rowIndex, false);
+        return true;
+    }
+}
@@ -0,0 +1,46 @@
+package dev.webfx.extras.visual.impl;
+
+/**
+ * @author Bruno Salmon
+ */
+public final class LongColumnVector extends VisualColumnVector {
+
+    private final long[] values;
+
+    public LongColumnVector(int rowCount) {
+        super(rowCount, true);
+        values = new long[rowCount];
+    }
+
+    public long getLong(int rowIndex) {
+        return values[rowIndex];
+    }
+
+    @Override
+    public Object getValue(int rowIndex) {
+        return isNull(rowIndex) ? null : values[rowIndex];
+    }
+
+    @Override
+    public boolean setValue(int rowIndex, Object value) {
+        if (value == null)
+            setNull(rowIndex, true);
+        else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+            setLongValue(rowIndex, ((Number) value).longValue()); // widening the smaller integers
+        else
+            return false;
+        return true;
+    }
+
+    @Override
+    public boolean setIntValue(int rowIndex, int value) {
+        return setLongValue(rowIndex, value);
+    }
+
+    @Override
+    public boolean setLongValue(int rowIndex, long value) {
+        values[rowIndex] = value;
+        setNull(rowIndex, false);
+        return true;
+    }
+}
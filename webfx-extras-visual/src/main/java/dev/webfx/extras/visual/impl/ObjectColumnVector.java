@@ -0,0 +1,41 @@
+package dev.webfx.extras.visual.impl;
+
+/**
+ * Fallback column storing boxed values, used when the column type has no primitive representation (or when a value
+ * doesn't match the column type).
+ *
+ * @author Bruno Salmon
+ */
+public final class ObjectColumnVector extends VisualColumnVector {
+
+    private final Object[] values;
+
+    public ObjectColumnVector(int rowCount) {
+        super(rowCount, false);
+        values = new Object[rowCount];
+    }
+
+    @Override
+    public boolean isNull(int rowIndex) {
+        return values[rowIndex] == null;
+    }
+
+    @Override
+    public Object getValue(int rowIndex) {
+        return values[rowIndex];
+    }
+
+    @Override
+    public boolean setValue(int rowIndex, Object value) {
+        values[rowIndex] = value;
+        return true;
+    }
+
+    public static ObjectColumnVector copyOf(VisualColumnVector vector) {
+        int rowCount = vector.getRowCount();
+        ObjectColumnVector copy = new ObjectColumnVector(rowCount);
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++)
+            copy.values[rowIndex] = vector.getValue(rowIndex);
+        return copy;
+    }
+}
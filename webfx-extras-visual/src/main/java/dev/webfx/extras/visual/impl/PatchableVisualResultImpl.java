@@ -0,0 +1,130 @@
+package dev.webfx.extras.visual.impl;
+
+import dev.webfx.extras.visual.PatchableVisualResult;
+import dev.webfx.extras.visual.VisualColumn;
+import dev.webfx.extras.visual.VisualResult;
+import dev.webfx.extras.visual.VisualResultChange;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Patchable visual result storing its values row by row (so inserting or deleting a row doesn't move the values of the
+ * other rows). The change log is bounded: when it exceeds its max size, its oldest half is dropped, and the controls
+ * that are late by more than that will just rebuild all rows.
+ *
+ * @author Bruno Salmon
+ */
+public final class PatchableVisualResultImpl implements PatchableVisualResult {
+
+    private static final int DEFAULT_MAX_LOGGED_CHANGES = 1024;
+
+    private final VisualColumn[] columns;
+    private final List<Object[]> rows = new ArrayList<>();
+    private final ReadOnlyIntegerWrapper version = new ReadOnlyIntegerWrapper();
+    private final List<VisualResultChange> changeLog = new ArrayList<>();
+    private final int maxLoggedChanges;
+
+    public PatchableVisualResultImpl(VisualColumn... columns) {
+        this(DEFAULT_MAX_LOGGED_CHANGES, columns);
+    }
+
+    public PatchableVisualResultImpl(int maxLoggedChanges, VisualColumn... columns) {
+        this.columns = columns;
+        this.maxLoggedChanges = Math.max(1, maxLoggedChanges);
+    }
+
+    public static PatchableVisualResultImpl copyOf(VisualResult rs) {
+        PatchableVisualResultImpl patchableRs = new PatchableVisualResultImpl(rs.getColumns());
+        int rowCount = rs.getRowCount(), columnCount = rs.getColumnCount();
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            Object[] values = new Object[columnCount];
+            for (int columnIndex = 0; columnIndex < columnCount; columnIndex++)
+                values[columnIndex] = rs.getValue(rowIndex, columnIndex);
+            patchableRs.rows.add(values); // Initial content => not logged as changes
+        }
+        return patchableRs;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public VisualColumn[] getColumns() {
+        return columns;
+    }
+
+    @Override
+    public Object getValue(int rowIndex, int columnIndex) {
+        return rows.get(rowIndex)[columnIndex];
+    }
+
+    @Override
+    public ReadOnlyIntegerProperty versionProperty() {
+        return version.getReadOnlyProperty();
+    }
+
+    @Override
+    public List<VisualResultChange> getChangesSince(int sinceVersion) {
+        int currentVersion = version.get();
+        if (sinceVersion == currentVersion)
+            return Collections.emptyList();
+        int changeCount = currentVersion - sinceVersion;
+        if (changeCount < 0 || changeCount > changeLog.size())
+            return null;
+        // The logged changes have consecutive versions, so the last changeCount ones are the requested ones
+        return new ArrayList<>(changeLog.subList(changeLog.size() - changeCount, changeLog.size()));
+    }
+
+    @Override
+    public void insertRow(int rowIndex, Object... values) {
+        rows.add(rowIndex, toRowValues(values));
+        logChange(VisualResultChange.Type.INSERT, rowIndex);
+    }
+
+    @Override
+    public void updateRow(int rowIndex, Object... values) {
+        rows.set(rowIndex, toRowValues(values));
+        logChange(VisualResultChange.Type.UPDATE, rowIndex);
+    }
+
+    @Override
+    public void setValue(int rowIndex, int columnIndex, Object value) {
+        rows.get(rowIndex)[columnIndex] = value;
+        logChange(VisualResultChange.Type.UPDATE, rowIndex);
+    }
+
+    @Override
+    public void deleteRow(int rowIndex) {
+        rows.remove(rowIndex);
+        logChange(VisualResultChange.Type.DELETE, rowIndex);
+    }
+
+    private Object[] toRowValues(Object[] values) {
+        return Arrays.copyOf(values, columns.length); // copy, in case the caller reuses its array
+    }
+
+    private void logChange(VisualResultChange.Type type, int rowIndex) {
+        int newVersion = version.get() + 1;
+        if (changeLog.size() >= maxLoggedChanges)
+            changeLog.subList(0, Math.max(1, changeLog.size() / 2)).clear();
+        changeLog.add(new VisualResultChange(newVersion, type, rowIndex));
+        version.set(newVersion); // Notifying the listeners once the change is logged
+    }
+
+    @Override
+    public String toString() {
+        return "PatchableVisualResult[version=" + version.get() + ", rowCount=" + rows.size() + ", columnCount=" + columns.length + "]";
+    }
+}
@@ -0,0 +1,46 @@
+package dev.webfx.extras.visual.impl;
+
+import dev.webfx.extras.visual.ColumnWidthEstimator;
+
+/**
+ * @author Bruno Salmon
+ */
+public final class SamplingColumnWidthEstimator implements ColumnWidthEstimator {
+
+    private final int firstCount, lastCount, randomCount;
+
+    public SamplingColumnWidthEstimator(int firstCount, int lastCount, int randomCount) {
+        this.firstCount = Math.max(0, firstCount);
+        this.lastCount = Math.max(0, lastCount);
+        this.randomCount = Math.max(0, randomCount);
+    }
+
+    @Override
+    public int[] selectCellsToMeasure(int cellCount) {
+        if (firstCount + lastCount + randomCount >= cellCount)
+            return null; // small column => measuring all cells
+        boolean[] selected = new boolean[cellCount];
+        int count = 0;
+        for (int i = 0; i < firstCount; i++, count++)
+            selected[i] = true;
+        for (int i = cellCount - lastCount; i < cellCount; i++, count++)
+            selected[i] = true;
+        // The random cells are taken in the middle. The generator is seeded with the cell count, so the same column
+        // gives the same sample (and therefore the same width) on each update.
+        int middleCount = cellCount - firstCount - lastCount;
+        int seed = cellCount;
+        for (int i = 0; i < randomCount; i++) {
+            seed = seed * 1103515245 + 12345;
+            int index = firstCount + ((seed >>> 1) % middleCount);
+            if (!selected[index]) {
+                selected[index] = true;
+                count++;
+            }
+        }
+        int[] indexes = new int[count];
+        for (int i = 0, j = 0; i < cellCount; i++)
+            if (selected[i])
+                indexes[j++] = i;
+        return indexes;
+    }
+}
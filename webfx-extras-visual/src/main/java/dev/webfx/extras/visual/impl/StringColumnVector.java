@@ -0,0 +1,65 @@
+package dev.webfx.extras.visual.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary-encoded string column: each distinct string is stored once, and each row only holds its code.
+ *
+ * @author Bruno Salmon
+ */
+public final class StringColumnVector extends VisualColumnVector {
+
+    private final int[] codes;
+    private final List<String> dictionary = new ArrayList<>();
+    private Map<String, Integer> dictionaryCodes = new HashMap<>(); // only used while building (null once sealed)
+
+    public StringColumnVector(int rowCount) {
+        super(rowCount, true);
+        codes = new int[rowCount];
+    }
+
+    public int getCode(int rowIndex) {
+        return codes[rowIndex];
+    }
+
+    public int getDictionarySize() {
+        return dictionary.size();
+    }
+
+    public String getDictionaryValue(int code) {
+        return dictionary.get(code);
+    }
+
+    @Override
+    public Object getValue(int rowIndex) {
+        return isNull(rowIndex) ? null : dictionary.get(codes[rowIndex]);
+    }
+
+    @Override
+    public boolean setValue(int rowIndex, Object value) {
+        if (value == null)
+            setNull(rowIndex, true);
+        else if (value instanceof String) {
+            if (dictionaryCodes == null)
+                throw new IllegalStateException("The string column vector is sealed, no more values can be set");
+            Integer code = dictionaryCodes.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add((String) value);
+                dictionaryCodes.put((String) value, code);
+            }
+            codes[rowIndex] = code;
+            setNull(rowIndex, false);
+        } else
+            return false;
+        return true;
+    }
+
+    @Override
+    public void seal() {
+        dictionaryCodes = null;
+    }
+}
@@ -0,0 +1,23 @@
+package dev.webfx.extras.visual.impl;
+
+import dev.webfx.extras.visual.ColumnWidthEstimator;
+import javafx.scene.Node;
+import javafx.scene.text.Text;
+
+/**
+ * Estimates the width of the text nodes by summing the widths of their glyphs (read from a cached per-font table), which
+ * is much cheaper than a layout pass. The other nodes are measured with prefWidth(-1).
+ *
+ * @author Bruno Salmon
+ */
+public final class TextLengthColumnWidthEstimator implements ColumnWidthEstimator {
+
+    @Override
+    public double measureCellContent(Node cellContent) {
+        if (cellContent instanceof Text) {
+            Text text = (Text) cellContent;
+            return GlyphWidthTable.get(text.getFont()).computeTextWidth(text.getText());
+        }
+        return cellContent.prefWidth(-1);
+    }
+}
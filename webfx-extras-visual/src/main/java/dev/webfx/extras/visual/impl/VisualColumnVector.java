@@ -0,0 +1,86 @@
+package dev.webfx.extras.visual.impl;
+
+import dev.webfx.extras.type.PrimType;
+import dev.webfx.extras.type.Type;
+import dev.webfx.extras.type.Types;
+
+/**
+ * A column of a columnar visual result. The subclasses store the values in primitive arrays when the column type allows
+ * it, so numbers and booleans don't cost one object per cell. A bitmap (1 bit per row) keeps track of the null values.
+ *
+ * @author Bruno Salmon
+ */
+public abstract class VisualColumnVector {
+
+    protected final int rowCount;
+    // Bitmap of the non-null rows (a row is null until a non-null value is set)
+    private final int[] nonNullBits;
+
+    protected VisualColumnVector(int rowCount, boolean hasNullBitmap) {
+        this.rowCount = rowCount;
+        nonNullBits = hasNullBitmap ? new int[(rowCount + 31) >>> 5] : null;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public boolean isNull(int rowIndex) {
+        return (nonNullBits[rowIndex >>> 5] & (1 << rowIndex)) == 0;
+    }
+
+    protected void setNull(int rowIndex, boolean isNull) {
+        if (isNull)
+            nonNullBits[rowIndex >>> 5] &= ~(1 << rowIndex);
+        else
+            nonNullBits[rowIndex >>> 5] |= 1 << rowIndex;
+    }
+
+    /**
+     * @return the value of the row (boxed on demand for primitive vectors)
+     */
+    public abstract Object getValue(int rowIndex);
+
+    /**
+     * @return false if this vector can't store that value (because it doesn't match its type)
+     */
+    public abstract boolean setValue(int rowIndex, Object value);
+
+    // Primitive setters (the primitive vectors override the one matching their type to avoid boxing)
+
+    public boolean setIntValue(int rowIndex, int value) {
+        return setValue(rowIndex, value);
+    }
+
+    public boolean setLongValue(int rowIndex, long value) {
+        return setValue(rowIndex, value);
+    }
+
+    public boolean setDoubleValue(int rowIndex, double value) {
+        return setValue(rowIndex, value);
+    }
+
+    public boolean setBooleanValue(int rowIndex, boolean value) {
+        return setValue(rowIndex, value);
+    }
+
+    /**
+     * Called once all values are set, to release the structures only needed while building the vector.
+     */
+    public void seal() {
+    }
+
+    public static VisualColumnVector create(Type type, int rowCount) {
+        PrimType primType = Types.getPrimType(type);
+        if (primType != null) {
+            switch (primType) {
+                case BOOLEAN: return new BooleanColumnVector(rowCount);
+                case INTEGER: return new IntColumnVector(rowCount);
+                case LONG:    return new LongColumnVector(rowCount);
+                case DOUBLE:  return new DoubleColumnVector(rowCount);
+                case STRING:  return new StringColumnVector(rowCount);
+            }
+        }
+        return new ObjectColumnVector(rowCount);
+    }
+}
@@ -0,0 +1,80 @@
+package dev.webfx.extras.visual;
+
+import dev.webfx.extras.type.PrimType;
+import dev.webfx.extras.visual.impl.ColumnarVisualResultImpl;
+import dev.webfx.extras.visual.impl.DoubleColumnVector;
+
+/**
+ * Memory and throughput comparison between the boxed visual result (VisualResultImpl) and the columnar one. This is not
+ * a unit test, run its main() method manually (ideally with a fixed heap, ex: -Xms1g -Xmx1g).
+ *
+ * @author Bruno Salmon
+ */
+public final class ColumnarVisualResultBenchmark {
+
+    private static final int ROW_COUNT = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    private static final VisualColumn[] COLUMNS = {
+            VisualColumn.create("id", PrimType.INTEGER),
+            VisualColumn.create("amount", PrimType.LONG),
+            VisualColumn.create("price", PrimType.DOUBLE),
+            VisualColumn.create("paid", PrimType.BOOLEAN),
+            VisualColumn.create("status", PrimType.STRING)
+    };
+    private static final String[] STATUSES = { "new", "confirmed", "cancelled" };
+
+    public static void main(String[] args) {
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.println("Round " + round);
+            run("boxed   ", false);
+            run("columnar", true);
+        }
+    }
+
+    private static void run(String name, boolean columnar) {
+        long memoryBefore = usedMemory();
+        long t0 = System.nanoTime();
+        VisualResult rs = build(columnar);
+        long t1 = System.nanoTime();
+        long memoryAfter = usedMemory();
+        double sum = columnar ? sumPrices((ColumnarVisualResultImpl) rs) : sumPrices(rs);
+        long t2 = System.nanoTime();
+        System.out.println("  " + name + ": build " + (t1 - t0) / 1_000_000 + " ms, scan " + (t2 - t1) / 1_000_000 + " ms, ~"
+                + (memoryAfter - memoryBefore) / ROW_COUNT + " bytes/row (sum = " + sum + ", rows = " + rs.getRowCount() + ")");
+    }
+
+    private static VisualResult build(boolean columnar) {
+        VisualResultBuilder builder = columnar ? VisualResultBuilder.createColumnar(ROW_COUNT, COLUMNS) : VisualResultBuilder.create(ROW_COUNT, COLUMNS);
+        for (int rowIndex = 0; rowIndex < ROW_COUNT; rowIndex++) {
+            builder.setIntValue(rowIndex, 0, rowIndex);
+            builder.setLongValue(rowIndex, 1, rowIndex * 100L);
+            builder.setDoubleValue(rowIndex, 2, rowIndex * 0.01);
+            builder.setBooleanValue(rowIndex, 3, (rowIndex & 1) == 0);
+            builder.setValue(rowIndex, 4, STATUSES[rowIndex % STATUSES.length]);
+        }
+        return builder.build();
+    }
+
+    private static double sumPrices(VisualResult rs) {
+        double sum = 0;
+        for (int rowIndex = 0; rowIndex < rs.getRowCount(); rowIndex++)
+            sum += (Double) rs.getValue(rowIndex, 2);
+        return sum;
+    }
+
+    private static double sumPrices(ColumnarVisualResultImpl rs) {
+        DoubleColumnVector prices = (DoubleColumnVector) rs.getColumnVector(2);
+        double sum = 0;
+        for (int rowIndex = 0; rowIndex < rs.getRowCount(); rowIndex++)
+            sum += prices.getDouble(rowIndex);
+        return sum;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
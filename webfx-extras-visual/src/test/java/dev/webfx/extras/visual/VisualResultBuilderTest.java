@@ -0,0 +1,112 @@
+package dev.webfx.extras.visual;
+
+import dev.webfx.extras.type.PrimType;
+import dev.webfx.extras.visual.impl.ColumnarVisualResultImpl;
+import dev.webfx.extras.visual.impl.DoubleColumnVector;
+import dev.webfx.extras.visual.impl.IntColumnVector;
+import dev.webfx.extras.visual.impl.LongColumnVector;
+import dev.webfx.extras.visual.impl.ObjectColumnVector;
+import dev.webfx.extras.visual.impl.StringColumnVector;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class VisualResultBuilderTest {
+
+    private static VisualColumn[] columns() {
+        return new VisualColumn[] {
+                VisualColumn.create("id", PrimType.INTEGER),
+                VisualColumn.create("amount", PrimType.LONG),
+                VisualColumn.create("price", PrimType.DOUBLE),
+                VisualColumn.create("name", PrimType.STRING)
+        };
+    }
+
+    private static void fill(VisualResultBuilder builder, int rowCount) {
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            builder.setValue(rowIndex, 0, rowIndex);
+            builder.setValue(rowIndex, 1, rowIndex * 1000); // Integer set in a LONG column
+            builder.setValue(rowIndex, 2, rowIndex % 2 == 0 ? rowIndex : rowIndex + 0.5); // Integer or Double
+            builder.setValue(rowIndex, 3, rowIndex % 3 == 0 ? null : "name" + rowIndex % 3);
+        }
+    }
+
+    @Test
+    void columnarResultReadsLikeTheBoxedOne() {
+        int rowCount = 10;
+        VisualResultBuilder boxedBuilder = VisualResultBuilder.create(rowCount, columns());
+        VisualResultBuilder columnarBuilder = VisualResultBuilder.createColumnar(rowCount, columns());
+        fill(boxedBuilder, rowCount);
+        fill(columnarBuilder, rowCount);
+        VisualResult boxed = boxedBuilder.build();
+        VisualResult columnar = columnarBuilder.build();
+        assertInstanceOf(ColumnarVisualResultImpl.class, columnar);
+        assertEquals(boxed.getRowCount(), columnar.getRowCount());
+        assertEquals(boxed.getColumnCount(), columnar.getColumnCount());
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            assertEquals(boxed.getValue(rowIndex, 0), columnar.getValue(rowIndex, 0));
+            assertEquals(((Number) boxed.getValue(rowIndex, 1)).longValue(), columnar.getValue(rowIndex, 1));
+            assertEquals(((Number) boxed.getValue(rowIndex, 2)).doubleValue(), columnar.getValue(rowIndex, 2));
+            assertEquals(boxed.getValue(rowIndex, 3), columnar.getValue(rowIndex, 3));
+        }
+    }
+
+    @Test
+    void numbersAreWidenedInsteadOfPromotingTheColumn() {
+        VisualResultBuilder builder = VisualResultBuilder.createColumnar(10, columns());
+        fill(builder, 10);
+        ColumnarVisualResultImpl rs = (ColumnarVisualResultImpl) builder.build();
+        assertInstanceOf(IntColumnVector.class, rs.getColumnVector(0));
+        assertInstanceOf(LongColumnVector.class, rs.getColumnVector(1));
+        assertInstanceOf(DoubleColumnVector.class, rs.getColumnVector(2));
+        StringColumnVector names = (StringColumnVector) rs.getColumnVector(3);
+        assertEquals(2, names.getDictionarySize());
+    }
+
+    @Test
+    void primitiveSettersFillTheVectors() {
+        VisualResultBuilder builder = VisualResultBuilder.createColumnar(2, columns());
+        builder.setIntValue(0, 0, 1).setLongValue(0, 1, 2L).setDoubleValue(0, 2, 3.5);
+        builder.setIntValue(1, 1, 4).setIntValue(1, 2, 5); // widened ints
+        ColumnarVisualResultImpl rs = (ColumnarVisualResultImpl) builder.build();
+        assertEquals(1, ((IntColumnVector) rs.getColumnVector(0)).getInt(0));
+        assertEquals(2L, ((LongColumnVector) rs.getColumnVector(1)).getLong(0));
+        assertEquals(4L, ((LongColumnVector) rs.getColumnVector(1)).getLong(1));
+        assertEquals(3.5, ((DoubleColumnVector) rs.getColumnVector(2)).getDouble(0));
+        assertEquals(5d, ((DoubleColumnVector) rs.getColumnVector(2)).getDouble(1));
+        assertNull(rs.getValue(1, 0));
+    }
+
+    @Test
+    void mismatchingValueFallsBackToBoxedStorage() {
+        VisualResultBuilder builder = VisualResultBuilder.createColumnar(2, columns());
+        builder.setValue(0, 0, 1);
+        builder.setValue(1, 0, "not a number");
+        ColumnarVisualResultImpl rs = (ColumnarVisualResultImpl) builder.build();
+        assertInstanceOf(ObjectColumnVector.class, rs.getColumnVector(0));
+        assertEquals(1, rs.getValue(0, 0));
+        assertEquals("not a number", rs.getValue(1, 0));
+    }
+
+    @Test
+    void inlineValuesAreColumnMajor() {
+        VisualResultBuilder builder = VisualResultBuilder.createColumnar(2, columns());
+        builder.setInlineValue(1, 7); // row 1, column 0
+        builder.setInlineValue(2, 8L); // row 0, column 1
+        VisualResult rs = builder.build();
+        assertEquals(7, rs.getValue(1, 0));
+        assertEquals(8L, rs.getValue(0, 1));
+    }
+
+    @Test
+    void emptyColumnarResult() {
+        VisualResultBuilder builder = VisualResultBuilder.createColumnar(0, columns());
+        assertThrows(IndexOutOfBoundsException.class, () -> builder.setInlineValue(0, "a"));
+        VisualResult rs = builder.build();
+        assertEquals(0, rs.getRowCount());
+        assertEquals(4, rs.getColumnCount());
+    }
+}
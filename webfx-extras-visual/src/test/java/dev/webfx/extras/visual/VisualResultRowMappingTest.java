@@ -0,0 +1,166 @@
+package dev.webfx.extras.visual;
+
+import dev.webfx.extras.type.PrimType;
+import dev.webfx.extras.visual.impl.PatchableVisualResultImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class VisualResultRowMappingTest {
+
+    private static PatchableVisualResultImpl newResult(int rowCount) {
+        PatchableVisualResultImpl rs = new PatchableVisualResultImpl(
+                VisualColumn.create("id", PrimType.INTEGER),
+                VisualColumn.create("name", PrimType.STRING));
+        int version = rs.getVersion();
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++)
+            rs.appendRow(rowIndex, "row" + rowIndex);
+        assertEquals(version + rowCount, rs.getVersion());
+        return rs;
+    }
+
+    private static VisualResultRowMapping mappingSince(PatchableVisualResult rs, int version) {
+        return VisualResultRowMapping.replay(rs.getRowCount(), rs.getChangesSince(version));
+    }
+
+    @Test
+    void replaysInsertsUpdatesAndDeletes() {
+        PatchableVisualResultImpl rs = newResult(5);
+        int version = rs.getVersion();
+        rs.deleteRow(1);           // 0 2 3 4
+        rs.insertRow(0, 10, "a");  // a 0 2 3 4
+        rs.setValue(3, 1, "b");    // a 0 2 3* 4
+        rs.appendRow(11, "c");     // a 0 2 3* 4 c
+        VisualResultRowMapping mapping = mappingSince(rs, version);
+        assertEquals(5, mapping.getOldRowCount());
+        assertEquals(6, mapping.getRowCount());
+        assertArrayEquals(new int[] {-1, 0, 2, 3, 4, -1}, oldRowIndexes(mapping));
+        assertTrue(mapping.isRowChanged(0));
+        assertTrue(mapping.isRowChanged(3));
+        assertTrue(mapping.isRowChanged(5));
+        assertFalse(mapping.isRowChanged(1));
+        assertFalse(mapping.isRowUnchanged(1)); // same content but moved
+        assertEquals(-1, mapping.getNewRowIndex(1));
+        assertEquals(3, mapping.getNewRowIndex(3));
+    }
+
+    @Test
+    void rejectsChangesInconsistentWithTheRowCount() {
+        assertNull(VisualResultRowMapping.replay(0, Arrays.asList(new VisualResultChange(1, VisualResultChange.Type.INSERT, 0), new VisualResultChange(2, VisualResultChange.Type.INSERT, 0))));
+        assertNull(VisualResultRowMapping.replay(1, Arrays.asList(new VisualResultChange(1, VisualResultChange.Type.UPDATE, 1))));
+        assertNull(VisualResultRowMapping.replay(1, Arrays.asList(new VisualResultChange(1, VisualResultChange.Type.INSERT, 2))));
+    }
+
+    @Test
+    void remapsSelectedRowsCellsAndColumns() {
+        PatchableVisualResultImpl rs = newResult(5);
+        int version = rs.getVersion();
+        rs.deleteRow(1);
+        rs.insertRow(0, 10, "a"); // old rows 0 2 3 4 -> 1 2 3 4
+        VisualResultRowMapping mapping = mappingSince(rs, version);
+        VisualSelection selection = VisualSelection.createBuilder()
+                .addSelectedRow(0)
+                .addSelectedRow(1) // deleted
+                .addSelectedCell(3, 1)
+                .addSelectedCell(1, 0) // deleted
+                .addSelectedColumn(1)
+                .setHitRow(3)
+                .build();
+        VisualSelection remapped = mapping.remapSelection(selection);
+        assertTrue(remapped.isRowSelected(1));
+        assertFalse(remapped.isRowSelected(2)); // old row 2 was not selected (the selected old row 1 was deleted)
+        assertEquals(3, remapped.getHitRow());
+        List<String> units = new ArrayList<>();
+        for (VisualSelection.Unit unit : remapped.getUnits())
+            units.add(unit.getRow() + ":" + unit.getColumn());
+        assertTrue(units.contains("1:null"));
+        assertTrue(units.contains("3:1"));
+        assertTrue(units.contains("null:1"));
+        assertEquals(3, units.size());
+    }
+
+    @Test
+    void remapsAFullyDeletedSelectionToNull() {
+        PatchableVisualResultImpl rs = newResult(3);
+        int version = rs.getVersion();
+        rs.deleteRow(2);
+        VisualResultRowMapping mapping = mappingSince(rs, version);
+        assertNull(mapping.remapSelection(VisualSelection.createSingleCellSelection(2, 0)));
+        assertNull(mapping.remapSelection(null));
+    }
+
+    /**
+     * Replay harness: a deterministic stream of random changes is applied to a patchable result, and a row model that
+     * is patched through the mapping (keeping the unchanged rows and reading only the changed ones) must always be
+     * equal to a full rebuild of the result.
+     */
+    @Test
+    void patchedRowsAreEqualToAFullRebuild() {
+        Random random = new Random(20241018);
+        PatchableVisualResultImpl rs = newResult(20);
+        List<Object[]> patchedRows = rebuild(rs);
+        int version = rs.getVersion();
+        int nextId = 100;
+        for (int round = 0; round < 200; round++) {
+            int changeCount = 1 + random.nextInt(6);
+            for (int i = 0; i < changeCount; i++) {
+                int rowCount = rs.getRowCount();
+                switch (rowCount == 0 ? 0 : random.nextInt(4)) {
+                    case 0: rs.insertRow(random.nextInt(rowCount + 1), nextId, "row" + nextId++); break;
+                    case 1: rs.updateRow(random.nextInt(rowCount), nextId, "row" + nextId++); break;
+                    case 2: rs.setValue(random.nextInt(rowCount), 1, "value" + nextId++); break;
+                    case 3: rs.deleteRow(random.nextInt(rowCount)); break;
+                }
+            }
+            VisualResultRowMapping mapping = mappingSince(rs, version);
+            assertNotNull(mapping, "round " + round);
+            patchedRows = patch(patchedRows, rs, mapping);
+            version = rs.getVersion();
+            assertEquals(toStrings(rebuild(rs)), toStrings(patchedRows), "round " + round);
+        }
+    }
+
+    private static int[] oldRowIndexes(VisualResultRowMapping mapping) {
+        int[] oldRowIndexes = new int[mapping.getRowCount()];
+        for (int rowIndex = 0; rowIndex < oldRowIndexes.length; rowIndex++)
+            oldRowIndexes[rowIndex] = mapping.getOldRowIndex(rowIndex);
+        return oldRowIndexes;
+    }
+
+    private static Object[] readRow(VisualResult rs, int rowIndex) {
+        Object[] values = new Object[rs.getColumnCount()];
+        for (int columnIndex = 0; columnIndex < values.length; columnIndex++)
+            values[columnIndex] = rs.getValue(rowIndex, columnIndex);
+        return values;
+    }
+
+    private static List<Object[]> rebuild(VisualResult rs) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int rowIndex = 0; rowIndex < rs.getRowCount(); rowIndex++)
+            rows.add(readRow(rs, rowIndex));
+        return rows;
+    }
+
+    private static List<Object[]> patch(List<Object[]> oldRows, VisualResult rs, VisualResultRowMapping mapping) {
+        assertEquals(oldRows.size(), mapping.getOldRowCount());
+        List<Object[]> rows = new ArrayList<>();
+        for (int rowIndex = 0; rowIndex < mapping.getRowCount(); rowIndex++)
+            rows.add(mapping.isRowChanged(rowIndex) ? readRow(rs, rowIndex) : oldRows.get(mapping.getOldRowIndex(rowIndex)));
+        return rows;
+    }
+
+    private static List<String> toStrings(List<Object[]> rows) {
+        List<String> strings = new ArrayList<>();
+        for (Object[] row : rows)
+            strings.add(Arrays.toString(row));
+        return strings;
+    }
+}
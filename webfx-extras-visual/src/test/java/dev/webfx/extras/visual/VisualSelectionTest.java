@@ -0,0 +1,128 @@
+package dev.webfx.extras.visual;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class VisualSelectionTest {
+
+    private static List<String> units(VisualSelection selection) {
+        List<String> units = new ArrayList<>();
+        for (VisualSelection.Unit unit : selection.getUnits())
+            units.add(unit.getRow() + ":" + unit.getColumn());
+        return units;
+    }
+
+    private static List<Integer> selectedRowsInBitSetOrder(VisualSelection selection) {
+        List<Integer> rows = new ArrayList<>();
+        selection.forEachSelectedRow(rows::add);
+        return rows;
+    }
+
+    @Test
+    void unitsAreKeptInTheOrderTheyWereAdded() {
+        VisualSelection selection = VisualSelection.createBuilder()
+                .addSelectedRow(5)
+                .addSelectedCell(7, 1)
+                .addSelectedRow(2)
+                .addSelectedColumn(3)
+                .addSelectedRow(5) // duplicate
+                .build();
+        assertEquals(List.of("5:null", "7:1", "2:null", "null:3", "5:null"), units(selection));
+        assertEquals(5, selection.getUnitsCount());
+        assertTrue(selection.isMultiple());
+        assertEquals(5, selection.getHitRow()); // the row of the first unit, as before
+        assertEquals(5, selection.getSelectedRow());
+        assertEquals(List.of(5, 7, 2, 5), selection.getSelectedRows());
+        List<Integer> rows = new ArrayList<>();
+        selection.forEachRow(rows::add);
+        assertEquals(List.of(5, 7, 2, 5), rows);
+        // The bit set methods iterate the distinct selected rows in ascending order
+        assertEquals(List.of(2, 5, 7), selectedRowsInBitSetOrder(selection));
+        assertEquals(3, selection.getSelectedRowCount());
+        assertEquals(5, selection.nextSelectedRow(3));
+    }
+
+    @Test
+    void unitsArrayConstructorKeepsTheGivenOrder() {
+        VisualSelection.Unit[] units = {VisualSelection.Unit.createSelectedRow(9), VisualSelection.Unit.createSelectedRow(1)};
+        VisualSelection selection = new VisualSelection(units, null);
+        assertEquals(List.of("9:null", "1:null"), units(selection));
+        assertEquals(9, selection.getHitRow());
+        assertEquals(List.of(9, 1), VisualSelection.createRowsSelection(new int[] {9, 1}).getSelectedRows());
+    }
+
+    @Test
+    void rowsOfSelectedCellsAreSelectedRows() {
+        // As before, a cell selection also selects its row (but not as a whole row unit)
+        VisualSelection selection = VisualSelection.createSingleCellSelection(4, 2);
+        assertTrue(selection.isRowSelected(4));
+        assertEquals(4, selection.getSelectedRow());
+        assertEquals(List.of(4), selection.getSelectedRows());
+        assertEquals(List.of("4:2"), units(selection));
+        assertTrue(selection.isSingle());
+        VisualSelection columnSelection = VisualSelection.createSingleColumnSelection(2);
+        assertFalse(columnSelection.isRowSelected(0));
+        assertEquals(-1, columnSelection.getSelectedRow());
+        assertTrue(columnSelection.getSelectedRows().isEmpty());
+    }
+
+    @Test
+    void computedSelectionsListTheirRowsInAscendingOrder() {
+        VisualSelection range = VisualSelection.createRowRangeSelection(30, 33);
+        assertEquals(List.of("30:null", "31:null", "32:null", "33:null"), units(range));
+        assertEquals(4, range.getUnitsCount());
+        VisualSelection union = VisualSelection.createRowsSelection(new int[] {40, 3}).union(range);
+        assertEquals(List.of(3, 30, 31, 32, 33, 40), union.getSelectedRows());
+        assertEquals(40, union.getHitRow()); // the hit row of the first selection
+        // Adding a row range to a builder switches to the bit set order
+        VisualSelection built = VisualSelection.createBuilder().addSelectedRow(8).addSelectedRowRange(1, 2).addSelectedColumn(0).build();
+        assertEquals(List.of("1:null", "2:null", "8:null", "null:0"), units(built));
+        assertEquals(1, built.getHitRow());
+    }
+
+    @Test
+    void rangesInvertAndIntersectAcrossWords() {
+        VisualSelection range = VisualSelection.createRowRangeSelection(30, 70);
+        assertEquals(41, range.getSelectedRowCount());
+        assertFalse(range.isRowSelected(29));
+        assertTrue(range.isRowSelected(70));
+        assertFalse(range.isRowSelected(71));
+        VisualSelection inverted = range.invertRows(100);
+        assertEquals(59, inverted.getSelectedRowCount());
+        assertTrue(inverted.isRowSelected(99));
+        assertFalse(inverted.isRowSelected(100));
+        assertTrue(range.intersect(inverted).isEmpty());
+        assertEquals(List.of(30, 31), range.intersect(VisualSelection.createRowsSelection(new int[] {31, 30, 90})).getSelectedRows());
+    }
+
+    @Test
+    void forEachChangedRowVisitsOnlyTheChangedRows() {
+        List<Integer> unselected = new ArrayList<>(), selected = new ArrayList<>();
+        VisualSelection.forEachChangedRow(VisualSelection.createRowRangeSelection(0, 40), VisualSelection.createRowRangeSelection(35, 45), unselected::add, selected::add);
+        assertEquals(35, unselected.size());
+        assertEquals(0, (int) unselected.get(0));
+        assertEquals(List.of(41, 42, 43, 44, 45), selected);
+    }
+
+    @Test
+    void ctrlAndShiftClicksUpdateTheSelection() {
+        VisualSelection selection = VisualSelection.createSingleRowSelection(5);
+        selection = VisualSelection.updateRowsSelection(selection, SelectionMode.MULTIPLE, 2, true, true, false); // ctrl-click
+        assertEquals(List.of(2, 5), selection.getSelectedRows());
+        assertEquals(5, selection.getHitRow());
+        selection = VisualSelection.updateRowsSelection(selection, SelectionMode.MULTIPLE, 8, true, false, true); // shift-click
+        assertEquals(List.of(5, 6, 7, 8), selection.getSelectedRows());
+        assertEquals(5, selection.getHitRow());
+        selection = VisualSelection.updateRowsSelection(selection, SelectionMode.MULTIPLE, 5, true, true, false); // ctrl-click on a selected row
+        assertEquals(List.of(6, 7, 8), selection.getSelectedRows());
+        assertEquals(6, selection.getHitRow());
+        assertNull(VisualSelection.updateRowsSelection(selection, SelectionMode.DISABLED, 1, true, false, false));
+    }
+}
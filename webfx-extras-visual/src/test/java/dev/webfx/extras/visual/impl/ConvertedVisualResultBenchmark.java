@@ -0,0 +1,77 @@
+package dev.webfx.extras.visual.impl;
+
+import dev.webfx.extras.type.PrimType;
+import dev.webfx.extras.visual.VisualColumn;
+import dev.webfx.extras.visual.VisualResult;
+import dev.webfx.extras.visual.VisualResultBuilder;
+import dev.webfx.platform.util.function.Converter;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Benchmark of the eager conversion versus the lazy converter views of a 100k x 10 visual result, depending on the
+ * fraction of the rows read (ex: the visible rows of a virtualized grid) and on the number of reads of each value (ex:
+ * the redraws). Not run by default, as not named *Test - run it explicitly with -Dtest=ConvertedVisualResultBenchmark.
+ * It reports the cost of each mode, and the crossover point (the smallest fraction of rows read for which the eager
+ * conversion is faster).
+ *
+ * @author Bruno Salmon
+ */
+class ConvertedVisualResultBenchmark {
+
+    private static final int ROWS = 100_000, COLUMNS = 10, ROUNDS = 5;
+    private static final int[] READ_PERCENTS = {1, 2, 5, 10, 20, 30, 50, 75, 100};
+    private static final int[] READS_PER_VALUE = {1, 3, 10};
+    private static final Converter<Object, Object> CONVERTER = value -> value == null ? null : "<" + value + ">";
+
+    private static Object blackhole;
+
+    @Test
+    void crossoverPoint() {
+        VisualResult rs = source();
+        for (int warmup = 0; warmup < 3; warmup++)
+            for (int readsPerValue : READS_PER_VALUE)
+                for (int readPercent : READ_PERCENTS)
+                    for (int mode = 0; mode < 3; mode++)
+                        measure(rs, mode, readPercent, readsPerValue);
+        for (int readsPerValue : READS_PER_VALUE) {
+            System.out.println(readsPerValue + " read(s) per value:");
+            int crossoverPercent = -1;
+            for (int readPercent : READ_PERCENTS) {
+                long eager = measure(rs, 0, readPercent, readsPerValue), lazy = measure(rs, 1, readPercent, readsPerValue), memoized = measure(rs, 2, readPercent, readsPerValue);
+                System.out.println("  " + readPercent + "% of the rows read: eager " + eager / 1000 + " us, lazy " + lazy / 1000 + " us, lazy memoized " + memoized / 1000 + " us");
+                if (crossoverPercent == -1 && eager < Math.min(lazy, memoized))
+                    crossoverPercent = readPercent;
+            }
+            System.out.println("  => eager conversion faster from " + (crossoverPercent == -1 ? "never" : crossoverPercent + "% of the rows read"));
+        }
+    }
+
+    private static VisualResult source() {
+        VisualColumn[] columns = new VisualColumn[COLUMNS];
+        for (int columnIndex = 0; columnIndex < COLUMNS; columnIndex++)
+            columns[columnIndex] = VisualColumn.create("c" + columnIndex, PrimType.INTEGER);
+        VisualResultBuilder builder = VisualResultBuilder.create(ROWS, columns);
+        for (int rowIndex = 0; rowIndex < ROWS; rowIndex++)
+            for (int columnIndex = 0; columnIndex < COLUMNS; columnIndex++)
+                builder.setValue(rowIndex, columnIndex, rowIndex * COLUMNS + columnIndex);
+        return builder.build();
+    }
+
+    // Average time (in ns) of the conversion and of the reads (mode 0 = eager, 1 = lazy, 2 = lazy memoized)
+    private static long measure(VisualResult rs, int mode, int readPercent, int readsPerValue) {
+        int readRows = ROWS * readPercent / 100, firstRow = (ROWS - readRows) / 2;
+        long totalNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            System.gc(); // so the garbage of the previous measure doesn't weigh on this one
+            long t0 = System.nanoTime();
+            VisualResult converted = mode == 0 ? VisualResultBuilder.convertVisualResult(rs, CONVERTER)
+                    : VisualResultBuilder.convertVisualResultLazily(rs, CONVERTER, mode == 2);
+            for (int read = 0; read < readsPerValue; read++)
+                for (int rowIndex = firstRow; rowIndex < firstRow + readRows; rowIndex++)
+                    for (int columnIndex = 0; columnIndex < COLUMNS; columnIndex++)
+                        blackhole = converted.getValue(rowIndex, columnIndex);
+            totalNanos += System.nanoTime() - t0;
+        }
+        return totalNanos / ROUNDS;
+    }
+}
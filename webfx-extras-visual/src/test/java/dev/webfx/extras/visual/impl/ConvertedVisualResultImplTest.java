@@ -0,0 +1,75 @@
+package dev.webfx.extras.visual.impl;
+
+import dev.webfx.extras.type.PrimType;
+import dev.webfx.extras.visual.VisualColumn;
+import dev.webfx.extras.visual.VisualResult;
+import dev.webfx.extras.visual.VisualResultBuilder;
+import dev.webfx.platform.util.function.Converter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class ConvertedVisualResultImplTest {
+
+    private static VisualResult source(int rowCount) {
+        VisualResultBuilder builder = VisualResultBuilder.create(rowCount,
+                VisualColumn.create("id", PrimType.INTEGER),
+                VisualColumn.create("name", PrimType.STRING));
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            builder.setValue(rowIndex, 0, rowIndex);
+            builder.setValue(rowIndex, 1, rowIndex % 2 == 0 ? null : "name" + rowIndex);
+        }
+        return builder.build();
+    }
+
+    private static final class CountingConverter implements Converter<Object, Object> {
+        int count;
+
+        @Override
+        public Object convert(Object value) {
+            count++;
+            return value == null ? null : "<" + value + ">";
+        }
+    }
+
+    @Test
+    void lazyViewReadsLikeTheEagerConversion() {
+        VisualResult rs = source(70);
+        VisualResult eager = VisualResultBuilder.convertVisualResult(rs, new CountingConverter(), false);
+        for (boolean memoize : new boolean[] {false, true}) {
+            VisualResult lazy = VisualResultBuilder.convertVisualResultLazily(rs, new CountingConverter(), memoize);
+            assertEquals(eager.getRowCount(), lazy.getRowCount());
+            assertEquals(eager.getColumnCount(), lazy.getColumnCount());
+            assertSame(rs.getColumns(), lazy.getColumns());
+            for (int rowIndex = 0; rowIndex < rs.getRowCount(); rowIndex++)
+                for (int columnIndex = 0; columnIndex < rs.getColumnCount(); columnIndex++)
+                    assertEquals(eager.getValue(rowIndex, columnIndex), lazy.getValue(rowIndex, columnIndex));
+        }
+    }
+
+    @Test
+    void onlyTheReadValuesAreConverted() {
+        CountingConverter converter = new CountingConverter();
+        VisualResult lazy = VisualResultBuilder.convertVisualResultLazily(source(1000), converter, false);
+        assertEquals(0, converter.count);
+        lazy.getValue(500, 1);
+        lazy.getValue(500, 1);
+        assertEquals(2, converter.count); // not memoized => converted on each read
+    }
+
+    @Test
+    void memoizingViewConvertsEachValueOnce() {
+        CountingConverter converter = new CountingConverter();
+        VisualResult lazy = VisualResultBuilder.convertVisualResult(source(100), converter, true);
+        assertNull(lazy.getValue(40, 1)); // converted null values are memoized too
+        assertNull(lazy.getValue(40, 1));
+        assertEquals("<name41>", lazy.getValue(41, 1));
+        assertEquals("<name41>", lazy.getValue(41, 1));
+        assertEquals("<99>", lazy.getValue(99, 0));
+        assertEquals("<99>", lazy.getValue(99, 0));
+        assertEquals(3, converter.count);
+    }
+}
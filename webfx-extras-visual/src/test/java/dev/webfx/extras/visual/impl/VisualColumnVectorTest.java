@@ -0,0 +1,107 @@
+package dev.webfx.extras.visual.impl;
+
+import dev.webfx.extras.type.PrimType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class VisualColumnVectorTest {
+
+    @Test
+    void createsTheVectorMatchingTheColumnType() {
+        assertInstanceOf(IntColumnVector.class, VisualColumnVector.create(PrimType.INTEGER, 1));
+        assertInstanceOf(LongColumnVector.class, VisualColumnVector.create(PrimType.LONG, 1));
+        assertInstanceOf(DoubleColumnVector.class, VisualColumnVector.create(PrimType.DOUBLE, 1));
+        assertInstanceOf(BooleanColumnVector.class, VisualColumnVector.create(PrimType.BOOLEAN, 1));
+        assertInstanceOf(StringColumnVector.class, VisualColumnVector.create(PrimType.STRING, 1));
+        assertInstanceOf(ObjectColumnVector.class, VisualColumnVector.create(PrimType.DATE, 1));
+        assertInstanceOf(ObjectColumnVector.class, VisualColumnVector.create(null, 1));
+    }
+
+    @Test
+    void rowsAreNullUntilSet() {
+        IntColumnVector vector = new IntColumnVector(40); // more than 32 rows to cover 2 words of the null bitmap
+        for (int rowIndex = 0; rowIndex < 40; rowIndex++)
+            assertTrue(vector.isNull(rowIndex));
+        assertTrue(vector.setIntValue(35, 7));
+        assertFalse(vector.isNull(35));
+        assertTrue(vector.isNull(3)); // same bit in the first word
+        assertEquals(7, vector.getInt(35));
+        assertEquals(7, vector.getValue(35));
+        assertTrue(vector.setValue(35, null));
+        assertTrue(vector.isNull(35));
+        assertNull(vector.getValue(35));
+    }
+
+    @Test
+    void rejectsValuesNotMatchingTheType() {
+        assertFalse(new IntColumnVector(1).setValue(0, 1L));
+        assertFalse(new IntColumnVector(1).setValue(0, "1"));
+        assertFalse(new LongColumnVector(1).setValue(0, 1.5));
+        assertFalse(new DoubleColumnVector(1).setValue(0, "1.5"));
+        assertFalse(new BooleanColumnVector(1).setValue(0, 1));
+        assertFalse(new StringColumnVector(1).setValue(0, 1));
+    }
+
+    @Test
+    void widensSmallerNumbers() {
+        LongColumnVector longs = new LongColumnVector(3);
+        assertTrue(longs.setValue(0, 42));
+        assertTrue(longs.setValue(1, (short) 7));
+        assertTrue(longs.setIntValue(2, -1));
+        assertEquals(42L, longs.getValue(0));
+        assertEquals(7L, longs.getLong(1));
+        assertEquals(-1L, longs.getLong(2));
+
+        DoubleColumnVector doubles = new DoubleColumnVector(4);
+        assertTrue(doubles.setValue(0, 42));
+        assertTrue(doubles.setValue(1, 3L));
+        assertTrue(doubles.setValue(2, 1.5f));
+        assertTrue(doubles.setLongValue(3, 5L));
+        assertEquals(42d, doubles.getValue(0));
+        assertEquals(3d, doubles.getDouble(1));
+        assertEquals(1.5d, doubles.getDouble(2));
+        assertEquals(5d, doubles.getDouble(3));
+
+        IntColumnVector ints = new IntColumnVector(1);
+        assertTrue(ints.setValue(0, (byte) 3));
+        assertEquals(3, ints.getValue(0));
+    }
+
+    @Test
+    void storesEachDistinctStringOnce() {
+        StringColumnVector vector = new StringColumnVector(4);
+        vector.setValue(0, "a");
+        vector.setValue(1, "b");
+        vector.setValue(2, new String("a")); // equal but not identical
+        assertEquals(2, vector.getDictionarySize());
+        assertEquals(vector.getCode(0), vector.getCode(2));
+        assertEquals("a", vector.getValue(2));
+        assertNull(vector.getValue(3));
+    }
+
+    @Test
+    void sealedStringVectorKeepsItsValuesAndRejectsNewOnes() {
+        StringColumnVector vector = new StringColumnVector(2);
+        vector.setValue(0, "a");
+        vector.seal();
+        assertEquals("a", vector.getValue(0));
+        assertThrows(IllegalStateException.class, () -> vector.setValue(1, "b"));
+        assertTrue(vector.setValue(0, null)); // nulls don't need the dictionary
+        assertNull(vector.getValue(0));
+    }
+
+    @Test
+    void objectCopyKeepsTheValuesAndNulls() {
+        BooleanColumnVector vector = new BooleanColumnVector(3);
+        vector.setBooleanValue(0, true);
+        vector.setBooleanValue(2, false);
+        ObjectColumnVector copy = ObjectColumnVector.copyOf(vector);
+        assertEquals(true, copy.getValue(0));
+        assertTrue(copy.isNull(1));
+        assertEquals(false, copy.getValue(2));
+    }
+}
@@ -8,8 +8,10 @@ import dev.webfx.kit.mapper.peers.javafxgraphics.SceneRequester;
 import dev.webfx.kit.mapper.peers.javafxgraphics.openjfx.FxLayoutMeasurable;
 import dev.webfx.kit.mapper.peers.javafxgraphics.openjfx.FxNodePeer;
 import dev.webfx.platform.util.Numbers;
+import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.Cursor;
+import javafx.scene.Node;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.Border;
 import javafx.scene.paint.Color;
@@ -17,9 +19,7 @@ import javafx.scene.paint.Paint;
 import javafx.scene.text.*;
 import javafx.util.Pair;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.*;
 
 /**
  * @author Bruno Salmon
@@ -146,47 +146,90 @@ public class FxHtmlTextTextFlowPeer
 
     /****** Static methods ******/
 
+    // LRU cache of the chopped html (the runs are immutable once chopped, so they can be shared between text flows)
+    private static final Map<ChopKey, List<Pair<String, HtmlStyle>>> CHOPPED_HTML_CACHE = new LinkedHashMap<ChopKey, List<Pair<String, HtmlStyle>>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ChopKey, List<Pair<String, HtmlStyle>>> eldest) {
+            return size() > 256;
+        }
+    };
+
     public static void renderHtmlInTextFlow(String html, Font font, Paint fill, TextFlow textFlow) {
-        List<Pair<String, HtmlStyle>> pairs = chopHtml(html, font, fill);
-        textFlow.getChildren().setAll(
-                pairs.stream()
-                        .map(pair -> createStyledText(pair.getKey(), pair.getValue()))
-                        .collect(Collectors.toList()));
-        if (textFlow.getChildren().size() >= 1)
-            textFlow.setTextAlignment(((Text)textFlow.getChildren().get(0)).getTextAlignment());
+        List<Pair<String, HtmlStyle>> pairs = getOrChopHtml(html, font, fill);
+        ObservableList<Node> children = textFlow.getChildren();
+        int n = pairs.size();
+        if (canReuseStyledTexts(children, n)) { // Reusing the existing text nodes when the runs structure is unchanged
+            for (int i = 0; i < n; i++) {
+                Pair<String, HtmlStyle> pair = pairs.get(i);
+                applyStyledText((Text) children.get(i), pair.getKey(), pair.getValue());
+            }
+        } else {
+            List<Text> texts = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                Pair<String, HtmlStyle> pair = pairs.get(i);
+                texts.add(createStyledText(pair.getKey(), pair.getValue()));
+            }
+            children.setAll(texts);
+        }
+        if (children.size() >= 1)
+            textFlow.setTextAlignment(((Text) children.get(0)).getTextAlignment());
         //textFlow.setBackground(new Background(new BackgroundFill(Color.BLACK, null, null)));
     }
 
-    private static List<Pair<String, HtmlStyle>> chopHtml(String html, Font font, Paint fill) {
-        return chopHtml(html, new HtmlStyle(font, fill));
+    private static boolean canReuseStyledTexts(List<Node> children, int n) {
+        if (children.size() != n)
+            return false;
+        for (int i = 0; i < n; i++)
+            if (!(children.get(i) instanceof NoCssText))
+                return false;
+        return true;
     }
 
-    private static List<Pair<String, HtmlStyle>> chopHtml(String html, HtmlStyle parentStyle) {
-        List<Pair<String, HtmlStyle>> list = new ArrayList<>();
+    private static List<Pair<String, HtmlStyle>> getOrChopHtml(String html, Font font, Paint fill) {
         if (html == null)
-            return list;
-        html = html.replace("\n", ""); // Ignoring \n in text (because html ignores them as well, line breaks depend on tag such as p, br, etc...)
-        html = html.replaceAll("\\s+", " ");
-        html = WebTextUtil.unescapeEntities(html);
-        if (html.isEmpty())
-            return list;
-        int pos = 0;
+            return Collections.emptyList();
+        ChopKey key = new ChopKey(html, font, fill);
+        List<Pair<String, HtmlStyle>> pairs = CHOPPED_HTML_CACHE.get(key);
+        if (pairs == null)
+            CHOPPED_HTML_CACHE.put(key, pairs = Collections.unmodifiableList(chopHtml(html, new HtmlStyle(font, fill))));
+        return pairs;
+    }
+
+    // Single pass chopping of the html into styled text runs. The tags content is processed in place (using a stack of
+    // the open tags), and the text is extracted (with whitespaces normalized and entities unescaped) only for the runs.
+    static List<Pair<String, HtmlStyle>> chopHtml(String html, HtmlStyle rootStyle) {
+        List<Pair<String, HtmlStyle>> list = new ArrayList<>();
+        List<OpenTag> openTags = new ArrayList<>();
+        HtmlStyle parentStyle = rootStyle;
+        int pos = 0, end = html.length(); // end of the current tag content
         while (true) {
-            int openingPos = html.indexOf("<", pos);
-            if (openingPos == -1) {
+            if (pos >= end) { // End of the current tag content
+                if (openTags.isEmpty())
+                    break;
+                OpenTag openTag = openTags.remove(openTags.size() - 1);
+                if (parentStyle.hasLineBreak())
+                    list.add(new Pair<>("\n", parentStyle));
+                parentStyle = openTag.parentStyle;
+                end = openTag.parentEnd;
+                pos = openTag.resumePos; // after the closing tag
+                continue;
+            }
+            int openingPos = html.indexOf('<', pos);
+            if (openingPos == -1 || openingPos >= end) {
                 // Adding the remaining text at the end with the style unchanged
-                if (pos < html.length())
-                    list.add(new Pair<>(html.substring(pos), parentStyle));
-                break;
+                addTextRun(list, html, pos, end, parentStyle);
+                pos = end;
+                continue;
             }
             // Adding the text before the tag with the style unchanged
             if (openingPos > pos)
-                list.add(new Pair<>(html.substring(pos, openingPos), parentStyle));
+                addTextRun(list, html, pos, openingPos, parentStyle);
             // Capturing the html tag
             pos = openingPos + 1;
-            while (Character.isLetterOrDigit(html.charAt(pos)))
+            while (pos < end && Character.isLetterOrDigit(html.charAt(pos)))
                 pos++;
-            String tag = html.substring(openingPos + 1, pos);
+            int tagNameEnd = pos;
+            String tag = html.substring(openingPos + 1, tagNameEnd);
             // Searching the end of tag
             pos = Math.max(pos, html.indexOf('>', pos));
             String closingTag = "</" + tag + ">";
@@ -196,14 +239,14 @@ public class FxHtmlTextTextFlowPeer
                 closingTag = "";
             } else {
                 closingPos = html.indexOf(closingTag, pos);
-                if (closingPos == -1) {
-                    closingPos = pos + 1; // html.length();
+                if (closingPos == -1 || closingPos + closingTag.length() > end) { // closing tag must be in the current tag content
+                    closingPos = pos + 1;
                     closingTag = "";
                 }
             }
             // Deriving the style in dependence of the tag
             HtmlStyle derivedStyle = new HtmlStyle(parentStyle);
-            String tagWithAttributes = html.substring(openingPos, pos);
+            String tagWithAttributes = pos > tagNameEnd ? html.substring(openingPos, pos) : null;
             // Capturing css class
             String cssClass = captureAttribute("class", tagWithAttributes);
             // Marking the derived style in order to render the expected visual effect of the HTML tag
@@ -252,23 +295,104 @@ public class FxHtmlTextTextFlowPeer
             if (color != null)
                 derivedStyle.setFill(color.equalsIgnoreCase("inherit") ? null : Color.web(color));
             derivedStyle.setCssClass(cssClass);
-            // Chopping the html text inside the tags (between the opening and closing tag) with the derived style
-            String insideTagText = html.substring(pos + 1, closingPos);
-            if (!insideTagText.isEmpty())
-                list.addAll(chopHtml(insideTagText, derivedStyle));
-            if (derivedStyle.hasLineBreak())
-                list.add(new Pair<>("\n", derivedStyle));
-            // Moving forward after the closing tag for next iteration
-            pos = closingPos + closingTag.length();
+            // Processing the html text inside the tags (between the opening and closing tag) with the derived style
+            openTags.add(new OpenTag(parentStyle, end, closingPos + closingTag.length()));
+            parentStyle = derivedStyle;
+            end = closingPos;
+            pos = Math.min(pos + 1, end);
         }
         return list;
     }
 
-    private static String captureAttribute(String attribute, String html) {
-        return captureAttribute(attribute, html, '=', null);
+    private static void addTextRun(List<Pair<String, HtmlStyle>> list, String html, int start, int end, HtmlStyle style) {
+        String text = extractText(html, start, end);
+        if (!text.isEmpty())
+            list.add(new Pair<>(text, style));
+    }
+
+    // Returns the text between start and end, ignoring \n (because html ignores them as well, line breaks depend on tag
+    // such as p, br, etc...), collapsing the other whitespaces into a single space, and unescaping the html entities
+    private static String extractText(String html, int start, int end) {
+        int i = start;
+        while (i < end) { // Fast path: searching the first whitespace to normalize
+            char c = html.charAt(i);
+            if (c == ' ' ? i + 1 < end && isHtmlWhitespace(html.charAt(i + 1)) : isHtmlWhitespace(c))
+                break;
+            i++;
+        }
+        String text;
+        if (i == end)
+            text = html.substring(start, end);
+        else {
+            StringBuilder sb = new StringBuilder(end - start).append(html, start, i);
+            while (i < end) {
+                char c = html.charAt(i);
+                if (!isHtmlWhitespace(c)) {
+                    sb.append(c);
+                    i++;
+                } else {
+                    boolean space = false;
+                    for (; i < end && isHtmlWhitespace(c = html.charAt(i)); i++)
+                        space |= c != '\n';
+                    if (space)
+                        sb.append(' ');
+                }
+            }
+            text = sb.toString();
+        }
+        return text.indexOf('&') == -1 ? text : WebTextUtil.unescapeEntities(text);
+    }
+
+    private static boolean isHtmlWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static final class OpenTag {
+        private final HtmlStyle parentStyle;
+        private final int parentEnd;
+        private final int resumePos;
+
+        OpenTag(HtmlStyle parentStyle, int parentEnd, int resumePos) {
+            this.parentStyle = parentStyle;
+            this.parentEnd = parentEnd;
+            this.resumePos = resumePos;
+        }
+    }
+
+    private static final class ChopKey {
+        private final String html;
+        private final Font font;
+        private final Paint fill;
+
+        ChopKey(String html, Font font, Paint fill) {
+            this.html = html;
+            this.font = font;
+            this.fill = fill;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ChopKey)) return false;
+            ChopKey that = (ChopKey) o;
+            return html.equals(that.html) && Objects.equals(font, that.font) && Objects.equals(fill, that.fill);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(html, font, fill);
+        }
+    }
+
+    // Captures an attribute value of an html tag, normalized like the text (see extractText())
+    private static String captureAttribute(String attribute, String tagWithAttributes) {
+        String value = captureAttribute(attribute, tagWithAttributes, '=', null);
+        return value == null ? null : extractText(value, 0, value.length()).trim();
     }
 
     private static String captureAttribute(String attribute, String html, Character equalMark, Character endMark) {
+        if (html == null)
+            return null;
         String token = attribute + equalMark;
         int namePos = -1;
         while (true) {
@@ -295,25 +419,27 @@ public class FxHtmlTextTextFlowPeer
 
     private static Text createStyledText(String content, HtmlStyle style) {
         Text text = new NoCssText();
+        applyStyledText(text, content, style);
+        return text;
+    }
+
+    // Note: all properties are set (with default values when not styled), as the text may be reused for another run
+    private static void applyStyledText(Text text, String content, HtmlStyle style) {
         text.setText(content);
         Font font = style.getFont();
-        if (font != null)
-            text.setFont(font);
+        text.setFont(font != null ? font : Font.getDefault());
         text.setUnderline(style.isUnderlined());
         Paint fill = style.getFill();
-        if (fill != null)
-            text.setFill(fill);
+        text.setFill(fill != null ? fill : Color.BLACK);
         text.setTextAlignment(style.getTextAlignment());
         String href = style.getHref();
-        if (href != null)
-            text.setCursor(Cursor.HAND);
-        String cssClass = style.getCssClass();
-        if (cssClass != null)
-            text.getStyleClass().setAll(cssClass.split(" "));
-        return text;
+        text.setCursor(href != null ? Cursor.HAND : null);
+        List<String> cssClasses = style.getCssClasses();
+        if (!text.getStyleClass().equals(cssClasses))
+            text.getStyleClass().setAll(cssClasses);
     }
 
-    private static class HtmlStyle {
+    static class HtmlStyle {
         private final HtmlStyle parent;
         private Font font;
         private FontWeight fontWeight;
@@ -325,6 +451,7 @@ public class FxHtmlTextTextFlowPeer
         private boolean lineBreak;
         private String href;
         private String cssClass;
+        private List<String> cssClasses;
 
         HtmlStyle(HtmlStyle parent) {
             this(parent, null, null);
@@ -429,6 +556,13 @@ public class FxHtmlTextTextFlowPeer
 
         public void setCssClass(String cssClass) {
             this.cssClass = cssClass;
+            cssClasses = null;
+        }
+
+        List<String> getCssClasses() {
+            if (cssClasses == null)
+                cssClasses = cssClass == null ? Collections.emptyList() : Arrays.asList(cssClass.split(" "));
+            return cssClasses;
         }
 
         @Override
@@ -0,0 +1,68 @@
+package dev.webfx.extras.webtext.peers.openjfx;
+
+import dev.webfx.extras.webtext.peers.openjfx.FxHtmlTextTextFlowPeer.HtmlStyle;
+import javafx.scene.paint.Color;
+import javafx.scene.text.FontPosture;
+import javafx.scene.text.FontWeight;
+import javafx.util.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Bruno Salmon
+ */
+class FxHtmlTextTextFlowPeerTest {
+
+    private static List<Pair<String, HtmlStyle>> chop(String html) {
+        return FxHtmlTextTextFlowPeer.chopHtml(html, new HtmlStyle(null, null));
+    }
+
+    private static List<String> texts(List<Pair<String, HtmlStyle>> runs) {
+        List<String> texts = new ArrayList<>();
+        for (Pair<String, HtmlStyle> run : runs)
+            texts.add(run.getKey());
+        return texts;
+    }
+
+    @Test
+    void textIsNormalizedAndUnescaped() {
+        assertEquals(List.of("a b c & d"), texts(chop("a\n b  \t c &amp; d")));
+        assertEquals(List.of("ab"), texts(chop("a\nb"))); // newlines alone are ignored
+    }
+
+    @Test
+    void escapedMarkupIsNotParsed() {
+        List<Pair<String, HtmlStyle>> runs = chop("&lt;b>x&lt;/b>");
+        assertEquals(List.of("<b>x</b>"), texts(runs));
+        assertNull(runs.get(0).getValue().getFontWeight());
+    }
+
+    @Test
+    void nestedTagsDeriveTheStyle() {
+        List<Pair<String, HtmlStyle>> runs = chop("x<b>y<i>z</i></b><br/>w<p>v</p>");
+        assertEquals(List.of("x", "y", "z", "\n", "w", "v", "\n"), texts(runs));
+        assertNull(runs.get(0).getValue().getFontWeight());
+        assertEquals(FontWeight.BOLD, runs.get(1).getValue().getFontWeight());
+        assertNull(runs.get(1).getValue().getFontPosture());
+        assertEquals(FontWeight.BOLD, runs.get(2).getValue().getFontWeight());
+        assertEquals(FontPosture.ITALIC, runs.get(2).getValue().getFontPosture());
+        assertNull(runs.get(4).getValue().getFontWeight());
+    }
+
+    @Test
+    void attributeValuesAreNormalizedAndUnescaped() {
+        List<Pair<String, HtmlStyle>> runs = chop("<a\n href=\" page?a=1&amp;b=2\n \" class=\"c1\n  c2\">link</a>");
+        assertEquals(List.of("link"), texts(runs));
+        HtmlStyle linkStyle = runs.get(0).getValue();
+        assertEquals("page?a=1&b=2", linkStyle.getHref());
+        assertEquals(List.of("html-link", "c1", "c2"), linkStyle.getCssClasses());
+        runs = chop("<span style=\"color:&#35;ff0000;\n   font-weight:  bold\">r</span><font color=\" &#35;00f \">b</font>");
+        assertEquals(Color.RED, runs.get(0).getValue().getFill());
+        assertEquals(FontWeight.BOLD, runs.get(0).getValue().getFontWeight());
+        assertEquals(Color.BLUE, runs.get(1).getValue().getFill());
+    }
+}